@@ -0,0 +1,298 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                B e n c h m a r k F i x t u r e s                               //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr;
+
+import org.audiveris.omr.image.GlobalDescriptor;
+import org.audiveris.omr.image.GlobalFilter;
+import org.audiveris.omr.score.Score;
+import org.audiveris.omr.sheet.Book;
+import org.audiveris.omr.sheet.BookManager;
+import org.audiveris.omr.sheet.Sheet;
+import org.audiveris.omr.sheet.SheetStub;
+import org.audiveris.omr.ui.symbol.MusicFont;
+import org.audiveris.omr.util.OmrExecutors;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import ij.process.ByteProcessor;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Class <code>BenchmarkFixtures</code> provides the input data shared by the micro-benchmarks.
+ * <p>
+ * Two kinds of fixtures are available:
+ * <ul>
+ * <li>A synthetic score-like image, drawn from a fixed random seed, with known interline,
+ * <li>The sample images bundled in <code>data/examples</code> folder, referred to by file name.
+ * </ul>
+ * Benchmarks are expected to run from the project directory, as the Gradle <code>jmh</code> task
+ * does.
+ *
+ * @author Hervé Bitteur
+ */
+public abstract class BenchmarkFixtures
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    /** Name of the synthetic fixture. */
+    public static final String SYNTHETIC = "synthetic";
+
+    /** Interline of the synthetic fixture, in pixels. */
+    public static final int SYNTHETIC_INTERLINE = 20;
+
+    /** Folder of bundled sample inputs. */
+    public static final Path EXAMPLES_FOLDER = Paths.get("data", "examples");
+
+    private static final int SYNTHETIC_WIDTH = 2400;
+
+    private static final int SYNTHETIC_HEIGHT = 1800;
+
+    private static final long SYNTHETIC_SEED = 20231;
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /** Not meant to be instantiated. */
+    private BenchmarkFixtures ()
+    {
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    //-------------//
+    // binaryImage //
+    //-------------//
+    /**
+     * Report the binarized version of a fixture, using the default global threshold.
+     *
+     * @param name {@link #SYNTHETIC} or the file name of a bundled sample image
+     * @return the binary image
+     * @throws IOException if the sample image could not be read
+     */
+    public static ByteProcessor binaryImage (String name)
+        throws IOException
+    {
+        final GlobalFilter filter = new GlobalFilter(
+                grayImage(name),
+                GlobalDescriptor.getDefaultThreshold());
+
+        return filter.filteredImage();
+    }
+
+    //-----------//
+    // grayImage //
+    //-----------//
+    /**
+     * Report the gray version of a fixture.
+     *
+     * @param name {@link #SYNTHETIC} or the file name of a bundled sample image
+     * @return the gray image
+     * @throws IOException if the sample image could not be read
+     */
+    public static ByteProcessor grayImage (String name)
+        throws IOException
+    {
+        if (SYNTHETIC.equals(name)) {
+            return new ByteProcessor(syntheticImage());
+        }
+
+        final Path path = EXAMPLES_FOLDER.resolve(name);
+        final BufferedImage img = ImageIO.read(path.toFile());
+
+        if (img == null) {
+            throw new IOException("No image reader for " + path.toAbsolutePath());
+        }
+
+        if (img.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+            return new ByteProcessor(img);
+        }
+
+        final BufferedImage gray = new BufferedImage(
+                img.getWidth(),
+                img.getHeight(),
+                BufferedImage.TYPE_BYTE_GRAY);
+        final Graphics2D g = gray.createGraphics();
+        g.drawImage(img, 0, 0, null);
+        g.dispose();
+
+        return new ByteProcessor(gray);
+    }
+
+    //----------------//
+    // syntheticImage //
+    //----------------//
+    /**
+     * Draw a score-like gray image: staves of 5 lines, bar lines, stemmed black heads,
+     * a few beams and some background noise.
+     * <p>
+     * The drawing depends only on a fixed seed, so successive runs process the same pixels.
+     *
+     * @return the synthetic gray image
+     */
+    public static BufferedImage syntheticImage ()
+    {
+        final int il = SYNTHETIC_INTERLINE;
+        final Random random = new Random(SYNTHETIC_SEED);
+        final BufferedImage img = new BufferedImage(
+                SYNTHETIC_WIDTH,
+                SYNTHETIC_HEIGHT,
+                BufferedImage.TYPE_BYTE_GRAY);
+        final Graphics2D g = img.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, SYNTHETIC_WIDTH, SYNTHETIC_HEIGHT);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setColor(Color.BLACK);
+
+        final int left = 4 * il;
+        final int right = SYNTHETIC_WIDTH - (4 * il);
+        final int staffHeight = 4 * il;
+        final int staffGap = 8 * il;
+
+        for (int top = 4 * il; (top + staffHeight) < (SYNTHETIC_HEIGHT - (4 * il));
+                top += (staffHeight + staffGap)) {
+            // Staff lines
+            g.setStroke(new BasicStroke(3));
+
+            for (int i = 0; i < 5; i++) {
+                final int y = top + (i * il);
+                g.drawLine(left, y, right, y);
+            }
+
+            // Bar lines
+            g.setStroke(new BasicStroke(4));
+
+            for (int x = left; x <= right; x += (30 * il)) {
+                g.drawLine(x, top, x, top + staffHeight);
+            }
+
+            // Heads with stems, some of them beamed by pairs
+            g.setStroke(new BasicStroke(3));
+
+            for (int x = left + (3 * il); x < (right - (3 * il)); x += (3 * il)) {
+                final int pitch = random.nextInt(13) - 2;
+                final int yc = top + ((pitch * il) / 2);
+                g.fillOval(x - ((6 * il) / 10), yc - (il / 2), (12 * il) / 10, il);
+
+                final int xs = x + ((6 * il) / 10) - 1;
+                final int ys = yc - (7 * il) / 2;
+                g.drawLine(xs, yc, xs, ys);
+
+                if (random.nextInt(4) == 0) {
+                    g.fillRect(xs, ys, 3 * il, il / 2);
+                }
+            }
+        }
+
+        g.dispose();
+
+        // Background noise, to give binarization filters something to chew on
+        final byte[] pixels = ((DataBufferByte) img.getRaster().getDataBuffer()).getData();
+
+        for (int i = 0; i < pixels.length; i++) {
+            final int val = (pixels[i] & 0xFF) - random.nextInt(40);
+            pixels[i] = (byte) Math.max(0, val);
+        }
+
+        return img;
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-------------//
+    // Transcribed //
+    //-------------//
+    /**
+     * Benchmark state made of a bundled sample image, fully transcribed once per trial.
+     * <p>
+     * This provides the populated sheet, system SIGs and score used by the higher-level
+     * benchmarks (SIG queries, sheet marshalling, MusicXML export).
+     */
+    @State(Scope.Benchmark)
+    public static class Transcribed
+    {
+
+        /** File name of the bundled input. */
+        @Param("chula.png")
+        public String input;
+
+        /** The transcribed book. */
+        public Book book;
+
+        /** Its first sheet. */
+        public Sheet sheet;
+
+        /** Its first score. */
+        public Score score;
+
+        //-------//
+        // setUp //
+        //-------//
+        @Setup(Level.Trial)
+        public void setUp ()
+        {
+            OmrExecutors.restart();
+            OMR.engine = BookManager.getInstance();
+            MusicFont.checkMusicFont();
+
+            book = OMR.engine.loadInput(EXAMPLES_FOLDER.resolve(input));
+            book.createStubs();
+
+            final List<SheetStub> stubs = Book.getValidStubs(book.getStubs());
+            final List<Score> scores = new ArrayList<>();
+
+            if (!book.transcribe(stubs, scores, false) || scores.isEmpty()) {
+                throw new IllegalStateException("Could not transcribe " + input);
+            }
+
+            sheet = stubs.get(0).getSheet();
+            score = scores.get(0);
+        }
+
+        //----------//
+        // tearDown //
+        //----------//
+        @TearDown(Level.Trial)
+        public void tearDown ()
+        {
+            book.close(null);
+            OmrExecutors.shutdown();
+        }
+    }
+}
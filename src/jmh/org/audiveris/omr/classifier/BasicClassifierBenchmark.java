@@ -0,0 +1,115 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                         B a s i c C l a s s i f i e r B e n c h m a r k                        //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.classifier;
+
+import org.audiveris.omr.BenchmarkFixtures;
+import org.audiveris.omr.glyph.Glyph;
+import org.audiveris.omr.glyph.GlyphFactory;
+import org.audiveris.omr.run.Orientation;
+import org.audiveris.omr.run.RunTableFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class <code>BasicClassifierBenchmark</code> measures the evaluation by the neural network
+ * classifier of all the glyphs found in the synthetic fixture.
+ * <p>
+ * Since features are kept by {@link FeatureCache}, features extraction is measured apart from
+ * the whole evaluation.
+ *
+ * @author Hervé Bitteur
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BasicClassifierBenchmark
+{
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    private Classifier classifier;
+
+    private List<Glyph> glyphs;
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //----------//
+    // evaluate //
+    //----------//
+    @Benchmark
+    public void evaluate (Blackhole bh)
+    {
+        final int interline = BenchmarkFixtures.SYNTHETIC_INTERLINE;
+        final EnumSet<Classifier.Condition> conditions = EnumSet.noneOf(
+                Classifier.Condition.class);
+
+        for (Glyph glyph : glyphs) {
+            bh.consume(classifier.evaluate(glyph, interline, 1, 0.0, conditions));
+        }
+    }
+
+    //----------//
+    // features //
+    //----------//
+    @Benchmark
+    public void features (Blackhole bh)
+    {
+        final int interline = BenchmarkFixtures.SYNTHETIC_INTERLINE;
+        final GlyphDescriptor descriptor = classifier.getGlyphDescriptor();
+
+        for (Glyph glyph : glyphs) {
+            bh.consume(descriptor.getFeatures(glyph, interline));
+        }
+    }
+
+    //-------//
+    // setUp //
+    //-------//
+    @Setup
+    public void setUp ()
+        throws IOException
+    {
+        classifier = BasicClassifier.getInstance();
+        glyphs = GlyphFactory.buildGlyphs(
+                new RunTableFactory(Orientation.VERTICAL).createTable(
+                        BenchmarkFixtures.binaryImage(BenchmarkFixtures.SYNTHETIC)),
+                new Point(0, 0));
+    }
+}
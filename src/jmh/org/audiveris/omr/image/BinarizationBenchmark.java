@@ -0,0 +1,94 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                            B i n a r i z a t i o n B e n c h m a r k                           //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.image;
+
+import org.audiveris.omr.BenchmarkFixtures;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ij.process.ByteProcessor;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class <code>BinarizationBenchmark</code> measures the binarization of a gray image by
+ * {@link AdaptiveFilter} and {@link GlobalFilter}, with their default parameters.
+ *
+ * @author Hervé Bitteur
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BinarizationBenchmark
+{
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Input fixture. */
+    @Param({BenchmarkFixtures.SYNTHETIC, "chula.png", "allegretto.png"})
+    public String fixture;
+
+    private ByteProcessor gray;
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //----------//
+    // adaptive //
+    //----------//
+    @Benchmark
+    public ByteProcessor adaptive ()
+    {
+        return AdaptiveDescriptor.getDefault().getFilter(gray).filteredImage();
+    }
+
+    //--------//
+    // global //
+    //--------//
+    @Benchmark
+    public ByteProcessor global ()
+    {
+        return GlobalDescriptor.getDefault().getFilter(gray).filteredImage();
+    }
+
+    //-------//
+    // setUp //
+    //-------//
+    @Setup
+    public void setUp ()
+        throws IOException
+    {
+        gray = BenchmarkFixtures.grayImage(fixture);
+    }
+}
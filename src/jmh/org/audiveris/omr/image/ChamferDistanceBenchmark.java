@@ -0,0 +1,94 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                         C h a m f e r D i s t a n c e B e n c h m a r k                        //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.image;
+
+import org.audiveris.omr.BenchmarkFixtures;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ij.process.ByteProcessor;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class <code>ChamferDistanceBenchmark</code> measures the computation of the distance to
+ * nearest foreground pixel, for short-based and integer-based distance tables.
+ *
+ * @author Hervé Bitteur
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChamferDistanceBenchmark
+{
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Input fixture. */
+    @Param({BenchmarkFixtures.SYNTHETIC, "chula.png", "allegretto.png"})
+    public String fixture;
+
+    private ByteProcessor binary;
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //----------------------//
+    // computeToForeInteger //
+    //----------------------//
+    @Benchmark
+    public DistanceTable computeToForeInteger ()
+    {
+        return new ChamferDistance.Integer().computeToFore(binary);
+    }
+
+    //--------------------//
+    // computeToForeShort //
+    //--------------------//
+    @Benchmark
+    public DistanceTable computeToForeShort ()
+    {
+        return new ChamferDistance.Short().computeToFore(binary);
+    }
+
+    //-------//
+    // setUp //
+    //-------//
+    @Setup
+    public void setUp ()
+        throws IOException
+    {
+        binary = BenchmarkFixtures.binaryImage(fixture);
+    }
+}
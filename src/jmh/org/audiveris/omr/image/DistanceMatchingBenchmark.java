@@ -0,0 +1,110 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                        D i s t a n c e M a t c h i n g B e n c h m a r k                       //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.image;
+
+import org.audiveris.omr.BenchmarkFixtures;
+import org.audiveris.omr.glyph.Shape;
+import org.audiveris.omr.ui.symbol.MusicFamily;
+import org.audiveris.omr.ui.symbol.MusicFont;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ij.process.ByteProcessor;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class <code>DistanceMatchingBenchmark</code> measures the exhaustive matching of a head
+ * template against the distance table of the first staves of the synthetic fixture.
+ * <p>
+ * The synthetic fixture is used since its interline, and thus the template point size, are known
+ * without running the SCALE step.
+ *
+ * @author Hervé Bitteur
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DistanceMatchingBenchmark
+{
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Head shape of the template. */
+    @Param({"NOTEHEAD_BLACK", "NOTEHEAD_VOID", "WHOLE_NOTE"})
+    public Shape shape;
+
+    /** Maximum matching distance. */
+    @Param({"0.5"})
+    public double maxDistance;
+
+    private DistanceMatching matching;
+
+    private Template template;
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //----------//
+    // matchAll //
+    //----------//
+    @Benchmark
+    public List<PixelDistance> matchAll ()
+    {
+        return matching.matchAll(template, maxDistance);
+    }
+
+    //-------//
+    // setUp //
+    //-------//
+    @Setup
+    public void setUp ()
+        throws IOException
+    {
+        final int il = BenchmarkFixtures.SYNTHETIC_INTERLINE;
+        final ByteProcessor binary = BenchmarkFixtures.binaryImage(BenchmarkFixtures.SYNTHETIC);
+        binary.setRoi(0, 0, binary.getWidth() / 2, 28 * il);
+
+        final ByteProcessor region = (ByteProcessor) binary.crop();
+        matching = new DistanceMatching(new ChamferDistance.Short().computeToFore(region));
+
+        // Templates are built from music symbols
+        MusicFont.checkMusicFont();
+
+        final int pointSize = MusicFont.getPointSize(il);
+        template = TemplateFactory.getInstance().getCatalog(MusicFamily.Bravura, pointSize)
+                .getTemplate(shape);
+    }
+}
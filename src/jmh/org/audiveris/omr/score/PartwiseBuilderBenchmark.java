@@ -0,0 +1,77 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                         P a r t w i s e B u i l d e r B e n c h m a r k                        //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.score;
+
+import org.audiveris.omr.BenchmarkFixtures.Transcribed;
+import org.audiveris.proxymusic.ScorePartwise;
+import org.audiveris.proxymusic.util.Marshalling;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class <code>PartwiseBuilderBenchmark</code> measures the export of a transcribed score,
+ * first as a ScorePartwise tree, then as a full MusicXML document.
+ *
+ * @author Hervé Bitteur
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PartwiseBuilderBenchmark
+{
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //-------//
+    // build //
+    //-------//
+    @Benchmark
+    public ScorePartwise build (Transcribed transcribed)
+        throws Exception
+    {
+        return PartwiseBuilder.build(transcribed.score);
+    }
+
+    //--------//
+    // export //
+    //--------//
+    @Benchmark
+    public int export (Transcribed transcribed)
+        throws Exception
+    {
+        final ScorePartwise scorePartwise = PartwiseBuilder.build(transcribed.score);
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+        Marshalling.marshal(scorePartwise, os, false, 2);
+
+        return os.size();
+    }
+}
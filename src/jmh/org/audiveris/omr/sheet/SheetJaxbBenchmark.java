@@ -0,0 +1,101 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                               S h e e t J a x b B e n c h m a r k                              //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.sheet;
+
+import org.audiveris.omr.BenchmarkFixtures.Transcribed;
+import org.audiveris.omr.util.Jaxb;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class <code>SheetJaxbBenchmark</code> measures the marshalling of a transcribed sheet
+ * structure to XML, and its unmarshalling back.
+ *
+ * @author Hervé Bitteur
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SheetJaxbBenchmark
+{
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    private Sheet sheet;
+
+    /** Sheet structure, as marshalled once in setUp. */
+    private byte[] xml;
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //---------//
+    // marshal //
+    //---------//
+    @Benchmark
+    public int marshal ()
+        throws Exception
+    {
+        final ByteArrayOutputStream os = new ByteArrayOutputStream(xml.length);
+        Jaxb.marshal(sheet, os, Sheet.getJaxbContext());
+
+        return os.size();
+    }
+
+    //-------//
+    // setUp //
+    //-------//
+    @Setup
+    public void setUp (Transcribed transcribed)
+        throws Exception
+    {
+        sheet = transcribed.sheet;
+
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+        Jaxb.marshal(sheet, os, Sheet.getJaxbContext());
+        xml = os.toByteArray();
+    }
+
+    //-----------//
+    // unmarshal //
+    //-----------//
+    @Benchmark
+    public Sheet unmarshal ()
+        throws Exception
+    {
+        return Sheet.unmarshal(new ByteArrayInputStream(xml));
+    }
+}
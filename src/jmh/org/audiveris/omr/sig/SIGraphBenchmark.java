@@ -0,0 +1,147 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                 S I G r a p h B e n c h m a r k                                //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.sig;
+
+import org.audiveris.omr.BenchmarkFixtures.Transcribed;
+import org.audiveris.omr.glyph.Shape;
+import org.audiveris.omr.sheet.SystemInfo;
+import org.audiveris.omr.sig.inter.Inter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class <code>SIGraphBenchmark</code> measures typical queries on the SIGs of a transcribed
+ * sheet: geometric lookups, shape filtering and relation navigation.
+ *
+ * @author Hervé Bitteur
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SIGraphBenchmark
+{
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Lookup boxes, per system, one interline square after the other. */
+    private final List<List<Rectangle>> boxes = new ArrayList<>();
+
+    private List<SystemInfo> systems;
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //-----------------//
+    // competingInters //
+    //-----------------//
+    @Benchmark
+    public void competingInters (Blackhole bh)
+    {
+        for (SystemInfo system : systems) {
+            final SIGraph sig = system.getSig();
+
+            for (Inter inter : sig.vertexSet()) {
+                bh.consume(sig.getCompetingInters(inter));
+            }
+        }
+    }
+
+    //---------------//
+    // intersByShape //
+    //---------------//
+    @Benchmark
+    public void intersByShape (Blackhole bh)
+    {
+        for (SystemInfo system : systems) {
+            bh.consume(system.getSig().inters(Shape.NOTEHEAD_BLACK));
+        }
+    }
+
+    //-------------------//
+    // intersectedInters //
+    //-------------------//
+    @Benchmark
+    public void intersectedInters (Blackhole bh)
+    {
+        for (int i = 0; i < systems.size(); i++) {
+            final SIGraph sig = systems.get(i).getSig();
+
+            for (Rectangle box : boxes.get(i)) {
+                bh.consume(sig.intersectedInters(box));
+            }
+        }
+    }
+
+    //-------//
+    // setUp //
+    //-------//
+    @Setup
+    public void setUp (Transcribed transcribed)
+    {
+        final int il = transcribed.sheet.getInterline();
+        systems = transcribed.sheet.getSystems();
+
+        for (SystemInfo system : systems) {
+            final Rectangle bounds = system.getBounds();
+            final List<Rectangle> list = new ArrayList<>();
+
+            for (int y = bounds.y; y < (bounds.y + bounds.height); y += il) {
+                for (int x = bounds.x; x < (bounds.x + bounds.width); x += il) {
+                    list.add(new Rectangle(x, y, il, il));
+                }
+            }
+
+            boxes.add(list);
+        }
+    }
+
+    //----------//
+    // supports //
+    //----------//
+    @Benchmark
+    public void supports (Blackhole bh)
+    {
+        for (SystemInfo system : systems) {
+            final SIGraph sig = system.getSig();
+
+            for (Inter inter : sig.vertexSet()) {
+                bh.consume(sig.getSupports(inter));
+            }
+        }
+    }
+}
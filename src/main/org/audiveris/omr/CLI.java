@@ -26,6 +26,7 @@ import org.audiveris.omr.log.LogUtil;
 import org.audiveris.omr.score.Score;
 import org.audiveris.omr.sheet.Book;
 import org.audiveris.omr.sheet.BookManager;
+import org.audiveris.omr.sheet.BookQueue;
 import org.audiveris.omr.sheet.PlayList;
 import org.audiveris.omr.sheet.SheetStub;
 import org.audiveris.omr.sheet.ui.BookActions;
@@ -67,6 +68,7 @@ import java.util.Properties;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
 
 /**
  * Class <code>CLI</code> parses and holds the parameters of the command line interface.
@@ -175,6 +177,47 @@ public class CLI
         return tasks;
     }
 
+    //---------------//
+    // getInputPaths //
+    //---------------//
+    /**
+     * Report the paths of the input arguments present on CLI.
+     *
+     * @return the (perhaps empty) list of input paths
+     */
+    public List<Path> getInputPaths ()
+    {
+        return params.arguments.stream()
+                .map(argument -> argument.toString().trim().replace('\\', '/'))
+                .filter(str -> (!str.isEmpty())).map(Paths::get).collect(Collectors.toList());
+    }
+
+    //------------//
+    // getJfrPath //
+    //------------//
+    /**
+     * Report the path to flight recording file if present on CLI
+     *
+     * @return the recording path, or null
+     */
+    public Path getJfrPath ()
+    {
+        return params.jfrPath;
+    }
+
+    //----------------//
+    // getMetricsPath //
+    //----------------//
+    /**
+     * Report the path to performance metrics file if present on CLI
+     *
+     * @return the metrics path, or null
+     */
+    public Path getMetricsPath ()
+    {
+        return params.metricsPath;
+    }
+
     //------------//
     // getOptions //
     //------------//
@@ -214,6 +257,32 @@ public class CLI
         return params.playListPath;
     }
 
+    //-------------------//
+    // getThroughputPath //
+    //-------------------//
+    /**
+     * Report the path to throughput baseline file if present on CLI
+     *
+     * @return the baseline path, or null
+     */
+    public Path getThroughputPath ()
+    {
+        return params.throughputPath;
+    }
+
+    //-----------------//
+    // getWorkerFolder //
+    //-----------------//
+    /**
+     * Report the queue folder to serve as a worker, if present on CLI
+     *
+     * @return the queue folder, or null
+     */
+    public Path getWorkerFolder ()
+    {
+        return params.workerFolder;
+    }
+
     //-------------//
     // isBatchMode //
     //-------------//
@@ -227,6 +296,19 @@ public class CLI
         return params.batchMode;
     }
 
+    //--------//
+    // isDiff //
+    //--------//
+    /**
+     * Report whether we measure recognition quality of every transcribed sheet.
+     *
+     * @return true for quality measurement
+     */
+    public boolean isDiff ()
+    {
+        return params.diff;
+    }
+
     //------------//
     // isHelpMode //
     //------------//
@@ -266,6 +348,19 @@ public class CLI
         return params.swap;
     }
 
+    //----------//
+    // isWarmUp //
+    //----------//
+    /**
+     * Report whether we warm up costly entities at launch.
+     *
+     * @return true for warm-up
+     */
+    public boolean isWarmUp ()
+    {
+        return params.warmUp;
+    }
+
     //-----------------//
     // parseParameters //
     //-----------------//
@@ -673,6 +768,34 @@ public class CLI
         @Option(name = "-save", usage = "In batch, save book on every successful step")
         boolean save;
 
+        /** Should recognition quality be measured on every transcribed sheet?. */
+        @Option(name = "-diff", usage = "In batch, measure recognition quality of transcribed sheets")
+        boolean diff;
+
+        /** Performance metrics file. */
+        @Option(name = "-metrics", usage = "In batch, write performance metrics (.json or .csv)", metaVar = "<file>")
+        Path metricsPath;
+
+        /** Flight recording file. */
+        @Option(name = "-jfr", usage = "Record OMR pipeline events in a flight recording", metaVar = "<file.jfr>")
+        Path jfrPath;
+
+        /** Throughput baseline file. */
+        @Option(name = "-throughput", usage = "In batch, measure throughput against baseline", metaVar = "<file.properties>")
+        Path throughputPath;
+
+        /** Queue folder for distributed processing, as coordinator. */
+        @Option(name = "-distribute", usage = "In batch, distribute sheets to workers via queue folder", metaVar = "<queue-folder>")
+        Path distributeFolder;
+
+        /** Queue folder for distributed processing, as worker. */
+        @Option(name = "-worker", usage = "In batch, process sheets tasks from queue folder", metaVar = "<queue-folder>")
+        Path workerFolder;
+
+        /** Should costly entities be built in parallel at launch?. */
+        @Option(name = "-warmup", usage = "Build costly JAXB contexts in parallel at launch")
+        boolean warmUp;
+
         /** Should every sheet be swapped after processing?. */
         @Option(name = "-swap", usage = "Swap out every sheet after its processing")
         boolean swap;
@@ -832,7 +955,7 @@ public class CLI
 
                 // Specific sheets to process?
                 final SortedSet<Integer> sheetIds = params.getSheetIds();
-                final List<SheetStub> validStubs = Book.getValidStubs(book.getStubs(sheetIds));
+                List<SheetStub> validStubs = Book.getValidStubs(book.getStubs(sheetIds));
                 List<Score> scores = book.getScores();
 
                 if (OMR.gui != null) {
@@ -852,9 +975,31 @@ public class CLI
                     }
                 }
 
+                // Sheet-independent steps to be processed by worker processes?
+                boolean force = params.force;
+
+                if ((params.distributeFolder != null) && (OMR.gui == null)) {
+                    final OmrStep target = params.transcribe ? OmrStep.last() : params.step;
+
+                    if (target != null) {
+                        // Once distributed, the merged stubs have been forced by the workers
+                        if (BookQueue.distribute(
+                                book,
+                                validStubs,
+                                target,
+                                params.force,
+                                params.distributeFolder)) {
+                            force = false;
+                        }
+
+                        // Stubs processed remotely have been replaced
+                        validStubs = Book.getValidStubs(book.getStubs(sheetIds));
+                    }
+                }
+
                 // Specific step to reach on valid selected sheets in the book?
                 if (params.step != null) {
-                    boolean ok = book.reachBookStep(params.step, params.force, validStubs, swap);
+                    boolean ok = book.reachBookStep(params.step, force, validStubs, swap);
 
                     if (!ok) {
                         return;
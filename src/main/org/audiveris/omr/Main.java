@@ -28,10 +28,14 @@ import org.audiveris.omr.constant.ConstantManager;
 import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.log.LogUtil;
 import org.audiveris.omr.sheet.BookManager;
+import org.audiveris.omr.sheet.BookQueue;
+import org.audiveris.omr.step.OmrEvents;
+import org.audiveris.omr.step.ThroughputHarness;
 import org.audiveris.omr.text.tesseract.TesseractOCR;
 import org.audiveris.omr.ui.MainGui;
 import org.audiveris.omr.ui.symbol.MusicFont;
 import org.audiveris.omr.ui.util.UIUtil;
+import org.audiveris.omr.util.Metrics;
 import org.audiveris.omr.util.OmrExecutors;
 
 import org.jdesktop.application.Application;
@@ -41,6 +45,7 @@ import org.kohsuke.args4j.CmdLineException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
@@ -223,6 +228,16 @@ public class Main
         // Initialize tool parameters
         initialize();
 
+        // Record pipeline events?
+        if (cli.getJfrPath() != null) {
+            OmrEvents.startRecording(cli.getJfrPath());
+        }
+
+        // Build costly entities in the background?
+        if (cli.isWarmUp()) {
+            WarmUp.launch();
+        }
+
         // Engine
         OMR.engine = BookManager.getInstance();
 
@@ -248,13 +263,40 @@ public class Main
             // Check MusicFont is loaded
             MusicFont.checkMusicFont();
 
+            // Record performance metrics?
+            final Path metricsPath = cli.getMetricsPath();
+
+            if (metricsPath != null) {
+                Metrics.setEnabled(true);
+            }
+
             // Run the required tasks, if any (and remember if at least one task failed)
-            boolean failure = runBatchTasks();
+            // Or, on request, measure pipeline throughput against a baseline
+            // Or, on request, serve as a worker for distributed book processing
+            final Path throughputPath = cli.getThroughputPath();
+            final Path workerFolder = cli.getWorkerFolder();
+            final boolean failure;
+
+            if (throughputPath != null) {
+                failure = !ThroughputHarness.run(cli.getInputPaths(), throughputPath);
+            } else if (workerFolder != null) {
+                failure = !BookQueue.serve(workerFolder);
+            } else {
+                failure = runBatchTasks();
+            }
 
             // At this point all tasks have completed (except timeout...)
             // So shutdown gracefully the executors
             boolean timeout = !OmrExecutors.shutdown();
 
+            // Write performance metrics
+            if (metricsPath != null) {
+                Metrics.export(metricsPath);
+            }
+
+            // Write flight recording
+            OmrEvents.stopRecording();
+
             // Save global sample repository if modified
             if (SampleRepository.hasInstance()) {
                 SampleRepository repository = SampleRepository.getGlobalInstance(false);
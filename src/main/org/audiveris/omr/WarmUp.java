@@ -0,0 +1,111 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                           W a r m U p                                          //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr;
+
+import org.audiveris.omr.classifier.ShapeClassifier;
+import org.audiveris.omr.run.RunTable;
+import org.audiveris.omr.score.PartwiseBuilder;
+import org.audiveris.omr.sheet.Book;
+import org.audiveris.omr.sheet.PlayList;
+import org.audiveris.omr.sheet.Sheet;
+import org.audiveris.omr.util.OmrExecutors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Class <code>WarmUp</code> launches, in parallel and in the background, the elaboration of
+ * the costly application entities that are otherwise built on their first use.
+ * <p>
+ * This concerns mainly the JAXB contexts, whose creation requires reflection over hundreds of
+ * annotated classes, and the shape classifier with its neural network.
+ * <p>
+ * Warm-up is triggered by the <code>-warmup</code> CLI option.
+ * It is meant for short batch runs, where startup takes a significant part of the run time.
+ *
+ * @author Hervé Bitteur
+ */
+public abstract class WarmUp
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmUp.class);
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /** Not meant to be instantiated. */
+    private WarmUp ()
+    {
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    //--------//
+    // launch //
+    //--------//
+    /**
+     * Launch all warm-up tasks in the background.
+     * <p>
+     * This method returns immediately.
+     */
+    public static void launch ()
+    {
+        logger.debug("Launching warm-up tasks");
+
+        final ExecutorService executor = OmrExecutors.getCachedLowExecutor();
+
+        // These classes launch their own loading task at class elaboration
+        ShapeClassifier.preload();
+        PartwiseBuilder.preload();
+
+        // JAXB contexts
+        submit(executor, "Book", () -> Book.getJaxbContext());
+        submit(executor, "Sheet", () -> Sheet.getJaxbContext());
+        submit(executor, "RunTable", () -> RunTable.getJaxbContext());
+        submit(executor, "PlayList", () -> PlayList.getJaxbContext());
+    }
+
+    //--------//
+    // submit //
+    //--------//
+    private static void submit (ExecutorService executor,
+                                String name,
+                                Callable<?> task)
+    {
+        executor.submit( () ->
+        {
+            final long start = System.currentTimeMillis();
+
+            try {
+                task.call();
+                logger.debug("{} warmed up in {} ms", name, System.currentTimeMillis() - start);
+            } catch (Exception ex) {
+                logger.warn("Error warming up {} {}", name, ex.toString(), ex);
+            }
+
+            return null;
+        });
+    }
+}
@@ -32,6 +32,7 @@ import org.audiveris.omr.math.PoorManAlgebra.INDArray;
 import org.audiveris.omr.math.PoorManAlgebra.Nd4j;
 import org.audiveris.omr.sheet.Scale;
 import org.audiveris.omr.sheet.SystemInfo;
+import org.audiveris.omr.step.OmrEvents;
 import org.audiveris.omr.util.StopWatch;
 import org.audiveris.omr.util.UriUtil;
 import org.audiveris.omr.util.ZipFileSystem;
@@ -162,6 +163,9 @@ public abstract class AbstractClassifier<M extends Object>
                                    EnumSet<Classifier.Condition> conditions,
                                    int interline)
     {
+        final OmrEvents.ClassificationEvent event = new OmrEvents.ClassificationEvent();
+        event.begin();
+
         List<Evaluation> bests = new ArrayList<>();
         Evaluation[] evals = getSortedEvaluations(glyph, interline);
 
@@ -194,6 +198,14 @@ public abstract class AbstractClassifier<M extends Object>
             bests.add(eval);
         }
 
+        if (event.shouldCommit()) {
+            event.tag((system != null) ? system.getSheet() : null, system);
+            event.classifier = getName();
+            event.glyph = glyph.getId();
+            event.shape = bests.isEmpty() ? null : bests.get(0).shape.name();
+            event.commit();
+        }
+
         return bests.toArray(new Evaluation[bests.size()]);
     }
 
@@ -226,8 +238,14 @@ public abstract class AbstractClassifier<M extends Object>
 
         watch.start("browse samples");
 
+        // Features precomputed in global repository if any, otherwise cached
+        final SampleRepository repository = SampleRepository.hasInstance()
+                ? SampleRepository.getGlobalInstance(false)
+                : null;
+
         for (Sample sample : samples) {
-            double[] ins = descriptor.getFeatures(sample, sample.getInterline());
+            double[] ins = (repository != null) ? repository.getFeatures(sample, descriptor)
+                    : FeatureCache.getFeatures(descriptor, sample, sample.getInterline());
             inputs[ig] = ins;
 
             double[] des = new double[SHAPE_COUNT];
@@ -0,0 +1,655 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                     F e a t u r e C a c h e                                    //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.classifier;
+
+import org.audiveris.omr.WellKnowns;
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+import org.audiveris.omr.run.RunTable;
+import org.audiveris.omr.util.Metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class <code>FeatureCache</code> keeps the feature vectors computed by a glyph descriptor for
+ * training samples, to avoid computing them again and again for the same sample.
+ * <p>
+ * Features depend only on glyph run table and interline, not on glyph location.
+ * Hence the samples used by each training session, as well as identical samples, can share the
+ * same features.
+ * <p>
+ * Glyphs met during sheet recognition are not cached: on the example scores, only about 11% of
+ * their feature lookups were hits, which did not pay for the key computation and the glyphs
+ * kept in memory.
+ * <p>
+ * Entries are looked up via a {@link Key} made of run table persistent hash code and interline,
+ * and then checked against the full run table content.
+ * There is one cache per descriptor name and version, organized in two tiers:
+ * <ol>
+ * <li>A bounded in-memory LRU map,
+ * <li>An append-only file in temp folder, indexed when the cache is first used and shared across
+ * application executions.
+ * </ol>
+ * Any modification in features computation must be reflected in
+ * {@link GlyphDescriptor#getVersion()}, which switches to a new cache file.
+ *
+ * @author Hervé Bitteur
+ */
+public class FeatureCache
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Constants constants = new Constants();
+
+    private static final Logger logger = LoggerFactory.getLogger(FeatureCache.class);
+
+    /** File signature. */
+    private static final int MAGIC = 0x41464541; // "AFEA"
+
+    /** Version of file format. */
+    private static final int FORMAT_VERSION = 1;
+
+    /** Size of file header: magic, format, descriptor version, features length. */
+    private static final int FILE_HEADER_SIZE = 4 * Integer.BYTES;
+
+    /** Size of record header: hash, interline, runs length. */
+    private static final int RECORD_HEADER_SIZE = 3 * Integer.BYTES;
+
+    /** Caches per descriptor name and version. */
+    private static final Map<String, FeatureCache> caches = new ConcurrentHashMap<>();
+
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Underlying descriptor. */
+    private final GlyphDescriptor descriptor;
+
+    /** Number of features per glyph. */
+    private final int length;
+
+    /** Path to cache file. */
+    private final Path path;
+
+    /** Memory tier, in LRU order. */
+    private final Map<Key, List<Entry>> memory = new LinkedHashMap<>(1024, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry (Map.Entry<Key, List<Entry>> eldest)
+        {
+            return size() > constants.maxMemoryEntries.getValue();
+        }
+    };
+
+    /** Disk tier: location of records per key. */
+    private final Map<Key, List<Long>> diskIndex = new HashMap<>();
+
+    /** Number of records in cache file. */
+    private int diskCount;
+
+    /** End of cache file. */
+    private long diskEnd;
+
+    /** Channel to cache file, null if disk tier is not available. */
+    private FileChannel channel;
+
+    /** Lock held on cache file. */
+    private FileLock lock;
+
+    /** Has disk tier been opened? */
+    private boolean diskOpened;
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Creates a <code>FeatureCache</code> object for the provided descriptor.
+     *
+     * @param descriptor the features descriptor
+     */
+    private FeatureCache (GlyphDescriptor descriptor)
+    {
+        this.descriptor = descriptor;
+        length = descriptor.length();
+        path = WellKnowns.TEMP_FOLDER.resolve(
+                "features-" + descriptor.getName() + "-v" + descriptor.getVersion() + ".bin");
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //-----------//
+    // closeDisk //
+    //-----------//
+    private void closeDisk ()
+    {
+        try {
+            if (lock != null) {
+                lock.release();
+            }
+
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException ex) {
+            logger.warn("Error closing {} {}", path, ex.toString(), ex);
+        }
+
+        lock = null;
+        channel = null;
+        diskIndex.clear();
+    }
+
+    //--------------//
+    // getOrCompute //
+    //--------------//
+    /**
+     * Report the features of provided sample, taken from cache if available, otherwise
+     * computed and then cached.
+     *
+     * @param sample    the sample to describe
+     * @param interline the related interline
+     * @return a private copy of sample features
+     */
+    private double[] getOrCompute (Sample sample,
+                                   int interline)
+    {
+        final RunTable runTable = sample.getRunTable();
+        final Key key = new Key(runTable, interline);
+        final Metrics.CacheStats stats = Metrics.isEnabled() ? Metrics.cache("features") : null;
+        double[] features = lookMemory(key, runTable);
+
+        if (features == null) {
+            final byte[] runs = toRle(runTable);
+            features = lookDisk(key, runs);
+
+            if (features == null) {
+                features = descriptor.getFeatures(sample, interline);
+                writeDisk(key, runs, features);
+
+                if (stats != null) {
+                    stats.miss();
+                }
+            } else if (stats != null) {
+                stats.hit();
+            }
+
+            remember(key, runTable, features);
+        } else if (stats != null) {
+            stats.hit();
+        }
+
+        return features.clone();
+    }
+
+    //--------------//
+    // indexRecords //
+    //--------------//
+    /**
+     * Build the index of records found in cache file.
+     * Any truncated record at end of file, due to an interrupted write, is discarded.
+     *
+     * @param size cache file size
+     * @return end of last valid record
+     * @throws IOException on IO error
+     */
+    private long indexRecords (long size)
+        throws IOException
+    {
+        channel.position(FILE_HEADER_SIZE);
+
+        final DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Channels.newInputStream(channel)));
+        long position = FILE_HEADER_SIZE;
+
+        while (position + RECORD_HEADER_SIZE <= size) {
+            final int hash = in.readInt();
+            final int interline = in.readInt();
+            final int runsLength = in.readInt();
+            final int bodySize = runsLength + (length * Double.BYTES);
+
+            if (position + RECORD_HEADER_SIZE + bodySize > size) {
+                break;
+            }
+
+            in.skipNBytes(bodySize);
+            diskIndex.computeIfAbsent(new Key(hash, interline), k -> new ArrayList<>(1)).add(
+                    position);
+            diskCount++;
+            position += RECORD_HEADER_SIZE + bodySize;
+        }
+
+        if (position < size) {
+            logger.info("Discarding truncated end of {}", path);
+            channel.truncate(position);
+        }
+
+        return position;
+    }
+
+    //--------------//
+    // isCompatible //
+    //--------------//
+    private boolean isCompatible (ByteBuffer header)
+    {
+        return (header.getInt() == MAGIC) && (header.getInt() == FORMAT_VERSION)
+                && (header.getInt() == descriptor.getVersion()) && (header.getInt() == length);
+    }
+
+    //----------//
+    // lookDisk //
+    //----------//
+    /**
+     * Look for features in disk tier.
+     *
+     * @param key  glyph key
+     * @param runs glyph runs in RLE form
+     * @return the features found or null
+     */
+    private synchronized double[] lookDisk (Key key,
+                                            byte[] runs)
+    {
+        if (!diskOpened) {
+            openDisk();
+        }
+
+        if (channel == null) {
+            return null;
+        }
+
+        final List<Long> offsets = diskIndex.get(key);
+
+        if (offsets == null) {
+            return null;
+        }
+
+        try {
+            for (long offset : offsets) {
+                final ByteBuffer header = read(offset, RECORD_HEADER_SIZE);
+
+                if (header.getInt(2 * Integer.BYTES) != runs.length) {
+                    continue;
+                }
+
+                final ByteBuffer body = read(
+                        offset + RECORD_HEADER_SIZE,
+                        runs.length + (length * Double.BYTES));
+
+                if (Arrays.equals(body.array(), 0, runs.length, runs, 0, runs.length)) {
+                    final double[] features = new double[length];
+                    body.position(runs.length);
+                    body.asDoubleBuffer().get(features);
+
+                    return features;
+                }
+            }
+        } catch (IOException ex) {
+            logger.warn("Error reading {} {}", path, ex.toString(), ex);
+            closeDisk();
+        }
+
+        return null;
+    }
+
+    //------------//
+    // lookMemory //
+    //------------//
+    private double[] lookMemory (Key key,
+                                 RunTable runTable)
+    {
+        synchronized (memory) {
+            final List<Entry> entries = memory.get(key);
+
+            if (entries != null) {
+                for (Entry entry : entries) {
+                    if (entry.runTable.equals(runTable)) {
+                        return entry.features;
+                    }
+                }
+            }
+        }
+
+        return null;
+    }
+
+    //----------//
+    // openDisk //
+    //----------//
+    /**
+     * Open the cache file, to check its header and index its records.
+     * If the file is already locked by another application instance, the disk tier is not used.
+     */
+    private void openDisk ()
+    {
+        diskOpened = true;
+
+        if (!constants.useDiskTier.isSet()) {
+            return;
+        }
+
+        try {
+            channel = FileChannel.open(
+                    path,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            lock = channel.tryLock();
+
+            if (lock == null) {
+                logger.info("{} in use by another process, memory tier only", path);
+                closeDisk();
+
+                return;
+            }
+
+            final long size = channel.size();
+
+            if ((size >= FILE_HEADER_SIZE) && isCompatible(read(0, FILE_HEADER_SIZE))) {
+                diskEnd = indexRecords(size);
+            } else {
+                final ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+                header.putInt(MAGIC).putInt(FORMAT_VERSION);
+                header.putInt(descriptor.getVersion()).putInt(length);
+                channel.truncate(0);
+                write(header.flip(), 0);
+                diskEnd = FILE_HEADER_SIZE;
+            }
+
+            logger.debug("{} opened with {} records", path, diskCount);
+        } catch (IOException ex) {
+            logger.warn("Could not use {} {}", path, ex.toString(), ex);
+            closeDisk();
+        }
+    }
+
+    //------//
+    // read //
+    //------//
+    private ByteBuffer read (long position,
+                             int size)
+        throws IOException
+    {
+        final ByteBuffer buffer = ByteBuffer.allocate(size);
+
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) == -1) {
+                throw new IOException("Premature end of " + path);
+            }
+        }
+
+        return buffer.flip();
+    }
+
+    //----------//
+    // remember //
+    //----------//
+    private void remember (Key key,
+                           RunTable runTable,
+                           double[] features)
+    {
+        synchronized (memory) {
+            memory.computeIfAbsent(key, k -> new ArrayList<>(1)).add(
+                    new Entry(runTable, features));
+        }
+    }
+
+    //----------//
+    // toString //
+    //----------//
+    @Override
+    public String toString ()
+    {
+        return "FeatureCache{" + descriptor.getName() + " v" + descriptor.getVersion() + "}";
+    }
+
+    //-------//
+    // write //
+    //-------//
+    private void write (ByteBuffer buffer,
+                        long position)
+        throws IOException
+    {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    //-----------//
+    // writeDisk //
+    //-----------//
+    /**
+     * Append a record to disk tier, unless it is full.
+     *
+     * @param key      glyph key
+     * @param runs     glyph runs in RLE form
+     * @param features glyph features
+     */
+    private synchronized void writeDisk (Key key,
+                                         byte[] runs,
+                                         double[] features)
+    {
+        if ((channel == null) || (features.length != length)
+                    || (diskCount >= constants.maxDiskEntries.getValue())) {
+            return;
+        }
+
+        final ByteBuffer buffer = ByteBuffer.allocate(
+                RECORD_HEADER_SIZE + runs.length + (length * Double.BYTES));
+        buffer.putInt(key.hash).putInt(key.interline).putInt(runs.length).put(runs);
+
+        for (double feature : features) {
+            buffer.putDouble(feature);
+        }
+
+        try {
+            write(buffer.flip(), diskEnd);
+            diskIndex.computeIfAbsent(key, k -> new ArrayList<>(1)).add(diskEnd);
+            diskCount++;
+            diskEnd += buffer.limit();
+        } catch (IOException ex) {
+            logger.warn("Error writing {} {}", path, ex.toString(), ex);
+            closeDisk();
+        }
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    //----------//
+    // getCache //
+    //----------//
+    /**
+     * Report the cache dedicated to the provided descriptor (name and version).
+     *
+     * @param descriptor the features descriptor
+     * @return the related cache
+     */
+    public static FeatureCache getCache (GlyphDescriptor descriptor)
+    {
+        return caches.computeIfAbsent(
+                descriptor.getName() + "-v" + descriptor.getVersion(),
+                k -> new FeatureCache(descriptor));
+    }
+
+    //-------------//
+    // getFeatures //
+    //-------------//
+    /**
+     * Report the features of a sample, as provided by the descriptor cache.
+     *
+     * @param descriptor the features descriptor
+     * @param sample     the sample to describe
+     * @param interline  the related interline
+     * @return the sample features, a private copy that the caller can freely modify
+     */
+    public static double[] getFeatures (GlyphDescriptor descriptor,
+                                        Sample sample,
+                                        int interline)
+    {
+        if (!constants.useFeatureCache.isSet()) {
+            return descriptor.getFeatures(sample, interline);
+        }
+
+        return getCache(descriptor).getOrCompute(sample, interline);
+    }
+
+    //-------//
+    // toRle //
+    //-------//
+    private static byte[] toRle (RunTable runTable)
+    {
+        try {
+            final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            runTable.writeRle(new DataOutputStream(baos));
+
+            return baos.toByteArray();
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex); // Cannot occur on a memory stream
+        }
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static class Constants
+            extends ConstantSet
+    {
+
+        private final Constant.Boolean useFeatureCache = new Constant.Boolean(
+                true,
+                "Should we cache sample features?");
+
+        private final Constant.Boolean useDiskTier = new Constant.Boolean(
+                true,
+                "Should features cache be persisted on disk?");
+
+        private final Constant.Integer maxMemoryEntries = new Constant.Integer(
+                "entries",
+                20000,
+                "Maximum number of distinct glyph keys in memory");
+
+        private final Constant.Integer maxDiskEntries = new Constant.Integer(
+                "entries",
+                500000,
+                "Maximum number of glyph records on disk");
+    }
+
+    //-------//
+    // Entry //
+    //-------//
+    private static class Entry
+    {
+
+        final RunTable runTable;
+
+        final double[] features;
+
+        Entry (RunTable runTable,
+               double[] features)
+        {
+            this.runTable = runTable;
+            this.features = features;
+        }
+    }
+
+    //-----//
+    // Key //
+    //-----//
+    /**
+     * Glyph key, based on run table persistent hash code and interline.
+     * <p>
+     * Two glyphs with different keys cannot share features, while two glyphs with the same key
+     * must be further checked for identical run tables.
+     */
+    static class Key
+    {
+
+        private final int hash;
+
+        private final int interline;
+
+        /**
+         * Create the key for a run table and interline.
+         *
+         * @param runTable  the glyph run table
+         * @param interline the related interline
+         */
+        Key (RunTable runTable,
+             int interline)
+        {
+            this(runTable.persistentHashCode(), interline);
+        }
+
+        private Key (int hash,
+                     int interline)
+        {
+            this.hash = hash;
+            this.interline = interline;
+        }
+
+        @Override
+        public boolean equals (Object obj)
+        {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            final Key that = (Key) obj;
+
+            return (hash == that.hash) && (interline == that.interline);
+        }
+
+        @Override
+        public int hashCode ()
+        {
+            return Objects.hash(hash, interline);
+        }
+
+        @Override
+        public String toString ()
+        {
+            return "Key{" + hash + " il:" + interline + "}";
+        }
+    }
+}
@@ -137,6 +137,19 @@ public abstract class GlyphDescriptor
         return name;
     }
 
+    /**
+     * Report the version of features computation.
+     * <p>
+     * It must be increased whenever the features computation is modified, so that any persisted
+     * feature gets detected as obsolete.
+     *
+     * @return the features version
+     */
+    public int getVersion ()
+    {
+        return 1;
+    }
+
     /**
      * Report the number of features provided.
      *
@@ -47,6 +47,7 @@ import org.audiveris.omr.ui.symbol.TextFamily;
 import org.audiveris.omr.ui.symbol.TextFont;
 import org.audiveris.omr.ui.symbol.TextSymbol;
 import org.audiveris.omr.util.FileUtil;
+import org.audiveris.omr.util.OmrExecutors;
 import org.audiveris.omr.util.StopWatch;
 import org.audiveris.omr.util.ZipFileSystem;
 
@@ -58,9 +59,11 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.nio.file.FileVisitResult;
+import java.nio.file.FileSystemException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -69,6 +72,7 @@ import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.EventObject;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -76,6 +80,8 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -126,6 +132,9 @@ public class SampleRepository
     /** File name for images material: {@value}. */
     private static final String IMAGES_FILE_NAME = "images.zip";
 
+    /** File name for binary store of samples: {@value}. */
+    private static final String STORE_FILE_NAME = "samples.bin";
+
     /** Special prefix to refer to font-based samples, according to font family. */
     private static final String SYMBOLS_PREFIX = "# SYMBOLS FROM FONT # ";
 
@@ -170,6 +179,15 @@ public class SampleRepository
     /** File path for images material: {@value}. */
     private final Path imagesFile;
 
+    /** Binary samples store file. */
+    private final Path storeFile;
+
+    /** Opened binary samples store, if any. */
+    private volatile SampleStore store;
+
+    /** Shapes whose concrete samples are still to be decoded from binary store. */
+    private final EnumSet<Shape> storedShapes = EnumSet.noneOf(Shape.class);
+
     /** To handle save on close. */
     private Application.ExitListener exitListener;
 
@@ -201,6 +219,7 @@ public class SampleRepository
         bookRadix = prefix.isEmpty() ? "" : prefix.substring(0, prefix.length() - 1);
         this.samplesFile = samplesFile;
         this.imagesFile = samplesFile.resolveSibling(prefix + IMAGES_FILE_NAME);
+        this.storeFile = samplesFile.resolveSibling(prefix + STORE_FILE_NAME);
 
         // Set application exit listener
         if (OMR.gui != null) {
@@ -496,28 +515,32 @@ public class SampleRepository
 
         boolean[] deleted = new boolean[n];
 
+        // Only samples with the same features key can share the same run table
+        final FeatureCache.Key[] keys = new FeatureCache.Key[n];
+        final Map<FeatureCache.Key, List<Integer>> groups = new HashMap<>();
+
+        for (int i = 0; i < n; i++) {
+            final Sample sample = allSamples.get(i);
+            keys[i] = new FeatureCache.Key(sample.getRunTable(), sample.getInterline());
+            groups.computeIfAbsent(keys[i], k -> new ArrayList<>()).add(i);
+        }
+
         for (int i = 0; i < n; i++) {
             if (deleted[i]) {
                 continue;
             }
 
             final Sample sample = allSamples.get(i);
-            final int weight = sample.getWeight();
             final RunTable runTable = sample.getRunTable();
-            final int interline = sample.getInterline();
 
-            for (int j = i + 1; j < n; j++) {
-                if (deleted[j]) {
+            for (int j : groups.get(keys[i])) {
+                if ((j <= i) || deleted[j]) {
                     continue;
                 }
 
                 Sample s = allSamples.get(j);
 
-                if (s.getWeight() != weight) {
-                    break;
-                }
-
-                if ((s.getInterline() == interline) && s.getRunTable().equals(runTable)) {
+                if (s.getRunTable().equals(runTable)) {
                     if (s.getShape() != sample.getShape()) {
                         logger.warn(
                                 "Conflicting shapes between {}/{} and {}/{}",
@@ -650,11 +673,26 @@ public class SampleRepository
      */
     public synchronized void close ()
     {
+        closeStore();
+
         if (isGlobal()) {
             GLOBAL = null;
         }
     }
 
+    //------------//
+    // closeStore //
+    //------------//
+    private synchronized void closeStore ()
+    {
+        if (store != null) {
+            store.close();
+            store = null;
+        }
+
+        storedShapes.clear();
+    }
+
     //-----------------//
     // diskImageExists //
     //-----------------//
@@ -863,6 +901,8 @@ public class SampleRepository
      */
     public List<Sample> getAllSamples ()
     {
+        loadStoredSamples(EnumSet.allOf(Shape.class));
+
         final List<Sample> allSamples = new ArrayList<>();
 
         for (SampleSheet sheet : nameMap.values()) {
@@ -911,6 +951,33 @@ public class SampleRepository
         return null;
     }
 
+    //-------------//
+    // getFeatures //
+    //-------------//
+    /**
+     * Report the features of the provided sample, preferably as precomputed in the binary
+     * samples store, otherwise via the features cache.
+     *
+     * @param sample     the provided sample
+     * @param descriptor the features descriptor
+     * @return the sample features
+     */
+    public double[] getFeatures (Sample sample,
+                                 GlyphDescriptor descriptor)
+    {
+        final SampleStore theStore = store;
+
+        if (theStore != null) {
+            final double[] features = theStore.getFeatures(sample, descriptor);
+
+            if (features != null) {
+                return features;
+            }
+        }
+
+        return FeatureCache.getFeatures(descriptor, sample, sample.getInterline());
+    }
+
     //-----------------//
     // getExitListener //
     //-----------------//
@@ -962,6 +1029,8 @@ public class SampleRepository
     public List<Sample> getSamples (Collection<Descriptor> descriptors,
                                     Collection<Shape> shapes)
     {
+        loadStoredSamples(shapes);
+
         List<Sample> found = new ArrayList<>();
 
         for (Descriptor descriptor : descriptors) {
@@ -992,6 +1061,8 @@ public class SampleRepository
     public List<Sample> getSamples (String name,
                                     Shape shape)
     {
+        loadStoredSamples(Collections.singleton(shape));
+
         SampleSheet sampleSheet = nameMap.get(name);
 
         if (sampleSheet != null) {
@@ -1006,6 +1077,8 @@ public class SampleRepository
     //----------------//
     /**
      * Report the SampleSheet related to the provided descriptor.
+     * <p>
+     * Samples of this sheet may still be in binary store, not yet decoded.
      *
      * @param descriptor the provided descriptor
      * @return the related sample sheet
@@ -1049,12 +1122,41 @@ public class SampleRepository
         SampleSheet sampleSheet = nameMap.get(descriptor.getName());
 
         if (sampleSheet != null) {
+            final Set<Shape> stored = getStoredShapes(descriptor.getName());
+
+            if (!stored.isEmpty()) {
+                stored.addAll(sampleSheet.getShapes());
+
+                return stored;
+            }
+
             return sampleSheet.getShapes();
         }
 
         return Collections.emptySet();
     }
 
+    //-----------------//
+    // getStoredShapes //
+    //-----------------//
+    /**
+     * Report the shapes of the provided sheet whose samples are still to be decoded from store.
+     *
+     * @param name sheet name
+     * @return the (modifiable) set of shapes, perhaps empty
+     */
+    private synchronized EnumSet<Shape> getStoredShapes (String name)
+    {
+        if ((store == null) || storedShapes.isEmpty()) {
+            return EnumSet.noneOf(Shape.class);
+        }
+
+        final EnumSet<Shape> shapes = store.getShapes(name);
+        shapes.retainAll(storedShapes);
+
+        return shapes;
+    }
+
     //--------------//
     // getSheetName //
     //--------------//
@@ -1099,6 +1201,7 @@ public class SampleRepository
     public void includeRepository (SampleRepository source)
     {
         source.loadAllImages();
+        source.loadStoredSamples(EnumSet.allOf(Shape.class));
 
         for (SampleSheet sampleSheet : source.nameMap.values()) {
             // We process all but font-based samples
@@ -1393,8 +1496,22 @@ public class SampleRepository
                     }
                 }
 
-                watch.start("loadSamples");
-                loadSamples(samplesRoot, loadListener);
+                if (loadStore(loadListener)) {
+                    watch.start("loadStore");
+                } else {
+                    watch.start("loadSamples");
+                    loadSamples(samplesRoot, loadListener);
+
+                    if (constants.useSampleStore.isSet()) {
+                        // Build the binary store in background, for next loadings
+                        final BasicFileAttributes source = Files.readAttributes(
+                                samplesFile,
+                                BasicFileAttributes.class);
+                        final Map<String, List<Sample>> snapshot = snapshotSamples();
+                        OmrExecutors.getCachedLowExecutor().submit(
+                                () -> writeStore(snapshot, source));
+                    }
+                }
 
                 // Build all font-based symbols only *after* samples have been loaded,
                 // this allows to cope with new shapes being defined in Shape class.
@@ -1485,6 +1602,122 @@ public class SampleRepository
         }
     }
 
+    //-----------//
+    // loadStore //
+    //-----------//
+    /**
+     * Open the binary store of repository concrete samples, if any.
+     * <p>
+     * The store is used only if it was built from the current samples archive.
+     * Only the (empty) sample sheets are allocated here, the samples themselves are decoded
+     * on demand, see {@link #loadStoredSamples(Collection)}.
+     *
+     * @param loadListener load listener, or null
+     * @return true if OK, false if store could not be used
+     */
+    private synchronized boolean loadStore (final LoadListener loadListener)
+    {
+        if (!constants.useSampleStore.isSet() || !Files.exists(storeFile)) {
+            return false;
+        }
+
+        try {
+            store = SampleStore.open(storeFile);
+
+            if (!store.isCurrent(samplesFile)) {
+                logger.info("Outdated {}", storeFile);
+                closeStore();
+
+                return false;
+            }
+
+            for (String name : store.getSheetNames()) {
+                final Descriptor desc = sheetContainer.getDescriptor(name);
+
+                if (desc == null) {
+                    logger.warn("Stored samples of {} not declared in container", name);
+                    continue;
+                }
+
+                final SampleSheet sampleSheet = new SampleSheet(desc);
+                nameMap.put(name, sampleSheet);
+
+                if (loadListener != null) {
+                    loadListener.loadedSheet(sampleSheet);
+                }
+            }
+
+            storedShapes.addAll(store.getShapes());
+            logger.info("Opened {}", store);
+
+            return true;
+        } catch (Exception ex) {
+            logger.warn("Could not open {} {}", storeFile, ex.toString(), ex);
+            closeStore();
+            nameMap.clear();
+
+            return false;
+        }
+    }
+
+    //-------------------//
+    // loadStoredSamples //
+    //-------------------//
+    /**
+     * Make sure the concrete samples of the provided shapes have been decoded from the
+     * binary store, if any.
+     * <p>
+     * If all the remaining shapes are desired, sheets are decoded concurrently.
+     * Otherwise, only the samples of the desired shapes are decoded.
+     * Samples are registered in store order.
+     *
+     * @param shapes the desired shapes
+     */
+    private synchronized void loadStoredSamples (Collection<Shape> shapes)
+    {
+        if (storedShapes.isEmpty()) {
+            return;
+        }
+
+        final EnumSet<Shape> wanted = EnumSet.copyOf(storedShapes);
+        wanted.retainAll(shapes);
+
+        if (wanted.isEmpty()) {
+            return;
+        }
+
+        final SampleStore theStore = store;
+
+        try {
+            if (wanted.size() == storedShapes.size()) {
+                final List<String> names = theStore.getSheetNames();
+                final List<Callable<List<Sample>>> tasks = new ArrayList<>(names.size());
+
+                for (String name : names) {
+                    tasks.add( () -> theStore.loadSheet(name, wanted));
+                }
+
+                final List<Future<List<Sample>>> futures = OmrExecutors.getLowExecutor()
+                        .invokeAll(tasks);
+
+                for (int i = 0; i < names.size(); i++) {
+                    registerStoredSamples(names.get(i), futures.get(i).get());
+                }
+            } else {
+                for (Shape shape : wanted) {
+                    for (Entry<String, List<Sample>> entry : theStore.loadSamples(shape)
+                            .entrySet()) {
+                        registerStoredSamples(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+        } catch (Exception ex) {
+            logger.warn("Could not load samples from {} {}", storeFile, ex.toString(), ex);
+        } finally {
+            storedShapes.removeAll(wanted);
+        }
+    }
+
     //------------//
     // loadTribes //
     //------------//
@@ -1602,6 +1835,8 @@ public class SampleRepository
      */
     public void purgeSheets ()
     {
+        loadStoredSamples(EnumSet.allOf(Shape.class));
+
         int count = 0;
 
         for (SampleSheet sampleSheet : nameMap.values()) {
@@ -1619,6 +1854,40 @@ public class SampleRepository
         }
     }
 
+    //-----------------------//
+    // registerStoredSamples //
+    //-----------------------//
+    /**
+     * Register samples just decoded from binary store into their sample sheet.
+     *
+     * @param name    sheet name
+     * @param samples the decoded samples
+     */
+    private void registerStoredSamples (String name,
+                                        List<Sample> samples)
+    {
+        final SampleSheet sampleSheet = nameMap.get(name);
+
+        if (sampleSheet == null) {
+            // Sheet removed in the meantime
+            for (Sample sample : samples) {
+                store.forget(sample);
+            }
+
+            return;
+        }
+
+        final boolean modified = sampleSheet.isModified();
+
+        for (Sample sample : samples) {
+            sample.setSymbol(false);
+            sampleSheet.privateAddSample(sample);
+            sampleMap.put(sample, sampleSheet);
+        }
+
+        sampleSheet.setModified(modified);
+    }
+
     //----------------//
     // removeListener //
     //----------------//
@@ -1655,6 +1924,12 @@ public class SampleRepository
         sampleSheet.privateRemoveSample(sample);
         sampleMap.remove(sample);
 
+        final SampleStore theStore = store;
+
+        if (theStore != null) {
+            theStore.forget(sample);
+        }
+
         logger.info("{} removed {} from {}", this, sample, sampleSheet);
 
         fireStateChanged(new RemovalEvent(sample, this));
@@ -1677,8 +1952,14 @@ public class SampleRepository
             imageMap.remove(sampleSheet.getImage());
         }
 
+        final SampleStore theStore = store;
+
         for (Sample sample : sampleSheet.getAllSamples()) {
             sampleMap.remove(sample);
+
+            if (theStore != null) {
+                theStore.forget(sample);
+            }
         }
 
         sheetContainer.removeDescriptor(descriptor);
@@ -1731,6 +2012,29 @@ public class SampleRepository
         }
     }
 
+    //-----------------//
+    // snapshotSamples //
+    //-----------------//
+    /**
+     * Take a snapshot of the current concrete samples, per sheet.
+     * <p>
+     * The snapshot is independent of later modifications of the repository sheets.
+     *
+     * @return the samples, per sheet name
+     */
+    private Map<String, List<Sample>> snapshotSamples ()
+    {
+        loadStoredSamples(EnumSet.allOf(Shape.class));
+
+        final Map<String, List<Sample>> snapshot = new LinkedHashMap<>();
+
+        for (SampleSheet sampleSheet : nameMap.values()) {
+            snapshot.put(sampleSheet.getDescriptor().getName(), sampleSheet.getAllSamples());
+        }
+
+        return snapshot;
+    }
+
     //-------------------//
     // splitTrainAndTest //
     //-------------------//
@@ -1793,6 +2097,9 @@ public class SampleRepository
      */
     public void storeRepository ()
     {
+        // Partially decoded sheets must be complete before being marshalled
+        loadStoredSamples(EnumSet.allOf(Shape.class));
+
         try {
             final Path samplesRoot = Files.exists(samplesFile) ? ZipFileSystem.open(samplesFile)
                     : ZipFileSystem.create(samplesFile);
@@ -1816,6 +2123,12 @@ public class SampleRepository
 
             setModified(false);
             logger.info("{} stored to {}", this, samplesFile);
+
+            if (constants.useSampleStore.isSet()) {
+                writeStore(
+                        snapshotSamples(),
+                        Files.readAttributes(samplesFile, BasicFileAttributes.class));
+            }
         } catch (IOException ex) {
             logger.warn("Error storing " + this + " to " + samplesFile + " " + ex, ex);
         }
@@ -1832,6 +2145,56 @@ public class SampleRepository
         return name + " repository";
     }
 
+    //------------//
+    // writeStore //
+    //------------//
+    /**
+     * (Re)write the binary store for the provided samples snapshot.
+     * <p>
+     * The store is written aside, then moved to its final location and published in place of
+     * the former store, which is closed only afterwards.
+     *
+     * @param snapshot the samples to store, per sheet name
+     * @param source   attributes of samples archive, as of snapshot time
+     */
+    private synchronized void writeStore (Map<String, List<Sample>> snapshot,
+                                          BasicFileAttributes source)
+    {
+        final Path tmp = storeFile.resolveSibling(storeFile.getFileName() + ".tmp");
+
+        try {
+            final List<Sample> stored = SampleStore.write(
+                    tmp,
+                    source,
+                    snapshot,
+                    new MixGlyphDescriptor());
+            final SampleStore oldStore = store;
+
+            try {
+                Files.move(tmp, storeFile, StandardCopyOption.REPLACE_EXISTING);
+            } catch (FileSystemException ex) {
+                if (oldStore == null) {
+                    throw ex;
+                }
+
+                // Some platforms cannot replace a file still open, release it first
+                store = null;
+                oldStore.close();
+                Files.move(tmp, storeFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+
+            final SampleStore newStore = SampleStore.open(storeFile);
+            newStore.adopt(stored);
+            store = newStore;
+
+            if (oldStore != null) {
+                oldStore.close();
+            }
+        } catch (Exception ex) {
+            logger.warn("Could not write {} {}", storeFile, ex.toString(), ex);
+        }
+    }
+
     //~ Static Methods -----------------------------------------------------------------------------
 
     //-------------------//
@@ -2019,6 +2382,10 @@ public class SampleRepository
         private final Constant.Boolean printSampleCounts = new Constant.Boolean(
                 false,
                 "Should we print out the count of samples per shape?");
+
+        private final Constant.Boolean useSampleStore = new Constant.Boolean(
+                true,
+                "Should we use a binary store to speed up samples loading?");
     }
 
     //~ Inner Interfaces ---------------------------------------------------------------------------
@@ -0,0 +1,938 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                      S a m p l e S t o r e                                     //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.classifier;
+
+import org.audiveris.omr.glyph.Shape;
+import org.audiveris.omr.run.RunTable;
+import org.audiveris.omr.util.OmrExecutors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Class <code>SampleStore</code> is a binary, indexed store of the concrete samples of a
+ * {@link SampleRepository}, which avoids the unmarshalling of the whole samples archive.
+ * <p>
+ * The store file is made of:
+ * <ol>
+ * <li>A header: signature, format version, size and modification time of the samples archive
+ * the store was built from,
+ * <li>For each sample sheet, the feature vectors of its samples (one row of doubles per sample)
+ * followed by a blob of the sample run tables, in their compact RLE form,
+ * <li>The index: features descriptor (name, version, length), table of shape names, table of
+ * sheets (name, count of samples, location of features and runs) and the sample columns
+ * (shape, interline, pitch, left, top, id, runs offset),
+ * <li>The location of the index.
+ * </ol>
+ * Only the index is read when the store is opened, features and runs are read on demand.
+ * Samples can thus be decoded lazily, by sheet or by shape.
+ * <p>
+ * Decoded samples remain known to the store (for their features) until they are forgotten.
+ * <p>
+ * The store is a mere cache of the samples archive, it can be rebuilt from the archive at any
+ * time. It is considered as current only if the archive still exhibits the recorded size and
+ * modification time.
+ *
+ * @author Hervé Bitteur
+ */
+public class SampleStore
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Logger logger = LoggerFactory.getLogger(SampleStore.class);
+
+    /** File signature. */
+    private static final int MAGIC = 0x41534D50; // "ASMP"
+
+    /** Version of file format. */
+    private static final int FORMAT_VERSION = 2;
+
+    /** Size of file header. */
+    private static final int HEADER_SIZE = (2 * Integer.BYTES) + (2 * Long.BYTES);
+
+    /** Size of one double in file. */
+    private static final int DOUBLE_SIZE = Double.BYTES;
+
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Path to store file. */
+    private final Path path;
+
+    /** Channel for on-demand reads. */
+    private final FileChannel channel;
+
+    /** Size of source samples archive. */
+    private final long sourceSize;
+
+    /** Modification time (in milliseconds) of source samples archive. */
+    private final long sourceTime;
+
+    /** Name of features descriptor. */
+    private final String descriptorName;
+
+    /** Version of features descriptor. */
+    private final int descriptorVersion;
+
+    /** Number of features per sample. */
+    private final int featureLength;
+
+    /** Shapes, as stored. A null value for a shape no longer known. */
+    private final Shape[] shapes;
+
+    /** Sheet names. */
+    private final List<String> sheetNames;
+
+    /** Per sheet, index of first sample. One more cell for end of last sheet. */
+    private final int[] sheetStarts;
+
+    /** Per sheet, location of features. */
+    private final long[] featureOffsets;
+
+    /** Per sheet, location of runs blob. */
+    private final long[] blobOffsets;
+
+    /** Per sheet, size of runs blob. */
+    private final int[] blobLengths;
+
+    /** Sample column: index in shapes table. */
+    private final short[] shapeColumn;
+
+    /** Sample column: interline. */
+    private final short[] interlineColumn;
+
+    /** Sample column: pitch, NaN for null. */
+    private final float[] pitchColumn;
+
+    /** Sample column: left abscissa. */
+    private final int[] leftColumn;
+
+    /** Sample column: top ordinate. */
+    private final int[] topColumn;
+
+    /** Sample column: id. */
+    private final int[] idColumn;
+
+    /** Sample column: runs offset within sheet blob. */
+    private final int[] runsColumn;
+
+    /** Samples decoded from this store, with their index in store. */
+    private final Map<Sample, Integer> indices = Collections.synchronizedMap(
+            new IdentityHashMap<>());
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Open a store and read its index.
+     *
+     * @param path path to store file
+     * @throws IOException if store cannot be read
+     */
+    private SampleStore (Path path)
+        throws IOException
+    {
+        this.path = path;
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+
+        try {
+            final long size = channel.size();
+            final ByteBuffer head = read(0, HEADER_SIZE);
+
+            if ((head.getInt() != MAGIC) || (head.getInt() != FORMAT_VERSION)) {
+                throw new IOException("Unsupported format for " + path);
+            }
+
+            sourceSize = head.getLong();
+            sourceTime = head.getLong();
+
+            final long indexOffset = read(size - Long.BYTES, Long.BYTES).getLong();
+            final ByteBuffer index = read(indexOffset, (int) (size - Long.BYTES - indexOffset));
+            final DataInputStream in = new DataInputStream(
+                    new ByteArrayInputStream(index.array()));
+
+            // Descriptor
+            descriptorName = in.readUTF();
+            descriptorVersion = in.readInt();
+            featureLength = in.readInt();
+
+            // Shapes
+            shapes = new Shape[in.readInt()];
+
+            for (int i = 0; i < shapes.length; i++) {
+                final String name = in.readUTF();
+
+                try {
+                    shapes[i] = Shape.valueOf(name);
+                } catch (IllegalArgumentException ex) {
+                    logger.info("Unknown shape {} in {}", name, path);
+                }
+            }
+
+            // Sheets
+            final int sheetCount = in.readInt();
+            sheetNames = new ArrayList<>(sheetCount);
+            sheetStarts = new int[sheetCount + 1];
+            featureOffsets = new long[sheetCount];
+            blobOffsets = new long[sheetCount];
+            blobLengths = new int[sheetCount];
+
+            for (int s = 0; s < sheetCount; s++) {
+                sheetNames.add(in.readUTF());
+                sheetStarts[s + 1] = sheetStarts[s] + in.readInt();
+                featureOffsets[s] = in.readLong();
+                blobOffsets[s] = in.readLong();
+                blobLengths[s] = in.readInt();
+            }
+
+            // Samples
+            final int count = sheetStarts[sheetCount];
+            shapeColumn = new short[count];
+            interlineColumn = new short[count];
+            pitchColumn = new float[count];
+            leftColumn = new int[count];
+            topColumn = new int[count];
+            idColumn = new int[count];
+            runsColumn = new int[count];
+
+            for (int i = 0; i < count; i++) {
+                shapeColumn[i] = in.readShort();
+            }
+
+            for (int i = 0; i < count; i++) {
+                interlineColumn[i] = in.readShort();
+            }
+
+            for (int i = 0; i < count; i++) {
+                pitchColumn[i] = in.readFloat();
+            }
+
+            for (int i = 0; i < count; i++) {
+                leftColumn[i] = in.readInt();
+            }
+
+            for (int i = 0; i < count; i++) {
+                topColumn[i] = in.readInt();
+            }
+
+            for (int i = 0; i < count; i++) {
+                idColumn[i] = in.readInt();
+            }
+
+            for (int i = 0; i < count; i++) {
+                runsColumn[i] = in.readInt();
+            }
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //-------//
+    // adopt //
+    //-------//
+    /**
+     * Make the provided samples known to this store, so that their stored features can be
+     * retrieved.
+     *
+     * @param samples the samples, in store order, as returned by
+     *                {@link #write(Path, BasicFileAttributes, Map, GlyphDescriptor)}
+     */
+    public void adopt (List<Sample> samples)
+    {
+        if (samples.size() != getSampleCount()) {
+            logger.warn("Cannot adopt {} samples in {}", samples.size(), this);
+            return;
+        }
+
+        for (int i = 0; i < samples.size(); i++) {
+            indices.put(samples.get(i), i);
+        }
+    }
+
+    //-------//
+    // close //
+    //-------//
+    /**
+     * Close the store file.
+     */
+    public void close ()
+    {
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            logger.warn("Error closing {} {}", path, ex.toString(), ex);
+        }
+    }
+
+    //--------//
+    // decode //
+    //--------//
+    /**
+     * Decode the sample at provided index, using the provided runs data.
+     *
+     * @param index the sample index in store
+     * @param in    input positioned at sample runs
+     * @return the decoded sample, or null if its shape is no longer known
+     * @throws IOException on IO error
+     */
+    private Sample decode (int index,
+                           DataInputStream in)
+        throws IOException
+    {
+        final RunTable runTable = RunTable.readRle(in);
+        final Shape shape = shapes[shapeColumn[index]];
+
+        if (shape == null) {
+            return null;
+        }
+
+        final float pitch = pitchColumn[index];
+        final Sample sample = new Sample(
+                leftColumn[index],
+                topColumn[index],
+                runTable,
+                interlineColumn[index],
+                idColumn[index],
+                shape,
+                Float.isNaN(pitch) ? null : (double) pitch);
+        indices.put(sample, index);
+
+        return sample;
+    }
+
+    //--------//
+    // forget //
+    //--------//
+    /**
+     * Forget the provided sample, typically when it is removed from repository.
+     *
+     * @param sample the sample to forget
+     */
+    public void forget (Sample sample)
+    {
+        indices.remove(sample);
+    }
+
+    //-------------//
+    // getFeatures //
+    //-------------//
+    /**
+     * Report the stored features of a sample, if compatible with the provided descriptor.
+     *
+     * @param sample     a sample decoded from this store
+     * @param descriptor the desired features descriptor
+     * @return the features, or null if not available
+     */
+    public double[] getFeatures (Sample sample,
+                                 GlyphDescriptor descriptor)
+    {
+        if (!hasFeatures(descriptor)) {
+            return null;
+        }
+
+        final Integer index = indices.get(sample);
+
+        if (index == null) {
+            return null;
+        }
+
+        try {
+            final int sheet = getSheetIndex(index);
+            final long offset = featureOffsets[sheet] + ((long) (index - sheetStarts[sheet])
+                    * featureLength * DOUBLE_SIZE);
+            final ByteBuffer buffer = read(offset, featureLength * DOUBLE_SIZE);
+            final double[] features = new double[featureLength];
+            buffer.asDoubleBuffer().get(features);
+
+            return Double.isNaN(features[0]) ? null : features;
+        } catch (ClosedChannelException ex) {
+            // Store has just been replaced and closed, caller will compute features
+            return null;
+        } catch (IOException ex) {
+            logger.warn("Error reading features from {} {}", path, ex.toString(), ex);
+
+            return null;
+        }
+    }
+
+    //----------------//
+    // getSampleCount //
+    //----------------//
+    /**
+     * Report the total number of samples in store.
+     *
+     * @return the count of samples
+     */
+    public int getSampleCount ()
+    {
+        return sheetStarts[sheetStarts.length - 1];
+    }
+
+    //-----------//
+    // getShapes //
+    //-----------//
+    /**
+     * Report the shapes of the stored samples.
+     *
+     * @return the stored shapes
+     */
+    public EnumSet<Shape> getShapes ()
+    {
+        final EnumSet<Shape> set = EnumSet.noneOf(Shape.class);
+
+        for (int i = 0; i < getSampleCount(); i++) {
+            final Shape shape = shapes[shapeColumn[i]];
+
+            if (shape != null) {
+                set.add(shape);
+            }
+        }
+
+        return set;
+    }
+
+    //-----------//
+    // getShapes //
+    //-----------//
+    /**
+     * Report the shapes of the stored samples of the provided sheet.
+     *
+     * @param name the sheet name
+     * @return the stored shapes of this sheet, perhaps empty
+     */
+    public EnumSet<Shape> getShapes (String name)
+    {
+        final EnumSet<Shape> set = EnumSet.noneOf(Shape.class);
+        final int s = sheetNames.indexOf(name);
+
+        if (s != -1) {
+            for (int i = sheetStarts[s]; i < sheetStarts[s + 1]; i++) {
+                final Shape shape = shapes[shapeColumn[i]];
+
+                if (shape != null) {
+                    set.add(shape);
+                }
+            }
+        }
+
+        return set;
+    }
+
+    //---------------//
+    // getSheetIndex //
+    //---------------//
+    private int getSheetIndex (int index)
+    {
+        int sheet = Arrays.binarySearch(sheetStarts, index);
+
+        if (sheet < 0) {
+            sheet = -sheet - 2;
+        } else {
+            // Skip empty sheets
+            while (sheetStarts[sheet + 1] == index) {
+                sheet++;
+            }
+        }
+
+        return sheet;
+    }
+
+    //---------------//
+    // getSheetNames //
+    //---------------//
+    /**
+     * Report the names of stored sample sheets.
+     *
+     * @return the sheet names, in store order
+     */
+    public List<String> getSheetNames ()
+    {
+        return Collections.unmodifiableList(sheetNames);
+    }
+
+    //-------------//
+    // hasFeatures //
+    //-------------//
+    /**
+     * Tell whether the stored features are compatible with the provided descriptor.
+     *
+     * @param descriptor the provided features descriptor
+     * @return true if compatible
+     */
+    public boolean hasFeatures (GlyphDescriptor descriptor)
+    {
+        return descriptor.getName().equals(descriptorName)
+                && (descriptor.getVersion() == descriptorVersion)
+                && (descriptor.length() == featureLength);
+    }
+
+    //-----------//
+    // isCurrent //
+    //-----------//
+    /**
+     * Tell whether this store still corresponds to the provided samples archive.
+     *
+     * @param source path to samples archive
+     * @return true if archive size and modification time are the recorded ones
+     * @throws IOException if archive attributes cannot be read
+     */
+    public boolean isCurrent (Path source)
+        throws IOException
+    {
+        final BasicFileAttributes attrs = Files.readAttributes(source, BasicFileAttributes.class);
+
+        return (attrs.size() == sourceSize) && (attrs.lastModifiedTime().toMillis() == sourceTime);
+    }
+
+    //-------------//
+    // loadSamples //
+    //-------------//
+    /**
+     * Decode all the stored samples assigned the provided shape, whatever their sheet.
+     *
+     * @param shape the provided shape
+     * @return the samples for this shape, per sheet name in store order
+     * @throws IOException on IO error
+     */
+    public Map<String, List<Sample>> loadSamples (Shape shape)
+        throws IOException
+    {
+        final Map<String, List<Sample>> map = new LinkedHashMap<>();
+
+        for (int s = 0; s < sheetNames.size(); s++) {
+            List<Sample> samples = null;
+
+            for (int i = sheetStarts[s]; i < sheetStarts[s + 1]; i++) {
+                if (shapes[shapeColumn[i]] == shape) {
+                    final int start = runsColumn[i];
+                    final ByteBuffer runs = read(blobOffsets[s] + start, runsEnd(s, i) - start);
+
+                    if (samples == null) {
+                        map.put(sheetNames.get(s), samples = new ArrayList<>());
+                    }
+
+                    samples.add(
+                            decode(i, new DataInputStream(new ByteArrayInputStream(runs.array()))));
+                }
+            }
+        }
+
+        return map;
+    }
+
+    //-----------//
+    // loadSheet //
+    //-----------//
+    /**
+     * Decode the stored samples of the provided sheet, limited to the provided shapes.
+     *
+     * @param name   the sheet name
+     * @param wanted the shapes to decode
+     * @return the list of sheet samples, or null if sheet is not in store
+     * @throws IOException on IO error
+     */
+    public List<Sample> loadSheet (String name,
+                                   Collection<Shape> wanted)
+        throws IOException
+    {
+        final int s = sheetNames.indexOf(name);
+
+        if (s == -1) {
+            return null;
+        }
+
+        final ByteBuffer blob = read(blobOffsets[s], blobLengths[s]);
+        final DataInputStream in = new DataInputStream(new ByteArrayInputStream(blob.array()));
+        final List<Sample> samples = new ArrayList<>(sheetStarts[s + 1] - sheetStarts[s]);
+
+        for (int i = sheetStarts[s]; i < sheetStarts[s + 1]; i++) {
+            final Shape shape = shapes[shapeColumn[i]];
+
+            if ((shape == null) || !wanted.contains(shape)) {
+                in.skipBytes(runsEnd(s, i) - runsColumn[i]);
+            } else {
+                samples.add(decode(i, in));
+            }
+        }
+
+        return samples;
+    }
+
+    //------//
+    // read //
+    //------//
+    /**
+     * Read a portion of store file.
+     *
+     * @param position starting position in file
+     * @param length   number of bytes to read
+     * @return the (array-backed) buffer read, ready to be consumed
+     * @throws IOException if file portion could not be fully read
+     */
+    private ByteBuffer read (long position,
+                             int length)
+        throws IOException
+    {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+
+        while (buffer.hasRemaining()) {
+            // Positional reads do not modify channel position, hence safe for concurrent use
+            if (channel.read(buffer, position + buffer.position()) == -1) {
+                throw new IOException("Premature end of " + path);
+            }
+        }
+
+        return buffer.flip();
+    }
+
+    //---------//
+    // runsEnd //
+    //---------//
+    /**
+     * Report the end of sample runs within sheet blob.
+     *
+     * @param s sheet index
+     * @param i sample index in store
+     * @return the offset just after the sample runs
+     */
+    private int runsEnd (int s,
+                         int i)
+    {
+        return (i + 1 < sheetStarts[s + 1]) ? runsColumn[i + 1] : blobLengths[s];
+    }
+
+    //----------//
+    // toString //
+    //----------//
+    @Override
+    public String toString ()
+    {
+        return "SampleStore{" + path + " sheets:" + sheetNames.size() + " samples:"
+                + getSampleCount() + "}";
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    //--------//
+    // encode //
+    //--------//
+    /**
+     * Encode the concrete samples of a sheet: their features and their runs.
+     *
+     * @param name         the sheet name
+     * @param sheetSamples the sheet samples to encode
+     * @param descriptor   the features descriptor
+     * @return the encoded sheet
+     * @throws IOException on IO error
+     */
+    private static SheetData encode (String name,
+                                     List<Sample> sheetSamples,
+                                     GlyphDescriptor descriptor)
+        throws IOException
+    {
+        final SheetData data = new SheetData(name);
+
+        for (Sample sample : sheetSamples) {
+            if (!sample.isSymbol() && (sample.getShape() != null)) {
+                data.samples.add(sample);
+            }
+        }
+
+        final int length = descriptor.length();
+        final ByteBuffer features = ByteBuffer.allocate(data.samples.size() * length * DOUBLE_SIZE);
+        final ByteArrayOutputStream blob = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(blob);
+        data.runOffsets = new int[data.samples.size()];
+
+        for (int i = 0; i < data.samples.size(); i++) {
+            final Sample sample = data.samples.get(i);
+            double[] row;
+
+            try {
+                row = descriptor.getFeatures(sample, sample.getInterline());
+            } catch (Exception ex) {
+                logger.warn("Could not compute features of {} {}", sample, ex.toString());
+                row = new double[length];
+                Arrays.fill(row, Double.NaN);
+            }
+
+            for (double val : row) {
+                features.putDouble(val);
+            }
+
+            data.runOffsets[i] = out.size();
+            sample.getRunTable().writeRle(out);
+        }
+
+        out.flush();
+        data.features = features.array();
+        data.blob = blob.toByteArray();
+
+        return data;
+    }
+
+    //------//
+    // open //
+    //------//
+    /**
+     * Open the store found at provided path.
+     *
+     * @param path path to store file
+     * @return the opened store
+     * @throws IOException if store cannot be opened
+     */
+    public static SampleStore open (Path path)
+        throws IOException
+    {
+        return new SampleStore(path);
+    }
+
+    //-------//
+    // write //
+    //-------//
+    /**
+     * Write a store for the provided sheets samples.
+     * <p>
+     * Sheets are encoded concurrently (features computation is the costly part), and written in
+     * their provided order.
+     * The provided samples must be a snapshot, not the live lists of a repository.
+     *
+     * @param path         path to store file
+     * @param source       attributes of the samples archive, as of snapshot time
+     * @param sheetSamples the samples to store, per sheet name
+     * @param descriptor   descriptor for features to precompute
+     * @return the stored samples, in store order
+     * @throws IOException if store cannot be written
+     */
+    public static List<Sample> write (Path path,
+                                      BasicFileAttributes source,
+                                      Map<String, List<Sample>> sheetSamples,
+                                      GlyphDescriptor descriptor)
+        throws IOException
+    {
+        final List<Callable<SheetData>> tasks = new ArrayList<>();
+
+        for (Entry<String, List<Sample>> entry : sheetSamples.entrySet()) {
+            tasks.add( () -> encode(entry.getKey(), entry.getValue(), descriptor));
+        }
+
+        final List<Future<SheetData>> futures = new ArrayList<>();
+
+        for (Callable<SheetData> task : tasks) {
+            futures.add(OmrExecutors.getLowExecutor().submit(task));
+        }
+
+        final List<SheetData> sheets = new ArrayList<>(futures.size());
+
+        try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(path));
+                DataOutputStream out = new DataOutputStream(os)) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(source.size());
+            out.writeLong(source.lastModifiedTime().toMillis());
+
+            // Sheet sections, written as soon as available
+            long position = HEADER_SIZE;
+
+            for (int s = 0; s < futures.size(); s++) {
+                final SheetData data = futures.get(s).get();
+                futures.set(s, null);
+
+                data.featureOffset = position;
+                out.write(data.features);
+                position += data.features.length;
+
+                data.blobOffset = position;
+                data.blobLength = data.blob.length;
+                out.write(data.blob);
+                position += data.blob.length;
+
+                // Release encoded data once written
+                data.features = null;
+                data.blob = null;
+                sheets.add(data);
+            }
+
+            final long indexOffset = position;
+
+            // Index: descriptor
+            out.writeUTF(descriptor.getName());
+            out.writeInt(descriptor.getVersion());
+            out.writeInt(descriptor.length());
+
+            // Index: shapes
+            final Shape[] allShapes = Shape.values();
+            out.writeInt(allShapes.length);
+
+            for (Shape shape : allShapes) {
+                out.writeUTF(shape.name());
+            }
+
+            // Index: sheets
+            out.writeInt(sheets.size());
+
+            for (SheetData data : sheets) {
+                out.writeUTF(data.name);
+                out.writeInt(data.samples.size());
+                out.writeLong(data.featureOffset);
+                out.writeLong(data.blobOffset);
+                out.writeInt(data.blobLength);
+            }
+
+            // Index: sample columns
+            for (SheetData data : sheets) {
+                for (Sample sample : data.samples) {
+                    out.writeShort(sample.getShape().ordinal());
+                }
+            }
+
+            for (SheetData data : sheets) {
+                for (Sample sample : data.samples) {
+                    out.writeShort(sample.getInterline());
+                }
+            }
+
+            for (SheetData data : sheets) {
+                for (Sample sample : data.samples) {
+                    final Double pitch = sample.getPitch();
+                    out.writeFloat((pitch != null) ? pitch.floatValue() : Float.NaN);
+                }
+            }
+
+            for (SheetData data : sheets) {
+                for (Sample sample : data.samples) {
+                    out.writeInt(sample.getLeft());
+                }
+            }
+
+            for (SheetData data : sheets) {
+                for (Sample sample : data.samples) {
+                    out.writeInt(sample.getTop());
+                }
+            }
+
+            for (SheetData data : sheets) {
+                for (Sample sample : data.samples) {
+                    out.writeInt(sample.getId());
+                }
+            }
+
+            for (SheetData data : sheets) {
+                for (int runOffset : data.runOffsets) {
+                    out.writeInt(runOffset);
+                }
+            }
+
+            out.writeLong(indexOffset);
+        } catch (InterruptedException ex) {
+            throw new IOException("Interrupted while writing " + path, ex);
+        } catch (ExecutionException ex) {
+            throw new IOException("Error encoding samples for " + path, ex.getCause());
+        } finally {
+            for (Future<SheetData> future : futures) {
+                if (future != null) {
+                    future.cancel(true);
+                }
+            }
+        }
+
+        logger.info("Samples stored in {}", path);
+
+        final List<Sample> stored = new ArrayList<>();
+
+        for (SheetData data : sheets) {
+            stored.addAll(data.samples);
+        }
+
+        return stored;
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-----------//
+    // SheetData //
+    //-----------//
+    /**
+     * The encoded content of a sheet.
+     */
+    private static class SheetData
+    {
+
+        /** Sheet name. */
+        final String name;
+
+        /** Concrete samples, in store order. */
+        final List<Sample> samples = new ArrayList<>();
+
+        /** Per sample, offset of runs within blob. */
+        int[] runOffsets;
+
+        /** Raw features rows. */
+        byte[] features;
+
+        /** Raw runs blob. */
+        byte[] blob;
+
+        /** Location of features in file. */
+        long featureOffset;
+
+        /** Location of blob in file. */
+        long blobOffset;
+
+        /** Size of blob in file. */
+        int blobLength;
+
+        SheetData (String name)
+        {
+            this.name = name;
+        }
+    }
+}
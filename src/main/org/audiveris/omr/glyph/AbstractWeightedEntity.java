@@ -87,7 +87,7 @@ public abstract class AbstractWeightedEntity
     public void addAttachment (String id,
                                java.awt.Shape attachment)
     {
-        if (attachment != null) {
+        if ((attachment != null) && BasicAttachmentHolder.isEnabled()) {
             if (attachments == null) {
                 attachments = new BasicAttachmentHolder();
             }
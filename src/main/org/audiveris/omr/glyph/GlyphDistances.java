@@ -31,7 +31,10 @@ import java.util.Iterator;
 
 /**
  * Class <code>GlyphDistances</code> handles distances around a glyph.
- * It uses a chamfer distance table computed around the given glyph.
+ * <p>
+ * When both glyphs share the same run orientation, distance is computed directly from their run
+ * intervals.
+ * Otherwise, it uses a chamfer distance table computed (once) around the given glyph.
  *
  * @author Hervé Bitteur
  */
@@ -39,8 +42,11 @@ public class GlyphDistances
 {
     //~ Instance fields ----------------------------------------------------------------------------
 
-    /** Table of distances around the glyph. */
-    private final DistanceTable distTable;
+    /** The glyph at center. */
+    private final Glyph glyph;
+
+    /** Table of distances around the glyph. Lazily computed. */
+    private DistanceTable distTable;
 
     /** Table bounds. (Generally somewhat larger than glyph bounds) */
     private final Rectangle tableBox;
@@ -56,8 +62,8 @@ public class GlyphDistances
     public GlyphDistances (Glyph glyph,
                            Rectangle tableBox)
     {
+        this.glyph = glyph;
         this.tableBox = tableBox;
-        distTable = new Distances().compute(glyph, tableBox);
     }
 
     //~ Methods ------------------------------------------------------------------------------------
@@ -73,7 +79,24 @@ public class GlyphDistances
      */
     public double distanceTo (Glyph other)
     {
+        final RunTable runTable = glyph.getRunTable();
         final RunTable otherTable = other.getRunTable();
+
+        if (otherTable.getOrientation() == runTable.getOrientation()) {
+            // Merge of run intervals, no distance table needed
+            final int dist = runTable.gapDistance(
+                    glyph.getTopLeft(),
+                    otherTable,
+                    other.getTopLeft(),
+                    tableBox);
+
+            return (double) dist / ChamferDistance.DEFAULT_NORMALIZER;
+        }
+
+        if (distTable == null) {
+            distTable = new Distances().compute(glyph, tableBox);
+        }
+
         final int xOffset = other.getLeft();
         final int yOffset = other.getTop();
         int bestDist = Integer.MAX_VALUE;
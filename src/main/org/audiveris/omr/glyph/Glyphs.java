@@ -21,7 +21,13 @@
 // </editor-fold>
 package org.audiveris.omr.glyph;
 
+import org.audiveris.omr.Main;
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+import org.audiveris.omr.run.RunTable;
+import org.audiveris.omr.step.ProcessingCancellationException;
 import org.audiveris.omr.util.Entities;
+import org.audiveris.omr.util.OmrExecutors;
 import org.audiveris.omr.util.Table;
 
 import org.jgrapht.graph.SimpleGraph;
@@ -32,7 +38,6 @@ import org.slf4j.LoggerFactory;
 import java.awt.Point;
 import java.awt.Polygon;
 import java.awt.Rectangle;
-import java.awt.geom.Area;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -41,6 +46,10 @@ import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
 
 /**
@@ -52,6 +61,8 @@ public abstract class Glyphs
 {
     //~ Static fields/initializers -----------------------------------------------------------------
 
+    private static final Constants constants = new Constants();
+
     private static final Logger logger = LoggerFactory.getLogger(Glyphs.class);
 
     /**
@@ -178,6 +189,11 @@ public abstract class Glyphs
     //------------//
     /**
      * Build the graph of acceptable links within the provided collection of glyphs.
+     * <p>
+     * Candidate pairs are retrieved by a sweep through abscissa-sorted glyph bounds, and their
+     * precise distances are evaluated by chunks of glyphs, in parallel when the collection is
+     * large enough.
+     * Edges are always inserted in the same order, whatever the processing mode.
      *
      * @param glyphs the provided glyphs
      * @param maxGap maximum acceptable gap between glyphs
@@ -186,7 +202,6 @@ public abstract class Glyphs
     public static SimpleGraph<Glyph, GlyphLink> buildLinks (Collection<Glyph> glyphs,
                                                             double maxGap)
     {
-        final int gapInt = (int) Math.ceil(maxGap);
         final List<Glyph> sortedGlyphs = new ArrayList<>(glyphs);
         Collections.sort(sortedGlyphs, byAbscissa);
 
@@ -198,36 +213,52 @@ public abstract class Glyphs
             graph.addVertex(glyph);
         }
 
-        // Populate edges (glyph to glyph distances) when applicable
-        for (int i = 0; i < sortedGlyphs.size(); i++) {
-            final Glyph glyph = sortedGlyphs.get(i);
-            final Rectangle fatBox = glyph.getBounds();
-            fatBox.grow(gapInt, gapInt);
+        // Glyph bounds, computed once for all
+        final int count = sortedGlyphs.size();
+        final Rectangle[] boxes = new Rectangle[count];
 
-            final int xBreak = fatBox.x + fatBox.width; // Glyphs are sorted by abscissa
-            GlyphDistances glyphDistances = null; // Glyph-centered distance table
+        for (int i = 0; i < count; i++) {
+            boxes[i] = sortedGlyphs.get(i).getBounds();
+        }
 
-            for (Glyph other : sortedGlyphs.subList(i + 1, sortedGlyphs.size())) {
-                Rectangle otherBox = other.getBounds();
+        // Compute links (glyph to glyph distances) when applicable
+        final boolean parallel = OmrExecutors.defaultParallelism.getValue()
+                && !Main.processSystemsInParallel()
+                && (count >= constants.minParallelGlyphs.getValue());
+        final List<List<NearbyLink>> chunks = new ArrayList<>();
+
+        if (parallel) {
+            final int cpus = OmrExecutors.getNumberOfCpus();
+            final int chunkCount = cpus * constants.chunksPerCpu.getValue();
+            final int chunkSize = (int) Math.ceil((double) count / chunkCount);
+            final List<Callable<List<NearbyLink>>> tasks = new ArrayList<>();
+
+            for (int from = 0; from < count; from += chunkSize) {
+                final int start = from;
+                final int stop = Math.min(count, from + chunkSize);
+                tasks.add(() -> linksOf(sortedGlyphs, boxes, start, stop, maxGap));
+            }
 
-                // Rough filtering, using fat box intersection
-                if (!fatBox.intersects(otherBox)) {
-                    continue;
-                } else if (otherBox.x > xBreak) {
-                    break;
-                }
+            try {
+                final ExecutorService executor = OmrExecutors.getLowExecutor();
 
-                // We now need the glyph distance table, if not yet computed
-                if (glyphDistances == null) {
-                    glyphDistances = new GlyphDistances(glyph, fatBox);
+                for (Future<List<NearbyLink>> future : executor.invokeAll(tasks)) {
+                    chunks.add(future.get());
                 }
+            } catch (InterruptedException ex) {
+                logger.warn("buildLinks got interrupted");
+                throw new ProcessingCancellationException(ex);
+            } catch (ExecutionException ex) {
+                throw new RuntimeException(ex.getCause());
+            }
+        } else {
+            chunks.add(linksOf(sortedGlyphs, boxes, 0, count, maxGap));
+        }
 
-                // Precise distance from glyph to other
-                double dist = glyphDistances.distanceTo(other);
-
-                if ((dist <= maxGap) && !glyph.equals(other)) {
-                    graph.addEdge(glyph, other, new GlyphLink.Nearby(dist));
-                }
+        // Populate edges, chunk after chunk, to keep a deterministic order
+        for (List<NearbyLink> links : chunks) {
+            for (NearbyLink link : links) {
+                graph.addEdge(link.source, link.target, new GlyphLink.Nearby(link.distance));
             }
         }
 
@@ -506,6 +537,15 @@ public abstract class Glyphs
         }
 
         // More precise test
+        final RunTable oneTable = one.getRunTable();
+        final RunTable twoTable = two.getRunTable();
+
+        if (oneTable.getOrientation() == twoTable.getOrientation()) {
+            // Direct merge of facing run intervals, no raster needed
+            return oneTable.intersects(one.getTopLeft(), twoTable, two.getTopLeft(), fat);
+        }
+
+        // Different orientations: use a raster of one glyph, probed by the other glyph
         Table.UnsignedByte table = new Table.UnsignedByte(clip.width, clip.height);
         one.fillTable(table, clip.getLocation(), fat);
 
@@ -547,11 +587,11 @@ public abstract class Glyphs
      * instances intersected by a provided area.
      *
      * @param collection the collection of glyph instances to be browsed
-     * @param area       the intersecting area
+     * @param area       the intersecting area (an Area or a lightweight Ribbon)
      * @return the glyph instances found, which may be an empty list
      */
     public static Set<Glyph> intersectedGlyphs (Collection<? extends Glyph> collection,
-                                                Area area)
+                                                java.awt.Shape area)
     {
         Set<Glyph> set = new LinkedHashSet<>();
 
@@ -591,6 +631,64 @@ public abstract class Glyphs
         return set;
     }
 
+    //---------//
+    // linksOf //
+    //---------//
+    /**
+     * Compute the links that originate from a range of abscissa-sorted glyphs.
+     *
+     * @param sortedGlyphs all glyphs, sorted by abscissa
+     * @param boxes        the bounds of sorted glyphs
+     * @param start        index of first source glyph
+     * @param stop         index past last source glyph
+     * @param maxGap       maximum acceptable gap between glyphs
+     * @return the links found, ordered by source glyph then target glyph
+     */
+    private static List<NearbyLink> linksOf (List<Glyph> sortedGlyphs,
+                                             Rectangle[] boxes,
+                                             int start,
+                                             int stop,
+                                             double maxGap)
+    {
+        final int gapInt = (int) Math.ceil(maxGap);
+        final List<NearbyLink> links = new ArrayList<>();
+
+        for (int i = start; i < stop; i++) {
+            final Glyph glyph = sortedGlyphs.get(i);
+            final Rectangle fatBox = new Rectangle(boxes[i]);
+            fatBox.grow(gapInt, gapInt);
+
+            final int xBreak = fatBox.x + fatBox.width; // Glyphs are sorted by abscissa
+            GlyphDistances glyphDistances = null; // Glyph-centered distances
+
+            for (int j = i + 1; j < boxes.length; j++) {
+                final Rectangle otherBox = boxes[j];
+
+                // Rough filtering, using fat box intersection
+                if (otherBox.x >= xBreak) {
+                    break; // End of sweep for this glyph
+                } else if (!fatBox.intersects(otherBox)) {
+                    continue;
+                }
+
+                // We now need the glyph distances, if not yet available
+                if (glyphDistances == null) {
+                    glyphDistances = new GlyphDistances(glyph, fatBox);
+                }
+
+                // Precise distance from glyph to other
+                final Glyph other = sortedGlyphs.get(j);
+                final double dist = glyphDistances.distanceTo(other);
+
+                if ((dist <= maxGap) && !glyph.equals(other)) {
+                    links.add(new NearbyLink(glyph, other, dist));
+                }
+            }
+        }
+
+        return links;
+    }
+
     //--------------//
     // lookupGlyphs //
     //--------------//
@@ -663,6 +761,51 @@ public abstract class Glyphs
 
         return total;
     }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static class Constants
+            extends ConstantSet
+    {
+
+        private final Constant.Integer minParallelGlyphs = new Constant.Integer(
+                "glyphs",
+                500,
+                "Minimum number of glyphs to compute their links in parallel");
+
+        private final Constant.Integer chunksPerCpu = new Constant.Integer(
+                "chunks",
+                4,
+                "Number of glyph chunks per CPU when computing links in parallel");
+    }
+
+    //------------//
+    // NearbyLink //
+    //------------//
+    /**
+     * Link between two glyphs found close enough, before insertion into graph.
+     */
+    private static class NearbyLink
+    {
+
+        final Glyph source;
+
+        final Glyph target;
+
+        final double distance;
+
+        NearbyLink (Glyph source,
+                    Glyph target,
+                    double distance)
+        {
+            this.source = source;
+            this.target = target;
+            this.distance = distance;
+        }
+    }
 }
 //    //-------------//
 //    // LinkAdapter //
@@ -27,8 +27,6 @@ import org.audiveris.omr.constant.ConstantSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import ij.process.ByteProcessor;
-
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
@@ -130,7 +128,7 @@ public class AdaptiveDescriptor
     // getFilter //
     //-----------//
     @Override
-    public PixelFilter getFilter (ByteProcessor source)
+    public PixelFilter getFilter (PixelSource source)
     {
         return new VerticalFilter(source, meanCoeff, stdDevCoeff);
     }
@@ -115,7 +115,7 @@ public abstract class AdaptiveFilter
      * @param meanCoeff   coefficient for mean variable
      * @param stdDevCoeff coefficient for standard deviation value
      */
-    public AdaptiveFilter (ByteProcessor source,
+    public AdaptiveFilter (PixelSource source,
                            double meanCoeff,
                            double stdDevCoeff)
     {
@@ -26,7 +26,7 @@ import org.audiveris.omr.util.Wrapper;
 import ij.process.ByteProcessor;
 
 import java.awt.Rectangle;
-import java.awt.geom.Area;
+import java.awt.Shape;
 
 /**
  * Class <code>AreaMask</code> drives processing of locations using an absolute mask.
@@ -38,7 +38,7 @@ public class AreaMask
     //~ Instance fields ----------------------------------------------------------------------------
 
     /** Mask area. */
-    private final Area area;
+    private final Shape area;
 
     private final Rectangle rect;
 
@@ -47,9 +47,9 @@ public class AreaMask
     /**
      * Creates a new AreaMask object.
      *
-     * @param area the defining absolute area
+     * @param area the defining absolute area (an Area or a lightweight Ribbon)
      */
-    public AreaMask (Area area)
+    public AreaMask (Shape area)
     {
         this.area = area;
         rect = area.getBounds();
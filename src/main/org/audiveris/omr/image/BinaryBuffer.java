@@ -0,0 +1,764 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                     B i n a r y B u f f e r                                    //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.image;
+
+import org.audiveris.omr.run.Orientation;
+import org.audiveris.omr.run.Run;
+import org.audiveris.omr.run.RunTable;
+
+import ij.process.ByteProcessor;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.awt.image.MultiPixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Class <code>BinaryBuffer</code> is a bit-packed binary {@link PixelSource}, using one bit
+ * per pixel rather than one byte.
+ * <p>
+ * Each row is stored as a sequence of 64-bit words, pixel x being bit (x % 64) of word (x / 64).
+ * A set bit denotes a foreground pixel.
+ * Padding bits, beyond image width in the last word of each row, are always kept clear.
+ * <p>
+ * This allows word-parallel operations: logical combination of buffers, pixel counting, and
+ * retrieval of runs by jumping from one transition to the next.
+ *
+ * @author Hervé Bitteur
+ */
+public class BinaryBuffer
+        implements PixelSource
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    /** Number of pixels per word. */
+    private static final int WORD_SIZE = 64;
+
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Buffer width. */
+    private final int width;
+
+    /** Buffer height. */
+    private final int height;
+
+    /** Number of words per row. */
+    private final int rowWords;
+
+    /** Mask of meaningful bits in last word of a row. */
+    private final long lastMask;
+
+    /** The packed bits, row after row. */
+    private final long[] words;
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Creates a new <code>BinaryBuffer</code> object, with all pixels set to background.
+     *
+     * @param width  buffer width
+     * @param height buffer height
+     */
+    public BinaryBuffer (int width,
+                         int height)
+    {
+        this.width = width;
+        this.height = height;
+
+        rowWords = (width + WORD_SIZE - 1) / WORD_SIZE;
+        lastMask = ((width % WORD_SIZE) == 0) ? -1L : ((1L << (width % WORD_SIZE)) - 1);
+        words = new long[rowWords * height];
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //-----//
+    // and //
+    //-----//
+    /**
+     * Keep only the foreground pixels also foreground in the other buffer.
+     *
+     * @param that the other buffer, of same dimension
+     */
+    public void and (BinaryBuffer that)
+    {
+        checkDimension(that);
+
+        for (int i = words.length - 1; i >= 0; i--) {
+            words[i] &= that.words[i];
+        }
+    }
+
+    //--------//
+    // andNot //
+    //--------//
+    /**
+     * Remove the foreground pixels which are foreground in the other buffer.
+     *
+     * @param that the other buffer, of same dimension
+     */
+    public void andNot (BinaryBuffer that)
+    {
+        checkDimension(that);
+
+        for (int i = words.length - 1; i >= 0; i--) {
+            words[i] &= ~that.words[i];
+        }
+    }
+
+    //-------------//
+    // cardinality //
+    //-------------//
+    /**
+     * Report the number of foreground pixels.
+     *
+     * @return the count of foreground pixels
+     */
+    public int cardinality ()
+    {
+        int count = 0;
+
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+
+        return count;
+    }
+
+    //-------------//
+    // cardinality //
+    //-------------//
+    /**
+     * Report the number of foreground pixels within the provided rectangle.
+     *
+     * @param rect the rectangle to browse, which must lie within buffer bounds
+     * @return the count of foreground pixels
+     */
+    public int cardinality (Rectangle rect)
+    {
+        final int xMax = rect.x + rect.width;
+        int count = 0;
+
+        for (int y = rect.y, yBreak = rect.y + rect.height; y < yBreak; y++) {
+            for (int x = rect.x; x < xMax; x += WORD_SIZE) {
+                final int n = Math.min(WORD_SIZE, xMax - x);
+                final long mask = (n == WORD_SIZE) ? -1L : ((1L << n) - 1);
+                count += Long.bitCount(getBits(x, y, false) & mask);
+            }
+        }
+
+        return count;
+    }
+
+    //----------------//
+    // checkDimension //
+    //----------------//
+    private void checkDimension (BinaryBuffer that)
+    {
+        if ((that.width != width) || (that.height != height)) {
+            throw new IllegalArgumentException(
+                    "Incompatible dimensions " + that.width + "x" + that.height + " vs " + width
+                            + "x" + height);
+        }
+    }
+
+    //------//
+    // copy //
+    //------//
+    /**
+     * Report a copy of this buffer.
+     *
+     * @return the buffer copy
+     */
+    public BinaryBuffer copy ()
+    {
+        final BinaryBuffer copy = new BinaryBuffer(width, height);
+        System.arraycopy(words, 0, copy.words, 0, words.length);
+
+        return copy;
+    }
+
+    //------//
+    // fill //
+    //------//
+    /**
+     * Set all pixels to the provided value.
+     *
+     * @param fore true for foreground, false for background
+     */
+    public void fill (boolean fore)
+    {
+        if (!fore) {
+            Arrays.fill(words, 0L);
+        } else {
+            Arrays.fill(words, -1L);
+
+            for (int y = 0; y < height; y++) {
+                words[((y + 1) * rowWords) - 1] = lastMask;
+            }
+        }
+    }
+
+    //-----//
+    // get //
+    //-----//
+    @Override
+    public int get (int x,
+                    int y)
+    {
+        return isFore(x, y) ? FOREGROUND : BACKGROUND;
+    }
+
+    //---------//
+    // getBits //
+    //---------//
+    /**
+     * Report the 64 pixels of row y that start at abscissa x.
+     * <p>
+     * Any pixel located outside buffer bounds is reported with the provided value.
+     *
+     * @param x       abscissa of first pixel, perhaps out of buffer
+     * @param y       row ordinate, perhaps out of buffer
+     * @param outside value to use for pixels outside of buffer, true for foreground
+     * @return the word of 64 pixels, bit 0 for abscissa x
+     */
+    public long getBits (int x,
+                         int y,
+                         boolean outside)
+    {
+        if ((y < 0) || (y >= height)) {
+            return outside ? -1L : 0L;
+        }
+
+        final int wi = Math.floorDiv(x, WORD_SIZE);
+        final int shift = Math.floorMod(x, WORD_SIZE);
+        final long lo = getWord(y, wi, outside);
+
+        if (shift == 0) {
+            return lo;
+        }
+
+        return (lo >>> shift) | (getWord(y, wi + 1, outside) << (WORD_SIZE - shift));
+    }
+
+    //-----------//
+    // getHeight //
+    //-----------//
+    @Override
+    public int getHeight ()
+    {
+        return height;
+    }
+
+    //----------//
+    // getWidth //
+    //----------//
+    @Override
+    public int getWidth ()
+    {
+        return width;
+    }
+
+    //---------//
+    // getWord //
+    //---------//
+    private long getWord (int y,
+                          int wi,
+                          boolean outside)
+    {
+        if ((wi < 0) || (wi >= rowWords)) {
+            return outside ? -1L : 0L;
+        }
+
+        final long word = words[(y * rowWords) + wi];
+
+        if (outside && (wi == (rowWords - 1))) {
+            return word | ~lastMask;
+        }
+
+        return word;
+    }
+
+    //--------//
+    // isFore //
+    //--------//
+    /**
+     * Tell whether pixel at (x, y) is foreground.
+     *
+     * @param x pixel abscissa
+     * @param y pixel ordinate
+     * @return true if foreground
+     */
+    public boolean isFore (int x,
+                           int y)
+    {
+        return (words[(y * rowWords) + (x / WORD_SIZE)] & (1L << x)) != 0;
+    }
+
+    //--------------//
+    // nextClearBit //
+    //--------------//
+    /**
+     * Report the abscissa of first background pixel in row y, starting at abscissa x.
+     *
+     * @param x starting abscissa (inclusive)
+     * @param y row ordinate
+     * @return abscissa of background pixel found, or width if none
+     */
+    public int nextClearBit (int x,
+                             int y)
+    {
+        if (x >= width) {
+            return width;
+        }
+
+        final int base = y * rowWords;
+        int wi = x / WORD_SIZE;
+        long word = ~words[base + wi] & (-1L << x);
+
+        while (word == 0) {
+            if (++wi == rowWords) {
+                return width;
+            }
+
+            word = ~words[base + wi];
+        }
+
+        return Math.min(width, (wi * WORD_SIZE) + Long.numberOfTrailingZeros(word));
+    }
+
+    //------------//
+    // nextSetBit //
+    //------------//
+    /**
+     * Report the abscissa of first foreground pixel in row y, starting at abscissa x.
+     *
+     * @param x starting abscissa (inclusive)
+     * @param y row ordinate
+     * @return abscissa of foreground pixel found, or width if none
+     */
+    public int nextSetBit (int x,
+                           int y)
+    {
+        if (x >= width) {
+            return width;
+        }
+
+        final int base = y * rowWords;
+        int wi = x / WORD_SIZE;
+        long word = words[base + wi] & (-1L << x);
+
+        while (word == 0) {
+            if (++wi == rowWords) {
+                return width;
+            }
+
+            word = words[base + wi];
+        }
+
+        return (wi * WORD_SIZE) + Long.numberOfTrailingZeros(word);
+    }
+
+    //----//
+    // or //
+    //----//
+    /**
+     * Add the foreground pixels of the other buffer.
+     *
+     * @param that the other buffer, of same dimension
+     */
+    public void or (BinaryBuffer that)
+    {
+        checkDimension(that);
+
+        for (int i = words.length - 1; i >= 0; i--) {
+            words[i] |= that.words[i];
+        }
+    }
+
+    //-----//
+    // set //
+    //-----//
+    /**
+     * Set pixel at (x, y).
+     *
+     * @param x    pixel abscissa
+     * @param y    pixel ordinate
+     * @param fore true for foreground, false for background
+     */
+    public void set (int x,
+                     int y,
+                     boolean fore)
+    {
+        final int index = (y * rowWords) + (x / WORD_SIZE);
+
+        if (fore) {
+            words[index] |= (1L << x);
+        } else {
+            words[index] &= ~(1L << x);
+        }
+    }
+
+    //---------//
+    // setBits //
+    //---------//
+    /**
+     * Assign the 64 pixels of row y that start at word-aligned abscissa x.
+     *
+     * @param x    abscissa of first pixel, a multiple of 64
+     * @param y    row ordinate
+     * @param bits the word of 64 pixels, bit 0 for abscissa x
+     */
+    public void setBits (int x,
+                         int y,
+                         long bits)
+    {
+        final int wi = x / WORD_SIZE;
+        words[(y * rowWords) + wi] = (wi == (rowWords - 1)) ? (bits & lastMask) : bits;
+    }
+
+    //--------//
+    // setRun //
+    //--------//
+    /**
+     * Set to foreground a horizontal run of pixels.
+     *
+     * @param x      abscissa of run start
+     * @param y      run ordinate
+     * @param length run length
+     */
+    public void setRun (int x,
+                        int y,
+                        int length)
+    {
+        final int base = y * rowWords;
+        final int xMax = x + length; // Exclusive
+
+        while (x < xMax) {
+            final int wi = x / WORD_SIZE;
+            final int n = Math.min(xMax, (wi + 1) * WORD_SIZE) - x;
+            final long mask = (n == WORD_SIZE) ? -1L : (((1L << n) - 1) << x);
+            words[base + wi] |= mask;
+            x += n;
+        }
+    }
+
+    //-----------------//
+    // toBufferedImage //
+    //-----------------//
+    /**
+     * Report a TYPE_BYTE_BINARY image, which uses one bit per pixel as well.
+     *
+     * @return the binary image (black for foreground)
+     */
+    public BufferedImage toBufferedImage ()
+    {
+        final BufferedImage img = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY);
+        final WritableRaster raster = img.getRaster();
+        final byte[] bytes = ((DataBufferByte) raster.getDataBuffer()).getData();
+        final int stride = ((MultiPixelPackedSampleModel) raster.getSampleModel())
+                .getScanlineStride();
+
+        for (int y = 0; y < height; y++) {
+            final int base = y * rowWords;
+
+            for (int k = 0; k < stride; k++) {
+                final int bits = (int) (words[base + (k / 8)] >>> (8 * (k % 8))) & 0xFF;
+
+                // Image uses most significant bit first, and 1 for white
+                bytes[(y * stride) + k] = (byte) ~(Integer.reverse(bits) >>> 24);
+            }
+        }
+
+        return img;
+    }
+
+    //-----------------//
+    // toByteProcessor //
+    //-----------------//
+    /**
+     * Report a byte buffer (one byte per pixel) with the same content.
+     *
+     * @return the byte buffer
+     */
+    public ByteProcessor toByteProcessor ()
+    {
+        final byte[] pixels = new byte[width * height];
+        Arrays.fill(pixels, (byte) BACKGROUND);
+
+        for (int y = 0; y < height; y++) {
+            final int offset = y * width;
+
+            for (int x = nextSetBit(0, y); x < width; x = nextSetBit(x, y)) {
+                final int stop = nextClearBit(x, y);
+                Arrays.fill(pixels, offset + x, offset + stop, (byte) FOREGROUND);
+                x = stop;
+            }
+        }
+
+        return new ByteProcessor(width, height, pixels);
+    }
+
+    //----------//
+    // toString //
+    //----------//
+    @Override
+    public String toString ()
+    {
+        return new StringBuilder(getClass().getSimpleName()).append('{').append(width).append(
+                'x').append(height).append('}').toString();
+    }
+
+    //-----//
+    // xor //
+    //-----//
+    /**
+     * Keep only the pixels which are foreground in exactly one of this and the other buffer.
+     *
+     * @param that the other buffer, of same dimension
+     */
+    public void xor (BinaryBuffer that)
+    {
+        checkDimension(that);
+
+        for (int i = words.length - 1; i >= 0; i--) {
+            words[i] ^= that.words[i];
+        }
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    //---------------//
+    // binaryImageOf //
+    //---------------//
+    /**
+     * Build a TYPE_BYTE_BINARY image out of a byte buffer, where only 0 values denote
+     * foreground, with no intermediate BinaryBuffer.
+     *
+     * @param bp the provided byte buffer
+     * @return the binary image (black for foreground)
+     */
+    public static BufferedImage binaryImageOf (ByteProcessor bp)
+    {
+        final int w = bp.getWidth();
+        final int h = bp.getHeight();
+        final byte[] pixels = (byte[]) bp.getPixels();
+        final BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_BYTE_BINARY);
+        final WritableRaster raster = img.getRaster();
+        final byte[] bytes = ((DataBufferByte) raster.getDataBuffer()).getData();
+        final int stride = ((MultiPixelPackedSampleModel) raster.getSampleModel())
+                .getScanlineStride();
+
+        for (int y = 0; y < h; y++) {
+            final int offset = y * w;
+            final int row = y * stride;
+
+            for (int x = 0; x < w; x++) {
+                if (pixels[offset + x] != FOREGROUND) {
+                    // Image uses most significant bit first, and 1 for white
+                    bytes[row + (x >> 3)] |= (byte) (0x80 >>> (x & 7));
+                }
+            }
+        }
+
+        return img;
+    }
+
+    //-----------------//
+    // byteProcessorOf //
+    //-----------------//
+    /**
+     * Build a byte buffer (one byte per pixel) out of a binary image.
+     * <p>
+     * A TYPE_BYTE_BINARY image is directly expanded from its packed bits, with no intermediate
+     * BinaryBuffer, any other image is read as a ByteProcessor.
+     *
+     * @param img the provided binary image
+     * @return the byte buffer
+     */
+    public static ByteProcessor byteProcessorOf (BufferedImage img)
+    {
+        final MultiPixelPackedSampleModel sm = packedModel(img);
+
+        if (sm == null) {
+            return new ByteProcessor(img);
+        }
+
+        final int w = img.getWidth();
+        final int h = img.getHeight();
+        final byte[] bytes = ((DataBufferByte) img.getRaster().getDataBuffer()).getData();
+        final int stride = sm.getScanlineStride();
+        final byte[] pixels = new byte[w * h];
+
+        for (int y = 0; y < h; y++) {
+            final int offset = y * w;
+            final int row = y * stride;
+
+            for (int x = 0; x < w; x++) {
+                // Image uses most significant bit first, and 1 for white
+                final boolean white = (bytes[row + (x >> 3)] & (0x80 >>> (x & 7))) != 0;
+                pixels[offset + x] = (byte) (white ? BACKGROUND : FOREGROUND);
+            }
+        }
+
+        return new ByteProcessor(w, h, pixels);
+    }
+
+    //-------------//
+    // packedModel //
+    //-------------//
+    /**
+     * Report the sample model of the provided image, if it is a plain TYPE_BYTE_BINARY image
+     * with black as color 0.
+     *
+     * @param img the provided image
+     * @return the packed sample model, or null if image cannot be read as packed bits
+     */
+    private static MultiPixelPackedSampleModel packedModel (BufferedImage img)
+    {
+        final WritableRaster raster = img.getRaster();
+
+        if ((img.getType() != BufferedImage.TYPE_BYTE_BINARY)
+                || (((IndexColorModel) img.getColorModel()).getRGB(0) != 0xFF000000)
+                || (raster.getSampleModelTranslateX() != 0)
+                || (raster.getSampleModelTranslateY() != 0)
+                || !(raster.getSampleModel() instanceof MultiPixelPackedSampleModel sm)
+                || (sm.getPixelBitStride() != 1) || (sm.getDataBitOffset() != 0)) {
+            return null;
+        }
+
+        return sm;
+    }
+
+    //---------//
+    // valueOf //
+    //---------//
+    /**
+     * Build a binary buffer out of a binary image.
+     * <p>
+     * A TYPE_BYTE_BINARY image is directly read as packed bits, any other image is read as a
+     * ByteProcessor.
+     *
+     * @param img the provided binary image
+     * @return the binary buffer
+     */
+    public static BinaryBuffer valueOf (BufferedImage img)
+    {
+        final MultiPixelPackedSampleModel sm = packedModel(img);
+
+        if (sm == null) {
+            return valueOf(new ByteProcessor(img));
+        }
+
+        final int w = img.getWidth();
+        final int h = img.getHeight();
+        final BinaryBuffer buffer = new BinaryBuffer(w, h);
+        final byte[] bytes = ((DataBufferByte) img.getRaster().getDataBuffer()).getData();
+        final int stride = sm.getScanlineStride();
+
+        for (int y = 0; y < h; y++) {
+            final int base = y * buffer.rowWords;
+
+            for (int k = 0; k < stride; k++) {
+                // Image uses most significant bit first, and 1 for white
+                final long bits = (Integer.reverse(~bytes[(y * stride) + k] & 0xFF) >>> 24);
+                buffer.words[base + (k / 8)] |= bits << (8 * (k % 8));
+            }
+
+            buffer.words[base + buffer.rowWords - 1] &= buffer.lastMask;
+        }
+
+        return buffer;
+    }
+
+    //---------//
+    // valueOf //
+    //---------//
+    /**
+     * Build a binary buffer out of a byte buffer, where only 0 values denote foreground.
+     *
+     * @param bp the provided byte buffer
+     * @return the binary buffer
+     */
+    public static BinaryBuffer valueOf (ByteProcessor bp)
+    {
+        final int w = bp.getWidth();
+        final int h = bp.getHeight();
+        final BinaryBuffer buffer = new BinaryBuffer(w, h);
+        final byte[] pixels = (byte[]) bp.getPixels();
+
+        for (int y = 0; y < h; y++) {
+            final int offset = y * w;
+            final int base = y * buffer.rowWords;
+
+            for (int x0 = 0; x0 < w; x0 += WORD_SIZE) {
+                final int n = Math.min(WORD_SIZE, w - x0);
+                long word = 0;
+
+                for (int i = 0; i < n; i++) {
+                    if (pixels[offset + x0 + i] == FOREGROUND) {
+                        word |= 1L << i;
+                    }
+                }
+
+                buffer.words[base + (x0 / WORD_SIZE)] = word;
+            }
+        }
+
+        return buffer;
+    }
+
+    //---------//
+    // valueOf //
+    //---------//
+    /**
+     * Build a binary buffer out of a run table.
+     *
+     * @param table the provided run table
+     * @return the binary buffer
+     */
+    public static BinaryBuffer valueOf (RunTable table)
+    {
+        final BinaryBuffer buffer = new BinaryBuffer(table.getWidth(), table.getHeight());
+        final boolean isVertical = table.getOrientation() == Orientation.VERTICAL;
+
+        for (int iSeq = 0, size = table.getSize(); iSeq < size; iSeq++) {
+            for (Iterator<Run> it = table.iterator(iSeq); it.hasNext();) {
+                final Run run = it.next();
+
+                if (isVertical) {
+                    for (int y = run.getStart(), stop = run.getStop(); y <= stop; y++) {
+                        buffer.set(iSeq, y, true);
+                    }
+                } else {
+                    buffer.setRun(run.getStart(), iSeq, run.getLength());
+                }
+            }
+        }
+
+        return buffer;
+    }
+}
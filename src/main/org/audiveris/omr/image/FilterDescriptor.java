@@ -28,8 +28,6 @@ import org.audiveris.omr.util.param.Param;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import ij.process.ByteProcessor;
-
 /**
  * Class <code>FilterDescriptor</code> allows to configure a binarization
  * <code>PixelFilter</code>.
@@ -70,7 +68,7 @@ public abstract class FilterDescriptor
      * @param source the underlying pixel source
      * @return the filter instance, ready to use
      */
-    public abstract PixelFilter getFilter (ByteProcessor source);
+    public abstract PixelFilter getFilter (PixelSource source);
 
     //---------//
     // getKind //
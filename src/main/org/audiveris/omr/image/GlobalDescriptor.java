@@ -24,8 +24,6 @@ package org.audiveris.omr.image;
 import org.audiveris.omr.constant.Constant;
 import org.audiveris.omr.constant.ConstantSet;
 
-import ij.process.ByteProcessor;
-
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
@@ -93,7 +91,7 @@ public class GlobalDescriptor
     // getFilter //
     //-----------//
     @Override
-    public PixelFilter getFilter (ByteProcessor source)
+    public PixelFilter getFilter (PixelSource source)
     {
         return new GlobalFilter(source, threshold);
     }
@@ -48,7 +48,7 @@ public class GlobalFilter
      * @param source    the underlying source of raw pixels
      * @param threshold maximum gray level of foreground pixel
      */
-    public GlobalFilter (ByteProcessor source,
+    public GlobalFilter (PixelSource source,
                          int threshold)
     {
         super(source);
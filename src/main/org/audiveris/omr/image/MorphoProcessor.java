@@ -66,6 +66,9 @@ public class MorphoProcessor
 
     private final int[][] pg_minus;
 
+    /** True if structure element values allow word-level processing of binary buffers. */
+    private final boolean binaryCompatible;
+
     int width;
 
     int height;
@@ -90,10 +93,81 @@ public class MorphoProcessor
         pg = se.getVect();
         pg_plus = plus_se.getVect();
         pg_minus = minus_se.getVect();
+
+        boolean compatible = true;
+
+        for (int[] v : pg) {
+            if (v[2] != 255) {
+                compatible = false;
+
+                break;
+            }
+        }
+
+        binaryCompatible = compatible;
     }
 
     //~ Methods ------------------------------------------------------------------------------------
 
+    //-------//
+    // apply //
+    //-------//
+    /**
+     * Word-level dilation or erosion of a binary buffer.
+     * <p>
+     * On a binary image, graylevel dilation keeps a foreground pixel only if all its neighbors
+     * (within image) are foreground, while graylevel erosion sets a foreground pixel as soon as
+     * one of its neighbors is foreground.
+     * This is computed 64 pixels at a time, by combining shifted words.
+     *
+     * @param src  the source buffer
+     * @param type DILATE or ERODE
+     * @return the resulting buffer
+     */
+    private BinaryBuffer apply (BinaryBuffer src,
+                                int type)
+    {
+        final boolean dilation = type == DILATE;
+        final int w = src.getWidth();
+        final int h = src.getHeight();
+        final BinaryBuffer dst = new BinaryBuffer(w, h);
+
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x += 64) {
+                long acc = dilation ? -1L : 0L;
+
+                for (int[] v : pg) {
+                    // Pixels out of image are neutral
+                    final long bits = src.getBits(x + v[1], y + v[0], dilation);
+                    acc = dilation ? (acc & bits) : (acc | bits);
+                }
+
+                dst.setBits(x, y, acc);
+            }
+        }
+
+        return dst;
+    }
+
+    //-------//
+    // close //
+    //-------//
+    /**
+     * Performs binary counterpart of graylevel dilation followed by graylevel erosion.
+     *
+     * @param buffer the binary buffer to process
+     */
+    public void close (BinaryBuffer buffer)
+    {
+        if (!binaryCompatible) {
+            final ByteProcessor ip = buffer.toByteProcessor();
+            close(ip);
+            copy(BinaryBuffer.valueOf(ip), buffer);
+        } else {
+            copy(apply(apply(buffer, DILATE), ERODE), buffer);
+        }
+    }
+
     //-------//
     // close //
     //-------//
@@ -155,6 +229,35 @@ public class MorphoProcessor
         System.arraycopy(newpix2, 0, pixels, 0, pixels.length);
     }
 
+    //------//
+    // copy //
+    //------//
+    private void copy (BinaryBuffer src,
+                       BinaryBuffer dst)
+    {
+        dst.fill(false);
+        dst.or(src);
+    }
+
+    //--------//
+    // dilate //
+    //--------//
+    /**
+     * Performs binary counterpart of gray level dilation.
+     *
+     * @param buffer the binary buffer to process
+     */
+    public void dilate (BinaryBuffer buffer)
+    {
+        if (!binaryCompatible) {
+            final ByteProcessor ip = buffer.toByteProcessor();
+            dilate(ip);
+            copy(BinaryBuffer.valueOf(ip), buffer);
+        } else {
+            copy(apply(buffer, DILATE), buffer);
+        }
+    }
+
     //--------//
     // dilate //
     //--------//
@@ -191,6 +294,25 @@ public class MorphoProcessor
         System.arraycopy(newpix, 0, pixels, 0, pixels.length);
     }
 
+    //-------//
+    // erode //
+    //-------//
+    /**
+     * Performs binary counterpart of gray level erosion.
+     *
+     * @param buffer the binary buffer to process
+     */
+    public void erode (BinaryBuffer buffer)
+    {
+        if (!binaryCompatible) {
+            final ByteProcessor ip = buffer.toByteProcessor();
+            erode(ip);
+            copy(BinaryBuffer.valueOf(ip), buffer);
+        } else {
+            copy(apply(buffer, ERODE), buffer);
+        }
+    }
+
     //-------//
     // erode //
     //-------//
@@ -382,6 +504,25 @@ public class MorphoProcessor
         return wnd;
     }
 
+    //------//
+    // open //
+    //------//
+    /**
+     * Performs binary counterpart of graylevel erosion followed by graylevel dilation.
+     *
+     * @param buffer the binary buffer to process
+     */
+    public void open (BinaryBuffer buffer)
+    {
+        if (!binaryCompatible) {
+            final ByteProcessor ip = buffer.toByteProcessor();
+            open(ip);
+            copy(BinaryBuffer.valueOf(ip), buffer);
+        } else {
+            copy(apply(apply(buffer, ERODE), DILATE), buffer);
+        }
+    }
+
     //------//
     // open //
     //------//
@@ -0,0 +1,433 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                P r e f e t c h i n g L o a d e r                               //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.image;
+
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+import org.audiveris.omr.util.OmrExecutors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.IntPredicate;
+
+/**
+ * Class <code>PrefetchingLoader</code> is a {@link ImageLoading.Loader} meant for the concurrent
+ * loading of images out of the same input file, with the prefetching of following images.
+ * <p>
+ * The underlying loaders (a JPod document or an ImageIO reader) are not thread-safe.
+ * Hence this class handles a pool of such loaders, each one being used by at most one thread at a
+ * time, so that several images can be decoded concurrently.
+ * <p>
+ * Whenever an image is requested, the loading of the following images is launched in the
+ * background, unless the total memory of the images already prefetched (and not yet retrieved)
+ * would exceed a defined budget.
+ * Prefetched images no longer accepted by the prefetch filter are evicted.
+ *
+ * @author Hervé Bitteur
+ */
+public class PrefetchingLoader
+        implements ImageLoading.Loader
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Constants constants = new Constants();
+
+    private static final Logger logger = LoggerFactory.getLogger(PrefetchingLoader.class);
+
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Path to input file. */
+    private final Path path;
+
+    /** Count of images in input file. */
+    private final int imageCount;
+
+    /** Filter on image ids worth being prefetched, if any. */
+    private final IntPredicate prefetchable;
+
+    /** Idle underlying loaders. */
+    private final ConcurrentLinkedDeque<ImageLoading.Loader> idles = new ConcurrentLinkedDeque<>();
+
+    /** To limit the number of underlying loaders. */
+    private final Semaphore permits = new Semaphore(constants.maxLoaders.getValue());
+
+    /** Images prefetched or being prefetched, not yet retrieved. (guarded by this) */
+    private final Map<Integer, Prefetch> prefetches = new HashMap<>();
+
+    /** Ids of images already requested or prefetched. (guarded by this) */
+    private final Set<Integer> handled = new HashSet<>();
+
+    /** Memory used by prefetched images not yet retrieved. (guarded by this) */
+    private long prefetchedBytes;
+
+    /** Memory used by the latest loaded image. (guarded by this) */
+    private long lastBytes;
+
+    /** Has this loader been disposed?. */
+    private volatile boolean disposed;
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Creates a new <code>PrefetchingLoader</code> object.
+     *
+     * @param loader       a first underlying loader on the input file
+     * @param path         path to input file
+     * @param prefetchable filter on image ids worth being prefetched, or null for all
+     */
+    public PrefetchingLoader (ImageLoading.Loader loader,
+                              Path path,
+                              IntPredicate prefetchable)
+    {
+        this.path = path;
+        this.prefetchable = prefetchable;
+
+        imageCount = loader.getImageCount();
+        idles.add(loader);
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //---------//
+    // acquire //
+    //---------//
+    /**
+     * Acquire an underlying loader for exclusive use.
+     *
+     * @return the loader to use, or null if failed
+     */
+    private ImageLoading.Loader acquire ()
+    {
+        permits.acquireUninterruptibly();
+
+        final ImageLoading.Loader loader = idles.poll();
+
+        if (loader != null) {
+            return loader;
+        }
+
+        final ImageLoading.Loader newLoader = ImageLoading.getLoader(path);
+
+        if (newLoader == null) {
+            permits.release();
+        } else {
+            logger.debug("New underlying loader for {}", path);
+        }
+
+        return newLoader;
+    }
+
+    //--------//
+    // decode //
+    //--------//
+    /**
+     * Actually decode the specified image, using an available underlying loader.
+     *
+     * @param id image id
+     * @return the image decoded
+     * @throws IOException if decoding failed
+     */
+    private BufferedImage decode (int id)
+        throws IOException
+    {
+        final ImageLoading.Loader loader = acquire();
+
+        if (loader == null) {
+            throw new IOException("Cannot load image " + id + " from " + path);
+        }
+
+        try {
+            final BufferedImage img = loader.getImage(id);
+
+            synchronized (this) {
+                lastBytes = byteSize(img);
+            }
+
+            return img;
+        } finally {
+            release(loader);
+        }
+    }
+
+    //---------//
+    // dispose //
+    //---------//
+    @Override
+    public void dispose ()
+    {
+        disposed = true;
+
+        synchronized (this) {
+            for (Prefetch prefetch : prefetches.values()) {
+                prefetch.future.cancel(false);
+            }
+
+            prefetches.clear();
+            prefetchedBytes = 0;
+        }
+
+        for (ImageLoading.Loader loader; (loader = idles.poll()) != null;) {
+            loader.dispose();
+        }
+    }
+
+    //-------//
+    // evict //
+    //-------//
+    /**
+     * Drop the prefetched images that the prefetch filter no longer accepts, typically
+     * because their sheets are no longer being processed.
+     * <p>
+     * An evicted image can still be requested later on, it will then be decoded anew.
+     */
+    public synchronized void evict ()
+    {
+        if (prefetchable == null) {
+            return;
+        }
+
+        prefetches.entrySet().removeIf((entry) ->
+        {
+            final int id = entry.getKey();
+
+            if (prefetchable.test(id)) {
+                return false;
+            }
+
+            final Prefetch prefetch = entry.getValue();
+            prefetch.future.cancel(false);
+            prefetchedBytes -= prefetch.bytes;
+            handled.remove(id);
+            logger.debug("Image {} evicted", id);
+
+            return true;
+        });
+    }
+
+    //----------//
+    // getImage //
+    //----------//
+    @Override
+    public BufferedImage getImage (int id)
+        throws IOException
+    {
+        final Prefetch prefetch;
+
+        synchronized (this) {
+            handled.add(id);
+            prefetch = prefetches.remove(id);
+
+            if (prefetch != null) {
+                prefetchedBytes -= prefetch.bytes;
+            }
+        }
+
+        final BufferedImage img;
+
+        if (prefetch != null) {
+            img = retrieve(prefetch);
+            logger.debug("Image {} was prefetched", id);
+        } else {
+            img = decode(id);
+        }
+
+        prefetchFollowers(id);
+
+        return img;
+    }
+
+    //---------------//
+    // getImageCount //
+    //---------------//
+    @Override
+    public int getImageCount ()
+    {
+        return imageCount;
+    }
+
+    //-------------------//
+    // prefetchFollowers //
+    //-------------------//
+    /**
+     * Launch the background loading of the images that follow the provided one,
+     * within the memory budget.
+     *
+     * @param id id of image just requested
+     */
+    private synchronized void prefetchFollowers (int id)
+    {
+        // Reclaim the budget of images no longer awaited
+        evict();
+
+        final long budget = constants.prefetchBudget.getValue() * 1024L * 1024L;
+        final int last = Math.min(imageCount, id + constants.prefetchCount.getValue());
+
+        for (int i = id + 1; i <= last; i++) {
+            if (disposed || (prefetchedBytes + lastBytes > budget)) {
+                return;
+            }
+
+            if (handled.contains(i) || ((prefetchable != null) && !prefetchable.test(i))) {
+                continue;
+            }
+
+            final int nextId = i;
+            final Prefetch prefetch = new Prefetch();
+            handled.add(nextId);
+            prefetches.put(nextId, prefetch);
+
+            // Reserve the estimated size, to be adjusted when actually loaded
+            prefetch.bytes = lastBytes;
+            prefetchedBytes += prefetch.bytes;
+
+            prefetch.future = OmrExecutors.getCachedLowExecutor().submit( () ->
+            {
+                final BufferedImage img = decode(nextId);
+
+                synchronized (PrefetchingLoader.this) {
+                    if (prefetches.get(nextId) == prefetch) {
+                        prefetchedBytes += (byteSize(img) - prefetch.bytes);
+                        prefetch.bytes = byteSize(img);
+                    }
+                }
+
+                logger.debug("Image {} prefetched", nextId);
+
+                return img;
+            });
+        }
+    }
+
+    //---------//
+    // release //
+    //---------//
+    /**
+     * Give back an underlying loader.
+     *
+     * @param loader the loader no longer used
+     */
+    private void release (ImageLoading.Loader loader)
+    {
+        if (disposed) {
+            loader.dispose();
+        } else {
+            idles.push(loader);
+        }
+
+        permits.release();
+    }
+
+    //----------//
+    // retrieve //
+    //----------//
+    private BufferedImage retrieve (Prefetch prefetch)
+        throws IOException
+    {
+        try {
+            return prefetch.future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted prefetch", ex);
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+
+            throw new IOException("Error in prefetch", cause);
+        }
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    //----------//
+    // byteSize //
+    //----------//
+    /**
+     * Report the memory used by the provided image data.
+     *
+     * @param img the provided image
+     * @return the number of bytes
+     */
+    private static long byteSize (BufferedImage img)
+    {
+        final DataBuffer buffer = img.getRaster().getDataBuffer();
+
+        return ((long) buffer.getSize() * buffer.getNumBanks() * DataBuffer.getDataTypeSize(
+                buffer.getDataType())) / 8;
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static class Constants
+            extends ConstantSet
+    {
+
+        private final Constant.Integer maxLoaders = new Constant.Integer(
+                "Loaders",
+                4,
+                "Maximum number of images loaded concurrently from the same input file");
+
+        private final Constant.Integer prefetchCount = new Constant.Integer(
+                "Images",
+                2,
+                "Number of following images to prefetch (0 for no prefetch)");
+
+        private final Constant.Integer prefetchBudget = new Constant.Integer(
+                "MegaBytes",
+                256,
+                "Maximum memory used by prefetched images not yet retrieved");
+    }
+
+    //----------//
+    // Prefetch //
+    //----------//
+    /**
+     * Image being prefetched or already prefetched.
+     */
+    private static class Prefetch
+    {
+
+        /** Loading task. */
+        Future<BufferedImage> future;
+
+        /** Memory accounted for the image. */
+        long bytes;
+    }
+}
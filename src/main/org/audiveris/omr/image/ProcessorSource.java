@@ -0,0 +1,80 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                  P r o c e s s o r S o u r c e                                 //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.image;
+
+import ij.process.ByteProcessor;
+
+/**
+ * Class <code>ProcessorSource</code> wraps a ByteProcessor as a PixelSource.
+ *
+ * @author Hervé Bitteur
+ */
+public class ProcessorSource
+        implements PixelSource
+{
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** The wrapped ByteProcessor instance. */
+    private final ByteProcessor buffer;
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Creates a new ProcessorSource object around a given ByteProcessor instance.
+     *
+     * @param buffer the ByteProcessor to interface
+     */
+    public ProcessorSource (ByteProcessor buffer)
+    {
+        this.buffer = buffer;
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //-----//
+    // get //
+    //-----//
+    @Override
+    public int get (int x,
+                    int y)
+    {
+        return buffer.get(x, y);
+    }
+
+    //-----------//
+    // getHeight //
+    //-----------//
+    @Override
+    public int getHeight ()
+    {
+        return buffer.getHeight();
+    }
+
+    //----------//
+    // getWidth //
+    //----------//
+    @Override
+    public int getWidth ()
+    {
+        return buffer.getWidth();
+    }
+}
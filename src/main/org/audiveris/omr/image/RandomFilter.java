@@ -24,7 +24,6 @@ package org.audiveris.omr.image;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import ij.process.ByteProcessor;
 import net.jcip.annotations.ThreadSafe;
 
 /**
@@ -55,7 +54,7 @@ public class RandomFilter
      * @param meanCoeff   the coefficient for mean value
      * @param stdDevCoeff the coefficient for standard deviation value
      */
-    public RandomFilter (ByteProcessor source,
+    public RandomFilter (PixelSource source,
                          double meanCoeff,
                          double stdDevCoeff)
     {
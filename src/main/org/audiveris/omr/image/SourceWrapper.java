@@ -21,8 +21,6 @@
 // </editor-fold>
 package org.audiveris.omr.image;
 
-import ij.process.ByteProcessor;
-
 /**
  * Class <code>SourceWrapper</code> wraps a PixelSource.
  *
@@ -34,7 +32,7 @@ public class SourceWrapper
     //~ Instance fields ----------------------------------------------------------------------------
 
     /** Underlying pixel source. */
-    protected final ByteProcessor source;
+    protected final PixelSource source;
 
     //~ Constructors -------------------------------------------------------------------------------
 
@@ -43,7 +41,7 @@ public class SourceWrapper
      *
      * @param source the pixel source
      */
-    public SourceWrapper (ByteProcessor source)
+    public SourceWrapper (PixelSource source)
     {
         this.source = source;
     }
@@ -0,0 +1,456 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                   T i l e d G r a y S t o r e                                  //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.image;
+
+import org.audiveris.omr.WellKnowns;
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+import org.audiveris.omr.util.StopWatch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ij.process.ByteProcessor;
+import ij.process.ColorProcessor;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static java.nio.file.StandardOpenOption.DELETE_ON_CLOSE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Class <code>TiledGrayStore</code> is a gray {@link PixelSource} whose pixels are kept off-heap,
+ * in a memory-mapped temporary file, rather than in a whole-page image.
+ * <p>
+ * The image is split into square tiles, stored one after the other, strip by strip.
+ * Each horizontal strip of tiles is mapped separately.
+ * Hence only the tiles actually accessed get resident in memory, and they can be paged out by the
+ * operating system when memory gets short.
+ * <p>
+ * Beside the pixel-level access of {@link PixelSource}, this class provides access to any
+ * rectangular region, and, for consumers that need it, the materialization of the whole image.
+ * <p>
+ * The temporary file is deleted when closed, that is as soon as all tiles have been mapped.
+ * The underlying storage is released when this instance is garbage collected.
+ *
+ * <pre>
+ * +------+------+------+--+
+ * |  0   |  1   |  2   |3 |  strip #0
+ * +------+------+------+--+
+ * |  0   |  1   |  2   |3 |  strip #1
+ * +------+------+------+--+
+ * |  0   |  1   |  2   |3 |  strip #2 (perhaps lower than tile size)
+ * +------+------+------+--+
+ * </pre>
+ *
+ * @author Hervé Bitteur
+ */
+public class TiledGrayStore
+        implements PixelSource
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Constants constants = new Constants();
+
+    private static final Logger logger = LoggerFactory.getLogger(TiledGrayStore.class);
+
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Image width. */
+    private final int width;
+
+    /** Image height. */
+    private final int height;
+
+    /** Tile side. */
+    private final int tileSize;
+
+    /** One mapped buffer per strip of tiles. */
+    private final MappedByteBuffer[] strips;
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Create an empty store, with all its tiles mapped.
+     *
+     * @param width    image width
+     * @param height   image height
+     * @param tileSize side of square tiles
+     * @throws IOException if temporary file could not be created or mapped
+     */
+    private TiledGrayStore (int width,
+                            int height,
+                            int tileSize)
+        throws IOException
+    {
+        this.width = width;
+        this.height = height;
+        this.tileSize = tileSize;
+
+        strips = new MappedByteBuffer[(height + tileSize - 1) / tileSize];
+
+        final Path path = Files.createTempFile(WellKnowns.TEMP_FOLDER, "gray-", ".tiles");
+
+        try (FileChannel channel = FileChannel.open(path, READ, WRITE, DELETE_ON_CLOSE)) {
+            for (int s = 0; s < strips.length; s++) {
+                final long position = (long) s * tileSize * width;
+                strips[s] = channel.map(
+                        FileChannel.MapMode.READ_WRITE,
+                        position,
+                        (long) stripHeight(s) * width);
+            }
+        }
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //------//
+    // copy //
+    //------//
+    /**
+     * Copy pixels of a horizontal segment, from store to provided array, or the other way round.
+     *
+     * @param x      abscissa of segment start
+     * @param y      ordinate of segment
+     * @param len    segment length
+     * @param bytes  the array
+     * @param offset index in array of segment start
+     * @param toMap  true for writing to store, false for reading from store
+     */
+    private void copy (int x,
+                       int y,
+                       int len,
+                       byte[] bytes,
+                       int offset,
+                       boolean toMap)
+    {
+        final int s = y / tileSize;
+        final MappedByteBuffer strip = strips[s];
+        final int sh = stripHeight(s);
+        final int dy = y - (s * tileSize);
+        final int xMax = x + len;
+
+        while (x < xMax) {
+            final int t = x / tileSize;
+            final int tx = t * tileSize;
+            final int tw = Math.min(tileSize, width - tx);
+            final int n = Math.min(xMax, tx + tw) - x;
+            final int index = (tx * sh) + (dy * tw) + (x - tx);
+
+            if (toMap) {
+                strip.put(index, bytes, offset, n);
+            } else {
+                strip.get(index, bytes, offset, n);
+            }
+
+            x += n;
+            offset += n;
+        }
+    }
+
+    //-----//
+    // get //
+    //-----//
+    @Override
+    public int get (int x,
+                    int y)
+    {
+        final int s = y / tileSize;
+        final int tx = (x / tileSize) * tileSize;
+        final int tw = Math.min(tileSize, width - tx);
+        final int index = (tx * stripHeight(s)) + ((y - (s * tileSize)) * tw) + (x - tx);
+
+        return strips[s].get(index) & 0xFF;
+    }
+
+    //-----------//
+    // getHeight //
+    //-----------//
+    @Override
+    public int getHeight ()
+    {
+        return height;
+    }
+
+    //-----------//
+    // getRegion //
+    //-----------//
+    /**
+     * Report a gray image of the provided rectangular region.
+     *
+     * @param rect the desired region, which must lie within image bounds
+     * @return a (TYPE_BYTE_GRAY) copy of the region
+     */
+    public BufferedImage getRegion (Rectangle rect)
+    {
+        final BufferedImage img = new BufferedImage(
+                rect.width,
+                rect.height,
+                BufferedImage.TYPE_BYTE_GRAY);
+        final byte[] bytes = ((DataBufferByte) img.getRaster().getDataBuffer()).getData();
+
+        for (int dy = 0; dy < rect.height; dy++) {
+            copy(rect.x, rect.y + dy, rect.width, bytes, dy * rect.width, false);
+        }
+
+        return img;
+    }
+
+    //----------//
+    // getWidth //
+    //----------//
+    @Override
+    public int getWidth ()
+    {
+        return width;
+    }
+
+    //--------------//
+    // newBandCache //
+    //--------------//
+    /**
+     * Report a pixel source on this store, meant for a scan that goes column by column, from
+     * left to right, like a binarization filter does.
+     * <p>
+     * Rather than reaching the mapped tiles for every pixel, the returned source copies whole
+     * vertical bands of tiles into plain arrays, keeping only the two most recent bands.
+     * Hence it never holds more than 2 * tileSize * height bytes.
+     * <p>
+     * The returned source is not thread-safe, it should be used by a single consumer.
+     *
+     * @return a caching source on this store
+     */
+    public PixelSource newBandCache ()
+    {
+        return new BandCache();
+    }
+
+    //-------------//
+    // stripHeight //
+    //-------------//
+    private int stripHeight (int s)
+    {
+        return Math.min(tileSize, height - (s * tileSize));
+    }
+
+    //-----------------//
+    // toBufferedImage //
+    //-----------------//
+    /**
+     * Materialize the whole image.
+     *
+     * @return a (TYPE_BYTE_GRAY) copy of the whole image
+     */
+    public BufferedImage toBufferedImage ()
+    {
+        return getRegion(new Rectangle(0, 0, width, height));
+    }
+
+    //-----------------//
+    // toByteProcessor //
+    //-----------------//
+    /**
+     * Materialize the whole image as a gray buffer.
+     *
+     * @return a copy of the whole image, as a ByteProcessor
+     */
+    public ByteProcessor toByteProcessor ()
+    {
+        final byte[] pixels = new byte[width * height];
+
+        for (int y = 0; y < height; y++) {
+            copy(0, y, width, pixels, y * width, false);
+        }
+
+        return new ByteProcessor(width, height, pixels);
+    }
+
+    //----------//
+    // toString //
+    //----------//
+    @Override
+    public String toString ()
+    {
+        return new StringBuilder(getClass().getSimpleName()).append('{').append(width).append(
+                'x').append(height).append(" tiles:").append(tileSize).append('}').toString();
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    //--------//
+    // create //
+    //--------//
+    /**
+     * Build a tiled store out of the provided image.
+     * <p>
+     * The image is processed strip by strip, a non-gray image being converted to gray one strip at
+     * a time, so that no whole-page gray buffer is ever allocated.
+     *
+     * @param img the provided image (perhaps color image)
+     * @return the populated store
+     * @throws IOException if temporary file could not be created or mapped
+     */
+    public static TiledGrayStore create (BufferedImage img)
+        throws IOException
+    {
+        final StopWatch watch = new StopWatch("TiledGrayStore");
+        watch.start("create");
+
+        final int w = img.getWidth();
+        final int h = img.getHeight();
+        final TiledGrayStore store = new TiledGrayStore(w, h, constants.tileSize.getValue());
+        final boolean isGray = img.getType() == BufferedImage.TYPE_BYTE_GRAY;
+
+        for (int s = 0; s < store.strips.length; s++) {
+            final int y0 = s * store.tileSize;
+            final int sh = store.stripHeight(s);
+            final byte[] bytes;
+
+            if (isGray) {
+                bytes = (byte[]) img.getRaster().getDataElements(0, y0, w, sh, null);
+            } else {
+                final BufferedImage sub = img.getSubimage(0, y0, w, sh);
+                bytes = (byte[]) new ColorProcessor(sub).convertToByteProcessor().getPixels();
+            }
+
+            for (int dy = 0; dy < sh; dy++) {
+                store.copy(0, y0 + dy, w, bytes, dy * w, true);
+            }
+        }
+
+        if (constants.printWatch.isSet()) {
+            watch.print();
+        }
+
+        logger.debug("Created {}", store);
+
+        return store;
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-----------//
+    // BandCache //
+    //-----------//
+    /**
+     * A pixel source which keeps the two most recently accessed vertical bands of tiles.
+     */
+    private class BandCache
+            implements PixelSource
+    {
+
+        /** Index of the cached bands, most recent first. */
+        private final int[] indices = new int[]
+        { -1, -1 };
+
+        /** Pixels of the cached bands, row by row, most recent first. */
+        private final byte[][] bands = new byte[2][];
+
+        @Override
+        public int get (int x,
+                        int y)
+        {
+            final int t = x / tileSize;
+
+            if (indices[0] != t) {
+                if (indices[1] == t) {
+                    swap();
+                } else {
+                    load(t);
+                }
+            }
+
+            final int tx = t * tileSize;
+
+            return bands[0][(y * Math.min(tileSize, width - tx)) + (x - tx)] & 0xFF;
+        }
+
+        @Override
+        public int getHeight ()
+        {
+            return height;
+        }
+
+        @Override
+        public int getWidth ()
+        {
+            return width;
+        }
+
+        /**
+         * Copy band 't' into the most recent slot, pushing former most recent band down.
+         */
+        private void load (int t)
+        {
+            final int tx = t * tileSize;
+            final int tw = Math.min(tileSize, width - tx);
+            byte[] band = bands[1];
+
+            if ((band == null) || (band.length != (tw * height))) {
+                band = new byte[tw * height];
+            }
+
+            for (int s = 0; s < strips.length; s++) {
+                strips[s].get(tx * stripHeight(s), band, s * tileSize * tw, stripHeight(s) * tw);
+            }
+
+            bands[1] = band;
+            indices[1] = t;
+            swap();
+        }
+
+        private void swap ()
+        {
+            final byte[] band = bands[0];
+            bands[0] = bands[1];
+            bands[1] = band;
+
+            final int index = indices[0];
+            indices[0] = indices[1];
+            indices[1] = index;
+        }
+    }
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static class Constants
+            extends ConstantSet
+    {
+
+        private final Constant.Boolean printWatch = new Constant.Boolean(
+                false,
+                "Should we print out the stop watch?");
+
+        private final Constant.Integer tileSize = new Constant.Integer(
+                "pixels",
+                512,
+                "Side of square tiles");
+    }
+}
@@ -24,7 +24,6 @@ package org.audiveris.omr.image;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import ij.process.ByteProcessor;
 import net.jcip.annotations.NotThreadSafe;
 
 /**
@@ -87,7 +86,7 @@ public class VerticalFilter
      * @param meanCoeff   the coefficient for mean value
      * @param stdDevCoeff the coefficient for standard deviation value
      */
-    public VerticalFilter (ByteProcessor source,
+    public VerticalFilter (PixelSource source,
                            double meanCoeff,
                            double stdDevCoeff)
     {
@@ -104,6 +104,10 @@ public abstract class AreaUtil
     //--------------//
     /**
      * Check whether the two provided areas intersect one another.
+     * <p>
+     * This is rather costly, since a copy of first area must be intersected.
+     * For parallelograms and ribbons, the allocation-free tests of {@link ConvexQuad} and
+     * {@link Ribbon} should be preferred.
      *
      * @param a1 some area
      * @param a2 some other area
@@ -112,6 +116,11 @@ public abstract class AreaUtil
     public static boolean intersection (Area a1,
                                         Area a2)
     {
+        // Quick rejection based on bounds
+        if (!a1.getBounds2D().intersects(a2.getBounds2D())) {
+            return false;
+        }
+
         Area copy = new Area(a1);
         copy.intersect(a2);
 
@@ -0,0 +1,559 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                       C o n v e x Q u a d                                      //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.math;
+
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Area;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * Class <code>ConvexQuad</code> is a lightweight convex quadrilateral, meant for the
+ * parallelograms used as lookup or inter areas.
+ * <p>
+ * Point, containment and intersection tests are performed directly on the 4 vertices,
+ * using a separating axis test, without any allocation.
+ * This avoids the costly construction and intersection of {@link Area} instances,
+ * which are now needed only for rendering, via {@link #toArea()}.
+ * <p>
+ * Vertices are expected in sequence around the quadrilateral, with any winding.
+ * A degenerated quadrilateral (with a null surface) is considered as empty.
+ *
+ * @author Hervé Bitteur
+ */
+public class ConvexQuad
+        implements Shape
+{
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Vertices abscissae. */
+    private final double[] xs;
+
+    /** Vertices ordinates. */
+    private final double[] ys;
+
+    /** Winding sign: +1, -1 or 0 for an empty quad. */
+    private final double sign;
+
+    // Bounds
+    private final double xMin;
+
+    private final double yMin;
+
+    private final double xMax;
+
+    private final double yMax;
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Creates a new <code>ConvexQuad</code> object.
+     *
+     * @param x0 abscissa of vertex 0
+     * @param y0 ordinate of vertex 0
+     * @param x1 abscissa of vertex 1
+     * @param y1 ordinate of vertex 1
+     * @param x2 abscissa of vertex 2
+     * @param y2 ordinate of vertex 2
+     * @param x3 abscissa of vertex 3
+     * @param y3 ordinate of vertex 3
+     */
+    public ConvexQuad (double x0,
+                       double y0,
+                       double x1,
+                       double y1,
+                       double x2,
+                       double y2,
+                       double x3,
+                       double y3)
+    {
+        xs = new double[] { x0, x1, x2, x3 };
+        ys = new double[] { y0, y1, y2, y3 };
+
+        xMin = Math.min(Math.min(x0, x1), Math.min(x2, x3));
+        xMax = Math.max(Math.max(x0, x1), Math.max(x2, x3));
+        yMin = Math.min(Math.min(y0, y1), Math.min(y2, y3));
+        yMax = Math.max(Math.max(y0, y1), Math.max(y2, y3));
+
+        // Shoelace formula (twice the signed surface)
+        final double surface = ((x0 * y1) - (x1 * y0)) + ((x1 * y2) - (x2 * y1))
+                                       + ((x2 * y3) - (x3 * y2)) + ((x3 * y0) - (x0 * y3));
+        sign = Math.signum(surface);
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //----------//
+    // contains //
+    //----------//
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Like for Area, a point on the boundary is inside only if the space immediately adjacent
+     * in the increasing X direction (or increasing Y direction for a horizontal edge) is
+     * inside.
+     */
+    @Override
+    public boolean contains (double x,
+                             double y)
+    {
+        if (isEmpty() || (x < xMin) || (x >= xMax) || (y < yMin) || (y >= yMax)) {
+            return false;
+        }
+
+        for (int i = 0; i < 4; i++) {
+            final double s = side(i, x, y);
+
+            if (s < 0) {
+                return false;
+            }
+
+            if (s == 0) {
+                // On edge line: check inner direction
+                final int j = (i + 1) & 3;
+                final double dx = -sign * (ys[j] - ys[i]); // Inner side when going right
+                final double dy = sign * (xs[j] - xs[i]); // Inner side when going down
+
+                if ((dx < 0) || ((dx == 0) && (dy < 0))) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    //----------//
+    // contains //
+    //----------//
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Like for Area, the rectangle may touch the quadrilateral boundary.
+     */
+    @Override
+    public boolean contains (double x,
+                             double y,
+                             double w,
+                             double h)
+    {
+        if (isEmpty() || (w <= 0) || (h <= 0)) {
+            return false;
+        }
+
+        // Quad being convex, it contains the rectangle if it contains its 4 corners
+        for (int i = 0; i < 4; i++) {
+            if ((side(i, x, y) < 0) || (side(i, x + w, y) < 0) || (side(i, x + w, y + h) < 0)
+                        || (side(i, x, y + h) < 0)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    //----------//
+    // contains //
+    //----------//
+    @Override
+    public boolean contains (Point2D p)
+    {
+        return contains(p.getX(), p.getY());
+    }
+
+    //----------//
+    // contains //
+    //----------//
+    @Override
+    public boolean contains (Rectangle2D r)
+    {
+        return contains(r.getX(), r.getY(), r.getWidth(), r.getHeight());
+    }
+
+    //-----------//
+    // getBounds //
+    //-----------//
+    @Override
+    public Rectangle getBounds ()
+    {
+        final int x = (int) Math.floor(xMin);
+        final int y = (int) Math.floor(yMin);
+
+        return new Rectangle(
+                x,
+                y,
+                (int) Math.ceil(xMax) - x,
+                (int) Math.ceil(yMax) - y);
+    }
+
+    //-------------//
+    // getBounds2D //
+    //-------------//
+    @Override
+    public Rectangle2D getBounds2D ()
+    {
+        return new Rectangle2D.Double(xMin, yMin, xMax - xMin, yMax - yMin);
+    }
+
+    //-----------------//
+    // getPathIterator //
+    //-----------------//
+    @Override
+    public PathIterator getPathIterator (AffineTransform at)
+    {
+        return toPath().getPathIterator(at);
+    }
+
+    //-----------------//
+    // getPathIterator //
+    //-----------------//
+    @Override
+    public PathIterator getPathIterator (AffineTransform at,
+                                         double flatness)
+    {
+        return toPath().getPathIterator(at); // No curve to flatten
+    }
+
+    //-----------//
+    // getVertex //
+    //-----------//
+    /**
+     * Report a vertex of the quadrilateral.
+     *
+     * @param index vertex index in [0..3]
+     * @return the vertex point
+     */
+    public Point2D getVertex (int index)
+    {
+        return new Point2D.Double(xs[index], ys[index]);
+    }
+
+    //------------//
+    // intersects //
+    //------------//
+    /**
+     * Report whether this quadrilateral intersects the provided one.
+     *
+     * @param that the other quadrilateral
+     * @return true if their interiors intersect
+     */
+    public boolean intersects (ConvexQuad that)
+    {
+        if (this.isEmpty() || that.isEmpty()) {
+            return false;
+        }
+
+        if ((this.xMin >= that.xMax) || (that.xMin >= this.xMax) || (this.yMin >= that.yMax)
+                    || (that.yMin >= this.yMax)) {
+            return false;
+        }
+
+        for (int i = 0; i < 4; i++) {
+            if (this.separates(i, that.xs, that.ys) || that.separates(i, this.xs, this.ys)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    //------------//
+    // intersects //
+    //------------//
+    @Override
+    public boolean intersects (double x,
+                               double y,
+                               double w,
+                               double h)
+    {
+        if (isEmpty() || (w <= 0) || (h <= 0)) {
+            return false;
+        }
+
+        // Rectangle axes
+        if ((x >= xMax) || ((x + w) <= xMin) || (y >= yMax) || ((y + h) <= yMin)) {
+            return false;
+        }
+
+        // Quad axes
+        for (int i = 0; i < 4; i++) {
+            if ((side(i, x, y) <= 0) && (side(i, x + w, y) <= 0) && (side(i, x + w, y + h) <= 0)
+                        && (side(i, x, y + h) <= 0)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    //------------//
+    // intersects //
+    //------------//
+    @Override
+    public boolean intersects (Rectangle2D r)
+    {
+        return intersects(r.getX(), r.getY(), r.getWidth(), r.getHeight());
+    }
+
+    //---------//
+    // isEmpty //
+    //---------//
+    /**
+     * Report whether this quadrilateral has a null surface.
+     *
+     * @return true if empty
+     */
+    public boolean isEmpty ()
+    {
+        return sign == 0;
+    }
+
+    //-----------//
+    // separates //
+    //-----------//
+    /**
+     * Tell whether the provided edge line leaves all provided points on its outer side.
+     *
+     * @param i  edge index
+     * @param px points abscissae
+     * @param py points ordinates
+     * @return true if edge line is a separating axis
+     */
+    private boolean separates (int i,
+                               double[] px,
+                               double[] py)
+    {
+        for (int j = 0; j < px.length; j++) {
+            if (side(i, px[j], py[j]) > 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    //------//
+    // side //
+    //------//
+    /**
+     * Report on which side of the edge line #i the provided point lies.
+     *
+     * @param i edge index, edge going from vertex i to vertex i+1
+     * @param x point abscissa
+     * @param y point ordinate
+     * @return a positive value for inner side, negative for outer side, 0 for edge line
+     */
+    private double side (int i,
+                         double x,
+                         double y)
+    {
+        final int j = (i + 1) & 3;
+
+        return sign * (((xs[j] - xs[i]) * (y - ys[i])) - ((ys[j] - ys[i]) * (x - xs[i])));
+    }
+
+    //--------//
+    // toArea //
+    //--------//
+    /**
+     * Build the equivalent Area, for rendering purpose only.
+     *
+     * @return the equivalent area
+     */
+    public Area toArea ()
+    {
+        return new Area(toPath());
+    }
+
+    //--------//
+    // toPath //
+    //--------//
+    /**
+     * Build the closed path along the 4 vertices.
+     *
+     * @return the closed path
+     */
+    public Path2D toPath ()
+    {
+        final Path2D path = new Path2D.Double();
+        path.moveTo(xs[0], ys[0]);
+
+        for (int i = 1; i < 4; i++) {
+            path.lineTo(xs[i], ys[i]);
+        }
+
+        path.closePath();
+
+        return path;
+    }
+
+    //----------//
+    // toString //
+    //----------//
+    @Override
+    public String toString ()
+    {
+        final StringBuilder sb = new StringBuilder("ConvexQuad{");
+
+        for (int i = 0; i < 4; i++) {
+            sb.append(String.format("%s(%.1f,%.1f)", (i > 0) ? " " : "", xs[i], ys[i]));
+        }
+
+        return sb.append('}').toString();
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    //----//
+    // of //
+    //----//
+    /**
+     * Try to convert the provided polygonal shape into a convex quadrilateral.
+     *
+     * @param shape the provided shape, typically a closed path of 4 line segments
+     * @return the equivalent quadrilateral, or null if shape is not a convex quadrilateral
+     */
+    public static ConvexQuad of (Shape shape)
+    {
+        final double[] px = new double[4];
+        final double[] py = new double[4];
+        final double[] coords = new double[6];
+        int n = 0;
+
+        for (PathIterator it = shape.getPathIterator(null); !it.isDone(); it.next()) {
+            final int kind = it.currentSegment(coords);
+
+            if (kind == PathIterator.SEG_CLOSE) {
+                continue;
+            }
+
+            if (((kind != PathIterator.SEG_MOVETO) && (kind != PathIterator.SEG_LINETO))
+                        || ((kind == PathIterator.SEG_MOVETO) && (n > 0))) {
+                return null; // Curve or several sub-paths
+            }
+
+            if ((n > 0) && (coords[0] == px[n - 1]) && (coords[1] == py[n - 1])) {
+                continue; // Duplicated point
+            }
+
+            if ((n == 4) && (coords[0] == px[0]) && (coords[1] == py[0])) {
+                continue; // Explicit closing point
+            }
+
+            if (n == 4) {
+                return null; // Too many vertices
+            }
+
+            px[n] = coords[0];
+            py[n] = coords[1];
+            n++;
+        }
+
+        if (n != 4) {
+            return null;
+        }
+
+        // Check convexity: all turns must go the same way
+        double turn = 0;
+
+        for (int i = 0; i < 4; i++) {
+            final int j = (i + 1) & 3;
+            final int k = (i + 2) & 3;
+            final double cross = ((px[j] - px[i]) * (py[k] - py[j]))
+                                         - ((py[j] - py[i]) * (px[k] - px[j]));
+
+            if ((cross == 0) || ((turn != 0) && (Math.signum(cross) != turn))) {
+                return null;
+            }
+
+            turn = Math.signum(cross);
+        }
+
+        return new ConvexQuad(px[0], py[0], px[1], py[1], px[2], py[2], px[3], py[3]);
+    }
+
+    //-------------------------//
+    // horizontalParallelogram //
+    //-------------------------//
+    /**
+     * Create a parallelogram mostly horizontal, where left and right sides are short and
+     * vertical.
+     * <p>
+     * This is the lightweight equivalent of {@link AreaUtil#horizontalParallelogram}.
+     *
+     * @param left   left point of median line
+     * @param right  right point of median line
+     * @param height total height
+     * @return the created quadrilateral
+     */
+    public static ConvexQuad horizontalParallelogram (Point2D left,
+                                                      Point2D right,
+                                                      double height)
+    {
+        final double dy = height / 2; // Half height
+
+        return new ConvexQuad(
+                left.getX(),
+                left.getY() - dy, // Upper left
+                right.getX(),
+                right.getY() - dy, // Upper right
+                right.getX(),
+                right.getY() + dy, // Lower right
+                left.getX(),
+                left.getY() + dy); // Lower left
+    }
+
+    //-----------------------//
+    // verticalParallelogram //
+    //-----------------------//
+    /**
+     * Create a parallelogram mostly vertical, where top and bottom sides are short and
+     * horizontal.
+     * <p>
+     * This is the lightweight equivalent of {@link AreaUtil#verticalParallelogram}.
+     *
+     * @param top    top point of median line
+     * @param bottom bottom point of median line
+     * @param width  total width
+     * @return the created quadrilateral
+     */
+    public static ConvexQuad verticalParallelogram (Point2D top,
+                                                    Point2D bottom,
+                                                    double width)
+    {
+        final double dx = width / 2; // Half width
+
+        return new ConvexQuad(
+                top.getX() - dx,
+                top.getY(), // Upper left
+                top.getX() + dx,
+                top.getY(), // Upper right
+                bottom.getX() + dx,
+                bottom.getY(), // Lower right
+                bottom.getX() - dx,
+                bottom.getY()); // Lower left
+    }
+}
@@ -0,0 +1,448 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                           R i b b o n                                          //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.math;
+
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Area;
+import java.awt.geom.Path2D;
+import java.awt.geom.PathIterator;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class <code>Ribbon</code> is a lightweight polyline ribbon, made of a chain of
+ * {@link ConvexQuad} pieces, one per segment of a polygonal median line.
+ * <p>
+ * It is the allocation-free replacement for the {@link Area} instances built by
+ * {@link AreaUtil#verticalRibbon}, {@link AreaUtil#horizontalParallelogram} and
+ * {@link AreaUtil#verticalParallelogram}, when they are used for geometric tests.
+ * The equivalent Area is built only for rendering, via {@link #toArea()}.
+ * <p>
+ * Consecutive pieces are assumed to share an edge: vertices 3 and 2 of a piece are vertices 0
+ * and 1 of the next piece.
+ * <p>
+ * A ribbon along a curved median (such as a NaturalSpline) cannot be made of pieces without
+ * approximation, it is thus backed by the exact Area, as built by AreaUtil.
+ *
+ * @author Hervé Bitteur
+ */
+public class Ribbon
+        implements Shape
+{
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Sequence of pieces along the median, empty for a curved ribbon. */
+    private final ConvexQuad[] pieces;
+
+    /** Exact area for a curved ribbon, null otherwise. */
+    private final Area area;
+
+    /** Global bounds. */
+    private final Rectangle2D bounds2D;
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Creates a new <code>Ribbon</code> object.
+     *
+     * @param pieces the sequence of pieces along the median, not empty
+     */
+    public Ribbon (ConvexQuad... pieces)
+    {
+        this.pieces = pieces;
+        area = null;
+
+        bounds2D = pieces[0].getBounds2D();
+
+        for (int i = 1; i < pieces.length; i++) {
+            bounds2D.add(pieces[i].getBounds2D());
+        }
+    }
+
+    /**
+     * Creates a curved <code>Ribbon</code> object.
+     *
+     * @param area the exact area
+     */
+    private Ribbon (Area area)
+    {
+        this.area = area;
+        pieces = new ConvexQuad[0];
+        bounds2D = area.getBounds2D();
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //----------//
+    // contains //
+    //----------//
+    @Override
+    public boolean contains (double x,
+                             double y)
+    {
+        if (!bounds2D.contains(x, y)) {
+            return false;
+        }
+
+        if (area != null) {
+            return area.contains(x, y);
+        }
+
+        for (ConvexQuad piece : pieces) {
+            if (piece.contains(x, y)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    //----------//
+    // contains //
+    //----------//
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The rectangle must be contained by a single piece.
+     * This is conservative when the rectangle spans several pieces.
+     */
+    @Override
+    public boolean contains (double x,
+                             double y,
+                             double w,
+                             double h)
+    {
+        if (area != null) {
+            return area.contains(x, y, w, h);
+        }
+
+        for (ConvexQuad piece : pieces) {
+            if (piece.contains(x, y, w, h)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    //----------//
+    // contains //
+    //----------//
+    @Override
+    public boolean contains (Point2D p)
+    {
+        return contains(p.getX(), p.getY());
+    }
+
+    //----------//
+    // contains //
+    //----------//
+    @Override
+    public boolean contains (Rectangle2D r)
+    {
+        return contains(r.getX(), r.getY(), r.getWidth(), r.getHeight());
+    }
+
+    //-----------//
+    // getBounds //
+    //-----------//
+    @Override
+    public Rectangle getBounds ()
+    {
+        final int x = (int) Math.floor(bounds2D.getMinX());
+        final int y = (int) Math.floor(bounds2D.getMinY());
+
+        return new Rectangle(
+                x,
+                y,
+                (int) Math.ceil(bounds2D.getMaxX()) - x,
+                (int) Math.ceil(bounds2D.getMaxY()) - y);
+    }
+
+    //-------------//
+    // getBounds2D //
+    //-------------//
+    @Override
+    public Rectangle2D getBounds2D ()
+    {
+        return (Rectangle2D) bounds2D.clone();
+    }
+
+    //-----------------//
+    // getPathIterator //
+    //-----------------//
+    @Override
+    public PathIterator getPathIterator (AffineTransform at)
+    {
+        return toPath().getPathIterator(at);
+    }
+
+    //-----------------//
+    // getPathIterator //
+    //-----------------//
+    @Override
+    public PathIterator getPathIterator (AffineTransform at,
+                                         double flatness)
+    {
+        return toPath().getPathIterator(at, flatness);
+    }
+
+    //-----------//
+    // getPieces //
+    //-----------//
+    /**
+     * Report the sequence of pieces.
+     *
+     * @return the pieces, empty for a curved ribbon
+     */
+    public ConvexQuad[] getPieces ()
+    {
+        return pieces.clone();
+    }
+
+    //------------//
+    // intersects //
+    //------------//
+    @Override
+    public boolean intersects (double x,
+                               double y,
+                               double w,
+                               double h)
+    {
+        if (!bounds2D.intersects(x, y, w, h)) {
+            return false;
+        }
+
+        if (area != null) {
+            return area.intersects(x, y, w, h);
+        }
+
+        for (ConvexQuad piece : pieces) {
+            if (piece.intersects(x, y, w, h)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    //------------//
+    // intersects //
+    //------------//
+    @Override
+    public boolean intersects (Rectangle2D r)
+    {
+        return intersects(r.getX(), r.getY(), r.getWidth(), r.getHeight());
+    }
+
+    //------------//
+    // intersects //
+    //------------//
+    /**
+     * Report whether this ribbon intersects the provided one.
+     *
+     * @param that the other ribbon
+     * @return true if their interiors intersect
+     */
+    public boolean intersects (Ribbon that)
+    {
+        if (!this.bounds2D.intersects(that.bounds2D)) {
+            return false;
+        }
+
+        if ((this.area != null) || (that.area != null)) {
+            final Area inter = this.toArea();
+            inter.intersect(that.toArea());
+
+            return !inter.isEmpty();
+        }
+
+        for (ConvexQuad p1 : this.pieces) {
+            for (ConvexQuad p2 : that.pieces) {
+                if (p1.intersects(p2)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    //--------//
+    // toArea //
+    //--------//
+    /**
+     * Build the equivalent Area, for rendering purpose only.
+     *
+     * @return the equivalent area
+     */
+    public Area toArea ()
+    {
+        return (area != null) ? new Area(area) : new Area(toPath());
+    }
+
+    //--------//
+    // toPath //
+    //--------//
+    /**
+     * Build the closed outline path, going down one side of the chain and back up the
+     * other side.
+     *
+     * @return the closed outline
+     */
+    public Path2D toPath ()
+    {
+        if (area != null) {
+            return new Path2D.Double(area);
+        }
+
+        final Path2D path = new Path2D.Double();
+        final Point2D start = pieces[0].getVertex(0);
+        path.moveTo(start.getX(), start.getY());
+
+        for (ConvexQuad piece : pieces) {
+            final Point2D p = piece.getVertex(3);
+            path.lineTo(p.getX(), p.getY());
+        }
+
+        for (int i = pieces.length - 1; i >= 0; i--) {
+            final Point2D p = pieces[i].getVertex(2);
+            path.lineTo(p.getX(), p.getY());
+        }
+
+        final Point2D end = pieces[0].getVertex(1);
+        path.lineTo(end.getX(), end.getY());
+        path.closePath();
+
+        return path;
+    }
+
+    //----------//
+    // toString //
+    //----------//
+    @Override
+    public String toString ()
+    {
+        return "Ribbon{pieces:" + pieces.length + " " + bounds2D + "}";
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    //------------//
+    // horizontal //
+    //------------//
+    /**
+     * Create a single-piece ribbon as a parallelogram mostly horizontal.
+     *
+     * @param left   left point of median line
+     * @param right  right point of median line
+     * @param height total height
+     * @return the created ribbon
+     * @see ConvexQuad#horizontalParallelogram
+     */
+    public static Ribbon horizontal (Point2D left,
+                                     Point2D right,
+                                     double height)
+    {
+        return new Ribbon(ConvexQuad.horizontalParallelogram(left, right, height));
+    }
+
+    //----------//
+    // vertical //
+    //----------//
+    /**
+     * Create a ribbon mostly vertical, where top and bottom are short and horizontal,
+     * and left and right sides are long and rather vertical.
+     * <p>
+     * This is the lightweight equivalent of {@link AreaUtil#verticalRibbon}.
+     * A curved median (such as a NaturalSpline) is kept as is, and the ribbon is then backed
+     * by the exact area.
+     *
+     * @param median the defining vertical line, assumed to go downward
+     * @param width  ribbon width
+     * @return the created ribbon
+     */
+    public static Ribbon vertical (Shape median,
+                                   double width)
+    {
+        final double dx = width / 2; // Half width
+        final List<ConvexQuad> list = new ArrayList<>();
+        final double[] coords = new double[6];
+        double x = 0;
+        double y = 0;
+
+        for (PathIterator it = median.getPathIterator(null); !it.isDone(); it.next()) {
+            final int kind = it.currentSegment(coords);
+
+            if ((kind == PathIterator.SEG_QUADTO) || (kind == PathIterator.SEG_CUBICTO)) {
+                return new Ribbon(AreaUtil.verticalRibbon(median, width));
+            }
+
+            if (kind == PathIterator.SEG_LINETO) {
+                list.add(
+                        new ConvexQuad(
+                                x - dx,
+                                y, // Upper left
+                                x + dx,
+                                y, // Upper right
+                                coords[0] + dx,
+                                coords[1], // Lower right
+                                coords[0] - dx,
+                                coords[1])); // Lower left
+            }
+
+            if (kind != PathIterator.SEG_CLOSE) {
+                x = coords[0];
+                y = coords[1];
+            }
+        }
+
+        if (list.isEmpty()) {
+            list.add(new ConvexQuad(x - dx, y, x + dx, y, x + dx, y, x - dx, y)); // Empty piece
+        }
+
+        return new Ribbon(list.toArray(new ConvexQuad[list.size()]));
+    }
+
+    //----------//
+    // vertical //
+    //----------//
+    /**
+     * Create a single-piece ribbon as a parallelogram mostly vertical.
+     *
+     * @param top    top point of median line
+     * @param bottom bottom point of median line
+     * @param width  total width
+     * @return the created ribbon
+     * @see ConvexQuad#verticalParallelogram
+     */
+    public static Ribbon vertical (Point2D top,
+                                   Point2D bottom,
+                                   double width)
+    {
+        return new Ribbon(ConvexQuad.verticalParallelogram(top, bottom, width));
+    }
+}
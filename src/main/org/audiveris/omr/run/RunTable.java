@@ -45,6 +45,8 @@ import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
@@ -825,6 +827,88 @@ public class RunTable
         }
     }
 
+    //-------------//
+    // gapDistance //
+    //-------------//
+    /**
+     * Report the smallest distance between a pixel of this runTable and a pixel of that
+     * runTable, computed directly on run intervals.
+     * <p>
+     * Distance is measured with the 3-4 chamfer metric (3 per straight step, 4 per diagonal
+     * step), that is 3 * max(dx, dy) + min(dx, dy), without any normalization.
+     * Only pixels of that runTable located within the provided box are considered.
+     * <p>
+     * Both tables must share the same orientation.
+     *
+     * @param offset     absolute location of this runTable
+     * @param that       the other runTable
+     * @param thatOffset absolute location of that runTable
+     * @param box        absolute region of interest for that runTable pixels
+     * @return the smallest distance found, or Integer.MAX_VALUE if none
+     */
+    public int gapDistance (Point offset,
+                            RunTable that,
+                            Point thatOffset,
+                            Rectangle box)
+    {
+        if (that.orientation != orientation) {
+            throw new IllegalArgumentException(
+                    "Cannot measure a RunTable of different orientation");
+        }
+
+        // Everything is expressed in (sequence, coordinate) relative to this table
+        final boolean hori = orientation == HORIZONTAL;
+        final int seqShift = hori ? (thatOffset.y - offset.y) : (thatOffset.x - offset.x);
+        final int coordShift = hori ? (thatOffset.x - offset.x) : (thatOffset.y - offset.y);
+        final int pMin = hori ? (box.y - offset.y) : (box.x - offset.x);
+        final int pMax = (pMin + (hori ? box.height : box.width)) - 1;
+        final int cMin = hori ? (box.x - offset.x) : (box.y - offset.y);
+        final int cMax = (cMin + (hori ? box.width : box.height)) - 1;
+        final int qMin = Math.max(0, pMin - seqShift);
+        final int qMax = Math.min(that.sequences.length - 1, pMax - seqShift);
+        int best = Integer.MAX_VALUE;
+
+        for (int p = 0; p < sequences.length; p++) {
+            final RunSequence seq = sequences[p];
+
+            if ((seq == null) || (seq.rle == null)) {
+                continue;
+            }
+
+            for (int q = qMin; q <= qMax; q++) {
+                final RunSequence thatSeq = that.sequences[q];
+
+                if ((thatSeq == null) || (thatSeq.rle == null)) {
+                    continue;
+                }
+
+                final int dp = Math.abs((q + seqShift) - p);
+
+                if ((3 * dp) >= best) {
+                    continue; // No improvement possible from this sequence
+                }
+
+                final int dc = minGap(seq.rle, thatSeq.rle, coordShift, cMin, cMax);
+
+                if (dc == Integer.MAX_VALUE) {
+                    continue;
+                }
+
+                final int dist = (3 * Math.max(dp, dc)) + Math.min(dp, dc);
+
+                if (dist < best) {
+                    if (dist == 0) {
+                        return 0;
+                    }
+
+                    best = dist;
+                }
+            }
+        }
+
+        return best;
+    }
+
     //-----//
     // get //
     //-----//
@@ -1208,6 +1292,69 @@ public class RunTable
         return false;
     }
 
+    //------------//
+    // intersects //
+    //------------//
+    /**
+     * Report whether this runTable has at least one pixel in common with (or, if fat,
+     * adjacent to) a pixel of that runTable.
+     * <p>
+     * The test is performed directly on run intervals, by merging the runs of facing sequences.
+     * Both tables must share the same orientation.
+     *
+     * @param offset     absolute location of this runTable
+     * @param that       the other runTable
+     * @param thatOffset absolute location of that runTable
+     * @param fat        true to consider 4-neighbor touching as intersection
+     * @return true if intersection found
+     */
+    public boolean intersects (Point offset,
+                               RunTable that,
+                               Point thatOffset,
+                               boolean fat)
+    {
+        if (that.orientation != orientation) {
+            throw new IllegalArgumentException(
+                    "Cannot intersect a RunTable of different orientation");
+        }
+
+        final boolean hori = orientation == HORIZONTAL;
+        final int seqShift = hori ? (thatOffset.y - offset.y) : (thatOffset.x - offset.x);
+        final int coordShift = hori ? (thatOffset.x - offset.x) : (thatOffset.y - offset.y);
+        final int dqMax = fat ? 1 : 0;
+
+        for (int p = 0; p < sequences.length; p++) {
+            final RunSequence seq = sequences[p];
+
+            if ((seq == null) || (seq.rle == null)) {
+                continue;
+            }
+
+            for (int dq = -dqMax; dq <= dqMax; dq++) {
+                final int q = p - seqShift + dq;
+
+                if ((q < 0) || (q >= that.sequences.length)) {
+                    continue;
+                }
+
+                final RunSequence thatSeq = that.sequences[q];
+
+                if ((thatSeq == null) || (thatSeq.rle == null)) {
+                    continue;
+                }
+
+                // Within the same line, fat runs touch when they are just consecutive
+                final int margin = (fat && (dq == 0)) ? 1 : 0;
+
+                if (overlap(seq.rle, thatSeq.rle, coordShift, margin)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
     //-----------------//
     // isSequenceEmpty //
     //-----------------//
@@ -1644,6 +1791,40 @@ public class RunTable
         }
     }
 
+    //----------//
+    // writeRle //
+    //----------//
+    /**
+     * Write this table in a compact binary form, made of the table orientation and
+     * dimension followed by the raw RLE content of each sequence, all using variable-length
+     * integers.
+     *
+     * @param out the output to write to
+     * @throws IOException on IO error
+     * @see #readRle(DataInput)
+     */
+    public void writeRle (DataOutput out)
+        throws IOException
+    {
+        out.writeByte(orientation.ordinal());
+        writeVarInt(out, width);
+        writeVarInt(out, height);
+
+        for (RunSequence seq : sequences) {
+            final int[] rle = (seq != null) ? seq.rle : null;
+
+            if (rle == null) {
+                writeVarInt(out, 0);
+            } else {
+                writeVarInt(out, rle.length);
+
+                for (int val : rle) {
+                    writeVarInt(out, val);
+                }
+            }
+        }
+    }
+
     //~ Static Methods -----------------------------------------------------------------------------
 
     //--------//
@@ -1699,17 +1880,193 @@ public class RunTable
     //----------------//
     // getJaxbContext //
     //----------------//
-    private static JAXBContext getJaxbContext ()
+    public static JAXBContext getJaxbContext ()
         throws JAXBException
     {
-        // Lazy creation
+        // Lazy creation, perhaps concurrently with a warm-up task
         if (jaxbContext == null) {
-            jaxbContext = JAXBContext.newInstance(RunTable.class);
+            synchronized (RunTable.class) {
+                if (jaxbContext == null) {
+                    jaxbContext = JAXBContext.newInstance(RunTable.class);
+                }
+            }
         }
 
         return jaxbContext;
     }
 
+    //--------//
+    // minGap //
+    //--------//
+    /**
+     * Report the smallest gap between a run of first sequence and a run of second sequence.
+     * <p>
+     * Both sequences are browsed in parallel, always moving forward the run that stops first.
+     *
+     * @param rle1   first sequence
+     * @param rle2   second sequence
+     * @param shift2 coordinate shift to apply to second sequence runs
+     * @param min    minimum coordinate for second sequence runs
+     * @param max    maximum coordinate for second sequence runs
+     * @return the smallest gap (0 for overlap), or Integer.MAX_VALUE if no run pair
+     */
+    private static int minGap (int[] rle1,
+                               int[] rle2,
+                               int shift2,
+                               int min,
+                               int max)
+    {
+        int best = Integer.MAX_VALUE;
+        int i1 = 0;
+        int start1 = 0;
+        int i2 = 0;
+        int start2 = shift2;
+
+        while ((i1 < rle1.length) && (i2 < rle2.length)) {
+            if (rle1[i1] == 0) {
+                start1 += (i1 + 1 < rle1.length) ? rle1[i1 + 1] : 0;
+                i1 += 2;
+
+                continue;
+            }
+
+            // Second run, clipped to [min..max]
+            final int from2 = Math.max(start2, min);
+            final int to2 = Math.min((start2 + rle2[i2]) - 1, max);
+
+            if (from2 > to2) {
+                if (start2 > max) {
+                    break;
+                }
+
+                start2 += rle2[i2] + ((i2 + 1 < rle2.length) ? rle2[i2 + 1] : 0);
+                i2 += 2;
+
+                continue;
+            }
+
+            final int stop1 = (start1 + rle1[i1]) - 1;
+            final int gap = Math.max(0, Math.max(from2 - stop1, start1 - to2));
+
+            if (gap < best) {
+                if (gap == 0) {
+                    return 0;
+                }
+
+                best = gap;
+            }
+
+            if (stop1 <= to2) {
+                start1 += rle1[i1] + ((i1 + 1 < rle1.length) ? rle1[i1 + 1] : 0);
+                i1 += 2;
+            } else {
+                start2 += rle2[i2] + ((i2 + 1 < rle2.length) ? rle2[i2 + 1] : 0);
+                i2 += 2;
+            }
+        }
+
+        return best;
+    }
+
+    //---------//
+    // readRle //
+    //---------//
+    /**
+     * Read a table from the compact binary form written by {@link #writeRle(DataOutput)}.
+     *
+     * @param in the input to read from
+     * @return the run table read
+     * @throws IOException on IO error
+     */
+    public static RunTable readRle (DataInput in)
+        throws IOException
+    {
+        final Orientation orientation = Orientation.values()[in.readByte()];
+        final int width = readVarInt(in);
+        final int height = readVarInt(in);
+        final RunTable table = new RunTable(orientation, width, height);
+
+        for (int i = 0; i < table.sequences.length; i++) {
+            final int length = readVarInt(in);
+
+            if (length > 0) {
+                final int[] rle = new int[length];
+
+                for (int j = 0; j < length; j++) {
+                    rle[j] = readVarInt(in);
+                }
+
+                table.sequences[i] = new RunSequence(rle);
+            }
+        }
+
+        return table;
+    }
+
+    //------------//
+    // readVarInt //
+    //------------//
+    private static int readVarInt (DataInput in)
+        throws IOException
+    {
+        int val = 0;
+
+        for (int shift = 0;; shift += 7) {
+            final int b = in.readByte();
+            val |= (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                return val;
+            }
+        }
+    }
+
+    //---------//
+    // overlap //
+    //---------//
+    /**
+     * Report whether a run of first sequence overlaps a run of second sequence.
+     * <p>
+     * Both sequences are browsed in parallel, always moving forward the run that stops first.
+     *
+     * @param rle1   first sequence
+     * @param rle2   second sequence
+     * @param shift2 coordinate shift to apply to second sequence runs
+     * @param margin additional coordinates tolerated on both run sides
+     * @return true if overlap found
+     */
+    private static boolean overlap (int[] rle1,
+                                    int[] rle2,
+                                    int shift2,
+                                    int margin)
+    {
+        int i1 = 0;
+        int start1 = 0;
+        int i2 = 0;
+        int start2 = shift2;
+
+        while ((i1 < rle1.length) && (i2 < rle2.length)) {
+            final int stop1 = (start1 + rle1[i1]) - 1;
+            final int stop2 = (start2 + rle2[i2]) - 1;
+
+            if ((rle1[i1] != 0) && (rle2[i2] != 0)) {
+                if ((start2 <= (stop1 + margin)) && (start1 <= (stop2 + margin))) {
+                    return true;
+                }
+            }
+
+            if (stop1 <= stop2) {
+                start1 += rle1[i1] + ((i1 + 1 < rle1.length) ? rle1[i1 + 1] : 0);
+                i1 += 2;
+            } else {
+                start2 += rle2[i2] + ((i2 + 1 < rle2.length) ? rle2[i2 + 1] : 0);
+                i2 += 2;
+            }
+        }
+
+        return false;
+    }
+
     //-----------//
     // unmarshal //
     //-----------//
@@ -1736,6 +2093,21 @@ public class RunTable
         }
     }
 
+    //-------------//
+    // writeVarInt //
+    //-------------//
+    private static void writeVarInt (DataOutput out,
+                                     int val)
+        throws IOException
+    {
+        while ((val & ~0x7F) != 0) {
+            out.writeByte((val & 0x7F) | 0x80);
+            val >>>= 7;
+        }
+
+        out.writeByte(val);
+    }
+
     //-----//
     // Itr //
     //-----//
@@ -21,6 +21,8 @@
 // </editor-fold>
 package org.audiveris.omr.run;
 
+import org.audiveris.omr.image.BinaryBuffer;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,6 +32,8 @@ import net.jcip.annotations.ThreadSafe;
 
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -79,6 +83,51 @@ public class RunTableFactory
 
     //~ Methods ------------------------------------------------------------------------------------
 
+    // ------------//
+    // createTable //
+    // ------------//
+    /**
+     * Report the RunTable created with the runs retrieved from the provided binary source.
+     *
+     * @param source the binary source to read runs from.
+     * @return a populated RunTable
+     */
+    public RunTable createTable (BinaryBuffer source)
+    {
+        return createTable(source, new Rectangle(0, 0, source.getWidth(), source.getHeight()));
+    }
+
+    // ------------//
+    // createTable //
+    // ------------//
+    /**
+     * Report the RunTable created with the runs retrieved from the provided binary source.
+     * <p>
+     * Runs are retrieved 64 pixels at a time:
+     * <ul>
+     * <li>Horizontal runs by jumping from one row transition to the next one.</li>
+     * <li>Vertical runs by comparing each row with the previous one, so that only the columns
+     * where a transition occurs get processed.</li>
+     * </ul>
+     *
+     * @param source the binary source to read runs from.
+     * @param roi    region of interest (its coordinates are relative to the source)
+     * @return a populated RunTable
+     */
+    public RunTable createTable (BinaryBuffer source,
+                                 Rectangle roi)
+    {
+        final RunTable table = new RunTable(orientation, roi.width, roi.height);
+
+        if (orientation.isVertical()) {
+            retrieveVerticalRuns(source, roi, table);
+        } else {
+            retrieveHorizontalRuns(source, roi, table);
+        }
+
+        return table;
+    }
+
     // ------------//
     // createTable //
     // ------------//
@@ -119,6 +168,85 @@ public class RunTableFactory
         return table;
     }
 
+    //------------------------//
+    // retrieveHorizontalRuns //
+    //------------------------//
+    private void retrieveHorizontalRuns (BinaryBuffer source,
+                                         Rectangle roi,
+                                         RunTable table)
+    {
+        final int xMax = roi.x + roi.width; // Exclusive
+
+        for (int y = roi.y, yBreak = roi.y + roi.height; y < yBreak; y++) {
+            final List<Run> runs = new ArrayList<>();
+
+            for (int x = source.nextSetBit(roi.x, y); x < xMax; x = source.nextSetBit(x, y)) {
+                final int stop = Math.min(xMax, source.nextClearBit(x, y));
+                final int length = stop - x;
+
+                if ((filter == null) || filter.check(x, y, length)) {
+                    runs.add(new Run(x - roi.x, length));
+                }
+
+                x = stop;
+            }
+
+            table.setSequence(y - roi.y, RunTable.encode(runs));
+        }
+    }
+
+    //----------------------//
+    // retrieveVerticalRuns //
+    //----------------------//
+    private void retrieveVerticalRuns (BinaryBuffer source,
+                                       Rectangle roi,
+                                       RunTable table)
+    {
+        // Runs per column, allocated on first run
+        final List<List<Run>> runs = new ArrayList<>(Collections.nCopies(roi.width, null));
+        final int[] starts = new int[roi.width];
+        final int yBreak = roi.y + roi.height;
+        long[] prev = new long[(roi.width + 63) / 64];
+        long[] cur = new long[prev.length];
+
+        // We browse one extra (empty) row, to end the runs in progress
+        for (int y = roi.y; y <= yBreak; y++) {
+            for (int i = 0; i < cur.length; i++) {
+                final int n = Math.min(64, roi.width - (i * 64));
+                final long mask = (n == 64) ? -1L : ((1L << n) - 1);
+                cur[i] = (y < yBreak) ? (source.getBits(roi.x + (i * 64), y, false) & mask) : 0;
+
+                // Process only the columns where a transition occurs
+                for (long diff = cur[i] ^ prev[i]; diff != 0; diff &= diff - 1) {
+                    final int bit = Long.numberOfTrailingZeros(diff);
+                    final int col = (i * 64) + bit;
+
+                    if ((cur[i] & (1L << bit)) != 0) {
+                        starts[col] = y; // Run start
+                    } else {
+                        final int length = y - starts[col]; // Run end
+
+                        if ((filter == null) || filter.check(roi.x + col, starts[col], length)) {
+                            if (runs.get(col) == null) {
+                                runs.set(col, new ArrayList<>());
+                            }
+
+                            runs.get(col).add(new Run(starts[col] - roi.y, length));
+                        }
+                    }
+                }
+            }
+
+            final long[] tmp = prev;
+            prev = cur;
+            cur = tmp;
+        }
+
+        for (int col = 0; col < roi.width; col++) {
+            table.setSequence(col, RunTable.encode(runs.get(col)));
+        }
+    }
+
     //~ Inner Interfaces ---------------------------------------------------------------------------
 
     //--------//
@@ -22,7 +22,11 @@
 package org.audiveris.omr.score;
 
 import org.audiveris.omr.OMR;
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+import org.audiveris.omr.log.LogUtil;
 import org.audiveris.omr.sheet.Book;
+import org.audiveris.omr.util.OmrExecutors;
 import org.audiveris.proxymusic.ScorePartwise;
 import org.audiveris.proxymusic.mxl.Mxl;
 import org.audiveris.proxymusic.mxl.RootFile;
@@ -34,13 +38,19 @@ import org.audiveris.proxymusic.util.Marshalling;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.FileOutputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
 
 /**
  * Class <code>OpusExporter</code> is meant to export an Opus of scores (movements).
+ * <p>
+ * Scores not meant to be streamed are built concurrently, then marshalled in opus order.
  *
  * @author Hervé Bitteur
  */
@@ -48,6 +58,8 @@ public class OpusExporter
 {
     //~ Static fields/initializers -----------------------------------------------------------------
 
+    private static final Constants constants = new Constants();
+
     private static final Logger logger = LoggerFactory.getLogger(OpusExporter.class);
 
     //~ Instance fields ----------------------------------------------------------------------------
@@ -107,6 +119,26 @@ public class OpusExporter
 
         final boolean multi = scores.size() > 1; // Is this a multi-movement book?
 
+        // Launch the building of score trees, to be marshalled in order
+        final Map<Score, Future<ScorePartwise>> trees = new HashMap<>();
+
+        if (multi && constants.useParallelScores.isSet()) {
+            for (Score score : scores) {
+                if (!ScoreExporter.isStreamed(score)) {
+                    trees.put(score, OmrExecutors.getCachedLowExecutor().submit( () ->
+                    {
+                        try {
+                            LogUtil.start(book);
+
+                            return PartwiseBuilder.build(score);
+                        } finally {
+                            LogUtil.stopBook();
+                        }
+                    }));
+                }
+            }
+        }
+
         for (Score score : scores) {
             // Reference each score/movement in opus
             String entryName = rootName + (multi ? (".mvt" + score.getId()) : "")
@@ -117,9 +149,15 @@ public class OpusExporter
             opus.getOpusOrOpusLinkOrScore().add(oScore);
 
             // Marshal the score partwise
-            ScorePartwise scorePartwise = PartwiseBuilder.build(score);
             mof.addEntry(new RootFile(entryName, RootFile.MUSICXML_MEDIA_TYPE));
-            Marshalling.marshal(scorePartwise, zos, signed, 2);
+
+            final Future<ScorePartwise> tree = trees.get(score);
+
+            if (tree != null) {
+                Marshalling.marshal(tree.get(), zos, signed, 2);
+            } else {
+                ScoreExporter.write(score, zos, signed);
+            }
         }
 
         // Store opus as root
@@ -136,6 +174,8 @@ public class OpusExporter
     //--------//
     /**
      * Export the opus to a file.
+     * <p>
+     * Data is first written to a temporary file, then moved to the target path.
      *
      * @param path     full target path to write (cannot be null)
      * @param rootName opus root name
@@ -149,9 +189,31 @@ public class OpusExporter
                         List<Score> scores)
         throws Exception
     {
-        try (OutputStream os = new FileOutputStream(path.toString())) {
-            export(os, signed, rootName, scores);
+        final Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try {
+            try (OutputStream os = Files.newOutputStream(tmp)) {
+                export(os, signed, rootName, scores);
+            }
+
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
             logger.info("Opus {} exported to {}", rootName, path);
+        } finally {
+            Files.deleteIfExists(tmp);
         }
     }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static class Constants
+            extends ConstantSet
+    {
+
+        private final Constant.Boolean useParallelScores = new Constant.Boolean(
+                true,
+                "Should we build the scores of a multi-movement opus in parallel?");
+    }
 }
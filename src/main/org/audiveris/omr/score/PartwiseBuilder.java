@@ -21,6 +21,7 @@
 // </editor-fold>
 package org.audiveris.omr.score;
 
+import org.audiveris.omr.Main;
 import org.audiveris.omr.WellKnowns;
 import org.audiveris.omr.constant.Constant;
 import org.audiveris.omr.constant.ConstantSet;
@@ -28,6 +29,7 @@ import org.audiveris.omr.glyph.Shape;
 import static org.audiveris.omr.glyph.Shape.CODA;
 import static org.audiveris.omr.glyph.Shape.SEGNO;
 import org.audiveris.omr.glyph.ShapeSet.HeadMotif;
+import org.audiveris.omr.log.LogUtil;
 import org.audiveris.omr.math.Rational;
 import org.audiveris.omr.score.DrumSet.DrumInstrument;
 import org.audiveris.omr.score.DrumSet.DrumSound;
@@ -241,6 +243,7 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
@@ -250,6 +253,15 @@ import javax.xml.bind.JAXBException;
 /**
  * Class <code>PartwiseBuilder</code> builds a ProxyMusic MusicXML {@link ScorePartwise}
  * from an Audiveris {@link Score} instance.
+ * <p>
+ * The score header (part-list, identification, credits, ...) is populated first, then logical
+ * parts are processed one after the other, page after page.
+ * Measures can either be kept in the ScorePartwise tree (see {@link #build(Score)}) or be handed
+ * over system by system to a {@link Sink} (see {@link #stream(Score, Sink)}), so that the whole
+ * tree never has to be held in memory.
+ * <p>
+ * When no sink is used, logical parts can be built concurrently, each by its own builder instance
+ * which carries all the part-dependent state (current entities, flags and numbers).
  *
  * @author Hervé Bitteur
  */
@@ -288,7 +300,7 @@ public class PartwiseBuilder
     //~ Instance fields ----------------------------------------------------------------------------
 
     /** The ScorePartwise instance to be populated. */
-    private final ScorePartwise scorePartwise = new ScorePartwise();
+    private final ScorePartwise scorePartwise;
 
     /** The related score. */
     private final Score score;
@@ -314,22 +326,47 @@ public class PartwiseBuilder
     /** Factory for ProxyMusic entities. */
     private final ObjectFactory factory = new ObjectFactory();
 
+    /** Sink for measures, if any. If null, measures are kept in scorePartwise. */
+    private final Sink sink;
+
+    /** Drum instruments, per drum logical part. */
+    private final Map<LogicalPart, Map<Integer, ScoreInstrument>> instrumentMaps = new HashMap<>();
+
     //~ Constructors -------------------------------------------------------------------------------
 
     /**
      * Create a new PartwiseBuilder object, on a related score instance.
      *
      * @param score the underlying score
+     * @param sink  the sink for measures, or null to keep measures in ScorePartwise tree
      * @throws InterruptedException if the thread has been interrupted
      * @throws ExecutionException   if a checked exception was thrown
      */
-    private PartwiseBuilder (Score score)
+    private PartwiseBuilder (Score score,
+                             Sink sink)
             throws InterruptedException, ExecutionException
     {
         // Make sure the JAXB context is ready
         loading.get();
 
         this.score = score;
+        this.sink = sink;
+        scorePartwise = new ScorePartwise();
+    }
+
+    /**
+     * Create a part builder, which shares the score-level data of the provided builder,
+     * but has its own part-dependent state.
+     *
+     * @param header the builder which has processed the score header
+     */
+    private PartwiseBuilder (PartwiseBuilder header)
+    {
+        score = header.score;
+        sink = null;
+        scorePartwise = header.scorePartwise;
+        source = header.source;
+        instrumentMaps.putAll(header.instrumentMaps);
     }
 
     //~ Methods ------------------------------------------------------------------------------------
@@ -612,7 +649,7 @@ public class PartwiseBuilder
                 midiInstrument.setMidiUnpitched(sound.getMidi());
                 midiInstrument.setVolume(new BigDecimal(score.getVolume()));
             }
-            current.instrumentMap = instrumentMap;
+            instrumentMaps.put(logicalPart, instrumentMap);
         } else {
             // Score instrument
             Integer midiProgram = logicalPart.getMidiProgram();
@@ -636,14 +673,48 @@ public class PartwiseBuilder
 
         }
 
-        // LogicalPart in scorePartwise
+        // LogicalPart for scorePartwise
         ScorePartwise.Part pmPart = factory.createScorePartwisePart();
-        scorePartwise.getPart().add(pmPart);
         pmPart.setId(pmScorePart);
 
         return pmPart;
     }
 
+    //---------------//
+    // flushMeasures //
+    //---------------//
+    /**
+     * If a sink is used, hand over to the sink the measures built so far in current part,
+     * and release them.
+     * <p>
+     * Last clef per staff is remembered, for the sake of {@link #isNewClef(Clef)}.
+     *
+     * @throws Exception if sink failed
+     */
+    private void flushMeasures ()
+        throws Exception
+    {
+        if (sink == null) {
+            return;
+        }
+
+        final List<ScorePartwise.Part.Measure> measures = current.pmPart.getMeasure();
+
+        for (ScorePartwise.Part.Measure pmMeasure : measures) {
+            for (Object obj : pmMeasure.getNoteOrBackupOrForward()) {
+                if (obj instanceof Attributes attributes) {
+                    for (Clef clef : attributes.getClef()) {
+                        current.lastClefs.put(clef.getNumber(), clef);
+                    }
+                }
+            }
+
+            sink.writeMeasure(pmMeasure);
+        }
+
+        measures.clear();
+    }
+
     //------------------//
     // getArticulations //
     //------------------//
@@ -854,6 +925,26 @@ public class PartwiseBuilder
         return ornaments;
     }
 
+    //---------//
+    // getPage //
+    //---------//
+    /**
+     * Report the score page contained in the provided sheet stub.
+     *
+     * @param stub the provided stub
+     * @return the score page in stub sheet, or null
+     */
+    private Page getPage (SheetStub stub)
+    {
+        final Integer sheetPageId = score.getSheetPageId(stub.getNumber());
+
+        if (sheetPageId == null) {
+            return null;
+        }
+
+        return stub.getSheet().getPages().get(sheetPageId - 1);
+    }
+
     //--------------//
     // getTechnical //
     //--------------//
@@ -1095,9 +1186,40 @@ public class PartwiseBuilder
             }
         }
 
+        // Look in measures already handed over to the sink, if any
+        final Clef lastClef = current.lastClefs.get(newClef.getNumber());
+
+        if (lastClef != null) {
+            return !areEqual(lastClef, newClef);
+        }
+
         return true; // Since no previous clef was found for the same staff
     }
 
+    //--------------//
+    // populatePart //
+    //--------------//
+    /**
+     * Populate the provided ScorePartwise.Part instance, through all score stubs.
+     *
+     * @param logicalPart the logical part to process
+     * @param pmPart      the related ScorePartwise.Part
+     * @param firstPart   true if logicalPart is the first part in score
+     * @throws Exception if sink failed
+     */
+    private void populatePart (LogicalPart logicalPart,
+                               ScorePartwise.Part pmPart,
+                               boolean firstPart)
+        throws Exception
+    {
+        current.instrumentMap = instrumentMaps.get(logicalPart);
+        current.lastClefs.clear();
+
+        for (SheetStub stub : score.getStubs()) {
+            processStub(stub, logicalPart, pmPart, firstPart);
+        }
+    }
+
     //- All processing Methods ---------------------------------------------------------------------
     //-------------------//
     // processArpeggiato //
@@ -1785,6 +1907,7 @@ public class PartwiseBuilder
     //--------------------//
     private void processLogicalPart (LogicalPart logicalPart,
                                      ScorePartwise.Part pmPart)
+        throws Exception
     {
         logger.debug("Processing {} for {}", logicalPart, current.page.getSheet());
 
@@ -1802,6 +1925,7 @@ public class PartwiseBuilder
         // Process all systems in page
         for (SystemInfo system : current.page.getSystems()) {
             processSystem(system);
+            flushMeasures();
         }
     }
 
@@ -2625,6 +2749,7 @@ public class PartwiseBuilder
     // processPartList //
     //-----------------//
     private void processPartList ()
+        throws Exception
     {
         logger.debug("Processing PartList for {}", score);
 
@@ -2638,14 +2763,94 @@ public class PartwiseBuilder
             ScorePartwise.Part pmPart = createScorePart(p);
             partMap.put(p, pmPart);
             partList.getPartGroupOrScorePart().add(pmPart.getId());
+
+            if (sink == null) {
+                scorePartwise.getPart().add(pmPart);
+            }
         }
 
-        // Then, stub by stub, populate all ScorePartwise.Part instances in parallel
+        // First, stub by stub, populate page-related header material
         final List<SheetStub> scoreStubs = score.getStubs();
         logger.info("Exporting sheet(s): {}", Book.ids(scoreStubs));
 
         for (SheetStub stub : scoreStubs) {
-            processStub(stub, partMap);
+            processStubHeader(stub);
+        }
+
+        if (sink != null) {
+            sink.startScore(scorePartwise);
+        }
+
+        // Then, part by part, populate each ScorePartwise.Part instance through all stubs
+        // Parts are independent, they can be built in parallel when global switches allow
+        final boolean parallel = (sink == null) && constants.useParallelParts.isSet()
+                && OmrExecutors.defaultParallelism.getValue()
+                && Main.processSystemsInParallel()
+                && (partMap.size() > 1);
+
+        if (parallel) {
+            processPartsInParallel(partMap);
+        } else {
+            boolean firstPart = true;
+
+            for (Entry<LogicalPart, ScorePartwise.Part> entry : partMap.entrySet()) {
+                final ScorePartwise.Part pmPart = entry.getValue();
+
+                if (sink != null) {
+                    sink.startPart(pmPart);
+                }
+
+                populatePart(entry.getKey(), pmPart, firstPart);
+
+                if (sink != null) {
+                    sink.endPart(pmPart);
+                }
+
+                firstPart = false;
+            }
+        }
+    }
+
+    //------------------------//
+    // processPartsInParallel //
+    //------------------------//
+    /**
+     * Populate all ScorePartwise.Part instances concurrently, one part builder per
+     * logical part.
+     * <p>
+     * Parts are already listed in scorePartwise, so their order is kept whatever the order of
+     * completion.
+     *
+     * @param partMap the map of parts to populate
+     * @throws Exception if anything goes wrong
+     */
+    private void processPartsInParallel (Map<LogicalPart, ScorePartwise.Part> partMap)
+        throws Exception
+    {
+        final Book book = score.getBook();
+        final List<Callable<Void>> tasks = new ArrayList<>(partMap.size());
+        boolean firstPart = true;
+
+        for (Entry<LogicalPart, ScorePartwise.Part> entry : partMap.entrySet()) {
+            final PartwiseBuilder partBuilder = new PartwiseBuilder(this);
+            final boolean first = firstPart;
+            tasks.add( () ->
+            {
+                try {
+                    LogUtil.start(book);
+                    partBuilder.populatePart(entry.getKey(), entry.getValue(), first);
+                } finally {
+                    LogUtil.stopBook();
+                }
+
+                return null;
+            });
+
+            firstPart = false;
+        }
+
+        for (Future<Void> future : OmrExecutors.getLowExecutor().invokeAll(tasks)) {
+            future.get();
         }
     }
 
@@ -2713,6 +2918,7 @@ public class PartwiseBuilder
      * Allocate/populate everything that relates to the score instance and its children.
      */
     private void processScore ()
+        throws Exception
     {
         try {
             logger.debug("Processing {}", score);
@@ -2830,8 +3036,18 @@ public class PartwiseBuilder
             // PartList & sequence of parts
             if (score.getLogicalParts() != null) {
                 processPartList();
+            } else if (sink != null) {
+                sink.startScore(scorePartwise);
+            }
+
+            if (sink != null) {
+                sink.endScore();
             }
         } catch (Exception ex) {
+            if (sink != null) {
+                throw ex; // Data already handed over to the sink cannot be recalled
+            }
+
             logger.warn("Error visiting {} {}", score, ex.toString(), ex);
         }
     }
@@ -3009,41 +3225,72 @@ public class PartwiseBuilder
     // processStub //
     //-------------//
     /**
-     * Process the sheet stub at hand, by appending part material for each part
+     * Process the sheet stub at hand, by appending material for the provided logical part.
      *
-     * @param stub    the stub to process
-     * @param partMap the map of parts to populateMeasure
+     * @param stub        the stub to process
+     * @param logicalPart the logical part to populate
+     * @param pmPart      the related ScorePartwise.Part
+     * @param firstPart   true if logicalPart is the first part in score
+     * @throws Exception if sink failed
      */
     private void processStub (SheetStub stub,
-                              Map<LogicalPart, ScorePartwise.Part> partMap)
+                              LogicalPart logicalPart,
+                              ScorePartwise.Part pmPart,
+                              boolean firstPart)
+        throws Exception
     {
-        logger.debug("Processing {}", stub);
+        logger.debug("Processing {} for {}", stub, logicalPart);
 
-        final Integer sheetPageId = score.getSheetPageId(stub.getNumber());
+        final Page page = getPage(stub);
 
         // This should never occur if processStub() is called only on score relevant stubs
-        if (sheetPageId == null) {
+        if (page == null) {
             return;
         }
 
-        final Sheet sheet = stub.getSheet();
-        final Page page = sheet.getPages().get(sheetPageId - 1);
-
-        source.encodePage(page, scorePartwise);
-
         current.page = page;
         current.pageMeasureIdOffset = score.getMeasureIdOffset(page);
         current.scale = page.getSheet().getScale();
-        page.resetDurationDivisor();
 
         isFirst.page = score.isFirst(page);
         isFirst.system = true;
         isFirst.measure = true;
-        isFirst.part = true;
+        isFirst.part = firstPart;
 
-        for (Entry<LogicalPart, ScorePartwise.Part> entry : partMap.entrySet()) {
-            processLogicalPart(entry.getKey(), entry.getValue());
-            isFirst.part = false;
+        processLogicalPart(logicalPart, pmPart);
+    }
+
+    //-------------------//
+    // processStubHeader //
+    //-------------------//
+    /**
+     * Process the sheet stub at hand, for score header material only (page source,
+     * credits, ...).
+     *
+     * @param stub the stub to process
+     */
+    private void processStubHeader (SheetStub stub)
+    {
+        logger.debug("Processing header of {}", stub);
+
+        final Page page = getPage(stub);
+
+        if (page == null) {
+            return;
+        }
+
+        source.encodePage(page, scorePartwise);
+
+        current.page = page;
+        current.scale = page.getSheet().getScale();
+        page.resetDurationDivisor();
+        page.getDurationDivisor(); // Computed once, before any concurrent use by part builders
+
+        // Sentences in page systems
+        for (SystemInfo system : page.getSystems()) {
+            for (Inter inter : system.getSig().inters(SentenceInter.class)) {
+                processSentence((SentenceInter) inter);
+            }
         }
     }
 
@@ -3101,13 +3348,6 @@ public class PartwiseBuilder
                 processPart(dummyPart);
             }
 
-            // Sentences in system
-            if (isFirst.part) {
-                for (Inter inter : system.getSig().inters(SentenceInter.class)) {
-                    processSentence((SentenceInter) inter);
-                }
-            }
-
             // If we have exported a measure, we are no longer in the first system
             if (!isFirst.measure) {
                 isFirst.system = false;
@@ -3407,15 +3647,14 @@ public class PartwiseBuilder
      *
      * @param score the score to export (cannot be null)
      * @return the populated ScorePartwise
-     * @throws InterruptedException if the thread has been interrupted
-     * @throws ExecutionException   if a checked exception was thrown
+     * @throws Exception if the thread has been interrupted or JAXB context is not available
      */
     public static ScorePartwise build (Score score)
-        throws InterruptedException, ExecutionException
+        throws Exception
     {
         Objects.requireNonNull(score, "Trying to export a null score");
 
-        final PartwiseBuilder builder = new PartwiseBuilder(score);
+        final PartwiseBuilder builder = new PartwiseBuilder(score, null);
 
         builder.processScore();
 
@@ -3432,6 +3671,31 @@ public class PartwiseBuilder
     {
     }
 
+    //--------//
+    // stream //
+    //--------//
+    /**
+     * Visit the whole score tree and hand over its content to the provided sink.
+     * <p>
+     * Unlike {@link #build(Score)}, measures are not kept in memory, they are flushed to the sink
+     * at the end of each system.
+     *
+     * @param score the score to export (cannot be null)
+     * @param sink  the sink to be fed (cannot be null)
+     * @throws Exception if anything goes wrong, notably in sink
+     */
+    public static void stream (Score score,
+                               Sink sink)
+        throws Exception
+    {
+        Objects.requireNonNull(score, "Trying to export a null score");
+        Objects.requireNonNull(sink, "Trying to export to a null sink");
+
+        final PartwiseBuilder builder = new PartwiseBuilder(score, sink);
+
+        builder.processScore();
+    }
+
     //~ Inner Classes ------------------------------------------------------------------------------
 
     //---------------//
@@ -3549,6 +3813,10 @@ public class PartwiseBuilder
         private final Constant.Boolean avoidTupletBrackets = new Constant.Boolean(
                 false,
                 "Should we avoid brackets for all tuplets");
+
+        private final Constant.Boolean useParallelParts = new Constant.Boolean(
+                true,
+                "Should we build logical parts in parallel (when no sink is used)?");
     }
 
     //---------//
@@ -3573,6 +3841,9 @@ public class PartwiseBuilder
 
         ScorePartwise.Part pmPart;
 
+        // Last clef per staff number, in measures already flushed
+        final Map<BigInteger, Clef> lastClefs = new HashMap<>();
+
         // Page dependent
         Page page;
 
@@ -3827,4 +4098,69 @@ public class PartwiseBuilder
             }
         }
     }
+
+    //------//
+    // Sink //
+    //------//
+    /**
+     * Interface for a consumer of score material, fed in document order.
+     * <ol>
+     * <li>{@link #startScore} once, with the ScorePartwise header (containing no part),
+     * <li>For each part:
+     * <ul>
+     * <li>{@link #startPart},
+     * <li>{@link #writeMeasure} for each measure of the part,
+     * <li>{@link #endPart},
+     * </ul>
+     * <li>{@link #endScore} once.
+     * </ol>
+     */
+    public static interface Sink
+    {
+
+        /**
+         * Finish the current part.
+         *
+         * @param pmPart the part being finished
+         * @throws Exception if anything goes wrong
+         */
+        void endPart (ScorePartwise.Part pmPart)
+            throws Exception;
+
+        /**
+         * Finish the score.
+         *
+         * @throws Exception if anything goes wrong
+         */
+        void endScore ()
+            throws Exception;
+
+        /**
+         * Start a new part.
+         *
+         * @param pmPart the (empty) part being started
+         * @throws Exception if anything goes wrong
+         */
+        void startPart (ScorePartwise.Part pmPart)
+            throws Exception;
+
+        /**
+         * Start the score.
+         *
+         * @param header the populated ScorePartwise, except for its parts
+         * @throws Exception if anything goes wrong
+         */
+        void startScore (ScorePartwise header)
+            throws Exception;
+
+        /**
+         * Write a measure of the current part.
+         * The measure instance is released by the builder right after this call.
+         *
+         * @param pmMeasure the measure to write
+         * @throws Exception if anything goes wrong
+         */
+        void writeMeasure (ScorePartwise.Part.Measure pmMeasure)
+            throws Exception;
+    }
 }
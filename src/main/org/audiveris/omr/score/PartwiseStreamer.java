@@ -0,0 +1,195 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                 P a r t w i s e S t r e a m e r                                //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.score;
+
+import org.audiveris.omr.util.CustomXMLStreamWriter;
+import org.audiveris.proxymusic.ScorePart;
+import org.audiveris.proxymusic.ScorePartwise;
+import org.audiveris.proxymusic.util.Marshalling;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.Marshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Class <code>PartwiseStreamer</code> is a {@link PartwiseBuilder.Sink} that writes MusicXML
+ * partwise data directly to an output stream, one measure at a time.
+ * <p>
+ * The score header is marshalled by ProxyMusic as a part-less document, so that version, DOCTYPE,
+ * encoding date and signature are handled exactly as for a standard export.
+ * This document is then split before its closing root tag, parts and measures are marshalled
+ * as fragments in between.
+ * <p>
+ * The output stream is not closed, this allows to write to a compressed entry
+ * (such as <code>Mxl.Output</code> zip stream) as well as to a plain file.
+ *
+ * @author Hervé Bitteur
+ */
+public class PartwiseStreamer
+        implements PartwiseBuilder.Sink
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    /** Closing tag of MusicXML root element. */
+    private static final String ROOT_END = "</score-partwise>";
+
+    /** Tag name for a part. */
+    private static final String PART = "part";
+
+    /** Tag name for a measure. */
+    private static final QName MEASURE = new QName("measure");
+
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Target output stream. */
+    private final OutputStream os;
+
+    /** Should we inject ProxyMusic signature?. */
+    private final boolean signed;
+
+    /** Header end, to be written after the last part. */
+    private String trailer;
+
+    /** Marshaller for measure fragments. */
+    private Marshaller marshaller;
+
+    /** Writer for parts and measures. */
+    private XMLStreamWriter writer;
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Creates a new <code>PartwiseStreamer</code> object.
+     *
+     * @param os     the output stream to write to (not closed by this class)
+     * @param signed should we inject ProxyMusic signature?
+     */
+    public PartwiseStreamer (OutputStream os,
+                             boolean signed)
+    {
+        this.os = os;
+        this.signed = signed;
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //---------//
+    // endPart //
+    //---------//
+    @Override
+    public void endPart (ScorePartwise.Part pmPart)
+        throws Exception
+    {
+        writer.writeEndElement();
+        writer.flush();
+    }
+
+    //----------//
+    // endScore //
+    //----------//
+    @Override
+    public void endScore ()
+        throws Exception
+    {
+        writer.flush();
+        os.write(trailer.getBytes(StandardCharsets.UTF_8));
+        os.flush();
+    }
+
+    //-----------//
+    // startPart //
+    //-----------//
+    @Override
+    public void startPart (ScorePartwise.Part pmPart)
+        throws Exception
+    {
+        writer.writeStartElement(PART);
+        writer.writeAttribute("id", ((ScorePart) pmPart.getId()).getId());
+    }
+
+    //------------//
+    // startScore //
+    //------------//
+    @Override
+    public void startScore (ScorePartwise header)
+        throws Exception
+    {
+        // Let ProxyMusic marshal the (small) part-less document
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Marshalling.marshal(header, baos, signed, 2);
+
+        final String doc = baos.toString(StandardCharsets.UTF_8);
+        final int end = doc.lastIndexOf(ROOT_END);
+
+        if (end == -1) {
+            throw new IllegalStateException("No " + ROOT_END + " found in score header");
+        }
+
+        os.write(doc.substring(0, end).stripTrailing().getBytes(StandardCharsets.UTF_8));
+        trailer = "\n" + doc.substring(end);
+
+        marshaller = Marshalling.getContext(ScorePartwise.class).createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+        writer = new NestedXMLStreamWriter(
+                XMLOutputFactory.newInstance().createXMLStreamWriter(os, "UTF-8"),
+                1);
+    }
+
+    //--------------//
+    // writeMeasure //
+    //--------------//
+    @Override
+    public void writeMeasure (ScorePartwise.Part.Measure pmMeasure)
+        throws Exception
+    {
+        marshaller.marshal(
+                new JAXBElement<>(MEASURE, ScorePartwise.Part.Measure.class, pmMeasure),
+                writer);
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-----------------------//
+    // NestedXMLStreamWriter //
+    //-----------------------//
+    /**
+     * An indenting writer which starts at a given indentation level, since its elements
+     * are nested within the root element written by ProxyMusic.
+     */
+    private static class NestedXMLStreamWriter
+            extends CustomXMLStreamWriter
+    {
+
+        NestedXMLStreamWriter (XMLStreamWriter writer,
+                               int level)
+        {
+            super(writer);
+            this.level = level;
+        }
+    }
+}
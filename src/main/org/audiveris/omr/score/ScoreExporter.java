@@ -22,6 +22,8 @@
 package org.audiveris.omr.score;
 
 import org.audiveris.omr.OMR;
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.proxymusic.ScorePartwise;
 import org.audiveris.proxymusic.mxl.Mxl;
 import org.audiveris.proxymusic.mxl.RootFile;
@@ -32,14 +34,19 @@ import org.slf4j.LoggerFactory;
 
 import org.w3c.dom.Node;
 
-import java.io.FileOutputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Objects;
 
 /**
  * Class <code>ScoreExporter</code> exports the provided score to a MusicXML file, stream or
  * DOM.
+ * <p>
+ * Stream output of a large score is by default written measure by measure, via a
+ * {@link PartwiseStreamer}, rather than through a complete ScorePartwise tree.
+ * A smaller score is built as a tree, with its parts built in parallel.
  *
  * @author Hervé Bitteur
  */
@@ -47,6 +54,8 @@ public class ScoreExporter
 {
     //~ Static fields/initializers -----------------------------------------------------------------
 
+    private static final Constants constants = new Constants();
+
     private static final Logger logger = LoggerFactory.getLogger(ScoreExporter.class);
 
     //~ Instance fields ----------------------------------------------------------------------------
@@ -118,10 +127,6 @@ public class ScoreExporter
     {
         Objects.requireNonNull(os, "Trying to export a score to a null output stream");
 
-        // Build the ScorePartwise proxy
-        ScorePartwise scorePartwise = PartwiseBuilder.build(score);
-
-        // Marshal the proxy
         if (compressed) {
             Mxl.Output mof = new Mxl.Output(os);
             OutputStream zos = mof.getOutputStream();
@@ -132,11 +137,11 @@ public class ScoreExporter
 
             mof.addEntry(
                     new RootFile(scoreName + OMR.SCORE_EXTENSION, RootFile.MUSICXML_MEDIA_TYPE));
-            Marshalling.marshal(scorePartwise, zos, signed, 2);
+            write(score, zos, signed);
             mof.close();
         } else {
             try (os) {
-                Marshalling.marshal(scorePartwise, os, signed, 2);
+                write(score, os, signed);
             }
         }
     }
@@ -146,6 +151,9 @@ public class ScoreExporter
     //--------//
     /**
      * Export the score to a file.
+     * <p>
+     * Data is first written to a temporary file, then moved to the target path, so that a failure
+     * in the middle of export never leaves a truncated file.
      *
      * @param path       the xml or mxl path to write (cannot be null)
      * @param scoreName  simple score name, without extension
@@ -159,9 +167,78 @@ public class ScoreExporter
                         boolean compressed)
         throws Exception
     {
-        try (OutputStream os = new FileOutputStream(path.toString())) {
-            export(os, signed, scoreName, compressed);
+        final Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try {
+            try (OutputStream os = Files.newOutputStream(tmp)) {
+                export(os, signed, scoreName, compressed);
+            }
+
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
             logger.info("Score {} exported to {}", scoreName, path);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    //------------//
+    // isStreamed //
+    //------------//
+    /**
+     * Tell whether the provided score is to be streamed rather than built as a whole tree.
+     *
+     * @param score the score to export
+     * @return true for streaming
+     */
+    static boolean isStreamed (Score score)
+    {
+        return constants.useStreaming.isSet()
+                && (score.getPageCount() >= constants.streamingMinPages.getValue());
+    }
+
+    //-------//
+    // write //
+    //-------//
+    /**
+     * Write the MusicXML data of a score to an output stream, either by streaming measures
+     * or by marshalling a complete ScorePartwise tree.
+     *
+     * @param score  the score to write
+     * @param os     the output stream (not closed by this method)
+     * @param signed should we inject ProxyMusic signature?
+     * @throws Exception if something goes wrong
+     */
+    static void write (Score score,
+                       OutputStream os,
+                       boolean signed)
+        throws Exception
+    {
+        if (isStreamed(score)) {
+            PartwiseBuilder.stream(score, new PartwiseStreamer(os, signed));
+        } else {
+            ScorePartwise scorePartwise = PartwiseBuilder.build(score);
+            Marshalling.marshal(scorePartwise, os, signed, 2);
         }
     }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static class Constants
+            extends ConstantSet
+    {
+
+        private final Constant.Boolean useStreaming = new Constant.Boolean(
+                true,
+                "Should we stream MusicXML measures rather than build the whole score tree?");
+
+        private final Constant.Integer streamingMinPages = new Constant.Integer(
+                "pages",
+                20,
+                "Minimum number of score pages to stream MusicXML measures");
+    }
 }
@@ -31,6 +31,7 @@ import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.image.FilterDescriptor;
 import org.audiveris.omr.image.FilterParam;
 import org.audiveris.omr.image.ImageLoading;
+import org.audiveris.omr.image.PrefetchingLoader;
 import org.audiveris.omr.log.LogUtil;
 import org.audiveris.omr.score.OpusExporter;
 import org.audiveris.omr.score.Page;
@@ -48,6 +49,7 @@ import org.audiveris.omr.sheet.ui.BookActions;
 import org.audiveris.omr.sheet.ui.BookBrowser;
 import org.audiveris.omr.sheet.ui.SheetResultPainter;
 import org.audiveris.omr.sheet.ui.StubsController;
+import org.audiveris.omr.step.OmrEvents;
 import org.audiveris.omr.step.OmrStep;
 import org.audiveris.omr.step.ProcessingCancellationException;
 import org.audiveris.omr.step.ui.StepMonitoring;
@@ -326,6 +328,12 @@ public class Book
     /** Active parameter dialog, if any. */
     private JDialog parameterDialog;
 
+    /** Loader of sheet images from book input file, if any. */
+    private PrefetchingLoader imageLoader;
+
+    /** Numbers of the stubs being processed by reachBookStep, the only ones to prefetch. */
+    private volatile Set<Integer> processedNumbers = Collections.emptySet();
+
     //~ Constructors -------------------------------------------------------------------------------
 
     /**
@@ -533,6 +541,14 @@ public class Book
             score.close();
         }
 
+        // Release input file
+        synchronized (this) {
+            if (imageLoader != null) {
+                imageLoader.dispose();
+                imageLoader = null;
+            }
+        }
+
         // Remove from OMR instances
         OMR.engine.removeBook(this, sheetNumber);
 
@@ -606,6 +622,19 @@ public class Book
         }
     }
 
+    //-----------------//
+    // evictPrefetches //
+    //-----------------//
+    /**
+     * Drop the prefetched images whose sheets are no longer to be processed.
+     */
+    private synchronized void evictPrefetches ()
+    {
+        if (imageLoader != null) {
+            imageLoader.evict();
+        }
+    }
+
     //--------//
     // export //
     //--------//
@@ -802,6 +831,40 @@ public class Book
         return null; // No valid stub found!
     }
 
+    //----------------//
+    // getImageLoader //
+    //----------------//
+    /**
+     * Report the loader of sheet images, allocated if needed.
+     * <p>
+     * The same loader is shared by all sheets of the book, it can load several images
+     * concurrently and prefetch the images of the following sheets still to be loaded,
+     * provided they belong to the sheets being processed by {@link #reachBookStep}.
+     *
+     * @return the image loader, or null if failed
+     */
+    private synchronized ImageLoading.Loader getImageLoader ()
+    {
+        if (imageLoader == null) {
+            final ImageLoading.Loader loader = ImageLoading.getLoader(path);
+
+            if (loader != null) {
+                imageLoader = new PrefetchingLoader(loader, path, (id) ->
+                {
+                    if (!processedNumbers.contains(id)) {
+                        return false;
+                    }
+
+                    final SheetStub stub = getStub(id);
+
+                    return stub.isValid() && !stub.isDone(OmrStep.LOAD);
+                });
+            }
+        }
+
+        return imageLoader;
+    }
+
     //--------------//
     // getInputPath //
     //--------------//
@@ -1826,7 +1889,7 @@ public class Book
      * @param id specified sheet id
      * @return the loaded sheet image
      */
-    public synchronized BufferedImage loadSheetImage (int id)
+    public BufferedImage loadSheetImage (int id)
     {
         try {
             if (!Files.exists(path)) {
@@ -1835,17 +1898,16 @@ public class Book
                 return null;
             }
 
-            final ImageLoading.Loader loader = ImageLoading.getLoader(path);
+            final ImageLoading.Loader loader = getImageLoader();
 
             if (loader == null) {
                 return null;
             }
 
+            // Several images can be loaded concurrently
             BufferedImage img = loader.getImage(id);
             logger.info("Loaded image {} {}x{} from {}", id, img.getWidth(), img.getHeight(), path);
 
-            loader.dispose();
-
             return img;
         } catch (IOException ex) {
             logger.warn("Error in book.loadSheetImage", ex);
@@ -1854,6 +1916,84 @@ public class Book
         }
     }
 
+    //-------------//
+    // mergeSheets //
+    //-------------//
+    /**
+     * Merge into this book the provided sheets, as processed in another book file.
+     * <p>
+     * The other book file is a copy of this book, in which some sheets have been processed
+     * separately (typically by a worker process).
+     * For each provided sheet number, the <code>sheet#N</code> folder is copied from the other
+     * book file into this book file, and the stub (steps done, validity, page references, ...)
+     * replaces the corresponding stub of this book.
+     * Book information is then stored.
+     *
+     * @param otherPath path to the other book file
+     * @param numbers   numbers of the sheets to merge
+     * @return true if OK
+     */
+    public boolean mergeSheets (Path otherPath,
+                                Collection<Integer> numbers)
+    {
+        final Book other = loadBook(otherPath);
+
+        if (other == null) {
+            return false;
+        }
+
+        Path root = null;
+        Path otherRoot = null;
+
+        try {
+            getLock().lock();
+            root = ZipFileSystem.open(bookPath);
+            otherRoot = ZipFileSystem.open(otherPath);
+
+            for (int number : numbers) {
+                final Path otherFolder = otherRoot.resolve(INTERNALS_RADIX + number);
+                final Path sheetFolder = root.resolve(INTERNALS_RADIX + number);
+
+                if (Files.exists(sheetFolder)) {
+                    FileUtil.deleteDirectory(sheetFolder);
+                }
+
+                if (Files.exists(otherFolder)) {
+                    FileUtil.copyTree(otherFolder, sheetFolder);
+                }
+
+                final SheetStub otherStub = other.getStub(number);
+                otherStub.initTransients(this);
+                stubs.set(stubs.indexOf(getStub(number)), otherStub);
+            }
+
+            storeBookInfo(root); // Book info (book.xml)
+            logger.info("Merged sheets {} from {}", numbers, otherPath);
+
+            return true;
+        } catch (Exception ex) {
+            logger.warn("Error merging {} into {} {}", otherPath, bookPath, ex.toString(), ex);
+
+            return false;
+        } finally {
+            if (otherRoot != null) {
+                try {
+                    otherRoot.getFileSystem().close();
+                } catch (IOException ignored) {
+                }
+            }
+
+            if (root != null) {
+                try {
+                    root.getFileSystem().close();
+                } catch (IOException ignored) {
+                }
+            }
+
+            getLock().unlock();
+        }
+    }
+
     //--------------//
     // openBookFile //
     //--------------//
@@ -1966,6 +2106,15 @@ public class Book
                     force ? " force" : "",
                     ids(theStubs));
 
+            // Only these sheets are worth prefetching their image
+            final Set<Integer> numbers = new LinkedHashSet<>();
+
+            for (SheetStub stub : theStubs) {
+                numbers.add(stub.getNumber());
+            }
+
+            processedNumbers = numbers;
+
             try {
                 boolean someFailure = false;
                 StepMonitoring.notifyStart();
@@ -2042,6 +2191,8 @@ public class Book
 
                 return !someFailure;
             } finally {
+                processedNumbers = Collections.emptySet();
+                evictPrefetches();
                 LogUtil.stopStub();
                 StepMonitoring.notifyStop();
 
@@ -2396,6 +2547,9 @@ public class Book
     {
         Memory.gc(); // Launch garbage collection, to save on weak glyph references ...
 
+        final OmrEvents.BookIoEvent event = new OmrEvents.BookIoEvent();
+        event.begin();
+
         boolean diskWritten = false; // Has disk actually been written?
 
         // Backup existing book file?
@@ -2486,6 +2640,12 @@ public class Book
             }
 
             getLock().unlock();
+
+            if (event.shouldCommit()) {
+                event.book = getRadix();
+                event.operation = "store";
+                event.commit();
+            }
         }
     }
 
@@ -2812,9 +2972,13 @@ public class Book
     public static JAXBContext getJaxbContext ()
         throws JAXBException
     {
-        // Lazy creation
+        // Lazy creation, perhaps concurrently with a warm-up task
         if (jaxbContext == null) {
-            jaxbContext = JAXBContext.newInstance(Book.class);
+            synchronized (Book.class) {
+                if (jaxbContext == null) {
+                    jaxbContext = JAXBContext.newInstance(Book.class);
+                }
+            }
         }
 
         return jaxbContext;
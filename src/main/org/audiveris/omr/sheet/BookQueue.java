@@ -0,0 +1,555 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                        B o o k Q u e u e                                       //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.sheet;
+
+import org.audiveris.omr.OMR;
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+import org.audiveris.omr.log.LogUtil;
+import org.audiveris.omr.step.OmrStep;
+import org.audiveris.omr.util.FileUtil;
+import org.audiveris.omr.util.NaturalSpec;
+import org.audiveris.omr.util.ZipFileSystem;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+
+/**
+ * Class <code>BookQueue</code> distributes the processing of a book among several worker
+ * processes, through a queue folder on a shared file system.
+ * <p>
+ * The sheet-independent steps (up to {@link #LAST_REMOTE_STEP}) are processed by workers,
+ * while the remaining steps (rhythms, page and score assembly) are left to the coordinator.
+ * <p>
+ * Within the queue folder, each coordinated book gets a sub-folder named after the book radix,
+ * organized as follows:
+ * <ul>
+ * <li><code>book.omr</code>: a snapshot of the book file, taken when tasks are posted.
+ * Workers read only this snapshot, never the coordinator book file which gets written as
+ * results are merged.
+ * <li><code>pending</code>: the tasks not yet claimed by any worker.
+ * Each task is a small properties file that specifies the book snapshot, a range of sheets, the
+ * target step and the force flag.
+ * <li><code>running</code>: the tasks claimed by a worker.
+ * A worker claims a task by an atomic move from <code>pending</code> to <code>running</code>.
+ * <li><code>results</code>: for each task, a book file in which the worker has processed the
+ * task sheets.
+ * It contains just the book information and the task sheets, copied from the snapshot.
+ * <li><code>done</code> and <code>failed</code>: the completed tasks.
+ * </ul>
+ * <p>
+ * The coordinator (<code>-distribute</code> CLI option) splits the book into sheet ranges,
+ * posts one task per range, waits for the tasks completion and merges each result into the
+ * book file, via {@link Book#mergeSheets}.
+ * The sheets of a task that failed or timed out are simply left to the coordinator, which then
+ * processes them locally.
+ * <p>
+ * A worker (<code>-worker</code> CLI option) repeatedly claims and processes tasks, until the
+ * <code>stop</code> file appears in the queue folder, or until it has been idle for too long.
+ * <p>
+ * Book snapshot and input files are referred to by absolute paths, so they must be visible under
+ * the same paths by the coordinator and all the workers.
+ * The same file system can also be used by several JVMs on a single machine.
+ *
+ * @author Hervé Bitteur
+ */
+public abstract class BookQueue
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Constants constants = new Constants();
+
+    private static final Logger logger = LoggerFactory.getLogger(BookQueue.class);
+
+    /** Last step processed by workers, subsequent steps need the whole book. */
+    public static final OmrStep LAST_REMOTE_STEP = OmrStep.LINKS;
+
+    /** Sub-folder for pending tasks. */
+    private static final String PENDING = "pending";
+
+    /** Sub-folder for claimed tasks. */
+    private static final String RUNNING = "running";
+
+    /** Sub-folder for successful tasks. */
+    private static final String DONE = "done";
+
+    /** Sub-folder for failed tasks. */
+    private static final String FAILED = "failed";
+
+    /** Sub-folder for processed book files. */
+    private static final String RESULTS = "results";
+
+    /** Snapshot of book file, read by workers. */
+    private static final String SNAPSHOT = "book" + OMR.BOOK_EXTENSION;
+
+    /** File which, when present in queue folder, stops the workers. */
+    private static final String STOP = "stop";
+
+    /** Extension for task files. */
+    private static final String TASK_EXTENSION = ".task";
+
+    // Task properties
+    private static final String BOOK = "book";
+
+    private static final String SHEETS = "sheets";
+
+    private static final String STEP = "step";
+
+    private static final String FORCE = "force";
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /** Not meant to be instantiated. */
+    private BookQueue ()
+    {
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    //-------//
+    // claim //
+    //-------//
+    /**
+     * Claim the first pending task found in the queue folder.
+     *
+     * @param queue the queue folder
+     * @return the claimed task file (now in running folder), or null if none
+     */
+    private static Path claim (Path queue)
+        throws IOException
+    {
+        if (!Files.isDirectory(queue)) {
+            return null;
+        }
+
+        try (DirectoryStream<Path> folders = Files.newDirectoryStream(queue)) {
+            for (Path folder : folders) {
+                final Path pending = folder.resolve(PENDING);
+
+                if (!Files.isDirectory(pending)) {
+                    continue;
+                }
+
+                final List<Path> tasks = new ArrayList<>();
+
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(
+                        pending,
+                        "*" + TASK_EXTENSION)) {
+                    files.forEach(tasks::add);
+                }
+
+                Collections.sort(tasks);
+
+                for (Path task : tasks) {
+                    final Path target = folder.resolve(RUNNING).resolve(task.getFileName());
+
+                    try {
+                        // Atomic move: only one worker can succeed
+                        Files.move(task, target, StandardCopyOption.ATOMIC_MOVE);
+
+                        return target;
+                    } catch (IOException ignored) {
+                        // Claimed by another worker in the meantime
+                    }
+                }
+            }
+        }
+
+        return null;
+    }
+
+    //------------//
+    // distribute //
+    //------------//
+    /**
+     * Have the sheet-independent steps of the provided stubs processed by workers, and merge
+     * the results into the book.
+     * <p>
+     * Upon return, the book stubs processed remotely have been replaced, so the caller must
+     * retrieve the book stubs again.
+     *
+     * @param book     the book to process, already stored in its book file
+     * @param theStubs the valid selected stubs
+     * @param target   the target step of the whole processing
+     * @param force    true to force processing
+     * @param queue    the queue folder shared with the workers
+     * @return true if all tasks were processed by workers
+     */
+    public static boolean distribute (Book book,
+                                      List<SheetStub> theStubs,
+                                      OmrStep target,
+                                      boolean force,
+                                      Path queue)
+    {
+        final OmrStep step = (target.compareTo(LAST_REMOTE_STEP) < 0) ? target : LAST_REMOTE_STEP;
+        final List<Integer> numbers = new ArrayList<>();
+
+        for (SheetStub stub : theStubs) {
+            if (force || !stub.isDone(step)) {
+                numbers.add(stub.getNumber());
+            }
+        }
+
+        if (numbers.isEmpty()) {
+            return true;
+        }
+
+        // Workers start from the book file
+        if ((book.getBookPath() == null) || book.isModified()) {
+            book.store(BookManager.getDefaultSavePath(book), false);
+        }
+
+        final Path folder = queue.resolve(book.getRadix());
+        final Map<String, List<Integer>> tasks = new LinkedHashMap<>();
+        boolean ok = true;
+
+        try {
+            if (Files.exists(folder)) {
+                FileUtil.deleteDirectory(folder); // Stale tasks from a previous run
+            }
+
+            for (String dir : Arrays.asList(PENDING, RUNNING, DONE, FAILED, RESULTS)) {
+                Files.createDirectories(folder.resolve(dir));
+            }
+
+            // Book file is written by merges, so workers start from a snapshot of it
+            final Path snapshot = folder.resolve(SNAPSHOT);
+            Files.copy(book.getBookPath(), snapshot);
+
+            // Post one task per range of sheets
+            final int size = Math.max(1, constants.sheetsPerTask.getValue());
+
+            for (int i = 0; i < numbers.size(); i += size) {
+                final List<Integer> range = numbers.subList(i, Math.min(i + size, numbers.size()));
+                final String name = String.format("sheets-%04d", range.get(0));
+                final Properties props = new Properties();
+                props.setProperty(BOOK, snapshot.toAbsolutePath().toString());
+                props.setProperty(SHEETS, NaturalSpec.encode(range));
+                props.setProperty(STEP, step.name());
+                props.setProperty(FORCE, Boolean.toString(force));
+                post(props, folder, name);
+                tasks.put(name, range);
+            }
+
+            logger.info("Posted {} task(s) up to {} in {}", tasks.size(), step, folder);
+
+            // Wait for tasks completion, and merge results as they arrive
+            final long timeout = constants.taskTimeout.getValue() * 1000L;
+            final long start = System.currentTimeMillis();
+
+            while (!tasks.isEmpty()) {
+                for (Entry<String, List<Integer>> entry : new ArrayList<>(tasks.entrySet())) {
+                    final String name = entry.getKey();
+                    final Path task = Paths.get(name + TASK_EXTENSION);
+
+                    if (Files.exists(folder.resolve(DONE).resolve(task))) {
+                        final Path result = folder.resolve(RESULTS).resolve(
+                                name + OMR.BOOK_EXTENSION);
+                        ok &= book.mergeSheets(result, entry.getValue());
+                        LogUtil.start(book);
+                        tasks.remove(name);
+                    } else if (Files.exists(folder.resolve(FAILED).resolve(task))) {
+                        logger.warn("Task {} failed, sheets {} left", name, entry.getValue());
+                        ok = false;
+                        tasks.remove(name);
+                    }
+                }
+
+                if (tasks.isEmpty()) {
+                    break;
+                }
+
+                if ((timeout > 0) && ((System.currentTimeMillis() - start) > timeout)) {
+                    logger.warn("Timeout on tasks {}, sheets left", tasks.keySet());
+
+                    for (String name : tasks.keySet()) {
+                        final Path task = Paths.get(name + TASK_EXTENSION);
+                        Files.deleteIfExists(folder.resolve(PENDING).resolve(task));
+                    }
+
+                    return false;
+                }
+
+                Thread.sleep(constants.pollPeriod.getValue());
+            }
+
+            if (ok) {
+                FileUtil.deleteDirectory(folder);
+            }
+
+            return ok;
+        } catch (IOException ex) {
+            logger.warn("Error distributing {} in {} {}", book, queue, ex.toString(), ex);
+
+            return false;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+
+            return false;
+        }
+    }
+
+    //---------//
+    // extract //
+    //---------//
+    /**
+     * Create a book file with the book information and just the provided sheets of the source
+     * book file.
+     * <p>
+     * The other sheets are left out, they are not processed by the task and
+     * {@link Book#mergeSheets} does not read them.
+     *
+     * @param source  the source book file
+     * @param target  the book file to create
+     * @param numbers numbers of the sheets to extract
+     */
+    private static void extract (Path source,
+                                 Path target,
+                                 List<Integer> numbers)
+        throws IOException
+    {
+        final Path sourceRoot = ZipFileSystem.open(source);
+
+        try {
+            final Path root = ZipFileSystem.create(target);
+
+            try {
+                // Book-level files, such as book.xml
+                try (DirectoryStream<Path> entries = Files.newDirectoryStream(sourceRoot)) {
+                    for (Path entry : entries) {
+                        if (Files.isRegularFile(entry)) {
+                            Files.copy(entry, root.resolve(entry.getFileName().toString()));
+                        }
+                    }
+                }
+
+                for (int number : numbers) {
+                    final Path sheetFolder = sourceRoot.resolve(Sheet.INTERNALS_RADIX + number);
+
+                    if (Files.exists(sheetFolder)) {
+                        FileUtil.copyTree(
+                                sheetFolder,
+                                root.resolve(Sheet.INTERNALS_RADIX + number));
+                    }
+                }
+            } finally {
+                root.getFileSystem().close();
+            }
+        } finally {
+            sourceRoot.getFileSystem().close();
+        }
+    }
+
+    //------//
+    // post //
+    //------//
+    /**
+     * Post a task in the pending folder.
+     * The task is first written under a temporary name, so that no worker can read a partial
+     * task file.
+     */
+    private static void post (Properties props,
+                              Path folder,
+                              String name)
+        throws IOException
+    {
+        final Path tmp = folder.resolve(name + ".tmp");
+
+        try (Writer writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            props.store(writer, "Audiveris sheets task");
+        }
+
+        Files.move(
+                tmp,
+                folder.resolve(PENDING).resolve(name + TASK_EXTENSION),
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    //---------//
+    // process //
+    //---------//
+    /**
+     * Process a claimed task.
+     * <p>
+     * The task sheets are extracted from the book snapshot into a book file in the results
+     * folder, and processed there, so that the snapshot is never written by a worker.
+     *
+     * @param task the claimed task file
+     * @return true if OK
+     */
+    private static boolean process (Path task)
+    {
+        final Path folder = task.getParent().getParent();
+        final String name = FileUtil.getNameSansExtension(task);
+        final Path result = folder.resolve(RESULTS).resolve(name + OMR.BOOK_EXTENSION);
+        boolean ok = false;
+
+        try {
+            final Properties props = new Properties();
+
+            try (Reader reader = Files.newBufferedReader(task, StandardCharsets.UTF_8)) {
+                props.load(reader);
+            }
+
+            final Path source = Paths.get(props.getProperty(BOOK));
+            final List<Integer> numbers = NaturalSpec.decode(props.getProperty(SHEETS), true);
+            final OmrStep step = OmrStep.valueOf(props.getProperty(STEP));
+            final boolean force = Boolean.parseBoolean(props.getProperty(FORCE));
+            logger.info("Processing {} sheets {} up to {}", source, numbers, step);
+
+            extract(source, result, numbers);
+
+            final Book book = OMR.engine.loadBook(result);
+
+            if (book != null) {
+                try {
+                    LogUtil.start(book);
+
+                    if (!book.reachBookStep(
+                            step,
+                            force,
+                            Book.getValidStubs(book.getStubs(numbers)),
+                            true)) {
+                        logger.info("Some sheets of {} did not reach {}", name, step);
+                    }
+
+                    ok = true; // Sheets not fully processed will be processed by coordinator
+                } finally {
+                    book.store();
+                    book.close(null);
+                    LogUtil.stopBook();
+                }
+            }
+        } catch (Exception ex) {
+            logger.warn("Error processing task {} {}", task, ex.toString(), ex);
+        }
+
+        try {
+            Files.move(
+                    task,
+                    folder.resolve(ok ? DONE : FAILED).resolve(task.getFileName()),
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            logger.warn("Could not complete task {} {}", task, ex.toString(), ex);
+            ok = false;
+        }
+
+        return ok;
+    }
+
+    //-------//
+    // serve //
+    //-------//
+    /**
+     * Run as a worker on the provided queue folder.
+     * <p>
+     * Tasks are claimed and processed one after the other, until a <code>stop</code> file
+     * appears in the queue folder, or until no task has been found for the idle timeout.
+     *
+     * @param queue the queue folder shared with the coordinator(s)
+     * @return true if all processed tasks were successful
+     */
+    public static boolean serve (Path queue)
+    {
+        logger.info("Worker serving queue {}", queue.toAbsolutePath());
+
+        final long idleTimeout = constants.workerIdleTimeout.getValue() * 1000L;
+        long idleStart = System.currentTimeMillis();
+        boolean failure = false;
+
+        try {
+            while (!Files.exists(queue.resolve(STOP))) {
+                final Path task = claim(queue);
+
+                if (task != null) {
+                    if (!process(task)) {
+                        failure = true;
+                    }
+
+                    idleStart = System.currentTimeMillis();
+                } else if ((idleTimeout > 0)
+                        && ((System.currentTimeMillis() - idleStart) > idleTimeout)) {
+                    logger.info("Worker idle timeout");
+
+                    break;
+                } else {
+                    Thread.sleep(constants.pollPeriod.getValue());
+                }
+            }
+        } catch (IOException ex) {
+            logger.warn("Error on queue {} {}", queue, ex.toString(), ex);
+            failure = true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        return !failure;
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static class Constants
+            extends ConstantSet
+    {
+
+        private final Constant.Integer sheetsPerTask = new Constant.Integer(
+                "sheets",
+                10,
+                "Number of sheets in each distributed task");
+
+        private final Constant.Integer pollPeriod = new Constant.Integer(
+                "ms",
+                1000,
+                "Period for polling the queue folder");
+
+        private final Constant.Integer taskTimeout = new Constant.Integer(
+                "seconds",
+                3600,
+                "Maximum waiting time of coordinator for all tasks (0 for no limit)");
+
+        private final Constant.Integer workerIdleTimeout = new Constant.Integer(
+                "seconds",
+                300,
+                "Maximum idle time of a worker before it stops (0 for no limit)");
+    }
+}
@@ -24,6 +24,7 @@ package org.audiveris.omr.sheet;
 import org.audiveris.omr.constant.Constant;
 import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.glyph.Glyph;
+import org.audiveris.omr.image.BinaryBuffer;
 import org.audiveris.omr.image.FilterDescriptor;
 import org.audiveris.omr.image.GaussianGrayFilter;
 import org.audiveris.omr.image.ImageFormatException;
@@ -31,6 +32,8 @@ import org.audiveris.omr.image.ImageUtil;
 import org.audiveris.omr.image.MedianGrayFilter;
 import org.audiveris.omr.image.PixelFilter;
 import org.audiveris.omr.image.PixelSource;
+import org.audiveris.omr.image.ProcessorSource;
+import org.audiveris.omr.image.TiledGrayStore;
 import static org.audiveris.omr.run.Orientation.VERTICAL;
 import org.audiveris.omr.run.RunTable;
 import org.audiveris.omr.run.RunTableFactory;
@@ -87,6 +90,9 @@ import javax.xml.bind.annotation.XmlRootElement;
  * a location event is received, the corresponding pixel gray value of the GRAY sources is
  * published.
  * <p>
+ * Unless disabled by the <code>useTiledGray</code> constant, the initial gray image is kept in a
+ * {@link TiledGrayStore}, which allows region access without any whole-page image in memory.
+ * <p>
  * TODO: When an alpha channel is involved, perform the alpha multiplication if the components are
  * not yet pre-multiplied.
  * <p>
@@ -213,7 +219,7 @@ public class Picture
     //-----------//
     // binarized //
     //-----------//
-    private ByteProcessor binarized (ByteProcessor src)
+    private ByteProcessor binarized (PixelSource src)
     {
         FilterDescriptor desc = sheet.getStub().getBinarizationFilter();
         logger.info("{} {}", "Binarization", desc);
@@ -227,13 +233,24 @@ public class Picture
     // buildGraySource //
     //-----------------//
     /**
-     * Build the initial gray source from gray image.
+     * Build the initial gray source, directly from tiled store if any, otherwise
+     * from gray image.
+     * <p>
+     * Either way, this allocates a whole-page gray buffer.
+     * Binarization reads the gray pixels via {@link #getGrayPixelSource()} instead.
      *
-     * @param img the initial gray image
      * @return the initial gray source
      */
-    private ByteProcessor buildGraySource (BufferedImage img)
+    private ByteProcessor buildGraySource ()
     {
+        final TiledGrayStore store = getGrayStore();
+
+        if (store != null) {
+            return store.toByteProcessor(); // No whole BufferedImage needed
+        }
+
+        final BufferedImage img = getGrayImage();
+
         if (img != null) {
             if (img.getType() != BufferedImage.TYPE_BYTE_GRAY) {
                 StopWatch watch = new StopWatch("ToGray");
@@ -517,23 +534,98 @@ public class Picture
      */
     public BufferedImage getGrayImage ()
     {
-        BufferedImage gray = getImage(ImageKey.GRAY);
+        final BufferedImage gray = getImage(ImageKey.GRAY);
 
         if (gray == null) {
-            try {
-                // Try to reload image from book input path
-                SheetStub stub = sheet.getStub();
-                gray = stub.getBook().loadSheetImage(stub.getNumber());
-                gray = adjustImageFormat(gray);
-                setImage(ImageKey.GRAY, gray, false);
-            } catch (ImageFormatException ex) {
-                logger.warn("ImageFormatException thrown in getGrayImage", ex);
+            return reloadGrayImage();
+        }
 
-                return null;
+        return gray;
+    }
+
+    //--------------------//
+    // getGrayPixelSource //
+    //--------------------//
+    /**
+     * Report the initial gray pixels, for a consumer that reads them pixel per pixel.
+     * <p>
+     * If the gray image is tiled, the pixels are read band by band from the tiled store, so that
+     * no whole-page gray buffer gets allocated.
+     *
+     * @return the gray pixel source, or null if no gray image is available
+     */
+    public PixelSource getGrayPixelSource ()
+    {
+        final TiledGrayStore store = getGrayStore();
+
+        if (store != null) {
+            return store.newBandCache();
+        }
+
+        final ByteProcessor gray = getSource(SourceKey.GRAY);
+
+        return (gray != null) ? new ProcessorSource(gray) : null;
+    }
+
+    //------------------//
+    // getGrayRectangle //
+    //------------------//
+    /**
+     * Report a rectangular portion of the initial gray image.
+     * <p>
+     * If the gray image is tiled, only the tiles intersected by the rectangle are accessed.
+     *
+     * @param rect rectangular area desired, null for whole image
+     * @return the (sub) image, or null if no gray image is available
+     */
+    public BufferedImage getGrayRectangle (Rectangle rect)
+    {
+        final TiledGrayStore store = getGrayStore();
+
+        if (store != null) {
+            return store.getRegion((rect != null) ? rect : new Rectangle(0, 0, width, height));
+        }
+
+        final BufferedImage gray = getGrayImage();
+
+        if ((gray == null) || (rect == null)) {
+            return gray;
+        }
+
+        return gray.getSubimage(rect.x, rect.y, rect.width, rect.height);
+    }
+
+    //--------------//
+    // getGrayStore //
+    //--------------//
+    /**
+     * Report the tiled store of initial gray image, reloading the image if needed.
+     *
+     * @return the tiled store, or null if gray image is not available or not tiled
+     */
+    public TiledGrayStore getGrayStore ()
+    {
+        if (!constants.useTiledGray.isSet()) {
+            return null;
+        }
+
+        if (images.get(ImageKey.GRAY) instanceof TiledImageHolder holder) {
+            final TiledGrayStore store = holder.getStore(sheet.getStub());
+
+            if ((store != null) || holder.hasNoData()) {
+                return store;
             }
         }
 
-        return gray;
+        if (reloadGrayImage() == null) {
+            return null;
+        }
+
+        if (images.get(ImageKey.GRAY) instanceof TiledImageHolder holder) {
+            return holder.getStore(sheet.getStub());
+        }
+
+        return null;
     }
 
     //-----------//
@@ -583,16 +675,18 @@ public class Picture
      */
     public BufferedImage getImageRectangle (Rectangle rect)
     {
-        BufferedImage img = getGrayImage();
+        final BufferedImage gray = getGrayRectangle(rect);
 
-        if (img == null) {
-            img = getImage(ImageKey.BINARY);
+        if (gray != null) {
+            return gray;
+        }
 
-            if (img == null) {
-                // Kept for backward compatibility
-                ByteProcessor buffer = getSource(SourceKey.BINARY);
-                img = buffer.getBufferedImage();
-            }
+        BufferedImage img = getImage(ImageKey.BINARY);
+
+        if (img == null) {
+            // Kept for backward compatibility
+            ByteProcessor buffer = getSource(SourceKey.BINARY);
+            img = buffer.getBufferedImage();
         }
 
         if (rect == null) {
@@ -631,7 +725,7 @@ public class Picture
 
         if (src == null) {
             switch (key) {
-            case GRAY -> src = buildGraySource(getGrayImage());
+            case GRAY -> src = buildGraySource();
 
             case BINARY ->
             {
@@ -639,16 +733,16 @@ public class Picture
                 BufferedImage image = getImage(ImageKey.BINARY);
 
                 if (image != null) {
-                    src = new ByteProcessor(image);
+                    src = BinaryBuffer.byteProcessorOf(image);
                 } else {
                     // Otherwise, built via binarization of initial gray source if any
-                    final ByteProcessor gray = getSource(SourceKey.GRAY);
+                    final PixelSource gray = getGrayPixelSource();
 
                     if (gray != null) {
                         src = binarized(gray);
 
-                        // Register binary image for possible future use
-                        image = src.getBufferedImage();
+                        // Register (bit-packed) binary image for possible future use
+                        image = BinaryBuffer.binaryImageOf(src);
                         setImage(ImageKey.BINARY, image, true);
                         sheet.getStub().setModified(true);
                     } else {
@@ -838,6 +932,33 @@ public class Picture
 
         // Convert oldTables to images
         convertOldTables();
+
+        // Switch unmarshalled gray holder to tiled storage
+        final ImageHolder grayHolder = images.get(ImageKey.GRAY);
+
+        if (constants.useTiledGray.isSet() && (grayHolder != null)
+                && !(grayHolder instanceof TiledImageHolder) && !grayHolder.hasDataReady()) {
+            images.put(ImageKey.GRAY, new TiledImageHolder(ImageKey.GRAY));
+        }
+    }
+
+    //-----------------//
+    // isGrayAvailable //
+    //-----------------//
+    /**
+     * Make sure the initial gray image is available, reloading it if needed.
+     * <p>
+     * Unlike {@link #getGrayImage}, this does not materialize a whole tiled image.
+     *
+     * @return true if gray image is available
+     */
+    public boolean isGrayAvailable ()
+    {
+        if (constants.useTiledGray.isSet()) {
+            return getGrayStore() != null;
+        }
+
+        return getGrayImage() != null;
     }
 
     //----------------//
@@ -905,10 +1026,18 @@ public class Picture
 
                 // Check that we are not pointing outside the image
                 if ((pt.x >= 0) && (pt.x < getWidth()) && (pt.y >= 0) && (pt.y < getHeight())) {
-                    ByteProcessor src = getSource(SourceKey.GRAY);
+                    final PixelSource src = (grayHolder instanceof TiledImageHolder tiled)
+                            ? tiled.getStore(sheet.getStub())
+                            : null;
 
                     if (src != null) {
                         level = src.get(pt.x, pt.y);
+                    } else {
+                        final ByteProcessor buffer = getSource(SourceKey.GRAY);
+
+                        if (buffer != null) {
+                            level = buffer.get(pt.x, pt.y);
+                        }
                     }
                 }
             }
@@ -920,6 +1049,30 @@ public class Picture
         }
     }
 
+    //-----------------//
+    // reloadGrayImage //
+    //-----------------//
+    /**
+     * Try to reload the initial gray image from book input path.
+     *
+     * @return the reloaded image, or null
+     */
+    private BufferedImage reloadGrayImage ()
+    {
+        try {
+            SheetStub stub = sheet.getStub();
+            BufferedImage gray = stub.getBook().loadSheetImage(stub.getNumber());
+            gray = adjustImageFormat(gray);
+            setImage(ImageKey.GRAY, gray, false);
+
+            return gray;
+        } catch (ImageFormatException ex) {
+            logger.warn("ImageFormatException thrown in reloadGrayImage", ex);
+
+            return null;
+        }
+    }
+
     //-------------//
     // removeImage //
     //-------------//
@@ -960,7 +1113,9 @@ public class Picture
                                 BufferedImage image,
                                 boolean modified)
     {
-        ImageHolder imageHolder = new ImageHolder(key);
+        ImageHolder imageHolder = ((key == ImageKey.GRAY) && constants.useTiledGray.isSet())
+                ? new TiledImageHolder(key)
+                : new ImageHolder(key);
         imageHolder.setData(image, modified);
         images.put(key, imageHolder);
     }
@@ -981,7 +1136,7 @@ public class Picture
     {
         if (table != null) {
             tables.put(key, new WeakReference<>(table));
-            setImage(key.toImageKey(), table.getBufferedImage(), modified);
+            setImage(key.toImageKey(), BinaryBuffer.valueOf(table).toBufferedImage(), modified);
         }
     }
 
@@ -1121,7 +1276,7 @@ public class Picture
      */
     public static RunTable tableOf (BufferedImage binaryImg)
     {
-        return new RunTableFactory(VERTICAL).createTable(new ByteProcessor(binaryImg));
+        return new RunTableFactory(VERTICAL).createTable(BinaryBuffer.valueOf(binaryImg));
     }
 
     //~ Inner Classes ------------------------------------------------------------------------------
@@ -1146,6 +1301,10 @@ public class Picture
                 "pixels",
                 1,
                 "Radius of Median filtering kernel (1 for 3x3, 2 for 5x5)");
+
+        private final Constant.Boolean useTiledGray = new Constant.Boolean(
+                true,
+                "Should we keep the gray image in a memory-mapped tiled store?");
     }
 
     //~ Enumerations -------------------------------------------------------------------------------
@@ -279,9 +279,13 @@ public class PlayList
     public static JAXBContext getJaxbContext ()
         throws JAXBException
     {
-        // Lazy creation
+        // Lazy creation, perhaps concurrently with a warm-up task
         if (jaxbContext == null) {
-            jaxbContext = JAXBContext.newInstance(PlayList.class);
+            synchronized (PlayList.class) {
+                if (jaxbContext == null) {
+                    jaxbContext = JAXBContext.newInstance(PlayList.class);
+                }
+            }
         }
 
         return jaxbContext;
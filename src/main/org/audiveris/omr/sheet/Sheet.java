@@ -108,6 +108,7 @@ import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlType;
 import javax.xml.bind.annotation.adapters.XmlAdapter;
 import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 import javax.xml.stream.XMLStreamException;
@@ -139,6 +140,14 @@ import javax.xml.stream.XMLStreamException;
  */
 @XmlAccessorType(XmlAccessType.NONE)
 @XmlRootElement(name = "sheet")
+@XmlType(propOrder =
+{
+        /** NOTA: Glyph index is written before pages, which refer to its glyphs. */
+        "picture",
+        "scale",
+        "skew",
+        "glyphIndexContent",
+        "pages" })
 public class Sheet
 {
     //~ Static fields/initializers -----------------------------------------------------------------
@@ -1557,9 +1566,13 @@ public class Sheet
     public static JAXBContext getJaxbContext ()
         throws JAXBException
     {
-        // Lazy creation
+        // Lazy creation, perhaps concurrently with a warm-up task
         if (jaxbContext == null) {
-            jaxbContext = JAXBContext.newInstance(Sheet.class);
+            synchronized (Sheet.class) {
+                if (jaxbContext == null) {
+                    jaxbContext = JAXBContext.newInstance(Sheet.class);
+                }
+            }
         }
 
         return jaxbContext;
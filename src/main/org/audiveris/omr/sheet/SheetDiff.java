@@ -24,8 +24,10 @@ package org.audiveris.omr.sheet;
 import org.audiveris.omr.OMR;
 import org.audiveris.omr.constant.Constant;
 import org.audiveris.omr.constant.ConstantSet;
+import org.audiveris.omr.image.BinaryBuffer;
 import org.audiveris.omr.image.GlobalFilter;
 import org.audiveris.omr.image.ImageUtil;
+import org.audiveris.omr.image.ProcessorSource;
 import org.audiveris.omr.run.RunTable;
 import org.audiveris.omr.sheet.ui.ImageView;
 import org.audiveris.omr.sheet.ui.PixelBoard;
@@ -35,6 +37,7 @@ import org.audiveris.omr.ui.BoardsPane;
 import org.audiveris.omr.ui.ViewParameters;
 import org.audiveris.omr.ui.view.ScrollView;
 import org.audiveris.omr.util.ByteUtil;
+import org.audiveris.omr.util.Metrics;
 import org.audiveris.omr.util.Navigable;
 import org.audiveris.omr.util.StopWatch;
 import org.audiveris.omr.util.WeakPropertyChangeListener;
@@ -47,10 +50,14 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
+import java.awt.geom.Area;
 import java.awt.image.BufferedImage;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
+import java.util.Map;
+import java.util.TreeMap;
 
 import ij.process.ByteProcessor;
 
@@ -110,7 +117,7 @@ public class SheetDiff
         final int width = sheet.getWidth();
         final int height = sheet.getHeight();
         final ByteProcessor in = new GlobalFilter(
-                sheet.getPicture().getSource(Picture.SourceKey.BINARY),
+                new ProcessorSource(sheet.getPicture().getSource(Picture.SourceKey.BINARY)),
                 constants.binaryThreshold.getValue()).filteredImage();
 
         watch.start("count input");
@@ -169,6 +176,80 @@ public class SheetDiff
         return ratio;
     }
 
+    //----------------//
+    // computeQuality //
+    //----------------//
+    /**
+     * Computes, with no display and no disk output, the recognition quality of current sheet.
+     * <p>
+     * Input and output images are packed as {@link BinaryBuffer} instances, so that their
+     * difference is computed 64 pixels at a time.
+     * Thin differences, typically found along symbol borders, are then discarded: a different
+     * pixel is kept only if it has both a horizontal and a vertical different neighbor.
+     *
+     * @return the quality measurement, for the whole sheet and for each system and staff
+     */
+    public Quality computeQuality ()
+    {
+        final StopWatch watch = new StopWatch("computeQuality");
+        final int width = sheet.getWidth();
+        final int height = sheet.getHeight();
+
+        watch.start("pack input");
+
+        final BinaryBuffer in = BinaryBuffer.valueOf(
+                sheet.getPicture().getSource(Picture.SourceKey.BINARY));
+
+        watch.start("pack output");
+
+        // Threshold a copy, to keep cached output image intact
+        final ByteProcessor out = (ByteProcessor) new ByteProcessor(getOutput()).duplicate();
+        out.threshold(constants.binaryThreshold.getValue());
+
+        final BinaryBuffer xor = BinaryBuffer.valueOf(out);
+
+        watch.start("xor");
+
+        xor.xor(in);
+
+        watch.start("denoise");
+
+        final BinaryBuffer diff = denoise(xor);
+
+        watch.start("count");
+
+        final Rectangle full = new Rectangle(0, 0, width, height);
+        inputCount = in.cardinality();
+
+        final Quality quality = new Quality(sheet.getId(), diff.cardinality(), inputCount);
+
+        for (SystemInfo system : sheet.getSystems()) {
+            final Area systemArea = system.getArea();
+            final Rectangle box = full.intersection(
+                    (systemArea != null) ? systemArea.getBounds() : system.getBounds());
+            quality.systemRatios.put(
+                    system.getId(),
+                    ratio(diff.cardinality(box), in.cardinality(box)));
+
+            for (Staff staff : system.getStaves()) {
+                final Area staffArea = staff.getArea();
+
+                if (staffArea != null) {
+                    final Rectangle sBox = full.intersection(staffArea.getBounds());
+                    quality.staffRatios.put(
+                            staff.getId(),
+                            ratio(diff.cardinality(sBox), in.cardinality(sBox)));
+                }
+            }
+        }
+
+        if (constants.printWatch.isSet()) {
+            watch.print();
+        }
+
+        return quality;
+    }
+
     //---------------//
     // computeRatios //
     //---------------//
@@ -389,6 +470,52 @@ public class SheetDiff
         return output;
     }
 
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    //---------//
+    // denoise //
+    //---------//
+    /**
+     * Discard the foreground pixels which lack a horizontal neighbor or a vertical neighbor.
+     *
+     * @param bits the binary buffer to denoise
+     * @return the denoised buffer
+     */
+    private static BinaryBuffer denoise (BinaryBuffer bits)
+    {
+        final int width = bits.getWidth();
+        final int height = bits.getHeight();
+        final BinaryBuffer kept = new BinaryBuffer(width, height);
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x += Long.SIZE) {
+                final long word = bits.getBits(x, y, false);
+
+                if (word == 0) {
+                    continue;
+                }
+
+                // In each neighbor word, bit b stands for the neighbor of pixel x + b
+                final long left = bits.getBits(x - 1, y, false);
+                final long right = bits.getBits(x + 1, y, false);
+                final long up = bits.getBits(x, y - 1, false);
+                final long down = bits.getBits(x, y + 1, false);
+                kept.setBits(x, y, word & (left | right) & (up | down));
+            }
+        }
+
+        return kept;
+    }
+
+    //-------//
+    // ratio //
+    //-------//
+    private static double ratio (int count,
+                                 int total)
+    {
+        return (total == 0) ? 0 : (double) count / total;
+    }
+
     //~ Inner Classes ------------------------------------------------------------------------------
 
     //-----------//
@@ -459,4 +586,79 @@ public class SheetDiff
             repaint();
         }
     }
+
+    //---------//
+    // Quality //
+    //---------//
+    /**
+     * Recognition quality of a sheet, as the ratio of different pixels between input and
+     * output images, with respect to input foreground pixels.
+     * <p>
+     * The lower the ratio, the better the transcription.
+     */
+    public static class Quality
+    {
+
+        /** Sheet ID. */
+        public final String sheetId;
+
+        /** Number of (denoised) different pixels. */
+        public final int diffCount;
+
+        /** Number of input foreground pixels. */
+        public final int inputCount;
+
+        /** Ratio for the whole sheet. */
+        public final double ratio;
+
+        /** Ratio per system ID. */
+        public final Map<Integer, Double> systemRatios = new TreeMap<>();
+
+        /** Ratio per staff ID. */
+        public final Map<Integer, Double> staffRatios = new TreeMap<>();
+
+        Quality (String sheetId,
+                 int diffCount,
+                 int inputCount)
+        {
+            this.sheetId = sheetId;
+            this.diffCount = diffCount;
+            this.inputCount = inputCount;
+            this.ratio = ratio(diffCount, inputCount);
+        }
+
+        /**
+         * Publish the ratios as metrics gauges, in parts per million.
+         */
+        public void publish ()
+        {
+            Metrics.gauge(sheetId + ".diff.ppm").set(Math.round(1e6 * ratio));
+
+            for (Map.Entry<Integer, Double> entry : systemRatios.entrySet()) {
+                Metrics.gauge(sheetId + ".system#" + entry.getKey() + ".diff.ppm").set(
+                        Math.round(1e6 * entry.getValue()));
+            }
+
+            for (Map.Entry<Integer, Double> entry : staffRatios.entrySet()) {
+                Metrics.gauge(sheetId + ".staff#" + entry.getKey() + ".diff.ppm").set(
+                        Math.round(1e6 * entry.getValue()));
+            }
+        }
+
+        @Override
+        public String toString ()
+        {
+            final StringBuilder sb = new StringBuilder("Delta ");
+            sb.append(String.format("%4.1f%%", 100 * ratio));
+            sb.append(" (").append(diffCount).append(" differences wrt ").append(inputCount)
+                    .append(" input pixels)");
+
+            for (Map.Entry<Integer, Double> entry : systemRatios.entrySet()) {
+                sb.append(" system#").append(entry.getKey());
+                sb.append(String.format(":%.1f%%", 100 * entry.getValue()));
+            }
+
+            return sb.toString();
+        }
+    }
 }
@@ -21,6 +21,7 @@
 // </editor-fold>
 package org.audiveris.omr.sheet;
 
+import org.audiveris.omr.CLI;
 import org.audiveris.omr.Main;
 import org.audiveris.omr.OMR;
 import org.audiveris.omr.WellKnowns;
@@ -41,6 +42,7 @@ import static org.audiveris.omr.sheet.Profiles.InputQuality.Synthetic;
 import static org.audiveris.omr.sheet.Sheet.INTERNALS_RADIX;
 import org.audiveris.omr.sheet.ui.SheetAssembly;
 import org.audiveris.omr.sheet.ui.StubsController;
+import org.audiveris.omr.step.OmrEvents;
 import org.audiveris.omr.step.OmrStep;
 import org.audiveris.omr.step.ProcessingCancellationException;
 import org.audiveris.omr.step.StepException;
@@ -52,6 +54,7 @@ import org.audiveris.omr.ui.symbol.TextFamily;
 import org.audiveris.omr.util.FileUtil;
 import org.audiveris.omr.util.Jaxb;
 import org.audiveris.omr.util.Memory;
+import org.audiveris.omr.util.Metrics;
 import org.audiveris.omr.util.Navigable;
 import org.audiveris.omr.util.OmrExecutors;
 import org.audiveris.omr.util.StopWatch;
@@ -78,6 +81,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Predicate;
@@ -155,6 +159,18 @@ public class SheetStub
     @XmlJavaTypeAdapter(type = boolean.class, value = Jaxb.BooleanPositiveAdapter.class)
     private boolean invalid;
 
+    /**
+     * Recognition quality, as the ratio of pixels that differ between input image and painted
+     * output, with respect to input foreground pixels.
+     * <p>
+     * It is measured in batch at the end of sheet transcription, only on
+     * <code>-diff</code> CLI option.
+     * Otherwise, this value is not present in the project XML data.
+     */
+    @XmlAttribute(name = "diff")
+    @XmlJavaTypeAdapter(Jaxb.Double5Adapter.class)
+    private Double diffRatio;
+
     /**
      * Applies a specific binarization filter to transform the sheet gray image into a
      * binary (black and white) image.
@@ -254,6 +270,9 @@ public class SheetStub
     /** The step being performed on the sheet. */
     private volatile OmrStep currentStep;
 
+    /** Count of step transitions, to let UI caches detect sheet modifications. */
+    private final AtomicInteger stepStamp = new AtomicInteger();
+
     /** Has this sheet been modified, WRT its persisted data. */
     private volatile boolean modified = false;
 
@@ -444,6 +463,27 @@ public class SheetStub
         }
     }
 
+    //----------------//
+    // computeQuality //
+    //----------------//
+    /**
+     * Measure the recognition quality of this sheet, and record it in stub and in metrics.
+     */
+    private void computeQuality ()
+    {
+        try {
+            final SheetDiff.Quality quality = new SheetDiff(sheet).computeQuality();
+            diffRatio = quality.ratio;
+            logger.info("{}", quality);
+
+            if (Metrics.isEnabled()) {
+                quality.publish();
+            }
+        } catch (Exception ex) {
+            logger.warn("Could not measure recognition quality of {} {}", this, ex.toString(), ex);
+        }
+    }
+
     //-----------------//
     // decideOnRemoval //
     //-----------------//
@@ -552,8 +592,14 @@ public class SheetStub
                     sheet.reset(step); // Reset sheet relevant data
 
                     try {
+                        final Metrics.Probe probe = Metrics.start(getId());
                         step.doit(sheet); // Standard processing on an existing sheet
                         done(step); // Full completion
+
+                        if (probe != null) {
+                            recordMetrics(probe, step);
+                        }
+
                         StepMonitoring.notifyStep(SheetStub.this, step);
                     } catch (StepPause sp) {
                         done(step);
@@ -569,8 +615,16 @@ public class SheetStub
 
             future.get(timeout, TimeUnit.SECONDS);
 
+            // No CLI when driven by code (tests, benchmarks)
+            final CLI cli = (OMR.gui == null) ? Main.getCli() : null;
+
+            // At end of transcription, measure recognition quality?
+            if ((cli != null) && (step == OmrStep.last()) && cli.isDiff()) {
+                computeQuality();
+            }
+
             // At end of each step, save sheet to disk?
-            if ((OMR.gui == null) && Main.getCli().isSave()) {
+            if ((cli != null) && cli.isSave()) {
                 logger.debug("calling storeSheet");
                 storeSheet();
             }
@@ -697,6 +751,20 @@ public class SheetStub
         return currentStep;
     }
 
+    //--------------//
+    // getDiffRatio //
+    //--------------//
+    /**
+     * Report the recognition quality measured on this sheet, if any.
+     *
+     * @return the ratio of different pixels, or null if not measured
+     * @see SheetDiff#computeQuality()
+     */
+    public Double getDiffRatio ()
+    {
+        return diffRatio;
+    }
+
     //-----------------//
     // getFirstPageRef //
     //-----------------//
@@ -1008,6 +1076,8 @@ public class SheetStub
             }
 
             final StopWatch watch = new StopWatch("Load Sheet " + this);
+            final OmrEvents.BookIoEvent event = new OmrEvents.BookIoEvent();
+            event.begin();
 
             try {
                 final Path sheetFile;
@@ -1050,6 +1120,13 @@ public class SheetStub
                 if (constants.printWatch.isSet()) {
                     watch.print();
                 }
+
+                if (event.shouldCommit()) {
+                    event.book = book.getRadix();
+                    event.sheet = getId();
+                    event.operation = "load";
+                    event.commit();
+                }
             }
 
             return sheet;
@@ -1073,6 +1150,21 @@ public class SheetStub
         return sheetInput;
     }
 
+    //--------------//
+    // getStepStamp //
+    //--------------//
+    /**
+     * Report the count of step transitions (starts and stops) so far on this sheet.
+     * <p>
+     * Any change in this value means that sheet data may have been modified by processing.
+     *
+     * @return the current step stamp
+     */
+    public int getStepStamp ()
+    {
+        return stepStamp.get();
+    }
+
     //---------------//
     // getTextFamily //
     //---------------//
@@ -1181,7 +1273,7 @@ public class SheetStub
      *
      * @param book the containing book
      */
-    private void initTransients (Book book)
+    void initTransients (Book book)
     {
         try {
             LogUtil.start(book);
@@ -1355,7 +1447,16 @@ public class SheetStub
                 watch.start(step.name());
                 StepMonitoring.notifyMsg(step.toString());
                 logger.debug("reachStep {} towards {}", step, target);
+
+                final OmrEvents.StepEvent event = new OmrEvents.StepEvent();
+                event.begin();
                 doOneStep(step);
+
+                if (event.shouldCommit()) {
+                    event.sheet = getId();
+                    event.step = step.name();
+                    event.commit();
+                }
             }
 
             ok = true;
@@ -1393,6 +1494,28 @@ public class SheetStub
         return ok;
     }
 
+    //---------------//
+    // recordMetrics //
+    //---------------//
+    /**
+     * Record the metrics of a step just completed on this sheet.
+     *
+     * @param probe the probe started at step beginning
+     * @param step  the completed step
+     */
+    private void recordMetrics (Metrics.Probe probe,
+                                OmrStep step)
+    {
+        int inters = 0;
+
+        for (SystemInfo system : sheet.getSystems()) {
+            inters += system.getSig().vertexSet().size();
+        }
+
+        final int glyphs = sheet.getGlyphIndex().getEntities().size();
+        Metrics.recordStep(probe, getId(), 0, step.name(), glyphs, inters);
+    }
+
     //---------------//
     // removePageRef //
     //---------------//
@@ -1485,6 +1608,7 @@ public class SheetStub
     public void setCurrentStep (OmrStep step)
     {
         currentStep = step;
+        stepStamp.incrementAndGet();
     }
 
     //-------------//
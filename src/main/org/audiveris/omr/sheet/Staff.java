@@ -558,6 +558,29 @@ public class Staff
         }
     }
 
+    //----------------------//
+    // buildSimplifiedLines //
+    //----------------------//
+    /**
+     * Build the persistent StaffLine counterparts of the transient StaffFilament instances,
+     * without registering their glyphs nor modifying this staff.
+     * <p>
+     * This touches no sheet-level data, so it can be run concurrently for different staves.
+     *
+     * @return the simplified lines, parallel to staff lines
+     * @see #simplifyLines(Sheet, List)
+     */
+    public List<StaffLine> buildSimplifiedLines ()
+    {
+        final List<StaffLine> simplified = new ArrayList<>(lines.size());
+
+        for (LineInfo line : lines) {
+            simplified.add(((StaffFilament) line).toStaffLine(null));
+        }
+
+        return simplified;
+    }
+
     //--------------//
     // clearLedgers //
     //--------------//
@@ -2132,19 +2155,22 @@ public class Staff
     //---------------//
     /**
      * Replace the transient StaffFilament instances by persistent StaffLine instances.
+     * <p>
+     * Line glyphs are registered in sheet glyph index, in line order.
      *
-     * @param sheet the sheet to process
+     * @param sheet      the sheet to process
+     * @param simplified the lines built by {@link #buildSimplifiedLines()}
      * @return the original StaffFilaments
      */
-    public List<LineInfo> simplifyLines (Sheet sheet)
+    public List<LineInfo> simplifyLines (Sheet sheet,
+                                         List<StaffLine> simplified)
     {
         final GlyphIndex glyphIndex = sheet.getGlyphIndex();
         List<LineInfo> copies = new ArrayList<>(lines);
         lines.clear();
 
-        for (LineInfo line : copies) {
-            StaffFilament staffFilament = (StaffFilament) line;
-            StaffLine staffLine = staffFilament.toStaffLine(glyphIndex);
+        for (StaffLine staffLine : simplified) {
+            staffLine.setGlyph(glyphIndex.registerOriginal(staffLine.getGlyph()));
             lines.add(staffLine);
         }
 
@@ -21,12 +21,15 @@
 // </editor-fold>
 package org.audiveris.omr.sheet;
 
+import org.audiveris.omr.Main;
 import org.audiveris.omr.constant.Constant;
 import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.math.GeoPath;
 import org.audiveris.omr.math.NaturalSpline;
 import org.audiveris.omr.math.ReversePathIterator;
+import org.audiveris.omr.log.LogUtil;
 import org.audiveris.omr.sheet.grid.LineInfo;
+import org.audiveris.omr.step.ProcessingCancellationException;
 import org.audiveris.omr.ui.Colors;
 import org.audiveris.omr.ui.util.ItemRenderer;
 import org.audiveris.omr.ui.util.UIUtil;
@@ -34,6 +37,7 @@ import org.audiveris.omr.util.HorizontalSide;
 import static org.audiveris.omr.util.HorizontalSide.LEFT;
 import static org.audiveris.omr.util.HorizontalSide.RIGHT;
 import org.audiveris.omr.util.Navigable;
+import org.audiveris.omr.util.OmrExecutors;
 import org.audiveris.omr.util.VerticalSide;
 import static org.audiveris.omr.util.VerticalSide.BOTTOM;
 import static org.audiveris.omr.util.VerticalSide.TOP;
@@ -54,6 +58,10 @@ import java.awt.geom.Point2D;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 /**
  * Class <code>StaffManager</code> handles physical information about all the real staves of
@@ -444,6 +452,70 @@ public class StaffManager
         return null;
     }
 
+    //---------------//
+    // processStaves //
+    //---------------//
+    /**
+     * Apply the provided processing on each of the provided staves, in parallel when allowed.
+     * <p>
+     * The processing must modify only data owned by its staff.
+     * Any cross-staff result (ids, indexes, graphs) is to be merged afterwards by the caller,
+     * in staff order, so that the outcome does not depend on thread scheduling.
+     *
+     * @param staffList the staves to process
+     * @param action    the staff-local processing
+     */
+    public void processStaves (List<Staff> staffList,
+                               Consumer<Staff> action)
+    {
+        final boolean parallel = Main.processSystemsInParallel() && (staffList.size() > 1);
+        final List<Callable<Void>> tasks = new ArrayList<>(staffList.size());
+
+        for (Staff staff : staffList) {
+            tasks.add( () ->
+            {
+                try {
+                    if (parallel) {
+                        LogUtil.start(sheet.getStub());
+                    }
+
+                    action.accept(staff);
+                } finally {
+                    if (parallel) {
+                        LogUtil.stopStub();
+                    }
+                }
+
+                return null;
+            });
+        }
+
+        try {
+            if (parallel) {
+                for (Future<Void> future : OmrExecutors.getLowExecutor().invokeAll(tasks)) {
+                    future.get();
+                }
+            } else {
+                for (Callable<Void> task : tasks) {
+                    task.call();
+                }
+            }
+        } catch (InterruptedException ex) {
+            logger.warn("processStaves got interrupted for {}", sheet);
+            throw new ProcessingCancellationException(ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+
+            throw new RuntimeException(ex.getCause());
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
     //-------------//
     // removeStaff //
     //-------------//
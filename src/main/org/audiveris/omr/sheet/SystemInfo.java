@@ -653,6 +653,19 @@ public class SystemInfo
         return null;
     }
 
+    //-------------------//
+    // getFreeGlyphCount //
+    //-------------------//
+    /**
+     * Report the number of free glyphs currently registered in system.
+     *
+     * @return count of free glyphs
+     */
+    public int getFreeGlyphCount ()
+    {
+        return (freeGlyphs != null) ? freeGlyphs.size() : 0;
+    }
+
     //------------------//
     // getGroupedGlyphs //
     //------------------//
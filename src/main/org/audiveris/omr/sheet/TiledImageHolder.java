@@ -0,0 +1,177 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                 T i l e d I m a g e H o l d e r                                //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.sheet;
+
+import org.audiveris.omr.image.TiledGrayStore;
+import org.audiveris.omr.sheet.Picture.ImageKey;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.SoftReference;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Class <code>TiledImageHolder</code> is an {@link ImageHolder} which keeps its gray image in a
+ * {@link TiledGrayStore} rather than in a whole BufferedImage.
+ * <p>
+ * Any image assigned or loaded from disk is immediately transferred to the tiled store and the
+ * BufferedImage released.
+ * A whole BufferedImage is then materialized only on explicit {@link #getData} request, and
+ * softly cached.
+ * <p>
+ * If the tiled store cannot be allocated, the holder falls back to keeping the BufferedImage.
+ *
+ * @author Hervé Bitteur
+ */
+public class TiledImageHolder
+        extends ImageHolder
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Logger logger = LoggerFactory.getLogger(TiledImageHolder.class);
+
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** The tiled store, if any. */
+    private volatile TiledGrayStore store;
+
+    /** Whole image last materialized out of tiled store, kept while memory allows. */
+    private SoftReference<BufferedImage> whole;
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Creates a new <code>TiledImageHolder</code> object.
+     *
+     * @param key image key
+     */
+    public TiledImageHolder (ImageKey key)
+    {
+        super(key);
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //---------//
+    // getData //
+    //---------//
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The whole image is materialized out of tiled store, and only softly retained by this
+     * holder, so that consecutive requests share the same copy while memory allows.
+     */
+    @Override
+    public synchronized BufferedImage getData (SheetStub stub)
+    {
+        final TiledGrayStore theStore = getStore(stub);
+
+        if (theStore == null) {
+            return data; // Fallback
+        }
+
+        BufferedImage img = (whole != null) ? whole.get() : null;
+
+        if (img == null) {
+            img = theStore.toBufferedImage();
+            whole = new SoftReference<>(img);
+        }
+
+        return img;
+    }
+
+    //----------//
+    // getStore //
+    //----------//
+    /**
+     * Report the tiled store, loading it from disk if needed.
+     *
+     * @param stub the related sheet stub instance (to use book lock)
+     * @return the tiled store, or null if no image is available
+     */
+    public synchronized TiledGrayStore getStore (SheetStub stub)
+    {
+        if (store == null) {
+            tile(super.getData(stub));
+        }
+
+        return store;
+    }
+
+    //--------------//
+    // hasDataReady //
+    //--------------//
+    @Override
+    public boolean hasDataReady ()
+    {
+        return (store != null) || super.hasDataReady();
+    }
+
+    //---------//
+    // setData //
+    //---------//
+    @Override
+    public synchronized void setData (BufferedImage data,
+                                      boolean modified)
+    {
+        store = null;
+        whole = null;
+        super.setData(data, modified);
+        tile(data);
+    }
+
+    //-------//
+    // store //
+    //-------//
+    @Override
+    protected void store (OutputStream os)
+        throws Exception
+    {
+        final TiledGrayStore theStore = store;
+        ImageIO.write((theStore != null) ? theStore.toBufferedImage() : data, IMAGE_FORMAT, os);
+    }
+
+    //------//
+    // tile //
+    //------//
+    /**
+     * Transfer the provided image, if any, to a tiled store and release the image.
+     *
+     * @param img the image to transfer, perhaps null
+     */
+    private void tile (BufferedImage img)
+    {
+        if (img != null) {
+            try {
+                store = TiledGrayStore.create(img);
+                data = null;
+            } catch (IOException ex) {
+                logger.warn("Could not tile image, keeping it in memory {}", ex.toString(), ex);
+            }
+        }
+    }
+}
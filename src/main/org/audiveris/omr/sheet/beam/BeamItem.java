@@ -23,6 +23,7 @@ package org.audiveris.omr.sheet.beam;
 
 import org.audiveris.omr.math.AreaUtil;
 import org.audiveris.omr.math.LineUtil;
+import org.audiveris.omr.math.Ribbon;
 import org.audiveris.omr.util.Vip;
 
 import java.awt.geom.Area;
@@ -78,7 +79,7 @@ public class BeamItem
      * @param bottomDy vertical margin below
      * @return belt area around the beam item
      */
-    public Area getBeltArea (Area coreArea,
+    public Area getBeltArea (Ribbon coreArea,
                              int dx,
                              int topDy,
                              int bottomDy)
@@ -93,7 +94,7 @@ public class BeamItem
         p2.setLocation(p2.getX(), p2.getY() + shiftY);
 
         Area beltArea = AreaUtil.horizontalParallelogram(p1, p2, beltHeight);
-        beltArea.subtract(coreArea);
+        beltArea.subtract(coreArea.toArea());
 
         return beltArea;
     }
@@ -106,9 +107,9 @@ public class BeamItem
      *
      * @return parallelogram for black pixels
      */
-    public Area getCoreArea ()
+    public Ribbon getCoreArea ()
     {
-        return AreaUtil.horizontalParallelogram(median.getP1(), median.getP2(), height);
+        return Ribbon.horizontal(median.getP1(), median.getP2(), height);
     }
 
     //-------//
@@ -30,10 +30,10 @@ import org.audiveris.omr.glyph.Grades;
 import org.audiveris.omr.glyph.Shape;
 import org.audiveris.omr.image.AreaMask;
 import org.audiveris.omr.lag.Lag;
-import org.audiveris.omr.math.AreaUtil;
 import org.audiveris.omr.math.GeoOrder;
 import org.audiveris.omr.math.GeoUtil;
 import org.audiveris.omr.math.LineUtil;
+import org.audiveris.omr.math.Ribbon;
 import org.audiveris.omr.run.Orientation;
 import static org.audiveris.omr.run.Orientation.VERTICAL;
 import org.audiveris.omr.run.RunTable;
@@ -206,7 +206,7 @@ public class BeamsBuilder
         final double height = beam.getHeight();
         final double dy = 1.5 * ((side == TOP) ? (-height) : height);
 
-        Area luArea = AreaUtil.horizontalParallelogram(
+        Ribbon luArea = Ribbon.horizontal(
                 new Point2D.Double(median.getX1(), median.getY1() + dy),
                 new Point2D.Double(median.getX2(), median.getY2() + dy),
                 height);
@@ -561,7 +561,7 @@ public class BeamsBuilder
                                     double distImpact,
                                     ItemParameters itemParams)
     {
-        Area coreArea = item.getCoreArea();
+        Ribbon coreArea = item.getCoreArea();
         AreaMask coreMask = new AreaMask(coreArea);
         WrappedInteger core = new WrappedInteger(0);
         int coreCount = coreMask.fore(core, pixelFilter);
@@ -861,7 +861,7 @@ public class BeamsBuilder
         // Look for a parallel beam just above or below
         final Line2D median = beam.getMedian();
         final double height = beam.getHeight();
-        final Area luArea = AreaUtil.horizontalParallelogram(
+        final Ribbon luArea = Ribbon.horizontal(
                 median.getP1(),
                 median.getP2(),
                 2 * sheet.getScale().toPixelsDouble(BeamGroupInter.getMaxYDistance()));
@@ -955,7 +955,7 @@ public class BeamsBuilder
                 .getX2()) : (beamMedian.getX1() - otherMedian.getX2());
 
         if (gap >= params.minBeamsGapX) {
-            Area middleArea = middleArea(beam, other);
+            Ribbon middleArea = middleArea(beam, other);
             AreaMask coreMask = new AreaMask(middleArea);
             WrappedInteger core = new WrappedInteger(0);
             int coreCount = coreMask.fore(core, pixelFilter);
@@ -1025,7 +1025,7 @@ public class BeamsBuilder
         }
 
         // Check we have a high enough black ratio in the extension zone
-        Area extArea = sideAreaOf("+", beam, side, 0, extDx, 0);
+        Ribbon extArea = sideAreaOf("+", beam, side, 0, extDx, 0);
         AreaMask extMask = new AreaMask(extArea);
         WrappedInteger extCore = new WrappedInteger(0);
         int extCoreCount = extMask.fore(extCore, pixelFilter);
@@ -1104,7 +1104,7 @@ public class BeamsBuilder
         final boolean logging = beam.isVip() || logger.isDebugEnabled();
         final int dx = (maxDx == null) ? params.maxExtensionToSpot
                 : Math.min(params.maxExtensionToSpot, maxDx);
-        final Area luArea = sideAreaOf("O", beam, side, 0, dx, 0);
+        final Ribbon luArea = sideAreaOf("O", beam, side, 0, dx, 0);
         final List<Glyph> spots = new ArrayList<>(
                 Glyphs.intersectedGlyphs(sortedBeamSpots, luArea));
         Collections.sort(spots, Glyphs.byAbscissa);
@@ -1152,7 +1152,7 @@ public class BeamsBuilder
         final int dx = (maxDx == null) ? params.maxExtensionToStem
                 : Math.min(params.maxExtensionToStem, maxDx);
         final int dy = params.maxStemBeamGapY;
-        final Area luArea = sideAreaOf("|", beam, side, dy, dx, 0);
+        final Ribbon luArea = sideAreaOf("|", beam, side, dy, dx, 0);
         List<Glyph> seeds = new ArrayList<>(Glyphs.intersectedGlyphs(sortedSystemSeeds, luArea));
         Collections.sort(seeds, Glyphs.byAbscissa);
 
@@ -1291,7 +1291,7 @@ public class BeamsBuilder
                                            final HorizontalSide side,
                                            Double maxGapDx)
     {
-        Area luArea = (maxGapDx != null) ? sideAreaOf(null, beam, side, 0, maxGapDx, 0)
+        Ribbon luArea = (maxGapDx != null) ? sideAreaOf(null, beam, side, 0, maxGapDx, 0)
                 : sideAreaOf("-", beam, side, 0, params.maxSideBeamDx, 0);
 
         List<Inter> others = Inters.intersectedInters(rawSystemBeams, GeoOrder.NONE, luArea);
@@ -1437,8 +1437,8 @@ public class BeamsBuilder
      * @param two another beam
      * @return the area between them
      */
-    private Area middleArea (AbstractBeamInter one,
-                             AbstractBeamInter two)
+    private Ribbon middleArea (AbstractBeamInter one,
+                               AbstractBeamInter two)
     {
         final Line2D oneMedian = one.getMedian();
         final Line2D twoMedian = two.getMedian();
@@ -1458,7 +1458,7 @@ public class BeamsBuilder
             median = new Line2D.Double(twoMedian.getP2(), oneMedian.getP1());
         }
 
-        return AreaUtil.horizontalParallelogram(median.getP1(), median.getP2(), height);
+        return Ribbon.horizontal(median.getP1(), median.getP2(), height);
     }
 
     //---------//
@@ -1476,7 +1476,7 @@ public class BeamsBuilder
     private boolean overlap (BeamItem item)
     {
         // First filtering using rough intersection (area / rectangle)
-        Area itemCore = item.getCoreArea();
+        Ribbon itemCore = item.getCoreArea();
         List<Inter> beams = Inters.intersectedInters(rawSystemBeams, GeoOrder.NONE, itemCore);
 
         if (beams.isEmpty()) {
@@ -1489,7 +1489,7 @@ public class BeamsBuilder
         for (Inter inter : beams) {
             AbstractBeamInter beam = (AbstractBeamInter) inter;
 
-            if (beam.getArea().contains(itemCenter)) {
+            if (beam.getRibbon().contains(itemCenter)) {
                 return true;
             }
         }
@@ -1580,12 +1580,12 @@ public class BeamsBuilder
      * @param intDx abscissa offset towards beam interior
      * @return the area
      */
-    private Area sideAreaOf (String kind,
-                             AbstractBeamInter beam,
-                             HorizontalSide side,
-                             double extDy,
-                             double extDx,
-                             double intDx)
+    private Ribbon sideAreaOf (String kind,
+                               AbstractBeamInter beam,
+                               HorizontalSide side,
+                               double extDy,
+                               double extDx,
+                               double intDx)
     {
         final Line2D median = beam.getMedian();
         final double height = beam.getHeight() + (2 * extDy);
@@ -1594,8 +1594,8 @@ public class BeamsBuilder
         final Point2D intPt = LineUtil.intersectionAtX(median, intX);
         final double extX = (side == LEFT) ? (median.getX1() - extDx) : (median.getX2() + extDx);
         final Point2D extPt = LineUtil.intersectionAtX(median, extX);
-        Area area = (side == LEFT) ? AreaUtil.horizontalParallelogram(extPt, intPt, height)
-                : AreaUtil.horizontalParallelogram(intPt, extPt, height);
+        final Ribbon area = (side == LEFT) ? Ribbon.horizontal(extPt, intPt, height)
+                : Ribbon.horizontal(intPt, extPt, height);
 
         if (kind != null) {
             beam.addAttachment(kind + ((side == LEFT) ? "L" : "R"), area);
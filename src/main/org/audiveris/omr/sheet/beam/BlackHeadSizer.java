@@ -27,6 +27,7 @@ import org.audiveris.omr.glyph.Glyph;
 import org.audiveris.omr.glyph.GlyphFactory;
 import org.audiveris.omr.glyph.GlyphGroup;
 import org.audiveris.omr.glyph.Glyphs;
+import org.audiveris.omr.image.BinaryBuffer;
 import org.audiveris.omr.image.MorphoProcessor;
 import org.audiveris.omr.image.StructureElement;
 import org.audiveris.omr.math.Population;
@@ -44,8 +45,6 @@ import org.audiveris.omr.util.Dumping;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import ij.process.ByteProcessor;
-
 import java.awt.Point;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -123,11 +122,12 @@ public class BlackHeadSizer
     private Glyph closeBlackHead (MorphoProcessor mp,
                                   Glyph spot)
     {
-        ByteProcessor buffer = spot.getBuffer();
+        // Spot is binary, hence closing can operate on packed bits.
+        // With the flat circular element used here, the result is the same as graylevel closing
+        // followed by binarization, which is no longer needed (see BinaryBufferTest).
+        BinaryBuffer buffer = BinaryBuffer.valueOf(spot.getRunTable());
         mp.close(buffer);
 
-        buffer.threshold(params.binarizationThreshold);
-
         RunTableFactory runFactory = new RunTableFactory(SpotsBuilder.SPOT_ORIENTATION);
         RunTable spotTable = runFactory.createTable(buffer);
         List<Glyph> glyphs = GlyphFactory.buildGlyphs(spotTable, spot.getTopLeft());
@@ -267,11 +267,6 @@ public class BlackHeadSizer
                 0.9,
                 "Closing diameter for black head spot");
 
-        private final Constant.Integer binarizationThreshold = new Constant.Integer(
-                "pixel",
-                110,
-                "Global binarization threshold for heads");
-
         private final Scale.Fraction minWidth = new Scale.Fraction(
                 1.0,
                 "Minimum width for black head spot");
@@ -349,8 +344,6 @@ public class BlackHeadSizer
 
         final double diameter;
 
-        final int binarizationThreshold;
-
         final int singlesQuorum;
 
         /**
@@ -371,7 +364,6 @@ public class BlackHeadSizer
             minStackWeight = scale.toPixels(constants.minStackWeight);
             maxStackWeight = scale.toPixels(constants.maxStackWeight);
             diameter = scale.toPixelsDouble(constants.closingDiameter);
-            binarizationThreshold = constants.binarizationThreshold.getValue();
             singlesQuorum = constants.singlesQuorum.getValue();
 
             if (logger.isDebugEnabled()) {
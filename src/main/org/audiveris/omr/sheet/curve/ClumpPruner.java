@@ -40,7 +40,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.awt.Rectangle;
-import java.awt.geom.Area;
+import java.awt.Shape;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -100,7 +100,7 @@ public class ClumpPruner
      * @return the global bounds
      */
     private Map<HorizontalSide, Rectangle> getBounds (Set<Inter> clump,
-                                                      Map<Inter, Map<HorizontalSide, Area>> areas)
+                                                      Map<Inter, Map<HorizontalSide, Shape>> areas)
     {
         Map<HorizontalSide, Rectangle> bounds = new EnumMap<>(HorizontalSide.class);
 
@@ -139,7 +139,7 @@ public class ClumpPruner
     {
         // Compute lookup areas for each slur in clump
         // If we cannot compute areas for a slur, we simply discard the slur
-        Map<Inter, Map<HorizontalSide, Area>> areas = new LinkedHashMap<>();
+        Map<Inter, Map<HorizontalSide, Shape>> areas = new LinkedHashMap<>();
 
         for (Iterator<Inter> it = clump.iterator(); it.hasNext();) {
             SlurInter slur = (SlurInter) it.next();
@@ -412,7 +412,7 @@ public class ClumpPruner
          * @param areas the lookup areas for each candidate
          * @return the entry for best slur and its best links
          */
-        public SlurEntry selectSlur (Map<Inter, Map<HorizontalSide, Area>> areas)
+        public SlurEntry selectSlur (Map<Inter, Map<HorizontalSide, Shape>> areas)
         {
             // Determine the pair of best links for every slur candidate
             List<SlurEntry> entries = new ArrayList<>();
@@ -131,6 +131,10 @@ public abstract class Curve
     {
         Objects.requireNonNull(attachment, "Adding a null attachment");
 
+        if (!BasicAttachmentHolder.isEnabled()) {
+            return;
+        }
+
         if (attachments == null) {
             attachments = new BasicAttachmentHolder();
         }
@@ -122,6 +122,20 @@ public class Curves
     //-------------//
     /**
      * Build all curves out of the image skeleton, by appending arcs.
+     * <p>
+     * Unlike skeletonization, these phases work on the whole page, sequentially:
+     * <ul>
+     * <li>Junctions retrieval labels skeleton pixels in scan order, and a junction pixel gets
+     * demoted according to the labels already set on its side neighbors.</li>
+     * <li>Arcs retrieval walks each arc pixel by pixel until its ending junction, whatever its
+     * length, and marks the pixels as processed on the way.</li>
+     * <li>Slurs building processes the seed arcs of the whole page by decreasing length, each arc
+     * being assigned to the first curve that reaches it, and a curve extension is not limited to
+     * its system area.
+     * Arcs in the gap between two systems can thus be claimed from either side, in length order.
+     * </li>
+     * </ul>
+     * Splitting any of them by bands or by systems would change the resulting curves.
      */
     public void buildCurves ()
     {
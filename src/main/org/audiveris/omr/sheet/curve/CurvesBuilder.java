@@ -25,8 +25,10 @@ import org.audiveris.omr.constant.Constant;
 import org.audiveris.omr.constant.ConstantSet;
 import static org.audiveris.omr.image.PixelSource.BACKGROUND;
 import org.audiveris.omr.math.AreaUtil;
+import org.audiveris.omr.math.ConvexQuad;
 import org.audiveris.omr.math.GeoPath;
 import org.audiveris.omr.math.PointUtil;
+import org.audiveris.omr.math.Ribbon;
 import org.audiveris.omr.sheet.Picture;
 import org.audiveris.omr.sheet.Scale;
 import org.audiveris.omr.sheet.Sheet;
@@ -612,7 +614,7 @@ public abstract class CurvesBuilder
             for (Iterator<ArcView> it = reachableArcs.iterator(); it.hasNext();) {
                 final ArcView arcView = it.next();
                 final Point ae = arcView.getEnd(!reverse); // Arc end
-                Area lineArea = null; // Lazily computed
+                Ribbon lineArea = null; // Lazily computed
 
                 for (Inter nc : ncs) {
                     // Check extension line would cross item bounds
@@ -620,14 +622,16 @@ public abstract class CurvesBuilder
                         final boolean crossing;
 
                         // Have a closer look (for beams mainly)
-                        Area ncArea = nc.getArea();
+                        final Ribbon ncRibbon = nc.getRibbon();
+                        final Area ncArea = (ncRibbon != null) ? null : nc.getArea();
 
-                        if (ncArea != null) {
+                        if ((ncRibbon != null) || (ncArea != null)) {
                             if (lineArea == null) {
                                 lineArea = getLineArea(ce, ae);
                             }
 
-                            crossing = AreaUtil.intersection(lineArea, ncArea);
+                            crossing = (ncRibbon != null) ? lineArea.intersects(ncRibbon)
+                                    : AreaUtil.intersection(lineArea.toArea(), ncArea);
                         } else {
                             crossing = true;
                         }
@@ -746,8 +750,8 @@ public abstract class CurvesBuilder
      * @param p2 another point
      * @return a line area with a thickness of approximately 2 pixels
      */
-    private Area getLineArea (Point p1,
-                              Point p2)
+    private Ribbon getLineArea (Point p1,
+                                Point p2)
     {
         // Determine if line is rather horizontal or vertical to infer margin values to apply
         final int dx = Math.abs(p2.x - p1.x);
@@ -756,11 +760,16 @@ public abstract class CurvesBuilder
         final int mx = (dx >= dy) ? 0 : 1; // Margin on X
         final int my = (dx >= dy) ? 1 : 0; // Margin on Y
 
-        GeoPath path = new GeoPath(new Line2D.Double(p1.x - mx, p1.y - my, p2.x - mx, p2.y - my));
-        path.append(new Line2D.Double(p2.x + mx, p2.y + my, p1.x + mx, p1.y + my), true);
-        path.closePath();
-
-        return new Area(path);
+        return new Ribbon(
+                new ConvexQuad(
+                        p1.x - mx,
+                        p1.y - my,
+                        p2.x - mx,
+                        p2.y - my,
+                        p2.x + mx,
+                        p2.y + my,
+                        p1.x + mx,
+                        p1.y + my));
     }
 
     //-----------------//
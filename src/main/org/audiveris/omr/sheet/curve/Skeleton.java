@@ -21,25 +21,30 @@
 // </editor-fold>
 package org.audiveris.omr.sheet.curve;
 
+import org.audiveris.omr.Main;
 import org.audiveris.omr.constant.Constant;
 import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.glyph.Glyph;
 import org.audiveris.omr.glyph.Shape;
 import org.audiveris.omr.glyph.ShapeSet;
 import org.audiveris.omr.image.ImageUtil;
+import org.audiveris.omr.log.LogUtil;
 import static org.audiveris.omr.image.PixelSource.BACKGROUND;
 import org.audiveris.omr.sheet.PageCleaner;
 import org.audiveris.omr.sheet.Picture;
 import org.audiveris.omr.sheet.Scale;
 import org.audiveris.omr.sheet.Sheet;
+import org.audiveris.omr.sheet.SheetStub;
 import org.audiveris.omr.sheet.Staff;
 import org.audiveris.omr.sheet.SystemInfo;
 import org.audiveris.omr.sheet.grid.LineInfo;
 import org.audiveris.omr.sig.SIGraph;
 import org.audiveris.omr.sig.inter.Inter;
+import org.audiveris.omr.step.ProcessingCancellationException;
 import org.audiveris.omr.ui.util.ItemRenderer;
 import org.audiveris.omr.util.HorizontalSide;
 import org.audiveris.omr.util.Navigable;
+import org.audiveris.omr.util.OmrExecutors;
 import org.audiveris.omr.util.VerticalSide;
 
 import org.slf4j.Logger;
@@ -61,6 +66,9 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * Class <code>Skeleton</code> handles the skeleton structure used for slurs and segments
@@ -255,9 +263,7 @@ public class Skeleton
         // First, get a skeleton of binary image
         Picture picture = sheet.getPicture();
 
-        ByteProcessor buffer = picture.getSource(Picture.SourceKey.BINARY);
-        buffer = (ByteProcessor) buffer.duplicate();
-        buffer.skeletonize();
+        ByteProcessor buffer = skeletonize(picture.getSource(Picture.SourceKey.BINARY));
 
         BufferedImage img = buffer.getBufferedImage();
 
@@ -421,6 +427,36 @@ public class Skeleton
         buf.set(x, y, val);
     }
 
+    //-------------//
+    // skeletonize //
+    //-------------//
+    /**
+     * Build the skeleton of the provided binary buffer, by overlapping bands if so desired.
+     *
+     * @param binary the binary source (not modified)
+     * @return a new buffer containing the skeleton
+     * @see #skeletonize(ByteProcessor, int, int, int, boolean, SheetStub)
+     */
+    private ByteProcessor skeletonize (ByteProcessor binary)
+    {
+        if (!constants.useSkeletonBands.isSet()) {
+            final ByteProcessor skel = (ByteProcessor) binary.duplicate();
+            skel.skeletonize();
+
+            return skel;
+        }
+
+        final Scale scale = sheet.getScale();
+
+        return skeletonize(
+                binary,
+                Math.max(1, scale.toPixels(constants.skeletonBandHeight)),
+                scale.toPixels(constants.skeletonBandMargin),
+                maxThickness(scale),
+                Main.processSystemsInParallel(),
+                sheet.getStub());
+    }
+
     //~ Static Methods -----------------------------------------------------------------------------
 
     //--------//
@@ -498,6 +534,155 @@ public class Skeleton
         return (dir % 2) == 0;
     }
 
+    //--------------//
+    // maxThickness //
+    //--------------//
+    /**
+     * Report the thickness of the thickest black items expected in sheet binary image.
+     * <p>
+     * These are the black heads, about one interline high, and the beams.
+     * Both are known by the sheet scale, so there is no need to measure the image itself.
+     *
+     * @param scale the sheet scale
+     * @return the maximum thickness, in pixels
+     */
+    static int maxThickness (Scale scale)
+    {
+        int thickness = scale.getMaxInterline();
+
+        final Integer beam = scale.getBeamThickness();
+
+        if (beam != null) {
+            thickness = Math.max(thickness, beam);
+        }
+
+        final Scale.BlackHeadScale heads = scale.getBlackHeadScale();
+
+        if (heads != null) {
+            thickness = Math.max(
+                    thickness,
+                    (int) Math.ceil(heads.getHeightMean() + (2 * heads.getHeightStd())));
+        }
+
+        return thickness;
+    }
+
+    //-------------//
+    // skeletonize //
+    //-------------//
+    /**
+     * Build the skeleton of the provided binary buffer, by overlapping horizontal bands.
+     * <p>
+     * Thinning is a local operation: each thinning pass can only propagate the influence of a
+     * pixel to its immediate neighbors, and the number of passes is driven by the thickness of
+     * the black items.
+     * Hence the image can be split into horizontal bands, each band being skeletonized on its own
+     * with an overlapping margin above and below, and only the band core rows kept.
+     * As long as the margin is larger than the thickness of any black item, the result is
+     * identical to a whole-image skeletonization.
+     * If the expected thickness is too large for the margin, the whole image is skeletonized at
+     * once.
+     * <p>
+     * Only skeletonization is processed by bands.
+     * The subsequent junctions and arcs scans (JunctionRetriever, ArcRetriever) label the skeleton
+     * pixels in scan order, and an arc is walked from pixel to pixel until its ending junction,
+     * whatever its length, so splitting them at band seams would cut and relabel arcs.
+     * See {@link Curves#buildCurves()} for slurs building.
+     * <p>
+     * Bands are processed in parallel when allowed, and written back in disjoint rows, so the
+     * final skeleton does not depend on task ordering.
+     *
+     * @param binary     the binary source (not modified)
+     * @param bandHeight height of each band core
+     * @param margin     overlapping margin above and below each band
+     * @param thickness  expected thickness of the thickest black items
+     * @param parallel   true for processing bands in parallel
+     * @param stub       the related sheet stub, if any, for log annotation
+     * @return a new buffer containing the skeleton
+     */
+    static ByteProcessor skeletonize (ByteProcessor binary,
+                                      int bandHeight,
+                                      int margin,
+                                      int thickness,
+                                      boolean parallel,
+                                      SheetStub stub)
+    {
+        final ByteProcessor skel = (ByteProcessor) binary.duplicate();
+        final int width = binary.getWidth();
+        final int height = binary.getHeight();
+
+        if ((height <= bandHeight) || (thickness >= margin)) {
+            skel.skeletonize();
+
+            return skel;
+        }
+
+        final byte[] src = (byte[]) binary.getPixels();
+        final byte[] dst = (byte[]) skel.getPixels();
+        final List<Callable<Void>> tasks = new ArrayList<>();
+
+        for (int y = 0; y < height; y += bandHeight) {
+            final int y0 = y; // First core row
+            final int y1 = Math.min(height, y0 + bandHeight); // Past last core row
+            final int top = Math.max(0, y0 - margin);
+            final int bottom = Math.min(height, y1 + margin);
+
+            tasks.add( () ->
+            {
+                try {
+                    if (parallel && (stub != null)) {
+                        LogUtil.start(stub);
+                    }
+
+                    final byte[] pixels = new byte[width * (bottom - top)];
+                    System.arraycopy(src, top * width, pixels, 0, pixels.length);
+
+                    final ByteProcessor band = new ByteProcessor(
+                            width,
+                            bottom - top,
+                            pixels,
+                            binary.getColorModel());
+                    band.skeletonize();
+                    System.arraycopy(
+                            pixels,
+                            (y0 - top) * width,
+                            dst,
+                            y0 * width,
+                            (y1 - y0) * width);
+                } finally {
+                    if (parallel && (stub != null)) {
+                        LogUtil.stopStub();
+                    }
+                }
+
+                return null;
+            });
+        }
+
+        try {
+            if (parallel) {
+                for (Future<Void> future : OmrExecutors.getLowExecutor().invokeAll(tasks)) {
+                    future.get();
+                }
+            } else {
+                for (Callable<Void> task : tasks) {
+                    task.call();
+                }
+            }
+        } catch (InterruptedException ex) {
+            logger.warn("Skeleton bands got interrupted");
+            throw new ProcessingCancellationException(ex);
+        } catch (ExecutionException ex) {
+            throw new RuntimeException(ex.getCause());
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+
+        logger.debug("Skeleton built in {} bands", tasks.size());
+
+        return skel;
+    }
+
     //~ Inner Classes ------------------------------------------------------------------------------
 
     //-----------//
@@ -511,6 +696,18 @@ public class Skeleton
                 false,
                 "Should we save skeleton images on disk?");
 
+        private final Constant.Boolean useSkeletonBands = new Constant.Boolean(
+                true,
+                "Should we skeletonize the image by overlapping horizontal bands?");
+
+        private final Scale.Fraction skeletonBandHeight = new Scale.Fraction(
+                40,
+                "Height of each skeleton band core");
+
+        private final Scale.Fraction skeletonBandMargin = new Scale.Fraction(
+                3,
+                "Overlapping margin above and below each skeleton band");
+
         private final Constant.Boolean useHeader = new Constant.Boolean(
                 true,
                 "Should we erase the header at staff start");
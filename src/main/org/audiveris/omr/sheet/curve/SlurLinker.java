@@ -26,6 +26,7 @@ import org.audiveris.omr.constant.ConstantSet;
 import static org.audiveris.omr.math.CubicUtil.above;
 import static org.audiveris.omr.math.CubicUtil.getEndVector1;
 import static org.audiveris.omr.math.CubicUtil.getEndVector2;
+import org.audiveris.omr.math.ConvexQuad;
 import org.audiveris.omr.math.GeoPath;
 import org.audiveris.omr.math.LineUtil;
 import static org.audiveris.omr.math.LineUtil.bisector;
@@ -58,6 +59,7 @@ import org.slf4j.LoggerFactory;
 
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.awt.Shape;
 import java.awt.geom.Area;
 import java.awt.geom.CubicCurve2D;
 import java.awt.geom.Line2D;
@@ -188,7 +190,7 @@ public class SlurLinker
      * @param slur the slur being processed
      * @return the area on both slur sides
      */
-    public Map<HorizontalSide, Area> defineAreaPair (SlurInter slur)
+    public Map<HorizontalSide, Shape> defineAreaPair (SlurInter slur)
     {
         final CubicCurve2D curve = slur.getCurve();
         final Point first = rounded(curve.getP1());
@@ -286,13 +288,13 @@ public class SlurLinker
         firstPath.closePath();
         lastPath.closePath();
 
-        Map<HorizontalSide, Area> areaMap = new EnumMap<>(HorizontalSide.class);
-        Area firstArea = new Area(firstPath);
+        Map<HorizontalSide, Shape> areaMap = new EnumMap<>(HorizontalSide.class);
+        Shape firstArea = lookupShape(firstPath);
         ///info.setArea(firstArea, true);
         areaMap.put(LEFT, firstArea);
         slur.addAttachment("F", firstArea);
 
-        Area lastArea = new Area(lastPath);
+        Shape lastArea = lookupShape(lastPath);
         ///info.setArea(lastArea, false);
         areaMap.put(RIGHT, lastArea);
         slur.addAttachment("L", lastArea);
@@ -378,7 +380,7 @@ public class SlurLinker
      */
     private Map<Inter, SlurHeadLink> lookup (SlurInter slur,
                                              HorizontalSide side,
-                                             Area area,
+                                             Shape area,
                                              List<Inter> chords)
     {
         final Map<Inter, SlurHeadLink> found = new HashMap<>();
@@ -436,7 +438,7 @@ public class SlurLinker
      * @return the pair of links if acceptable (only half-filled for orphan), null if not
      */
     public Map<HorizontalSide, SlurHeadLink> lookupLinkPair (SlurInter slur,
-                                                             Map<HorizontalSide, Area> areas,
+                                                             Map<HorizontalSide, Shape> areas,
                                                              SystemInfo system,
                                                              Map<HorizontalSide, List<Inter>> chords)
     {
@@ -566,6 +568,25 @@ public class SlurLinker
         return linkPair;
     }
 
+    //-------------//
+    // lookupShape //
+    //-------------//
+    /**
+     * Convert a side lookup path into a shape suitable for geometric tests.
+     * <p>
+     * Such path is normally a convex quadrilateral, for which a lightweight ConvexQuad is
+     * used, otherwise we fall back to an Area.
+     *
+     * @param path the closed lookup path
+     * @return the lookup shape
+     */
+    private static Shape lookupShape (GeoPath path)
+    {
+        final ConvexQuad quad = ConvexQuad.of(path);
+
+        return (quad != null) ? quad : new Area(path);
+    }
+
     //----------------//
     // selectBestHead //
     //----------------//
@@ -585,7 +606,7 @@ public class SlurLinker
                                       Point2D end,
                                       Point2D target,
                                       Point2D bisUnit,
-                                      Area area)
+                                      Shape area)
     {
         final boolean horizontal = isHorizontal(slur);
         final boolean above = slur.isAbove();
@@ -608,10 +608,13 @@ public class LinesRetriever
     /**
      * Knowing precise abscissa endings for each staff, determine precise ending points
      * for each staff line.
+     * <p>
+     * Each staff modifies only its own lines, so staves can be processed in parallel.
      */
     private void defineEndPoints ()
     {
-        for (Staff staff : staffManager.getStaves()) {
+        staffManager.processStaves(staffManager.getStaves(), staff ->
+        {
             double meanDy = staff.getMeanInterline();
 
             Map<HorizontalSide, List<Point2D>> endMap = new EnumMap<>(HorizontalSide.class);
@@ -625,7 +628,7 @@ public class LinesRetriever
                 StaffFilament line = (StaffFilament) staff.getLines().get(i);
                 line.setEndingPoints(endMap.get(LEFT).get(i), endMap.get(RIGHT).get(i));
             }
-        }
+        });
     }
 
     //----------------------------//
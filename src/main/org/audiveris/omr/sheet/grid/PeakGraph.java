@@ -67,6 +67,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -805,15 +806,25 @@ public class PeakGraph
     //--------------//
     /**
      * Use individual staff projections to retrieve bar peaks.
+     * <p>
+     * Projection and peak detection are staff-local, hence they can be run in parallel.
+     * Results are then merged in staff order, to keep staff ids and graph content stable.
      */
     private void findBarPeaks ()
     {
         // Analysis staff per staff
         final List<Staff> staves = new ArrayList<>(staffManager.getStaves());
-        for (int idx = 0; idx < staves.size(); idx++) {
-            final Staff staff = staves.get(idx);
-            final StaffProjector projector = new StaffProjector(sheet, staff, this);
-            projector.process();
+        final Map<Staff, StaffProjector> projectorMap = new HashMap<>();
+
+        for (Staff staff : staves) {
+            projectorMap.put(staff, new StaffProjector(sheet, staff, this));
+        }
+
+        staffManager.processStaves(staves, staff -> projectorMap.get(staff).process());
+
+        // Merge, in staff order
+        for (Staff staff : staves) {
+            final StaffProjector projector = projectorMap.get(staff);
 
             if (staff.isOneLineStaff() && projector.getPeaks().size() <= 1) {
                 logger.info(
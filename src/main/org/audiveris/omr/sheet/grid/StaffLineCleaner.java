@@ -28,6 +28,8 @@ import org.audiveris.omr.lag.Lag;
 import org.audiveris.omr.lag.Lags;
 import org.audiveris.omr.sheet.Sheet;
 import org.audiveris.omr.sheet.Staff;
+import org.audiveris.omr.sheet.StaffLine;
+import org.audiveris.omr.sheet.StaffManager;
 import org.audiveris.omr.util.Navigable;
 import org.audiveris.omr.util.StopWatch;
 
@@ -35,6 +37,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Class <code>StaffLineCleaner</code> handles the "removal" of staff line pixels.
@@ -89,10 +93,18 @@ public class StaffLineCleaner
         StopWatch watch = new StopWatch("StaffLineCleaner");
 
         // Replace staff line filaments by lighter data
+        // Lines glyphs are built staff per staff, and then registered in staff order
         watch.start("simplify staff lines");
 
-        for (Staff staff : sheet.getStaffManager().getStaves()) {
-            List<LineInfo> originals = staff.simplifyLines(sheet);
+        final StaffManager staffManager = sheet.getStaffManager();
+        final List<Staff> staves = staffManager.getStaves();
+        final Map<Staff, List<StaffLine>> simplifiedMap = new ConcurrentHashMap<>();
+        staffManager.processStaves(
+                staves,
+                staff -> simplifiedMap.put(staff, staff.buildSimplifiedLines()));
+
+        for (Staff staff : staves) {
+            List<LineInfo> originals = staff.simplifyLines(sheet, simplifiedMap.get(staff));
 
             // Remove staff line sections from hLag
             for (LineInfo line : originals) {
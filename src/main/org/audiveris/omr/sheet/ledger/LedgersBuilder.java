@@ -216,7 +216,7 @@ public class LedgersBuilder
         for (Inter inter : sortedSystemBeams) {
             AbstractBeamInter beam = (AbstractBeamInter) inter;
 
-            if (beam.getArea().contains(middle)) {
+            if (beam.getRibbon().contains(middle)) {
                 if (stick.isVip() || logger.isDebugEnabled()) {
                     logger.info("ledger stick#{} overlaps beam#{}", stick.getId(), beam.getId());
                 }
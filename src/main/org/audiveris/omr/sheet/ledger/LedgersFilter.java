@@ -163,7 +163,7 @@ public class LedgersFilter
                     if (sBox.intersects(bBox)) {
                         AbstractBeamInter beam = (AbstractBeamInter) bi;
 
-                        if (beam.getArea().intersects(sBox)) {
+                        if (beam.getRibbon().intersects(sBox)) {
                             discarded.add(s);
                         }
                     }
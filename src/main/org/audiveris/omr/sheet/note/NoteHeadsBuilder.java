@@ -47,6 +47,7 @@ import org.audiveris.omr.math.LineUtil;
 import org.audiveris.omr.math.NaturalSpline;
 import org.audiveris.omr.math.PointUtil;
 import org.audiveris.omr.math.ReversePathIterator;
+import org.audiveris.omr.math.Ribbon;
 import org.audiveris.omr.run.Orientation;
 import org.audiveris.omr.score.DrumSet;
 import org.audiveris.omr.score.DrumSet.DrumInstrument;
@@ -71,11 +72,13 @@ import org.audiveris.omr.sig.inter.InterPairPredicate;
 import org.audiveris.omr.sig.inter.Inters;
 import org.audiveris.omr.sig.inter.LedgerInter;
 import org.audiveris.omr.sig.relation.Exclusion;
+import org.audiveris.omr.step.OmrEvents;
 import org.audiveris.omr.ui.symbol.MusicFamily;
 import org.audiveris.omr.util.Dumping;
 import org.audiveris.omr.util.HorizontalSide;
 import static org.audiveris.omr.util.HorizontalSide.LEFT;
 import static org.audiveris.omr.util.HorizontalSide.RIGHT;
+import org.audiveris.omr.util.Metrics;
 import org.audiveris.omr.util.Navigable;
 import org.audiveris.omr.util.StopWatch;
 
@@ -183,7 +186,7 @@ public class NoteHeadsBuilder
     private List<Inter> systemCompetitors;
 
     /** The forbidden areas around connectors and frozen barlines. */
-    private List<Area> systemBarAreas;
+    private List<Ribbon> systemBarAreas;
 
     /** The vertical (stem) seeds for the system. */
     private List<Glyph> systemSeeds;
@@ -409,6 +412,11 @@ public class NoteHeadsBuilder
 
         logger.debug("S#{} seeds {}", system.getId(), seedsPerf);
         logger.debug("    range {}", rangePerf);
+
+        if (Metrics.isEnabled()) {
+            seedsPerf.publish("heads.seeds");
+            rangePerf.publish("heads.range");
+        }
     }
 
     //-------------------------//
@@ -665,9 +673,9 @@ public class NoteHeadsBuilder
     //-------------------//
     // getSystemBarAreas //
     //-------------------//
-    private List<Area> getSystemBarAreas ()
+    private List<Ribbon> getSystemBarAreas ()
     {
-        final List<Area> areas = new ArrayList<>();
+        final List<Ribbon> areas = new ArrayList<>();
         final List<Inter> inters = sig.inters(
                 inter -> inter.isFrozen() && (inter instanceof BarlineInter
                         || inter instanceof BarConnectorInter));
@@ -675,7 +683,7 @@ public class NoteHeadsBuilder
 
         for (Inter inter : inters) {
             AbstractVerticalInter vertical = (AbstractVerticalInter) inter;
-            areas.add(vertical.getArea());
+            areas.add(vertical.getRibbon());
         }
 
         return areas;
@@ -741,7 +749,11 @@ public class NoteHeadsBuilder
                 continue;
             }
 
-            if (comp.getArea() != null) {
+            if (comp.getRibbon() != null) {
+                if (comp.getRibbon().intersects(box)) {
+                    return true;
+                }
+            } else if (comp.getArea() != null) {
                 if (comp.getArea().intersects(box)) {
                     return true;
                 }
@@ -1449,6 +1461,19 @@ public class NoteHeadsBuilder
 
         int abandons;
 
+        /**
+         * Cumulate these measurements into the metrics counters.
+         *
+         * @param prefix prefix for counters names
+         */
+        void publish (String prefix)
+        {
+            Metrics.counter(prefix + ".bars").add(bars);
+            Metrics.counter(prefix + ".overlaps").add(overlaps);
+            Metrics.counter(prefix + ".evals").add(evals);
+            Metrics.counter(prefix + ".abandons").add(abandons);
+        }
+
         @Override
         public String toString ()
         {
@@ -1488,7 +1513,7 @@ public class NoteHeadsBuilder
 
         private final List<Inter> competitors;
 
-        private final List<Area> barAreas;
+        private final List<Ribbon> barAreas;
 
         private final List<LedgerAdapter> ledgers;
 
@@ -1603,7 +1628,7 @@ public class NoteHeadsBuilder
          */
         private boolean barInvolved (Rectangle rect)
         {
-            for (Area a : barAreas) {
+            for (Ribbon a : barAreas) {
                 if (a.intersects(rect)) {
                     return true;
                 }
@@ -1798,10 +1823,10 @@ public class NoteHeadsBuilder
          *
          * @return the bar-centered areas
          */
-        private List<Area> getBarAreas (Area area)
+        private List<Ribbon> getBarAreas (Area area)
         {
-            List<Area> kept = new ArrayList<>();
-            for (Area r : systemBarAreas) {
+            List<Ribbon> kept = new ArrayList<>();
+            for (Ribbon r : systemBarAreas) {
                 if (area.intersects(r.getBounds())) {
                     kept.add(r);
                 }
@@ -1918,7 +1943,20 @@ public class NoteHeadsBuilder
         //--------//
         public List<HeadInter> lookup ()
         {
-            return useSeeds ? lookupSeeds() : lookupRange();
+            final OmrEvents.HeadTemplatesEvent event = new OmrEvents.HeadTemplatesEvent();
+            event.begin();
+
+            final List<HeadInter> found = useSeeds ? lookupSeeds() : lookupRange();
+
+            if (event.shouldCommit()) {
+                event.tag(sheet, system);
+                event.pitch = pitch;
+                event.seeds = useSeeds;
+                event.heads = found.size();
+                event.commit();
+            }
+
+            return found;
         }
 
         //-------------//
@@ -267,6 +267,10 @@ public class Measure
     @Navigable(false)
     private MeasureStack stack;
 
+    /** Chords relationships kept from previous rhythm processing: narrow, then wide. */
+    @Navigable(false)
+    private final SlotsRetriever[] slotsRetrievers = new SlotsRetriever[2];
+
     //~ Constructors -------------------------------------------------------------------------------
 
     /**
@@ -1415,6 +1419,20 @@ public class Measure
         }
     }
 
+    //-------------------//
+    // getSlotsRetriever //
+    //-------------------//
+    /**
+     * Report the slots retriever kept from previous rhythm processing, if any.
+     *
+     * @param useWideSlots true for wide slots, false for narrow slots
+     * @return the kept retriever, perhaps null
+     */
+    SlotsRetriever getSlotsRetriever (boolean useWideSlots)
+    {
+        return slotsRetrievers[useWideSlots ? 1 : 0];
+    }
+
     //----------//
     // getStack //
     //----------//
@@ -2066,6 +2084,21 @@ public class Measure
         this.rightBarline = rightBarline;
     }
 
+    //-------------------//
+    // setSlotsRetriever //
+    //-------------------//
+    /**
+     * Keep the provided slots retriever for future rhythm processing.
+     *
+     * @param useWideSlots true for wide slots, false for narrow slots
+     * @param retriever    the retriever to keep
+     */
+    void setSlotsRetriever (boolean useWideSlots,
+                            SlotsRetriever retriever)
+    {
+        slotsRetrievers[useWideSlots ? 1 : 0] = retriever;
+    }
+
     //----------//
     // setStack //
     //----------//
@@ -467,7 +467,7 @@ public class MeasureRhythm
 
             // Retrieve narrow slots
             slots.clear();
-            narrowSlotsRetriever = new SlotsRetriever(measure, false); // Narrow
+            narrowSlotsRetriever = SlotsRetriever.getInstance(measure, false); // Narrow
 
             final List<MeasureSlot> narrowSlots = narrowSlotsRetriever.buildSlots();
             if (logger.isDebugEnabled()) {
@@ -475,7 +475,7 @@ public class MeasureRhythm
             }
 
             // Retrieve wide slots
-            final SlotsRetriever wideSlotsRetriever = new SlotsRetriever(measure, true); // Wide
+            final SlotsRetriever wideSlotsRetriever = SlotsRetriever.getInstance(measure, true);
             final List<MeasureSlot> wideSlots = wideSlotsRetriever.buildSlots();
             if (logger.isDebugEnabled()) {
                 dumpSlots("wideSlots", wideSlots);
@@ -21,6 +21,8 @@
 // </editor-fold>
 package org.audiveris.omr.sheet.rhythm;
 
+import org.audiveris.omr.Main;
+import org.audiveris.omr.log.LogUtil;
 import org.audiveris.omr.math.Rational;
 import org.audiveris.omr.score.Page;
 import org.audiveris.omr.score.PageRef;
@@ -34,14 +36,19 @@ import org.audiveris.omr.sig.inter.Inters;
 import org.audiveris.omr.sig.inter.RestChordInter;
 import org.audiveris.omr.sig.inter.TupletInter;
 import static org.audiveris.omr.step.OmrStep.RHYTHMS;
+import org.audiveris.omr.step.ProcessingCancellationException;
+import org.audiveris.omr.util.OmrExecutors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 
 /**
  * Class <code>PageRhythm</code> handles rhythm data on a sheet page.
@@ -65,9 +72,17 @@ import java.util.List;
  * Unfortunately, this took endless computations and led to no practical results.
  * So now we simply check the "time correctness" of each stack regarding its time slots and voices.
  * <p>
- * Processing is done system per system <b>sequentially</b> because of impact of potential
- * key-sig changes on the following systems. Hence, parallelism is NOT provided for this step.
- * Consistently, within a system, processing is done measure stack after measure stack.
+ * Processing is done in two phases:
+ * <ol>
+ * <li>The determination of time-sig ranges, and thus of the expected duration of every stack, is
+ * done <b>sequentially</b> through the page, because a time signature impacts all the following
+ * stacks.</li>
+ * <li>Then, since a stack rhythm only depends on its expected duration, systems are processed
+ * <b>in parallel</b> (if so allowed), each system stack after stack, followed by the refinement of
+ * voice IDs across the system measures.</li>
+ * </ol>
+ * Within a system, stacks are not processed in parallel, because they share the system SIG
+ * which gets modified (tuplets, relations) during stack processing.
  * <p>
  * TODO: Key signature changes are still to be implemented.
  *
@@ -256,9 +271,14 @@ public class PageRhythm
     //---------------//
     /**
      * Within each range, build the time slots and voices for each stack.
+     * <p>
+     * Expected durations are first assigned sequentially, then systems are processed, perhaps in
+     * parallel.
      */
     private void processRanges ()
     {
+        // Sequential phase: expected duration of every stack in page
+        final Map<MeasureStack, Rational> durations = new HashMap<>();
         final Iterator<Range> it = ranges.iterator();
         Range range = it.next(); // Current range
 
@@ -271,12 +291,7 @@ public class PageRhythm
                     logger.debug("Starting {}", range);
                 }
 
-                try {
-                    logger.debug("\n--- Processing {} {} expDur:{}", sn, stack, range.duration);
-                    new StackRhythm(stack).process(range.duration);
-                } catch (Exception ex) {
-                    logger.warn("Error on stack " + stack + " " + ex, ex);
-                }
+                durations.put(stack, range.duration);
 
                 // End of range?
                 if (sn == range.stopSN) {
@@ -285,10 +300,74 @@ public class PageRhythm
                     }
                 }
             }
+        }
+
+        // Per-system phase
+        try {
+            final boolean parallel = Main.processSystemsInParallel();
+            final List<Callable<Void>> tasks = new ArrayList<>();
+
+            for (SystemInfo system : page.getSystems()) {
+                tasks.add( () ->
+                {
+                    try {
+                        if (parallel) {
+                            LogUtil.start(page.getSheet().getStub());
+                        }
+
+                        processSystem(system, durations);
+                    } finally {
+                        if (parallel) {
+                            LogUtil.stopStub();
+                        }
+                    }
+
+                    return null;
+                });
+            }
+
+            if (parallel) {
+                OmrExecutors.getLowExecutor().invokeAll(tasks);
+            } else {
+                for (Callable<Void> task : tasks) {
+                    task.call();
+                }
+            }
+        } catch (InterruptedException ex) {
+            logger.warn("processRanges got interrupted for {}", page);
+            throw new ProcessingCancellationException(ex);
+        } catch (ProcessingCancellationException pce) {
+            throw pce;
+        } catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
 
-            // Refine voices IDs (and thus display colors) across all measures of the system
-            Voices.refineSystem(system);
+    //---------------//
+    // processSystem //
+    //---------------//
+    /**
+     * Build the time slots and voices for each stack of the provided system.
+     *
+     * @param system    the system to process
+     * @param durations the expected duration of each stack
+     */
+    private void processSystem (SystemInfo system,
+                                Map<MeasureStack, Rational> durations)
+    {
+        for (MeasureStack stack : system.getStacks()) {
+            final Rational duration = durations.get(stack);
+
+            try {
+                logger.debug("\n--- Processing {} expDur:{}", stack, duration);
+                new StackRhythm(stack).process(duration);
+            } catch (Exception ex) {
+                logger.warn("Error on stack " + stack + " " + ex, ex);
+            }
         }
+
+        // Refine voices IDs (and thus display colors) across all measures of the system
+        Voices.refineSystem(system);
     }
 
     //----------------//
@@ -21,6 +21,7 @@
 // </editor-fold>
 package org.audiveris.omr.sheet.rhythm;
 
+import org.audiveris.omr.OMR;
 import org.audiveris.omr.constant.Constant;
 import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.math.GeoUtil;
@@ -49,9 +50,6 @@ import org.audiveris.omr.sig.relation.SameVoiceRelation;
 import org.audiveris.omr.sig.relation.SeparateTimeRelation;
 import org.audiveris.omr.sig.relation.StemAlignmentRelation;
 
-import org.jgrapht.Graphs;
-import org.jgrapht.graph.SimpleDirectedGraph;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -63,9 +61,12 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -93,6 +94,10 @@ import java.util.Set;
  * <img src="doc-files/AdjacentChords4.png" alt="More adjacency examples">
  * </li>
  * </ul>
+ * <p>
+ * Inter-chord relationships are kept in a dense byte matrix, indexed by chord.
+ * A retriever kept in its measure via {@link #getInstance(Measure, boolean)} can be updated
+ * incrementally when just a few chords have been added, removed or modified.
  *
  * @author Hervé Bitteur
  */
@@ -105,6 +110,9 @@ public class SlotsRetriever
 
     private static final Logger logger = LoggerFactory.getLogger(SlotsRetriever.class);
 
+    /** Relationship values, decoded from matrix cells. */
+    private static final Rel[] RELS = Rel.values();
+
     //~ Instance fields ----------------------------------------------------------------------------
 
     /** The dedicated measure. */
@@ -116,9 +124,20 @@ public class SlotsRetriever
     /** Scale-dependent parameters. */
     private final Parameters params;
 
-    /** Inter-chord relationships for the current measure. */
-    private SimpleDirectedGraph<AbstractChordInter, Edge> graph = new SimpleDirectedGraph<>(
-            Edge.class);
+    /** Dense index of each chord in relationships matrix. */
+    private final Map<AbstractChordInter, Integer> indices = new HashMap<>();
+
+    /** Chord for each dense index, null for a free index. */
+    private final List<AbstractChordInter> chords = new ArrayList<>();
+
+    /** Relationship-related data for each dense index, to detect modified chords. */
+    private final List<List<Object>> signatures = new ArrayList<>();
+
+    /** Inter-chord relationships, row for source and column for target, 0 for none. */
+    private byte[] matrix = new byte[0];
+
+    /** Current number of rows (and columns) in matrix. */
+    private int capacity;
 
     /** Comparator based on inter-chord relationships, then on timeOffset when known. */
     private final Comparator<AbstractChordInter> byRel = (c1,
@@ -153,7 +172,7 @@ public class SlotsRetriever
     };
 
     /** Candidate measure chords for slots. Measure-long rests and small chords are excluded. */
-    private final List<AbstractChordInter> candidateChords;
+    private List<AbstractChordInter> candidateChords;
 
     //~ Constructors -------------------------------------------------------------------------------
 
@@ -174,7 +193,7 @@ public class SlotsRetriever
 
         candidateChords = getCandidateChords();
 
-        // Build the graph of chords relationships
+        // Build the matrix of chords relationships
         buildChordRelationships();
 
         Collections.sort(candidateChords, byRel);
@@ -182,6 +201,33 @@ public class SlotsRetriever
 
     //~ Methods ------------------------------------------------------------------------------------
 
+    //----------//
+    // addChord //
+    //----------//
+    /**
+     * Allocate a dense index in relationships matrix for the provided chord.
+     *
+     * @param chord the chord to add, with no relationship yet
+     */
+    private void addChord (AbstractChordInter chord)
+    {
+        int index = chords.indexOf(null);
+
+        if (index == -1) {
+            index = chords.size();
+            chords.add(null);
+            signatures.add(null);
+
+            if (index >= capacity) {
+                grow(Math.max(2 * capacity, index + 1));
+            }
+        }
+
+        chords.set(index, chord);
+        signatures.set(index, getSignature(chord));
+        indices.put(chord, index);
+    }
+
     //-------------//
     // areAdjacent //
     //-------------//
@@ -299,6 +345,38 @@ public class SlotsRetriever
         return false;
     }
 
+    //----------------//
+    // areStemAligned //
+    //----------------//
+    /**
+     * Check whether the two provided chords have stems which were portions of the same
+     * root stem instance.
+     *
+     * @param ch1 one chord
+     * @param ch2 another chord
+     * @return true if stems are aligned
+     */
+    private boolean areStemAligned (AbstractChordInter ch1,
+                                    AbstractChordInter ch2)
+    {
+        final StemInter stem1 = ch1.getStem();
+        final StemInter stem2 = ch2.getStem();
+
+        if ((stem1 == null) || (stem2 == null)) {
+            return false;
+        }
+
+        final SIGraph sig = measure.getStack().getSystem().getSig();
+
+        for (Relation rel : sig.getRelations(stem1, StemAlignmentRelation.class)) {
+            if (sig.getOppositeInter(stem1, rel) == stem2) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     //-------------------------//
     // buildChordRelationships //
     //-------------------------//
@@ -307,13 +385,19 @@ public class SlotsRetriever
      */
     private void buildChordRelationships ()
     {
-        // Sort measure standard chords by abscissa
-        List<AbstractChordInter> stdChords = new ArrayList<>(measure.getStandardChords());
-        purgeMeasureRestChords(stdChords);
-        Collections.sort(stdChords, Inters.byCenterAbscissa);
-
-        // Populate graph with chords
-        Graphs.addAllVertices(graph, stdChords);
+        final List<AbstractChordInter> stdChords = getSortedChords();
+
+        // Populate matrix with chords
+        indices.clear();
+        chords.clear();
+        signatures.clear();
+        capacity = 0;
+        matrix = new byte[0];
+        grow(stdChords.size());
+
+        for (AbstractChordInter chord : stdChords) {
+            addChord(chord);
+        }
 
         // Explicit separate time slots
         inspectSeparateSlots();
@@ -483,21 +567,9 @@ public class SlotsRetriever
      */
     public Set<AbstractChordInter> getEqualPartners (AbstractChordInter chord)
     {
-        Set<AbstractChordInter> found = null;
-
-        for (Edge edge : graph.outgoingEdgesOf(chord)) {
-            if (edge.rel == Rel.EQUAL) {
-                AbstractChordInter ch = graph.getEdgeTarget(edge);
-
-                if (found == null) {
-                    found = new LinkedHashSet<>();
-                }
+        final Set<AbstractChordInter> found = getEquals(chord);
 
-                found.add(ch);
-            }
-        }
-
-        if (found == null) {
+        if (found.isEmpty()) {
             return Collections.emptySet();
         }
 
@@ -516,18 +588,51 @@ public class SlotsRetriever
     private Set<AbstractChordInter> getEquals (AbstractChordInter chord)
     {
         final Set<AbstractChordInter> equals = new LinkedHashSet<>();
-        final Set<Edge> outEdges = graph.outgoingEdgesOf(chord);
+        final Integer index = indices.get(chord);
+
+        if (index != null) {
+            final int row = index * capacity;
+            final byte code = (byte) (EQUAL.ordinal() + 1);
 
-        for (Edge edge : outEdges) {
-            if (edge.rel == EQUAL) {
-                final AbstractChordInter ch = graph.getEdgeTarget(edge);
-                equals.add(ch);
+            for (int i = 0; i < chords.size(); i++) {
+                if (matrix[row + i] == code) {
+                    equals.add(chords.get(i));
+                }
             }
         }
 
         return equals;
     }
 
+    //----------------//
+    // getGroupChords //
+    //----------------//
+    /**
+     * Report the chords of a beam group, sorted by abscissa.
+     *
+     * @param group the beam group
+     * @return the group chords, or null for a cue beam group
+     */
+    private List<AbstractChordInter> getGroupChords (BeamGroupInter group)
+    {
+        final Set<AbstractChordInter> chordSet = new LinkedHashSet<>();
+
+        for (Inter bInter : group.getMembers()) {
+            final AbstractBeamInter beam = (AbstractBeamInter) bInter;
+
+            if (beam instanceof SmallBeamInter) {
+                return null; // Exclude cue beam group
+            }
+
+            chordSet.addAll(beam.getChords());
+        }
+
+        final List<AbstractChordInter> groupChords = new ArrayList<>(chordSet);
+        Collections.sort(groupChords, Inters.byAbscissa);
+
+        return groupChords;
+    }
+
     //--------//
     // getRel //
     //--------//
@@ -542,13 +647,118 @@ public class SlotsRetriever
     public Rel getRel (AbstractChordInter from,
                        AbstractChordInter to)
     {
-        Edge edge = graph.getEdge(from, to);
+        final Integer i1 = indices.get(from);
 
-        if (edge != null) {
-            return edge.rel;
+        if (i1 == null) {
+            return null;
         }
 
-        return null;
+        final Integer i2 = indices.get(to);
+
+        if (i2 == null) {
+            return null;
+        }
+
+        final int code = matrix[(i1 * capacity) + i2];
+
+        return (code != 0) ? RELS[code - 1] : null;
+    }
+
+    //--------------//
+    // getSignature //
+    //--------------//
+    /**
+     * Report the chord data that relationships are based upon.
+     * <p>
+     * This covers chord geometry, stem, beams, members and their mirrors, as well as the
+     * relations of chord and stem in sig.
+     *
+     * @param chord the chord at hand
+     * @return the chord signature, to be compared by equality
+     */
+    private List<Object> getSignature (AbstractChordInter chord)
+    {
+        final SIGraph sig = chord.getSig();
+        final StemInter stem = chord.getStem();
+        final List<Object> signature = new ArrayList<>();
+        signature.add(chord.getBoundsWithDots());
+        signature.add(measure.getStack().getXOffset(chord.getCenter()));
+        signature.add(new HashSet<>(sig.edgesOf(chord)));
+        signature.add(stem);
+
+        if (stem != null) {
+            signature.add(new HashSet<>(sig.edgesOf(stem)));
+        }
+
+        for (AbstractBeamInter beam : chord.getBeams()) {
+            signature.add(beam);
+            signature.add(beam.getGroup());
+        }
+
+        for (Inter member : chord.getMembers()) {
+            signature.add(member);
+            signature.add(member.getMirror());
+        }
+
+        return signature;
+    }
+
+    //-----------------//
+    // getSortedChords //
+    //-----------------//
+    /**
+     * Report the measure standard chords, except measure-long rests, sorted by abscissa.
+     *
+     * @return the sorted standard chords
+     */
+    private List<AbstractChordInter> getSortedChords ()
+    {
+        final List<AbstractChordInter> stdChords = new ArrayList<>(measure.getStandardChords());
+        purgeMeasureRestChords(stdChords);
+        Collections.sort(stdChords, Inters.byCenterAbscissa);
+
+        return stdChords;
+    }
+
+    //------//
+    // grow //
+    //------//
+    /**
+     * Extend the relationships matrix, keeping its content.
+     *
+     * @param newCapacity the new number of rows (and columns)
+     */
+    private void grow (int newCapacity)
+    {
+        final byte[] newMatrix = new byte[newCapacity * newCapacity];
+
+        for (int i = 0; i < capacity; i++) {
+            System.arraycopy(matrix, i * capacity, newMatrix, i * newCapacity, capacity);
+        }
+
+        matrix = newMatrix;
+        capacity = newCapacity;
+    }
+
+    //-----------------//
+    // hasSameTimeRels //
+    //-----------------//
+    /**
+     * Check whether the measure contains explicit same time relations.
+     *
+     * @return true if so
+     */
+    private boolean hasSameTimeRels ()
+    {
+        final SIGraph sig = measure.getStack().getSystem().getSig();
+
+        for (Relation same : sig.relations(SameTimeRelation.class)) {
+            if (((AbstractChordInter) sig.getEdgeSource(same)).getMeasure() == measure) {
+                return true;
+            }
+        }
+
+        return false;
     }
 
     //----------------//
@@ -577,6 +787,109 @@ public class SlotsRetriever
         return false;
     }
 
+    //-------------------//
+    // inspectAddedChord //
+    //-------------------//
+    /**
+     * Determine the relationships between a chord just added to the matrix and the other
+     * chords, by applying the rules of the whole matrix computation to just the pairs
+     * the added chord belongs to.
+     *
+     * @param chord     the added chord
+     * @param stdChords standard chords, sorted by abscissa
+     * @param done      the added chords already inspected
+     * @return false if an EQUAL relationship is detected, which requires a whole computation
+     */
+    private boolean inspectAddedChord (AbstractChordInter chord,
+                                       List<AbstractChordInter> stdChords,
+                                       Set<AbstractChordInter> done)
+    {
+        final SIGraph sig = measure.getStack().getSystem().getSig();
+
+        // Explicit separate time slots
+        for (Relation rel : sig.edgesOf(chord)) {
+            if ((rel instanceof SeparateTimeRelation) || (rel instanceof SameVoiceRelation)) {
+                final AbstractChordInter ch1 = (AbstractChordInter) sig.getEdgeSource(rel);
+                final AbstractChordInter ch2 = (AbstractChordInter) sig.getEdgeTarget(rel);
+
+                if (indices.containsKey(ch1) && indices.containsKey(ch2)) {
+                    setSeparateRels(ch1, ch2);
+                }
+            }
+        }
+
+        // BeamGroupInter-based relationships
+        for (BeamGroupInter group : measure.getBeamGroups()) {
+            final List<AbstractChordInter> groupChords = getGroupChords(group);
+
+            if ((groupChords == null) || !groupChords.contains(chord)) {
+                continue;
+            }
+
+            final int ic = groupChords.indexOf(chord);
+
+            for (int i = 0; i < groupChords.size(); i++) {
+                final AbstractChordInter ch = groupChords.get(i);
+
+                if ((i < ic) && indices.containsKey(ch)) {
+                    setRel(ch, chord, BEFORE);
+                    setRel(chord, ch, AFTER);
+                } else if ((i > ic) && indices.containsKey(ch)) {
+                    setRel(chord, ch, BEFORE);
+                    setRel(ch, chord, AFTER);
+                }
+            }
+        }
+
+        // Pair-wise relationships
+        final int ic = stdChords.indexOf(chord);
+        final int maxSlotDx = useWideSlots ? params.maxSlotDxHigh : params.maxSlotDxLow;
+        final MeasureStack stack = measure.getStack();
+
+        for (int i = 0; i < stdChords.size(); i++) {
+            final AbstractChordInter other = stdChords.get(i);
+
+            if ((i == ic) || done.contains(other)) {
+                continue;
+            }
+
+            final AbstractChordInter ch1 = (i < ic) ? other : chord;
+            final AbstractChordInter ch2 = (i < ic) ? chord : other;
+
+            // Mirror-based and RootStem-based relationships
+            if ((ch1 instanceof HeadChordInter) && (ch2 instanceof HeadChordInter)) {
+                if (((getRel(ch1, ch2) == null) && haveCommonHead(ch1, ch2))
+                        || areStemAligned(ch1, ch2)) {
+                    return false;
+                }
+            }
+
+            if (getRel(ch1, ch2) != null) {
+                continue;
+            }
+
+            // Adjacency
+            final int yOverlap = GeoUtil.yOverlap(ch1.getBounds(), ch2.getBounds());
+
+            if ((yOverlap > params.maxVerticalOverlap) && areAdjacent(ch1, ch2)) {
+                return false;
+            }
+
+            // Default location-based relationships
+            final double x1 = stack.getXOffset(ch1.getCenter());
+            final double x2 = stack.getXOffset(ch2.getCenter());
+
+            if (Math.abs(x1 - x2) <= maxSlotDx) {
+                setRel(ch1, ch2, CLOSE);
+                setRel(ch2, ch1, CLOSE);
+            } else {
+                inspectDistantPair(ch1, ch2);
+            }
+        }
+
+        return true;
+    }
+
     //--------------------//
     // inspectAdjacencies //
     //--------------------//
@@ -623,30 +936,20 @@ public class SlotsRetriever
      */
     private void inspectBeams ()
     {
-        GroupLoop:
         for (BeamGroupInter group : measure.getBeamGroups()) {
-            Set<AbstractChordInter> chordSet = new LinkedHashSet<>();
-
-            for (Inter bInter : group.getMembers()) {
-                final AbstractBeamInter beam = (AbstractBeamInter) bInter;
+            final List<AbstractChordInter> groupChords = getGroupChords(group);
 
-                if (beam instanceof SmallBeamInter) {
-                    continue GroupLoop; // Exclude cue beam group
-                }
-
-                chordSet.addAll(beam.getChords());
+            if (groupChords == null) {
+                continue;
             }
 
-            final List<AbstractChordInter> groupChords = new ArrayList<>(chordSet);
-            Collections.sort(groupChords, Inters.byAbscissa);
-
             // We consider only chords within the measure
             // This is a protection against a beam crossing measure limits
             for (int i = 0; i < groupChords.size(); i++) {
                 AbstractChordInter ch1 = groupChords.get(i);
-                if (graph.containsVertex(ch1)) {
+                if (indices.containsKey(ch1)) {
                     for (AbstractChordInter ch2 : groupChords.subList(i + 1, groupChords.size())) {
-                        if (graph.containsVertex(ch2)) {
+                        if (indices.containsKey(ch2)) {
                             setRel(ch1, ch2, BEFORE);
                             setRel(ch2, ch1, AFTER);
                         }
@@ -704,14 +1007,9 @@ public class SlotsRetriever
      */
     private void inspectDistantChords (List<AbstractChordInter> stdChords)
     {
-        final int maxSlotDx = useWideSlots ? params.maxSlotDxHigh : params.maxSlotDxLow;
-        final MeasureStack stack = measure.getStack();
-
         for (int i = 0; i < stdChords.size(); i++) {
             final AbstractChordInter ch1 = stdChords.get(i);
-            final double x1 = stack.getXOffset(ch1.getCenter());
 
-            OtherLoop:
             for (AbstractChordInter ch2 : stdChords.subList(i + 1, stdChords.size())) {
                 if (ch1.isVip() && ch2.isVip()) {
                     logger.info("VIP inspectDistantChords {} vs {}", ch1, ch2);
@@ -721,35 +1019,54 @@ public class SlotsRetriever
                     continue;
                 }
 
-                // Check if compatible with a chord equal to ch2
-                final Set<AbstractChordInter> equals = getEquals(ch2);
+                inspectDistantPair(ch1, ch2);
+            }
+        }
+    }
 
-                for (AbstractChordInter ch : equals) {
-                    if (!areExplicitlySeparate(ch1, ch)) {
-                        final double x = stack.getXOffset(ch.getCenter());
-                        final double dx = Math.abs(x1 - x);
+    //--------------------//
+    // inspectDistantPair //
+    //--------------------//
+    /**
+     * Determine the relationship of a pair of chords not directly close.
+     *
+     * @param ch1 first chord, abscissa-wise
+     * @param ch2 second chord, abscissa-wise
+     */
+    private void inspectDistantPair (AbstractChordInter ch1,
+                                     AbstractChordInter ch2)
+    {
+        final int maxSlotDx = useWideSlots ? params.maxSlotDxHigh : params.maxSlotDxLow;
+        final MeasureStack stack = measure.getStack();
+        final double x1 = stack.getXOffset(ch1.getCenter());
 
-                        if (dx <= maxSlotDx) {
-                            setRel(ch1, ch2, CLOSE);
-                            setRel(ch2, ch1, CLOSE);
+        // Check if compatible with a chord equal to ch2
+        final Set<AbstractChordInter> equals = getEquals(ch2);
 
-                            continue OtherLoop;
-                        }
-                    }
-                }
+        for (AbstractChordInter ch : equals) {
+            if (!areExplicitlySeparate(ch1, ch)) {
+                final double x = stack.getXOffset(ch.getCenter());
+                final double dx = Math.abs(x1 - x);
 
-                // Not directly close and no compatible equal found
-                final double x2 = stack.getXOffset(ch2.getCenter());
+                if (dx <= maxSlotDx) {
+                    setRel(ch1, ch2, CLOSE);
+                    setRel(ch2, ch1, CLOSE);
 
-                if (x1 < x2) {
-                    setRel(ch1, ch2, BEFORE);
-                    setRel(ch2, ch1, AFTER);
-                } else {
-                    setRel(ch2, ch1, BEFORE);
-                    setRel(ch1, ch2, AFTER);
+                    return;
                 }
             }
         }
+
+        // Not directly close and no compatible equal found
+        final double x2 = stack.getXOffset(ch2.getCenter());
+
+        if (x1 < x2) {
+            setRel(ch1, ch2, BEFORE);
+            setRel(ch2, ch1, AFTER);
+        } else {
+            setRel(ch2, ch1, BEFORE);
+            setRel(ch1, ch2, AFTER);
+        }
     }
 
     //----------------//
@@ -894,25 +1211,39 @@ public class SlotsRetriever
     private void inspectSeparateSlots ()
     {
         final SIGraph sig = measure.getStack().getSystem().getSig();
-        final MeasureStack stack = measure.getStack();
 
         for (Relation same : sig.relations(SeparateTimeRelation.class, SameVoiceRelation.class)) {
             final AbstractChordInter ch1 = (AbstractChordInter) sig.getEdgeSource(same);
             final AbstractChordInter ch2 = (AbstractChordInter) sig.getEdgeTarget(same);
 
             if ((ch1.getMeasure() == measure) && (ch2.getMeasure() == measure)) {
-                final double x1 = stack.getXOffset(ch1.getCenter());
-                final double x2 = stack.getXOffset(ch2.getCenter());
+                setSeparateRels(ch1, ch2);
+            }
+        }
+    }
 
-                if (x1 < x2) {
-                    setRel(ch1, ch2, BEFORE);
-                    setRel(ch2, ch1, AFTER);
-                } else {
-                    setRel(ch2, ch1, BEFORE);
-                    setRel(ch1, ch2, AFTER);
-                }
+    //-----------------//
+    // isEqualInvolved //
+    //-----------------//
+    /**
+     * Check whether the provided chord is involved in any EQUAL relationship.
+     *
+     * @param chord the chord in matrix
+     * @return true if so
+     */
+    private boolean isEqualInvolved (AbstractChordInter chord)
+    {
+        final int index = indices.get(chord);
+        final int row = index * capacity;
+        final byte code = (byte) (EQUAL.ordinal() + 1);
+
+        for (int i = 0; i < capacity; i++) {
+            if ((matrix[row + i] == code) || (matrix[(i * capacity) + index] == code)) {
+                return true;
             }
         }
+
+        return false;
     }
 
     //------------------------//
@@ -969,6 +1300,27 @@ public class SlotsRetriever
         }
     }
 
+    //-------------//
+    // removeChord //
+    //-------------//
+    /**
+     * Remove the provided chord and its relationships from matrix.
+     *
+     * @param chord the chord to remove
+     */
+    private void removeChord (AbstractChordInter chord)
+    {
+        final int index = indices.remove(chord);
+        chords.set(index, null);
+        signatures.set(index, null);
+
+        Arrays.fill(matrix, index * capacity, (index + 1) * capacity, (byte) 0);
+
+        for (int i = 0; i < capacity; i++) {
+            matrix[(i * capacity) + index] = 0;
+        }
+    }
+
     //--------//
     // setRel //
     //--------//
@@ -987,17 +1339,164 @@ public class SlotsRetriever
             logger.info("VIP setRel {} {} {}", from, rel, to);
         }
 
-        Edge edge = graph.getEdge(from, to);
+        final Integer i1 = indices.get(from);
+        final Integer i2 = indices.get(to);
+
+        if ((i1 == null) || (i2 == null)) {
+            throw new IllegalArgumentException("No matrix index for " + from + " or " + to);
+        }
+
+        matrix[(i1 * capacity) + i2] = (byte) (rel.ordinal() + 1);
+    }
+
+    //-----------------//
+    // setSeparateRels //
+    //-----------------//
+    /**
+     * Store the relationships between two chords explicitly declared in separate slots.
+     *
+     * @param ch1 source chord of separation relation
+     * @param ch2 target chord of separation relation
+     */
+    private void setSeparateRels (AbstractChordInter ch1,
+                                  AbstractChordInter ch2)
+    {
+        final MeasureStack stack = measure.getStack();
+        final double x1 = stack.getXOffset(ch1.getCenter());
+        final double x2 = stack.getXOffset(ch2.getCenter());
+
+        if (x1 < x2) {
+            setRel(ch1, ch2, BEFORE);
+            setRel(ch2, ch1, AFTER);
+        } else {
+            setRel(ch2, ch1, BEFORE);
+            setRel(ch1, ch2, AFTER);
+        }
+    }
+
+    //--------//
+    // update //
+    //--------//
+    /**
+     * Update this retriever to the current measure content.
+     * <p>
+     * Chords no longer in measure, or whose signature has changed, are removed from matrix,
+     * then the new or modified chords are added and inspected against the other chords.
+     * <p>
+     * This cannot be done incrementally when an EQUAL relationship is involved, since such
+     * relationship may impact other pairs of chords, nor when a large part of measure chords
+     * has changed. In these cases, the whole matrix is computed again.
+     *
+     * @return true if matrix was updated incrementally
+     */
+    public boolean update ()
+    {
+        final List<AbstractChordInter> stdChords = getSortedChords();
+        final Set<AbstractChordInter> present = new HashSet<>(stdChords);
+        final Set<AbstractChordInter> removed = new LinkedHashSet<>();
+        final List<AbstractChordInter> added = new ArrayList<>();
+
+        for (int i = 0; i < chords.size(); i++) {
+            final AbstractChordInter chord = chords.get(i);
+
+            if ((chord != null) && (!present.contains(chord) || !getSignature(chord).equals(
+                    signatures.get(i)))) {
+                removed.add(chord);
+            }
+        }
+
+        for (AbstractChordInter chord : stdChords) {
+            if (!indices.containsKey(chord) || removed.contains(chord)) {
+                added.add(chord);
+            }
+        }
+
+        boolean incremental = (2 * (removed.size() + added.size()) <= stdChords.size())
+                && !hasSameTimeRels();
+
+        for (AbstractChordInter chord : removed) {
+            if (!incremental) {
+                break;
+            }
+
+            incremental = !isEqualInvolved(chord);
+        }
+
+        if (incremental) {
+            for (AbstractChordInter chord : removed) {
+                removeChord(chord);
+            }
+
+            for (AbstractChordInter chord : added) {
+                addChord(chord);
+            }
+
+            final Set<AbstractChordInter> done = new HashSet<>();
+
+            for (AbstractChordInter chord : added) {
+                if (!inspectAddedChord(chord, stdChords, done)) {
+                    incremental = false;
+
+                    break;
+                }
+
+                done.add(chord);
+            }
+        }
+
+        if (incremental) {
+            logger.debug("{} updated, removed:{} added:{}", measure, removed.size(), added.size());
 
-        if (edge != null) {
-            edge.rel = rel;
+            if (constants.dumpRelationships.isSet() && !added.isEmpty()) {
+                dumpRelationships(stdChords);
+            }
         } else {
-            graph.addEdge(from, to, new Edge(rel));
+            buildChordRelationships();
         }
+
+        candidateChords = getCandidateChords();
+        Collections.sort(candidateChords, byRel);
+
+        return incremental;
     }
 
     //~ Static Methods -----------------------------------------------------------------------------
 
+    //-------------//
+    // getInstance //
+    //-------------//
+    /**
+     * Report a slots retriever for the provided measure.
+     * <p>
+     * The retriever kept in measure, if any, is updated to the current measure content.
+     * Otherwise a new retriever is created and kept in measure.
+     * <p>
+     * Retrievers are kept only in interactive mode, where user editions call for incremental
+     * updates. In batch mode, the measure is processed once and the matrix is not retained.
+     *
+     * @param measure      the provided measure
+     * @param useWideSlots true for wide slots, false for narrow slots
+     * @return the up-to-date retriever
+     */
+    public static SlotsRetriever getInstance (Measure measure,
+                                              boolean useWideSlots)
+    {
+        if ((OMR.gui == null) || !constants.keepRelationships.isSet()) {
+            return new SlotsRetriever(measure, useWideSlots);
+        }
+
+        SlotsRetriever retriever = measure.getSlotsRetriever(useWideSlots);
+
+        if (retriever == null) {
+            retriever = new SlotsRetriever(measure, useWideSlots);
+            measure.setSlotsRetriever(useWideSlots, retriever);
+        } else {
+            retriever.update();
+        }
+
+        return retriever;
+    }
+
     //---------------//
     // getMaxMergeDx //
     //---------------//
@@ -1038,26 +1537,10 @@ public class SlotsRetriever
         private final Constant.Boolean dumpRelationships = new Constant.Boolean(
                 false,
                 "(debug) Dump matrix of chords relationships");
-    }
-
-    //------//
-    // Edge //
-    //------//
-    /**
-     * Meant to store a relation instance (edge) between two chords (vertices).
-     */
-    protected static class Edge
-    {
 
-        Rel rel; // Relationship carried by the concrete edge
-
-        /**
-         * @param rel
-         */
-        Edge (Rel rel)
-        {
-            this.rel = rel;
-        }
+        private final Constant.Boolean keepRelationships = new Constant.Boolean(
+                true,
+                "Should we keep chords relationships in measure for incremental updates?");
     }
 
     //------------//
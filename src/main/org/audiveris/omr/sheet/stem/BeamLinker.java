@@ -32,8 +32,7 @@ import org.audiveris.omr.glyph.ShapeSet;
 import org.audiveris.omr.glyph.dynamic.SectionCompound;
 import org.audiveris.omr.lag.Section;
 import org.audiveris.omr.lag.Sections;
-import org.audiveris.omr.math.AreaUtil;
-import org.audiveris.omr.math.GeoOrder;
+import org.audiveris.omr.math.ConvexQuad;
 import org.audiveris.omr.math.GeoUtil;
 import org.audiveris.omr.math.LineUtil;
 import org.audiveris.omr.math.PointUtil;
@@ -77,10 +76,8 @@ import org.slf4j.LoggerFactory;
 
 import java.awt.Point;
 import java.awt.Rectangle;
-import java.awt.geom.Area;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Line2D;
-import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -205,7 +202,7 @@ public class BeamLinker
             logger.info("VIP {} buildSideStump {}", this, hSide);
         }
 
-        final Area area = getStumpArea(hSide);
+        final ConvexQuad area = getStumpArea(hSide);
         final List<Section> sections = new ArrayList<>(
                 Sections.intersectedSections(area, system.getVerticalSections()));
 
@@ -371,7 +368,7 @@ public class BeamLinker
      *
      * @return the seed lookup area
      */
-    private Area getSeedArea ()
+    private ConvexQuad getSeedArea ()
     {
         // Use beam area, slightly expanded in x and y
         final double slope = (median.getY2() - median.getY1()) / (median.getX2() - median.getX1());
@@ -379,13 +376,13 @@ public class BeamLinker
         final int profile = Math.max(beam.getProfile(), system.getProfile());
         final double dy = params.maxBeamSeedDyRatio * scale.toPixels(
                 BeamStemRelation.getYGapMaximum(profile));
-        final Path2D path = AreaUtil.horizontalParallelogramPath(
+        final ConvexQuad quad = ConvexQuad.horizontalParallelogram(
                 new Point2D.Double(median.getX1() - dx, median.getY1() - slope * dx),
                 new Point2D.Double(median.getX2() + dx, median.getY2() + slope * dx),
                 beam.getHeight() + 2 * dy);
-        beam.addAttachment("seed", path);
+        beam.addAttachment("seed", quad);
 
-        return new Area(path);
+        return quad;
     }
 
     //-------------------//
@@ -433,21 +430,21 @@ public class BeamLinker
      *
      * @return the stump lookup area
      */
-    private Area getStumpArea (HorizontalSide hSide)
+    private ConvexQuad getStumpArea (HorizontalSide hSide)
     {
         final int xDir = hSide.direction();
         final double xSide = (xDir < 0) ? median.getX1() : median.getX2();
         final double width = params.maxStemThickness;
         final Point2D innerPt = LineUtil.intersectionAtX(median, xSide - xDir * width);
-        final Path2D path = (xDir < 0) ? AreaUtil.horizontalParallelogramPath(
+        final ConvexQuad quad = (xDir < 0) ? ConvexQuad.horizontalParallelogram(
                 median.getP1(),
                 innerPt,
                 beam.getHeight())
-                : AreaUtil.horizontalParallelogramPath(innerPt, median.getP2(), beam.getHeight());
+                : ConvexQuad.horizontalParallelogram(innerPt, median.getP2(), beam.getHeight());
         final String tag = "stump-" + ((xDir > 0) ? "R" : "L");
-        beam.addAttachment(tag, path);
+        beam.addAttachment(tag, quad);
 
-        return new Area(path);
+        return quad;
     }
 
     //--------------------//
@@ -1008,7 +1005,7 @@ public class BeamLinker
             private final int yDir;
 
             /** Lookup area for heads and stem items. */
-            private Area luArea;
+            private ConvexQuad luArea;
 
             /** The theoretical line from beam. */
             private Line2D theoLine;
@@ -1074,7 +1071,7 @@ public class BeamLinker
              * @param limit the rather horizontal limit for the area, or null to use system limit
              * @return the lookup area
              */
-            private Area buildLuArea (Line2D limit)
+            private ConvexQuad buildLuArea (Line2D limit)
             {
                 final double slope = -system.getSheet().getSkew().getSlope();
                 final double dSlope = yDir * params.slopeMargin;
@@ -1084,13 +1081,10 @@ public class BeamLinker
                 final Point2D pl = LineUtil.intersectionAtX(border, xRef - params.halfBeamLuDx);
                 final Point2D pr = LineUtil.intersectionAtX(border, xRef + params.halfBeamLuDx);
 
-                // Look-up path, start by beam horizontal segment
-                final Path2D lu = new Path2D.Double();
+                // Look-up quad, start by beam horizontal segment
                 final int profile = Math.max(beam.getProfile(), system.getProfile());
                 final double yOffset = yDir * params.maxBeamSeedDyRatio * scale.toPixels(
                         BeamStemRelation.getYGapMaximum(profile));
-                lu.moveTo(pl.getX(), pl.getY() + yOffset);
-                lu.lineTo(pr.getX(), pr.getY() + yOffset);
 
                 // Then segment away from beam
                 double yLimit;
@@ -1114,10 +1108,15 @@ public class BeamLinker
                 }
 
                 final double dy = yLimit - refPt.getY();
-                lu.lineTo(pr.getX() + ((slope + dSlope) * dy), yLimit);
-                lu.lineTo(pl.getX() + ((slope - dSlope) * dy), yLimit);
-
-                lu.closePath();
+                final ConvexQuad lu = new ConvexQuad(
+                        pl.getX(),
+                        pl.getY() + yOffset,
+                        pr.getX(),
+                        pr.getY() + yOffset,
+                        pr.getX() + ((slope + dSlope) * dy),
+                        yLimit,
+                        pl.getX() + ((slope - dSlope) * dy),
+                        yLimit);
 
                 // Attachment
                 beam.addAttachment("" + id, lu);
@@ -1126,7 +1125,7 @@ public class BeamLinker
                 theoLine = retriever.getTheoreticalLine(refPt, yLimit);
                 beam.addAttachment("theo-" + id, theoLine);
 
-                return new Area(lu);
+                return lu;
             }
 
             //--------//
@@ -1296,10 +1295,7 @@ public class BeamLinker
                         BOTTOM) : siblings.get(0).getBorder(TOP);
                 final double yLastBorder = LineUtil.yAtX(lastBorder, refPt.getX());
 
-                final List<Inter> headCandidates = Inters.intersectedInters(
-                        retriever.getSystemHeads(),
-                        GeoOrder.BY_ABSCISSA,
-                        luArea);
+                final List<Inter> headCandidates = retriever.getIntersectedHeads(luArea);
 
                 for (AbstractBeamInter b : siblings) {
                     headCandidates.removeAll(beam.getSig().getCompetingInters(b));
@@ -1366,9 +1362,7 @@ public class BeamLinker
              */
             private Line2D getCloserLimit ()
             {
-                final List<Inter> aliens = retriever.getNeighboringInters(
-                        retriever.getSystemBeams(),
-                        beamBox);
+                final List<Inter> aliens = retriever.getNeighboringBeams(beamBox);
                 aliens.removeAll(beam.getGroup().getMembers());
 
                 // Check concrete beam (no hook) intersection with theoLine
@@ -1437,7 +1431,7 @@ public class BeamLinker
             // getLookupArea //
             //---------------//
             @Override
-            public Area getLookupArea ()
+            public ConvexQuad getLookupArea ()
             {
                 return luArea;
             }
@@ -0,0 +1,251 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                   C a n d i d a t e I n d e x                                  //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.sheet.stem;
+
+import org.audiveris.omr.sheet.Staff;
+import org.audiveris.omr.sheet.SystemInfo;
+
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Class <code>CandidateIndex</code> is a geometric index on items of a system (such as heads,
+ * beams or stem seeds), meant to quickly answer "items within this area" queries.
+ * <p>
+ * Items are bucketed by staff band (system height split at mid-gap between staves) and by
+ * abscissa slice, according to their bounds at index creation.
+ * Hence the index is meant for a processing phase where items bounds do not change.
+ * A query collects the items of the buckets crossed by the query bounds and then applies the
+ * precise intersection test.
+ * Items are reported in the order of the list the index was built upon.
+ *
+ * @param <T> precise item type
+ * @author Hervé Bitteur
+ */
+class CandidateIndex<T>
+{
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Indexed items, in their original order. */
+    private final List<T> items;
+
+    /** Item bounds, as of index creation. */
+    private final Rectangle[] boxes;
+
+    /** Items to skip at query time, if any. */
+    private final Predicate<T> skipped;
+
+    /** Abscissa of first slice. */
+    private final int xMin;
+
+    /** Width of each slice. */
+    private final int sliceWidth;
+
+    /** Number of slices. */
+    private final int sliceCount;
+
+    /** Ordinates that separate staff bands, top down. */
+    private final int[] bandLimits;
+
+    /** For each bucket (band-major), the indices of items it contains. */
+    private final int[][] buckets;
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Creates a new <code>CandidateIndex</code> object.
+     *
+     * @param system     the containing system
+     * @param items      the items to index, in their desired reporting order
+     * @param boxer      provides the bounds of an item
+     * @param skipped    items to skip at query time (such as removed inters), or null
+     * @param sliceWidth width of abscissa slices
+     */
+    CandidateIndex (SystemInfo system,
+                    List<? extends T> items,
+                    Function<T, Rectangle> boxer,
+                    Predicate<T> skipped,
+                    int sliceWidth)
+    {
+        this.items = new ArrayList<>(items);
+        this.skipped = skipped;
+        this.sliceWidth = Math.max(1, sliceWidth);
+
+        final Rectangle systemBox = system.getBounds();
+        xMin = systemBox.x;
+        sliceCount = Math.max(1, (systemBox.width + this.sliceWidth - 1) / this.sliceWidth);
+
+        // Band limits at mid-gap between consecutive staves
+        final List<Staff> staves = system.getStaves();
+        final double xMid = systemBox.getCenterX();
+        bandLimits = new int[Math.max(0, staves.size() - 1)];
+
+        for (int i = 0; i < bandLimits.length; i++) {
+            final double bottom = staves.get(i).getLastLine().yAt(xMid);
+            final double top = staves.get(i + 1).getFirstLine().yAt(xMid);
+            bandLimits[i] = (int) Math.rint((bottom + top) / 2);
+        }
+
+        // Populate buckets (counts first, then item indices)
+        final int size = this.items.size();
+        boxes = new Rectangle[size];
+        final int[] counts = new int[(bandLimits.length + 1) * sliceCount];
+
+        for (int i = 0; i < size; i++) {
+            boxes[i] = boxer.apply(this.items.get(i));
+
+            final int[] r = getRange(boxes[i]);
+
+            for (int band = r[0]; band <= r[1]; band++) {
+                for (int slice = r[2]; slice <= r[3]; slice++) {
+                    counts[(band * sliceCount) + slice]++;
+                }
+            }
+        }
+
+        buckets = new int[counts.length][];
+
+        for (int b = 0; b < counts.length; b++) {
+            buckets[b] = new int[counts[b]];
+        }
+
+        final int[] fills = new int[counts.length];
+
+        for (int i = 0; i < size; i++) {
+            final int[] r = getRange(boxes[i]);
+
+            for (int band = r[0]; band <= r[1]; band++) {
+                for (int slice = r[2]; slice <= r[3]; slice++) {
+                    final int b = (band * sliceCount) + slice;
+                    buckets[b][fills[b]++] = i;
+                }
+            }
+        }
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //--------//
+    // bandOf //
+    //--------//
+    private int bandOf (int y)
+    {
+        final int pos = Arrays.binarySearch(bandLimits, y);
+
+        return (pos >= 0) ? (pos + 1) : (-pos - 1);
+    }
+
+    //----------//
+    // getRange //
+    //----------//
+    /**
+     * Report the range of buckets crossed by the provided bounds.
+     *
+     * @param box the bounds
+     * @return first band, last band, first slice, last slice
+     */
+    private int[] getRange (Rectangle box)
+    {
+        return new int[]{
+            bandOf(box.y),
+            bandOf((box.y + box.height) - 1),
+            sliceOf(box.x),
+            sliceOf((box.x + box.width) - 1)};
+    }
+
+    //-------------//
+    // intersected //
+    //-------------//
+    /**
+     * Report the items whose bounds intersect the provided rectangle.
+     *
+     * @param rect the query rectangle
+     * @return the intersected items, in index order
+     */
+    List<T> intersected (Rectangle rect)
+    {
+        return lookup(rect, box -> rect.intersects(box));
+    }
+
+    //-------------//
+    // intersected //
+    //-------------//
+    /**
+     * Report the items whose bounds intersect the provided area.
+     *
+     * @param area the query area
+     * @return the intersected items, in index order
+     */
+    List<T> intersected (Shape area)
+    {
+        return lookup(area.getBounds(), box -> area.intersects(box));
+    }
+
+    //--------//
+    // lookup //
+    //--------//
+    private List<T> lookup (Rectangle bounds,
+                            Predicate<Rectangle> test)
+    {
+        final List<T> found = new ArrayList<>();
+
+        if (bounds.isEmpty()) {
+            return found;
+        }
+
+        // Candidates from crossed buckets, with no duplicate and in index order
+        final BitSet candidates = new BitSet(items.size());
+        final int[] r = getRange(bounds);
+
+        for (int band = r[0]; band <= r[1]; band++) {
+            for (int slice = r[2]; slice <= r[3]; slice++) {
+                for (int index : buckets[(band * sliceCount) + slice]) {
+                    candidates.set(index);
+                }
+            }
+        }
+
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            final T item = items.get(i);
+
+            if (((skipped == null) || !skipped.test(item)) && test.test(boxes[i])) {
+                found.add(item);
+            }
+        }
+
+        return found;
+    }
+
+    //---------//
+    // sliceOf //
+    //---------//
+    private int sliceOf (int x)
+    {
+        return Math.max(0, Math.min(sliceCount - 1, Math.floorDiv(x - xMin, sliceWidth)));
+    }
+}
@@ -31,6 +31,7 @@ import org.audiveris.omr.image.ImageUtil;
 import org.audiveris.omr.lag.DynamicSection;
 import org.audiveris.omr.lag.Section;
 import org.audiveris.omr.lag.Sections;
+import org.audiveris.omr.math.ConvexQuad;
 import org.audiveris.omr.math.GeoOrder;
 import org.audiveris.omr.math.GeoUtil;
 import org.audiveris.omr.math.LineUtil;
@@ -76,9 +77,7 @@ import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.geom.AffineTransform;
-import java.awt.geom.Area;
 import java.awt.geom.Line2D;
-import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
@@ -183,7 +182,7 @@ public class HeadLinker
         scale = system.getSheet().getScale();
         params = retriever.getParams();
 
-        neighborBeams = retriever.getNeighboringInters(retriever.getSystemBeams(), headBox);
+        neighborBeams = retriever.getNeighboringBeams(headBox);
         neighborSeeds = retriever.getNeighboringSeeds(headBox);
 
         for (HorizontalSide hSide : HorizontalSide.values()) {
@@ -725,7 +724,7 @@ public class HeadLinker
             private final Point2D targetPt;
 
             /** The look up area for the corner. */
-            private Area luArea;
+            private ConvexQuad luArea;
 
             /** The stems seeds found in the corner. */
             private List<Glyph> seeds;
@@ -789,18 +788,13 @@ public class HeadLinker
              * @param limit rather horizontal limit for the area, or null to use part limit
              * @return the lookup area
              */
-            private Area buildLuArea (Line2D limit)
+            private ConvexQuad buildLuArea (Line2D limit)
             {
                 // Beware: vertical slope is the opposite of sheet slope
                 final double slope = -system.getSheet().getSkew().getSlope();
                 final double dSlope = xDir * yDir * params.slopeMargin;
 
-                // Look-up path, start by head horizontal segment
-                final Path2D lu = new Path2D.Double();
-                lu.moveTo(outPt.getX(), outPt.getY());
-                lu.lineTo(inPt.getX(), inPt.getY());
-
-                // Then segment away from head
+                // Ordinate limit away from head
                 final double yLimit;
                 if (limit == null) {
                     // Use part limit
@@ -811,11 +805,17 @@ public class HeadLinker
                     yLimit = LineUtil.yAtX(limit, refPt.getX());
                 }
 
+                // Look-up quad, from head horizontal segment to segment away from head
                 final double dy = yLimit - outPt.getY();
-                lu.lineTo(inPt.getX() + ((slope - dSlope) * dy), yLimit);
-                lu.lineTo(outPt.getX() + ((slope + dSlope) * dy), yLimit);
-
-                lu.closePath();
+                final ConvexQuad lu = new ConvexQuad(
+                        outPt.getX(),
+                        outPt.getY(),
+                        inPt.getX(),
+                        inPt.getY(),
+                        inPt.getX() + ((slope - dSlope) * dy),
+                        yLimit,
+                        outPt.getX() + ((slope + dSlope) * dy),
+                        yLimit);
 
                 // Attachment
                 head.addAttachment(cName(), lu);
@@ -824,7 +824,7 @@ public class HeadLinker
                 theoLine = retriever.getTheoreticalLine(refPt, yLimit);
                 head.addAttachment("theo-" + cName(), theoLine);
 
-                return new Area(lu);
+                return lu;
             }
 
             //------------//
@@ -1362,7 +1362,7 @@ public class HeadLinker
             // getLookupArea //
             //---------------//
             @Override
-            public Area getLookupArea ()
+            public ConvexQuad getLookupArea ()
             {
                 return luArea;
             }
@@ -1405,7 +1405,7 @@ public class HeadLinker
              *
              * @return the seed lookup area
              */
-            private Area getSeedArea ()
+            private Rectangle2D getSeedArea ()
             {
                 final double dy = params.maxHeadSeedDy;
                 final Point2D left = (xDir > 0) ? inPt : outPt;
@@ -1416,7 +1416,7 @@ public class HeadLinker
                         right.getX() - left.getX(),
                         2 * dy);
                 head.addAttachment("seed-" + cName(), rect);
-                return new Area(rect);
+                return rect;
             }
 
             //------------//
@@ -1463,7 +1463,7 @@ public class HeadLinker
              *
              * @return the stump lookup area
              */
-            private Area getStumpArea ()
+            private Rectangle2D getStumpArea ()
             {
                 final double rx = refPt.getX();
                 final double height = params.stumpAreaDy;
@@ -1474,7 +1474,7 @@ public class HeadLinker
                 final double top = (yDir > 0) ? refPt.getY() : refPt.getY() - height;
                 final Rectangle2D rect = new Rectangle2D.Double(left, top, right - left, height);
                 head.addAttachment("stump-" + cName(), rect);
-                return new Area(rect);
+                return rect;
             }
 
             //---------------//
@@ -1768,10 +1768,7 @@ public class HeadLinker
                 final double yLast = refPt.getY() + yDir * params.minHeadHeadDy;
 
                 // Filter head candidates
-                final List<Inter> headCandidates = Inters.intersectedInters(
-                        retriever.getSystemHeads(),
-                        GeoOrder.BY_ABSCISSA,
-                        luArea);
+                final List<Inter> headCandidates = retriever.getIntersectedHeads(luArea);
                 headCandidates.remove(head);
                 headCandidates.removeAll(sig.getCompetingInters(head));
                 final Rational headDuration = head.getShape().getNoteDuration();
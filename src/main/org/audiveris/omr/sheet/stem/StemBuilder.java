@@ -33,6 +33,7 @@ import org.audiveris.omr.glyph.dynamic.StickFactory;
 import org.audiveris.omr.glyph.dynamic.StraightFilament;
 import org.audiveris.omr.image.ImageUtil;
 import org.audiveris.omr.lag.Section;
+import org.audiveris.omr.math.ConvexQuad;
 import org.audiveris.omr.math.GeoUtil;
 import org.audiveris.omr.math.PointsCollector;
 import org.audiveris.omr.run.Orientation;
@@ -66,7 +67,6 @@ import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.geom.AffineTransform;
-import java.awt.geom.Area;
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
@@ -115,7 +115,7 @@ public class StemBuilder
     private final StemHalfLinker startLinker;
 
     /** Look-up area for stem items. */
-    private final Area luArea;
+    private final ConvexQuad luArea;
 
     /** Vertical range for relevant items. (x and width members are irrelevant) */
     private final Rectangle yRange;
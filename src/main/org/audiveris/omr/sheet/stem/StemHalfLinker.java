@@ -23,9 +23,9 @@ package org.audiveris.omr.sheet.stem;
 
 import org.audiveris.omr.glyph.Glyph;
 import org.audiveris.omr.glyph.GlyphFactory;
+import org.audiveris.omr.math.ConvexQuad;
 import org.audiveris.omr.math.LineUtil;
 
-import java.awt.geom.Area;
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 import java.util.Set;
@@ -47,7 +47,7 @@ public abstract class StemHalfLinker
      *
      * @return the stem lookup area
      */
-    public abstract Area getLookupArea ();
+    public abstract ConvexQuad getLookupArea ();
 
     /**
      * Report the theoretical line, going from reference point to target point.
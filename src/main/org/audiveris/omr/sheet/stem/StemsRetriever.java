@@ -25,12 +25,11 @@ import org.audiveris.omr.constant.Constant;
 import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.glyph.Glyph;
 import org.audiveris.omr.glyph.GlyphGroup;
-import org.audiveris.omr.glyph.Glyphs;
 import org.audiveris.omr.glyph.Grades;
 import org.audiveris.omr.glyph.ShapeSet;
-import org.audiveris.omr.math.AreaUtil;
-import org.audiveris.omr.math.GeoOrder;
+import org.audiveris.omr.math.ConvexQuad;
 import org.audiveris.omr.math.LineUtil;
+import org.audiveris.omr.math.Ribbon;
 import org.audiveris.omr.sheet.Profiles;
 import org.audiveris.omr.sheet.Scale;
 import org.audiveris.omr.sheet.Sheet;
@@ -77,6 +76,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeMap;
@@ -183,11 +183,20 @@ public class StemsRetriever
     /** Beams and beam hooks for this system. */
     private List<Inter> systemBeams;
 
+    /** Geometric index on system heads, for inspection phase. */
+    private CandidateIndex<Inter> headIndex;
+
+    /** Geometric index on system seeds, for inspection phase. */
+    private CandidateIndex<Glyph> seedIndex;
+
+    /** Geometric index on system beams, for inspection phase. */
+    private CandidateIndex<Inter> beamIndex;
+
     /** Stems interpretations for this system. */
     private final HashMap<Glyph, StemInter> systemStems = new HashMap<>();
 
     /** Areas forbidden to stem candidates. */
-    private final List<Area> noStemAreas;
+    private final List<Ribbon> noStemAreas;
 
     /** For stem validation. */
     private StemChecker stemChecker;
@@ -428,27 +437,32 @@ public class StemsRetriever
         return maxCg;
     }
 
-    //----------------------//
-    // getNeighboringInters //
-    //----------------------//
+    //---------------------//
+    // getIntersectedHeads //
+    //---------------------//
     /**
-     * From the provided collection of interpretations, retrieve all those located
-     * in some item vicinity.
+     * Retrieve the system heads that intersect the provided lookup area.
      *
-     * @param inters  the collection of interpretations to search
-     * @param itemBox bounding box of item
-     * @return the set of neighboring interpretations
+     * @param area the lookup area
+     * @return the intersected heads, sorted by abscissa
      */
-    List<Inter> getNeighboringInters (List<? extends Inter> inters,
-                                      Rectangle itemBox)
+    List<Inter> getIntersectedHeads (ConvexQuad area)
     {
-        // Retrieve neighboring inters, using a box of system height and sufficiently wide,
-        // just to play with a limited number of inters.
-        Rectangle systemBox = system.getBounds();
-        Rectangle fatBox = new Rectangle(itemBox.x, systemBox.y, itemBox.width, systemBox.height);
-        fatBox.grow(params.vicinityMargin, 0);
+        return headIndex.intersected(area);
+    }
 
-        return Inters.intersectedInters(inters, GeoOrder.BY_ABSCISSA, fatBox);
+    //---------------------//
+    // getNeighboringBeams //
+    //---------------------//
+    /**
+     * Retrieve all system beams (and beam hooks) located in some item vicinity.
+     *
+     * @param itemBox bounding box of item
+     * @return the neighboring beams, sorted by abscissa
+     */
+    List<Inter> getNeighboringBeams (Rectangle itemBox)
+    {
+        return beamIndex.intersected(getVicinity(itemBox));
     }
 
     //---------------------//
@@ -461,13 +475,7 @@ public class StemsRetriever
      */
     Set<Glyph> getNeighboringSeeds (Rectangle itemBox)
     {
-        // Retrieve neighboring stem seeds, using a box of system height and sufficiently wide,
-        // just to play with a limited number of seeds.
-        Rectangle systemBox = system.getBounds();
-        Rectangle fatBox = new Rectangle(itemBox.x, systemBox.y, itemBox.width, systemBox.height);
-        fatBox.grow(params.vicinityMargin, 0);
-
-        return Glyphs.intersectedGlyphs(systemSeeds, fatBox);
+        return new LinkedHashSet<>(seedIndex.intersected(getVicinity(itemBox)));
     }
 
     //----------------//
@@ -476,7 +484,7 @@ public class StemsRetriever
     /**
      * @return the noStemAreas
      */
-    List<Area> getNoStemAreas ()
+    List<Ribbon> getNoStemAreas ()
     {
         return noStemAreas;
     }
@@ -524,22 +532,6 @@ public class StemsRetriever
         return system;
     }
 
-    /**
-     * @return the system beams
-     */
-    List<Inter> getSystemBeams ()
-    {
-        return systemBeams;
-    }
-
-    /**
-     * @return the system heads
-     */
-    List<Inter> getSystemHeads ()
-    {
-        return systemHeads;
-    }
-
     //-------------//
     // getTargetPt //
     //-------------//
@@ -575,6 +567,29 @@ public class StemsRetriever
                 getTargetPt(refPt, new Line2D.Double(0, yLimit, 100, yLimit)));
     }
 
+    //-------------//
+    // getVicinity //
+    //-------------//
+    /**
+     * Report the vicinity of an item, using a box of system height and sufficiently wide,
+     * just to play with a limited number of neighbors.
+     *
+     * @param itemBox bounding box of item
+     * @return the vicinity box
+     */
+    private Rectangle getVicinity (Rectangle itemBox)
+    {
+        final Rectangle systemBox = system.getBounds();
+        final Rectangle fatBox = new Rectangle(
+                itemBox.x,
+                systemBox.y,
+                itemBox.width,
+                systemBox.height);
+        fatBox.grow(params.vicinityMargin, 0);
+
+        return fatBox;
+    }
+
     //--------------//
     // inspectStems //
     //--------------//
@@ -592,11 +607,23 @@ public class StemsRetriever
         watch.start("Seeds");
         systemSeeds = system.getGroupedGlyphs(GlyphGroup.VERTICAL_SEED);
         purgeNoStemSeeds(systemSeeds);
+        seedIndex = new CandidateIndex<>(
+                system,
+                systemSeeds,
+                Glyph::getBounds,
+                null,
+                params.candidateSliceWidth);
 
         // The abscissa-sorted beam (and beam hook) interpretations for this system
         watch.start("Beams linkers");
         systemBeams = sig.inters(AbstractBeamInter.class);
         Collections.sort(systemBeams, Inters.byAbscissa);
+        beamIndex = new CandidateIndex<>(
+                system,
+                systemBeams,
+                Inter::getBounds,
+                Inter::isRemoved,
+                params.candidateSliceWidth);
 
         for (Iterator<Inter> it = systemBeams.iterator(); it.hasNext();) {
             final AbstractBeamInter beam = (AbstractBeamInter) it.next();
@@ -618,6 +645,12 @@ public class StemsRetriever
         watch.start("Heads linkers");
         systemHeads = sig.inters(ShapeSet.getTemplateNotesStem(system.getSheet()));
         Collections.sort(systemHeads, Inters.byAbscissa);
+        headIndex = new CandidateIndex<>(
+                system,
+                systemHeads,
+                Inter::getBounds,
+                Inter::isRemoved,
+                params.candidateSliceWidth);
 
         for (Inter h : systemHeads) {
             HeadInter head = (HeadInter) h;
@@ -727,11 +760,11 @@ public class StemsRetriever
             final Rectangle seedBox = seed.getBounds();
             final double seedSize = seedBox.width * seedBox.height;
 
-            for (Area noStem : noStemAreas) {
+            for (Ribbon noStem : noStemAreas) {
                 if (noStem.intersects(seedBox)) {
                     // Compute intersection over noStem area
                     Area intersection = new Area(seedBox);
-                    intersection.intersect(noStem);
+                    intersection.intersect(noStem.toArea());
                     Rectangle2D interBox = intersection.getBounds2D();
                     double interSize = interBox.getWidth() * interBox.getHeight();
 
@@ -760,9 +793,9 @@ public class StemsRetriever
      *
      * @return list of no-stem areas, sorted by abscissa
      */
-    private List<Area> retrieveNoStemAreas ()
+    private List<Ribbon> retrieveNoStemAreas ()
     {
-        final List<Area> areas = new ArrayList<>();
+        final List<Ribbon> areas = new ArrayList<>();
 
         for (Inter barline : sig.inters(BarlineInter.class)) {
             Set<Relation> connections = sig.getRelations(barline, BarConnectionRelation.class);
@@ -772,18 +805,18 @@ public class StemsRetriever
 
                 if (source == barline) {
                     // Top area
-                    areas.add(barline.getArea());
+                    areas.add(barline.getRibbon());
 
                     // Bottom area
                     BarlineInter target = (BarlineInter) sig.getEdgeTarget(connection);
-                    areas.add(target.getArea());
+                    areas.add(target.getRibbon());
 
                     // Middle area
                     Line2D median = new Line2D.Double(
                             source.getMedian().getP2(),
                             target.getMedian().getP1());
                     double width = 0.5 * (source.getWidth() + target.getWidth());
-                    Area middle = AreaUtil.verticalRibbon(median, width);
+                    Ribbon middle = Ribbon.vertical(median, width);
                     areas.add(middle);
                 }
             }
@@ -792,8 +825,8 @@ public class StemsRetriever
         // Sort by abscissa
         Collections.sort(
                 areas,
-                (Area a1,
-                 Area a2) -> Double.compare(
+                (Ribbon a1,
+                 Ribbon a2) -> Double.compare(
                          a1.getBounds2D().getMinX(),
                          a2.getBounds2D().getMinX()));
 
@@ -894,6 +927,10 @@ public class StemsRetriever
                 false,
                 "Should we print out the stop watch?");
 
+        private final Scale.Fraction candidateSliceWidth = new Scale.Fraction(
+                4.0,
+                "Width of abscissa slices in heads, beams and seeds indices");
+
         private final Scale.Fraction vicinityMargin = new Scale.Fraction(
                 1.0,
                 "Rough abscissa margin when looking for neighbors above and below in the system");
@@ -1206,6 +1243,8 @@ public class StemsRetriever
 
         final int vicinityMargin;
 
+        final int candidateSliceWidth;
+
         final int minHeadHeadDy;
 
         final int minSeedContrib;
@@ -1275,6 +1314,7 @@ public class StemsRetriever
             slopeMargin = constants.slopeMargin.getValue();
             maxBarOverlap = constants.maxBarOverlap.getValue();
             vicinityMargin = scale.toPixels(constants.vicinityMargin);
+            candidateSliceWidth = scale.toPixels(constants.candidateSliceWidth);
 
             minHeadHeadDy = scale.toPixels(constants.minHeadHeadDy);
             minSeedContrib = scale.toPixels(constants.minSeedContrib);
@@ -25,6 +25,7 @@ import org.audiveris.omr.image.AdaptiveDescriptor;
 import org.audiveris.omr.image.AdaptiveFilter.AdaptiveContext;
 import org.audiveris.omr.image.FilterDescriptor;
 import org.audiveris.omr.image.PixelFilter;
+import org.audiveris.omr.image.PixelSource;
 import org.audiveris.omr.image.RandomFilter;
 import org.audiveris.omr.sheet.Picture;
 import org.audiveris.omr.sheet.Sheet;
@@ -42,8 +43,6 @@ import com.jgoodies.forms.builder.PanelBuilder;
 import com.jgoodies.forms.layout.CellConstraints;
 import com.jgoodies.forms.layout.FormLayout;
 
-import ij.process.ByteProcessor;
-
 import java.awt.Rectangle;
 
 /**
@@ -146,7 +145,7 @@ public class BinarizationBoard
 
         if (rect != null) {
             FilterDescriptor desc = sheet.getStub().getBinarizationFilter();
-            ByteProcessor source = sheet.getPicture().getSource(Picture.SourceKey.GRAY);
+            PixelSource source = sheet.getPicture().getGrayPixelSource();
 
             if (source != null) {
                 PixelFilter filter = desc.getFilter(source);
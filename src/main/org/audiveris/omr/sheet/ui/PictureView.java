@@ -36,6 +36,7 @@ import org.audiveris.omr.ui.selection.MouseMovement;
 import org.audiveris.omr.ui.selection.SelectionService;
 import org.audiveris.omr.ui.view.RubberPanel;
 import org.audiveris.omr.ui.view.ScrollView;
+import org.audiveris.omr.ui.view.TileCache;
 import org.audiveris.omr.util.WeakPropertyChangeListener;
 
 import org.slf4j.Logger;
@@ -131,6 +132,9 @@ public class PictureView
             extends RubberPanel
     {
 
+        /** Cache of rasterized input tiles. */
+        private final TileCache tileCache = new TileCache();
+
         //-----------------//
         // contextSelected //
         //-----------------//
@@ -159,13 +163,11 @@ public class PictureView
             g.setRenderingHint(KEY_ANTIALIASING, VALUE_ANTIALIAS_OFF);
 
             if (input) {
-                final Picture picture = sheet.getPicture();
-
                 if (sheetTab == SheetTab.GRAY_TAB) {
-                    final BufferedImage gray = picture.getGrayImage();
-                    g.drawRenderedImage(gray, null);
+                    tileCache.render(g, sheetTab, this::renderGray);
                 } else if (table != null) {
-                    table.render(g, new Point(0, 0));
+                    // Key on table instance, to ignore tiles of any previous binarization
+                    tileCache.render(g, table, gg -> table.render(gg, new Point(0, 0)));
                 }
             }
 
@@ -204,8 +206,7 @@ public class PictureView
                 final Picture picture = sheet.getPicture();
 
                 if (sheetTab == SheetTab.GRAY_TAB) {
-                    BufferedImage gray = picture.getGrayImage();
-                    ok = gray != null;
+                    ok = picture.isGrayAvailable();
                 } else {
                     BufferedImage binary = picture.getImage(Picture.ImageKey.BINARY);
                     ok = binary != null;
@@ -240,5 +241,32 @@ public class PictureView
                 }.execute();
             }
         }
+
+        //------------//
+        // renderGray //
+        //------------//
+        /**
+         * Draw only the visible part of gray image.
+         *
+         * @param g graphics context, clipped on visible area
+         */
+        private void renderGray (Graphics2D g)
+        {
+            final Picture picture = sheet.getPicture();
+            Rectangle visible = new Rectangle(0, 0, picture.getWidth(), picture.getHeight());
+            final Rectangle clip = g.getClipBounds();
+
+            if (clip != null) {
+                visible = visible.intersection(clip);
+            }
+
+            if (!visible.isEmpty()) {
+                final BufferedImage gray = picture.getGrayRectangle(visible);
+
+                if (gray != null) {
+                    g.drawImage(gray, visible.x, visible.y, null);
+                }
+            }
+        }
     }
 }
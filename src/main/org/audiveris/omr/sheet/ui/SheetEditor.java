@@ -72,6 +72,7 @@ import org.audiveris.omr.ui.symbol.MusicFamily;
 import org.audiveris.omr.ui.symbol.MusicFont;
 import org.audiveris.omr.ui.util.UIUtil;
 import org.audiveris.omr.ui.view.ScrollView;
+import org.audiveris.omr.ui.view.TileCache;
 import org.audiveris.omr.util.Navigable;
 
 import org.slf4j.Logger;
@@ -119,6 +120,12 @@ public class SheetEditor
 
     private static final Logger logger = LoggerFactory.getLogger(SheetEditor.class);
 
+    /** Key for cached tiles of input layer. */
+    private static final Object INPUT_LAYER = "input";
+
+    /** Key for cached tiles of output layer. */
+    private static final Object OUTPUT_LAYER = "output";
+
     //~ Instance fields ----------------------------------------------------------------------------
 
     /** Related sheet. */
@@ -465,6 +472,7 @@ public class SheetEditor
     @Override
     public void propertyChange (PropertyChangeEvent evt)
     {
+        view.tileCache.invalidateAll();
         view.repaint();
     }
 
@@ -477,6 +485,25 @@ public class SheetEditor
      */
     public void refresh ()
     {
+        refresh(null);
+    }
+
+    //---------//
+    // refresh //
+    //---------//
+    /**
+     * Refresh the UI display, after a modification limited to the provided area.
+     *
+     * @param area the modified area (in sheet coordinates), null for the whole sheet
+     */
+    public void refresh (Rectangle area)
+    {
+        if (area != null) {
+            view.tileCache.invalidate(area);
+        } else {
+            view.tileCache.invalidateAll();
+        }
+
         view.repaint();
     }
 
@@ -572,6 +599,12 @@ public class SheetEditor
         /** When sequence of keys are typed. */
         private final SheetKeyListener keyListener = new SheetKeyListener();
 
+        /** Cache of rasterized input and output tiles. */
+        private final TileCache tileCache = new TileCache();
+
+        /** Sheet step stamp when tiles were cached. */
+        private int cachedStepStamp = -1;
+
         private EditorView (GlyphIndex glyphIndex)
         {
             super(
@@ -914,40 +947,21 @@ public class SheetEditor
                 }
             }
 
-            if (viewParams.isInputPainting()) {
-                // Sections
-                final boolean drawBorders = viewParams
-                        .getSelectionMode() == SelectionMode.MODE_SECTION;
-                final Stroke oldStroke = (drawBorders) ? UIUtil.setAbsoluteStroke(g, 1f) : null;
-
-                for (Lag lag : lags) {
-                    // Render all sections, using H/V assigned colors
-                    for (Section section : lag.getEntities()) {
-                        section.render(g, drawBorders, null);
-                    }
-                }
+            // Sheet content is stable only when no step is running and no object is being edited
+            final boolean cacheable = (sheet.getStub().getCurrentStep() == null)
+                    && (objectEditor == null);
+            final int stepStamp = sheet.getStub().getStepStamp();
 
-                if (oldStroke != null) {
-                    g.setStroke(oldStroke);
-                }
+            if (!cacheable || (stepStamp != cachedStepStamp)) {
+                tileCache.invalidateAll();
+                cachedStepStamp = cacheable ? stepStamp : -1;
+            }
 
-                // Inters (with graded colors)
-                new SheetGradedPainter(
-                        sheet,
-                        g,
-                        viewParams.isVoicePainting(),
-                        viewParams.isTranslucentPainting()).process();
-
-                // Display staff line splines?
-                if (ViewParameters.getInstance().isStaffLinePainting()) {
-                    g.setColor(Color.LIGHT_GRAY);
-                    UIUtil.setAbsoluteStroke(g, 1f);
-
-                    for (SystemInfo system : sheet.getSystems()) {
-                        for (Staff staff : system.getStaves()) {
-                            staff.render(g);
-                        }
-                    }
+            if (viewParams.isInputPainting()) {
+                if (cacheable) {
+                    tileCache.render(g, INPUT_LAYER, this::renderInput);
+                } else {
+                    renderInput(g);
                 }
             }
 
@@ -955,17 +969,61 @@ public class SheetEditor
                 // Inters (with opaque colors)
                 g.setRenderingHint(KEY_ANTIALIASING, VALUE_ANTIALIAS_ON);
 
-                boolean mixed = viewParams.isInputPainting();
-                g.setColor(mixed ? Colors.MUSIC_SYMBOLS : Colors.MUSIC_ALONE);
-
-                final boolean coloredVoices = mixed ? false : viewParams.isVoicePainting();
-                final boolean annots = viewParams.isAnnotationPainting();
-                new SheetResultPainter(sheet, g, coloredVoices, false, annots).process();
+                if (cacheable) {
+                    tileCache.render(g, OUTPUT_LAYER, this::renderOutput);
+                } else {
+                    renderOutput(g);
+                }
             }
 
             g.setColor(oldColor);
         }
 
+        //-------------//
+        // renderInput //
+        //-------------//
+        /**
+         * Render sections, graded inters and perhaps staff lines.
+         *
+         * @param g graphics context
+         */
+        private void renderInput (Graphics2D g)
+        {
+            // Sections
+            final boolean drawBorders = viewParams.getSelectionMode() == SelectionMode.MODE_SECTION;
+            final Stroke oldStroke = (drawBorders) ? UIUtil.setAbsoluteStroke(g, 1f) : null;
+
+            for (Lag lag : lags) {
+                // Render all sections, using H/V assigned colors
+                for (Section section : lag.getEntities()) {
+                    section.render(g, drawBorders, null);
+                }
+            }
+
+            if (oldStroke != null) {
+                g.setStroke(oldStroke);
+            }
+
+            // Inters (with graded colors)
+            new SheetGradedPainter(
+                    sheet,
+                    g,
+                    viewParams.isVoicePainting(),
+                    viewParams.isTranslucentPainting()).process();
+
+            // Display staff line splines?
+            if (ViewParameters.getInstance().isStaffLinePainting()) {
+                g.setColor(Color.LIGHT_GRAY);
+                UIUtil.setAbsoluteStroke(g, 1f);
+
+                for (SystemInfo system : sheet.getSystems()) {
+                    for (Staff staff : system.getStaves()) {
+                        staff.render(g);
+                    }
+                }
+            }
+        }
+
         //-------------//
         // renderItems //
         //-------------//
@@ -1048,6 +1106,24 @@ public class SheetEditor
             }
         }
 
+        //--------------//
+        // renderOutput //
+        //--------------//
+        /**
+         * Render inters with opaque colors.
+         *
+         * @param g graphics context
+         */
+        private void renderOutput (Graphics2D g)
+        {
+            final boolean mixed = viewParams.isInputPainting();
+            g.setColor(mixed ? Colors.MUSIC_SYMBOLS : Colors.MUSIC_ALONE);
+
+            final boolean coloredVoices = mixed ? false : viewParams.isVoicePainting();
+            final boolean annots = viewParams.isAnnotationPainting();
+            new SheetResultPainter(sheet, g, coloredVoices, false, annots).process();
+        }
+
         //--------------//
         // selectEditor //
         //--------------//
@@ -23,8 +23,8 @@ package org.audiveris.omr.sig.inter;
 
 import org.audiveris.omr.glyph.Glyph;
 import org.audiveris.omr.glyph.Shape;
-import org.audiveris.omr.math.AreaUtil;
 import org.audiveris.omr.math.PointUtil;
+import org.audiveris.omr.math.Ribbon;
 import org.audiveris.omr.run.Orientation;
 import org.audiveris.omr.sig.GradeImpacts;
 import org.audiveris.omr.util.Jaxb;
@@ -161,11 +161,11 @@ public class AbstractHorizontalInter
      */
     protected final void computeArea ()
     {
-        setArea(AreaUtil.horizontalParallelogram(median.getP1(), median.getP2(), height));
+        setRibbon(Ribbon.horizontal(median.getP1(), median.getP2(), height));
 
         // Define precise bounds based on this path
         // NOTA: these bounds may go slightly beyond the sheet image limits...
-        bounds = getArea().getBounds();
+        bounds = ribbon.getBounds();
     }
 
     //----------//
@@ -184,11 +184,11 @@ public class AbstractHorizontalInter
             return true;
         }
 
-        if (area == null) {
+        if (ribbon == null) {
             computeArea();
         }
 
-        return area.contains(point);
+        return ribbon.contains(point);
     }
 
     //-----------//
@@ -225,11 +225,11 @@ public class AbstractHorizontalInter
             return new Rectangle(bounds = glyph.getBounds());
         }
 
-        if (area == null) {
+        if (ribbon == null) {
             computeArea();
         }
 
-        return new Rectangle(bounds = area.getBounds());
+        return new Rectangle(bounds = ribbon.getBounds());
     }
 
     //-----------//
@@ -27,6 +27,7 @@ import org.audiveris.omr.glyph.Grades;
 import org.audiveris.omr.glyph.Shape;
 import org.audiveris.omr.math.AreaUtil;
 import org.audiveris.omr.math.GeoUtil;
+import org.audiveris.omr.math.Ribbon;
 import org.audiveris.omr.sheet.Part;
 import org.audiveris.omr.sheet.Profiles;
 import org.audiveris.omr.sheet.Sheet;
@@ -190,6 +191,9 @@ public abstract class AbstractInter
     /** Object precise area, if any. */
     protected Area area;
 
+    /** Lightweight ribbon, if any, from which area is derived. */
+    protected Ribbon ribbon;
+
     /** Details about grade. */
     protected GradeImpacts impacts;
 
@@ -274,6 +278,10 @@ public abstract class AbstractInter
     {
         Objects.requireNonNull(attachment, "Adding a null attachment");
 
+        if (!BasicAttachmentHolder.isEnabled()) {
+            return;
+        }
+
         if (attachments == null) {
             attachments = new BasicAttachmentHolder();
         }
@@ -343,6 +351,10 @@ public abstract class AbstractInter
             return glyph.contains(point);
         }
 
+        if (ribbon != null) {
+            return ribbon.contains(point);
+        }
+
         if (area != null) {
             return area.contains(point);
         }
@@ -474,11 +486,19 @@ public abstract class AbstractInter
     // getArea //
     //---------//
     /**
+     * {@inheritDoc}
+     * <p>
+     * If the inter is defined by a ribbon, the area is lazily derived from it.
+     *
      * @return the area, if any
      */
     @Override
     public Area getArea ()
     {
+        if ((area == null) && (ribbon != null)) {
+            area = ribbon.toArea();
+        }
+
         return area;
     }
 
@@ -810,6 +830,15 @@ public abstract class AbstractInter
         return getRelationCenter(); // By default
     }
 
+    //-----------//
+    // getRibbon //
+    //-----------//
+    @Override
+    public Ribbon getRibbon ()
+    {
+        return ribbon;
+    }
+
     //----------//
     // getShape //
     //----------//
@@ -1180,6 +1209,23 @@ public abstract class AbstractInter
             return Glyphs.intersect(this.getGlyph(), that.getGlyph(), false);
         }
 
+        // Ribbon <--> that?
+        if (this.ribbon != null) {
+            if (that.getRibbon() != null) {
+                // Ribbon <--> Ribbon?
+                return this.ribbon.intersects(that.getRibbon());
+            } else if (that.getArea() != null) {
+                // Ribbon <--> Area?
+                return AreaUtil.intersection(this.getArea(), that.getArea());
+            } else if (that.getGlyph() != null) {
+                // Ribbon <--> Glyph?
+                return that.getGlyph().intersects(this.ribbon);
+            } else {
+                // Ribbon <--> Bounds
+                return this.ribbon.intersects(that.getBounds());
+            }
+        }
+
         // Area <--> that?
         if (this.area != null) {
             if (that.getArea() != null) {
@@ -1447,6 +1493,7 @@ public abstract class AbstractInter
     public void setArea (Area area)
     {
         this.area = area;
+        this.ribbon = null;
     }
 
     //-----------//
@@ -1545,6 +1592,20 @@ public abstract class AbstractInter
         this.part = part;
     }
 
+    //-----------//
+    // setRibbon //
+    //-----------//
+    /**
+     * Set the underlying ribbon, the area being then lazily derived from it.
+     *
+     * @param ribbon the ribbon to set
+     */
+    public void setRibbon (Ribbon ribbon)
+    {
+        this.ribbon = ribbon;
+        this.area = null;
+    }
+
     //--------//
     // setSig //
     //--------//
@@ -23,8 +23,8 @@ package org.audiveris.omr.sig.inter;
 
 import org.audiveris.omr.glyph.Glyph;
 import org.audiveris.omr.glyph.Shape;
-import org.audiveris.omr.math.AreaUtil;
 import org.audiveris.omr.math.PointUtil;
+import org.audiveris.omr.math.Ribbon;
 import static org.audiveris.omr.run.Orientation.VERTICAL;
 import org.audiveris.omr.sheet.ui.ObjectUIModel;
 import org.audiveris.omr.sig.GradeImpacts;
@@ -33,7 +33,6 @@ import org.audiveris.omr.util.Jaxb;
 
 import java.awt.Rectangle;
 import java.awt.geom.Line2D;
-import java.awt.geom.Path2D;
 import java.awt.geom.Point2D;
 
 import javax.xml.bind.Unmarshaller;
@@ -186,10 +185,10 @@ public abstract class AbstractVerticalInter
     //-------------//
     protected void computeArea ()
     {
-        setArea(AreaUtil.verticalRibbon(new Path2D.Double(median), getWidth()));
+        setRibbon(Ribbon.vertical(median, getWidth()));
 
         // Define precise bounds based on this path
-        bounds = getArea().getBounds();
+        bounds = ribbon.getBounds();
     }
 
     //-----------//
@@ -217,10 +216,14 @@ public abstract class AbstractVerticalInter
             return new Rectangle(bounds);
         }
 
-        if ((area == null) && (median != null) && (getWidth() != null)) {
+        if ((area == null) && (ribbon == null) && (median != null) && (getWidth() != null)) {
             computeArea();
         }
 
+        if (ribbon != null) {
+            return new Rectangle(bounds = ribbon.getBounds());
+        }
+
         if (area != null) {
             return new Rectangle(bounds = area.getBounds());
         }
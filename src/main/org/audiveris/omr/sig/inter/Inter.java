@@ -23,6 +23,7 @@ package org.audiveris.omr.sig.inter;
 
 import org.audiveris.omr.glyph.Glyph;
 import org.audiveris.omr.glyph.Shape;
+import org.audiveris.omr.math.Ribbon;
 import org.audiveris.omr.sheet.Part;
 import org.audiveris.omr.sheet.Sheet;
 import org.audiveris.omr.sheet.Staff;
@@ -290,6 +291,16 @@ public interface Inter
      */
     Point2D getRelationCenter (Relation relation);
 
+    /**
+     * Report the lightweight ribbon that defines the inter area, if any.
+     * <p>
+     * When present, it is meant for geometric tests, the {@link #getArea()} being then
+     * derived from it only for rendering.
+     *
+     * @return the inter ribbon, or null
+     */
+    Ribbon getRibbon ();
+
     /**
      * Report the shape related to interpretation.
      *
@@ -21,7 +21,9 @@
 // </editor-fold>
 package org.audiveris.omr.sig.inter;
 
+import org.audiveris.omr.math.ConvexQuad;
 import org.audiveris.omr.math.GeoOrder;
+import org.audiveris.omr.math.Ribbon;
 import static org.audiveris.omr.math.GeoOrder.BY_ABSCISSA;
 import static org.audiveris.omr.math.GeoOrder.BY_ORDINATE;
 import org.audiveris.omr.sheet.Staff;
@@ -30,6 +32,7 @@ import org.audiveris.omr.util.Entities;
 
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.awt.Shape;
 import java.awt.geom.Area;
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
@@ -573,6 +576,54 @@ public abstract class Inters
     public static List<Inter> intersectedInters (List<Inter> inters,
                                                  GeoOrder order,
                                                  Area area)
+    {
+        return shapeIntersectedInters(inters, order, area);
+    }
+
+    //-------------------//
+    // intersectedInters //
+    //-------------------//
+    /**
+     * Look up the provided list of interpretations for those whose bounds intersect the
+     * given convex quadrilateral.
+     *
+     * @param inters the list of interpretations to search
+     * @param order  if the list is already sorted by some order, this may speed up the search
+     * @param quad   the intersecting quadrilateral
+     * @return the list of intersected interpretations found, perhaps empty but not null
+     */
+    public static List<Inter> intersectedInters (List<Inter> inters,
+                                                 GeoOrder order,
+                                                 ConvexQuad quad)
+    {
+        return shapeIntersectedInters(inters, order, quad);
+    }
+
+    //-------------------//
+    // intersectedInters //
+    //-------------------//
+    /**
+     * Look up the provided list of interpretations for those whose bounds intersect the
+     * given ribbon.
+     *
+     * @param inters the list of interpretations to search
+     * @param order  if the list is already sorted by some order, this may speed up the search
+     * @param ribbon the intersecting ribbon
+     * @return the list of intersected interpretations found, perhaps empty but not null
+     */
+    public static List<Inter> intersectedInters (List<Inter> inters,
+                                                 GeoOrder order,
+                                                 Ribbon ribbon)
+    {
+        return shapeIntersectedInters(inters, order, ribbon);
+    }
+
+    //------------------------//
+    // shapeIntersectedInters //
+    //------------------------//
+    private static List<Inter> shapeIntersectedInters (List<Inter> inters,
+                                                       GeoOrder order,
+                                                       Shape area)
     {
         final List<Inter> found = new ArrayList<>();
         final Rectangle bounds = area.getBounds();
@@ -25,8 +25,8 @@ import org.audiveris.omr.constant.Constant;
 import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.glyph.Glyph;
 import org.audiveris.omr.glyph.Shape;
-import org.audiveris.omr.math.AreaUtil;
 import org.audiveris.omr.math.PointUtil;
+import org.audiveris.omr.math.Ribbon;
 import org.audiveris.omr.run.Orientation;
 import org.audiveris.omr.sheet.Scale;
 import org.audiveris.omr.sheet.Sheet;
@@ -229,10 +229,10 @@ public class LedgerInter
      */
     protected final void computeArea ()
     {
-        setArea(AreaUtil.horizontalParallelogram(median.getP1(), median.getP2(), thickness));
+        setRibbon(Ribbon.horizontal(median.getP1(), median.getP2(), thickness));
 
         // Define precise bounds based on this path
-        bounds = getArea().getBounds();
+        bounds = ribbon.getBounds();
     }
 
     //----------//
@@ -251,11 +251,11 @@ public class LedgerInter
             return true;
         }
 
-        if (area == null) {
+        if (ribbon == null) {
             computeArea();
         }
 
-        return area.contains(point);
+        return ribbon.contains(point);
     }
 
     //------------//
@@ -290,11 +290,11 @@ public class LedgerInter
             return new Rectangle(bounds = glyph.getBounds());
         }
 
-        if (area == null) {
+        if (ribbon == null) {
             computeArea();
         }
 
-        return new Rectangle(bounds = area.getBounds());
+        return new Rectangle(bounds = ribbon.getBounds());
     }
 
     //------------//
@@ -822,8 +822,10 @@ public class OctaveShiftInter
         switch (side) {
         case LEFT:
             leftExtension = other;
+            break;
         case RIGHT:
             rightExtension = other;
+            break;
         }
     }
 
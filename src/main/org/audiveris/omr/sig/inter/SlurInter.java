@@ -65,7 +65,6 @@ import org.slf4j.LoggerFactory;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
-import java.awt.geom.Area;
 import java.awt.geom.CubicCurve2D;
 import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
@@ -842,7 +841,7 @@ public class SlurInter
         SlurLinker slurLinker = new SlurLinker(system.getSheet());
 
         // Define slur side areas
-        Map<HorizontalSide, Area> sideAreas = slurLinker.defineAreaPair(this);
+        Map<HorizontalSide, java.awt.Shape> sideAreas = slurLinker.defineAreaPair(this);
 
         // Retrieve candidate chords
         Map<HorizontalSide, List<Inter>> chords = new EnumMap<>(HorizontalSide.class);
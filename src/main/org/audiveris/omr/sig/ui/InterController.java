@@ -755,7 +755,7 @@ public class InterController
         history.clear();
 
         if (sheetEditor != null) {
-            refreshUI();
+            refreshUI(null);
         }
     }
 
@@ -1072,6 +1072,57 @@ public class InterController
         return boundsArray;
     }
 
+    //--------------//
+    // impactedArea //
+    //--------------//
+    /**
+     * Report the sheet area whose display may be impacted by the provided task sequence.
+     * <p>
+     * Since rhythm may get reprocessed at page level, we take the whole area of every page
+     * involved.
+     *
+     * @param seq the task sequence performed, perhaps null
+     * @return the impacted area, or null if not precisely known
+     */
+    private Rectangle impactedArea (UITaskList seq)
+    {
+        if ((seq == null) || seq.getTasks().isEmpty()) {
+            return null;
+        }
+
+        final Set<Page> pages = new LinkedHashSet<>();
+
+        for (UITask task : seq.getTasks()) {
+            final SIGraph sig = task.getSig();
+
+            if ((task instanceof SystemMergeTask) || (sig == null) || (sig.getSystem() == null)) {
+                return null;
+            }
+
+            pages.add(sig.getSystem().getPage());
+        }
+
+        Rectangle area = null;
+
+        for (Page page : pages) {
+            for (SystemInfo system : page.getSystems()) {
+                final Rectangle bounds = system.getBounds();
+
+                if (bounds == null) {
+                    return null;
+                }
+
+                if (area == null) {
+                    area = bounds;
+                } else {
+                    area.add(bounds);
+                }
+            }
+        }
+
+        return area;
+    }
+
     //------//
     // link //
     //------//
@@ -1391,12 +1442,14 @@ public class InterController
     //-----------//
     /**
      * Refresh UI after any user action sequence.
+     *
+     * @param seq the action sequence performed, if any
      */
     @UIThread
-    private void refreshUI ()
+    private void refreshUI (UITaskList seq)
     {
-        // Update editor display
-        sheetEditor.refresh();
+        // Update editor display, limited to impacted area
+        sheetEditor.refresh(impactedArea(seq));
 
         // Update status of undo/redo actions
         final BookActions bookActions = BookActions.getInstance();
@@ -1987,7 +2040,7 @@ public class InterController
             }
 
             // Refresh user display
-            refreshUI();
+            refreshUI(seq);
         }
     }
 
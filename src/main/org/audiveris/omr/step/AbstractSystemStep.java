@@ -26,6 +26,7 @@ import org.audiveris.omr.OMR;
 import org.audiveris.omr.log.LogUtil;
 import org.audiveris.omr.sheet.Sheet;
 import org.audiveris.omr.sheet.SystemInfo;
+import org.audiveris.omr.util.Metrics;
 import org.audiveris.omr.util.OmrExecutors;
 
 import org.slf4j.Logger;
@@ -156,7 +157,19 @@ public abstract class AbstractSystemStep<C>
 
                         logger.debug("{} doSystem #{}", AbstractSystemStep.this, system.getId());
 
+                        final Metrics.Probe probe = Metrics.start();
+                        final OmrEvents.StepEvent event = new OmrEvents.StepEvent();
+                        event.begin();
                         doSystem(system, context);
+
+                        if (event.shouldCommit()) {
+                            event.tag(sheet, system);
+                            event.commit();
+                        }
+
+                        if (probe != null) {
+                            recordMetrics(probe, sheet, system);
+                        }
                     } catch (StepException ex) {
                         logger.warn(system.getLogPrefix() + ex, ex);
                     } finally {
@@ -218,4 +231,28 @@ public abstract class AbstractSystemStep<C>
     public abstract void doSystem (SystemInfo system,
                                    C context)
         throws StepException;
+
+    //---------------//
+    // recordMetrics //
+    //---------------//
+    /**
+     * Record the metrics of this step just completed on the provided system.
+     *
+     * @param probe  the probe started at system processing beginning
+     * @param sheet  the containing sheet
+     * @param system the processed system
+     */
+    private void recordMetrics (Metrics.Probe probe,
+                                Sheet sheet,
+                                SystemInfo system)
+    {
+        final OmrStep step = sheet.getStub().getCurrentStep();
+        Metrics.recordStep(
+                probe,
+                sheet.getId(),
+                system.getId(),
+                (step != null) ? step.name() : getClass().getSimpleName(),
+                system.getFreeGlyphCount(),
+                system.getSig().vertexSet().size());
+    }
 }
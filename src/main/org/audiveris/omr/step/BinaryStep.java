@@ -25,6 +25,7 @@ import org.audiveris.omr.constant.Constant;
 import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.image.FilterDescriptor;
 import org.audiveris.omr.image.PixelFilter;
+import org.audiveris.omr.image.PixelSource;
 import org.audiveris.omr.run.Orientation;
 import org.audiveris.omr.run.RunTable;
 import org.audiveris.omr.run.RunTableFactory;
@@ -88,7 +89,7 @@ public class BinaryStep
         watch.start("Getting initial source");
 
         Picture picture = sheet.getPicture();
-        ByteProcessor initial = picture.getSource(SourceKey.GRAY);
+        PixelSource initial = picture.getGrayPixelSource();
 
         FilterDescriptor desc = sheet.getStub().getBinarizationFilter();
         logger.debug("{}", "Binarization");
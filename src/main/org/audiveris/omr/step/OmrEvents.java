@@ -0,0 +1,289 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                        O m r E v e n t s                                       //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.step;
+
+import org.audiveris.omr.sheet.Sheet;
+import org.audiveris.omr.sheet.SystemInfo;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.List;
+
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+
+/**
+ * Class <code>OmrEvents</code> gathers the Java Flight Recorder event types emitted along the
+ * OMR pipeline, and handles the flight recording requested from the command line.
+ * <p>
+ * Every event is tagged with sheet id, system id and step, so that CPU time and allocations
+ * can be attributed to pipeline stages rather than to generic JDK frames.
+ * <p>
+ * These events are also available to any recording started outside of Audiveris, for example
+ * via the JVM option <code>-XX:StartFlightRecording</code>.
+ * When no recording is active, events are simply dropped and their tags are not even computed.
+ *
+ * @author Hervé Bitteur
+ */
+public abstract class OmrEvents
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Logger logger = LoggerFactory.getLogger(OmrEvents.class);
+
+    /** All OMR event types. */
+    private static final List<Class<? extends Event>> types = Arrays.asList(
+            BookIoEvent.class,
+            ClassificationEvent.class,
+            HeadTemplatesEvent.class,
+            OcrEvent.class,
+            StepEvent.class);
+
+    /** Recording started from command line, if any. */
+    private static Recording recording;
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    // Class is not meant to be instantiated.
+    private OmrEvents ()
+    {
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    //----------------//
+    // startRecording //
+    //----------------//
+    /**
+     * Start a flight recording, based on JDK "default" settings plus all OMR events.
+     * <p>
+     * The recording is written to the provided file when stopped, or at JVM exit.
+     *
+     * @param path target recording file
+     */
+    public static synchronized void startRecording (Path path)
+    {
+        if (recording != null) {
+            logger.warn("Flight recording already started");
+
+            return;
+        }
+
+        try {
+            recording = new Recording(Configuration.getConfiguration("default"));
+
+            for (Class<? extends Event> type : types) {
+                recording.enable(type);
+            }
+
+            recording.setName("Audiveris");
+            recording.setDestination(path);
+            recording.setDumpOnExit(true);
+            recording.start();
+            logger.info("Flight recording to {}", path);
+        } catch (IOException | ParseException | RuntimeException ex) {
+            logger.warn("Could not start flight recording {}", ex.toString(), ex);
+            recording = null;
+        }
+    }
+
+    //---------------//
+    // stopRecording //
+    //---------------//
+    /**
+     * Stop the flight recording if any, and write it to its target file.
+     */
+    public static synchronized void stopRecording ()
+    {
+        if (recording != null) {
+            recording.stop();
+            recording.close();
+            recording = null;
+        }
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-------------//
+    // BookIoEvent //
+    //-------------//
+    /**
+     * Storing a book or loading a sheet from book file.
+     */
+    @Name("org.audiveris.omr.BookIo")
+    @Label("Book I/O")
+    @Description("Book stored to or sheet loaded from book file")
+    public static class BookIoEvent
+            extends OmrEvent
+    {
+
+        @Label("Book")
+        public String book;
+
+        @Label("Operation")
+        public String operation;
+    }
+
+    //---------------------//
+    // ClassificationEvent //
+    //---------------------//
+    /**
+     * Evaluation of a glyph by a shape classifier.
+     */
+    @Name("org.audiveris.omr.Classification")
+    @Label("Classification")
+    @Description("Glyph evaluated by a shape classifier")
+    public static class ClassificationEvent
+            extends OmrEvent
+    {
+
+        @Label("Classifier")
+        public String classifier;
+
+        @Label("Glyph")
+        public int glyph;
+
+        @Label("Shape")
+        @Description("Best shape kept, if any")
+        public String shape;
+    }
+
+    //--------------------//
+    // HeadTemplatesEvent //
+    //--------------------//
+    /**
+     * Template matching of head shapes along a staff line or ledger.
+     */
+    @Name("org.audiveris.omr.HeadTemplates")
+    @Label("Head Templates")
+    @Description("Head templates matched along a line or ledger")
+    public static class HeadTemplatesEvent
+            extends OmrEvent
+    {
+
+        @Label("Pitch")
+        public int pitch;
+
+        @Label("Seeds")
+        @Description("Lookup driven by stem seeds, rather than by abscissa range")
+        public boolean seeds;
+
+        @Label("Heads")
+        @Description("Number of heads found")
+        public int heads;
+    }
+
+    //----------//
+    // OcrEvent //
+    //----------//
+    /**
+     * OCR order processed by Tesseract.
+     */
+    @Name("org.audiveris.omr.Ocr")
+    @Label("OCR")
+    @Description("Image processed by OCR")
+    public static class OcrEvent
+            extends OmrEvent
+    {
+
+        @Label("Label")
+        public String label;
+
+        @Label("Language")
+        public String language;
+
+        @Label("Lines")
+        @Description("Number of text lines found")
+        public int lines;
+    }
+
+    //----------//
+    // OmrEvent //
+    //----------//
+    /**
+     * Common part of OMR events: the sheet, system and step processed.
+     */
+    @Category({"Audiveris", "OMR"})
+    public abstract static class OmrEvent
+            extends Event
+    {
+
+        @Label("Sheet")
+        public String sheet;
+
+        @Label("System")
+        @Description("System id, 0 for no specific system")
+        public int system;
+
+        @Label("Step")
+        public String step;
+
+        /**
+         * Tag this event with the provided sheet and system, and with the step currently
+         * performed on the sheet.
+         *
+         * @param sheet  the sheet processed, perhaps null
+         * @param system the system processed, perhaps null
+         */
+        public void tag (Sheet sheet,
+                         SystemInfo system)
+        {
+            if (sheet != null) {
+                this.sheet = sheet.getId();
+
+                final OmrStep current = sheet.getStub().getCurrentStep();
+
+                if (current != null) {
+                    step = current.name();
+                }
+            }
+
+            if (system != null) {
+                this.system = system.getId();
+            }
+        }
+    }
+
+    //-----------//
+    // StepEvent //
+    //-----------//
+    /**
+     * Step performed on a whole sheet or on a single system.
+     */
+    @Name("org.audiveris.omr.Step")
+    @Label("Step")
+    @Description("Step performed on a sheet or on a system")
+    public static class StepEvent
+            extends OmrEvent
+    {
+    }
+}
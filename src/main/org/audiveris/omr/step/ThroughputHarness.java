@@ -0,0 +1,772 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                T h r o u g h p u t H a r n e s s                               //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.step;
+
+import org.audiveris.omr.OMR;
+import org.audiveris.omr.WellKnowns;
+import org.audiveris.omr.glyph.Glyph;
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+import org.audiveris.omr.score.PartwiseBuilder;
+import org.audiveris.omr.score.Score;
+import org.audiveris.omr.sheet.Book;
+import org.audiveris.omr.sheet.Sheet;
+import org.audiveris.omr.sheet.SheetStub;
+import org.audiveris.omr.sheet.SystemInfo;
+import org.audiveris.omr.sheet.rhythm.Voice;
+import org.audiveris.omr.sig.SIGraph;
+import org.audiveris.omr.sig.inter.AbstractChordInter;
+import org.audiveris.omr.sig.inter.Inter;
+import org.audiveris.omr.sig.relation.Relation;
+import org.audiveris.omr.text.OcrUtil;
+import org.audiveris.omr.util.OmrExecutors;
+import org.audiveris.omr.util.Memory;
+import org.audiveris.omr.util.Metrics;
+import org.audiveris.proxymusic.ScorePartwise;
+import org.audiveris.proxymusic.util.Marshalling;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Class <code>ThroughputHarness</code> measures the end-to-end throughput of the OMR pipeline
+ * on a fixed corpus of inputs, and compares it with a stored baseline.
+ * <p>
+ * Each input is transcribed through all steps, a few times without measurement to warm up the
+ * JVM, then several times with measurement.
+ * For each input, the harness records:
+ * <ul>
+ * <li>The median duration of each step, and of the whole transcription,
+ * <li>The peak heap usage,
+ * <li>The heap retained per sheet once the transcription is complete, that is the memory
+ * footprint of a transcribed sheet in this (headless) mode,
+ * <li>A checksum of the resulting MusicXML, and a checksum of the resulting sheet model.
+ * </ul>
+ * These results are compared with the baseline file: a duration or a heap usage beyond the
+ * tolerance ratio, or an output checksum which no longer matches, is a regression, and so is
+ * an output checksum which varies from one run to the other or is missing from the baseline.
+ * <p>
+ * A missing baseline file is a failure as well: the baseline is (re)written with the current
+ * results only on explicit request, via the <code>updateBaseline</code> constant.
+ * The baseline records the environment it was measured in (number of processors, OCR
+ * availability) and is not compared against when the current environment differs, nor when it
+ * is flagged as a placeholder.
+ * <p>
+ * The harness is launched in batch by the <code>-throughput</code> CLI option, or by the
+ * <code>throughput</code> Gradle task.
+ *
+ * @author Hervé Bitteur
+ */
+public abstract class ThroughputHarness
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Constants constants = new Constants();
+
+    private static final Logger logger = LoggerFactory.getLogger(ThroughputHarness.class);
+
+    /** Baseline key which flags a baseline not to be compared against. */
+    private static final String PLACEHOLDER = "placeholder";
+
+    /** Value recorded for an output checksum that varies from one run to the other. */
+    private static final String UNSTABLE = "unstable";
+
+    /** MusicXML identification, which depends on software version and input location. */
+    private static final Pattern IDENTIFICATION = Pattern.compile(
+            "(?s)<identification>.*?</identification>");
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /** Not meant to be instantiated. */
+    private ThroughputHarness ()
+    {
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    //---------//
+    // compare //
+    //---------//
+    /**
+     * Compare current results with baseline results.
+     *
+     * @param current  current results
+     * @param baseline baseline results
+     * @return the number of regressions
+     */
+    private static int compare (Map<String, String> current,
+                                Properties baseline)
+    {
+        final double tolerance = constants.tolerance.getValue();
+        final int minDuration = constants.minDuration.getValue();
+        int regressions = 0;
+
+        for (Entry<String, String> entry : current.entrySet()) {
+            final String key = entry.getKey();
+            final String value = entry.getValue();
+            final String ref = baseline.getProperty(key);
+            String flag = "";
+
+            if (key.endsWith(".sha")) {
+                // Output checksums must always be compared
+                if (UNSTABLE.equals(value)) {
+                    flag = "<== OUTPUT UNSTABLE";
+                } else if (ref == null) {
+                    flag = "<== NO BASELINE OUTPUT";
+                } else if (!value.equals(ref)) {
+                    flag = "<== OUTPUT DIFFERS";
+                }
+            } else if (ref == null) {
+                flag = "(no baseline)";
+            } else {
+                final double val = Double.parseDouble(value);
+                final double base = Double.parseDouble(ref);
+                final boolean beyond = val > (base * (1 + tolerance));
+
+                if (beyond && (!key.endsWith(".ms") || ((val - base) >= minDuration))) {
+                    flag = String.format(
+                            Locale.US,
+                            "<== REGRESSION %+.0f%%",
+                            (100 * (val - base)) / base);
+                }
+            }
+
+            if (flag.startsWith("<==")) {
+                regressions++;
+            }
+
+            logger.info(
+                    String.format("%-40s %16s %16s %s", key, shorten(value), shorten(ref), flag));
+        }
+
+        return regressions;
+    }
+
+    //---------------//
+    // defaultCorpus //
+    //---------------//
+    private static List<Path> defaultCorpus ()
+    {
+        final List<Path> inputs = new ArrayList<>();
+
+        for (String name : constants.corpus.getValue().split(",")) {
+            if (!name.isBlank()) {
+                inputs.add(WellKnowns.EXAMPLES_FOLDER.resolve(name.trim()));
+            }
+        }
+
+        return inputs;
+    }
+
+    //----------//
+    // describe //
+    //----------//
+    /**
+     * Describe the provided inter, regardless of its id.
+     *
+     * @param inter the inter to describe
+     * @return inter description
+     */
+    private static String describe (Inter inter)
+    {
+        final StringBuilder sb = new StringBuilder(inter.getClass().getSimpleName());
+        sb.append(' ').append(inter.getShape());
+        sb.append(' ').append(describe(inter.getBounds()));
+        sb.append(String.format(Locale.US, " %.4f", inter.getGrade()));
+
+        if (inter.getStaff() != null) {
+            sb.append(" staff:").append(inter.getStaff().getId());
+        }
+
+        final Glyph glyph = inter.getGlyph();
+
+        if (glyph != null) {
+            sb.append(" glyph:").append(describe(glyph.getBounds()));
+            sb.append('/').append(glyph.getWeight());
+        }
+
+        if (inter instanceof AbstractChordInter chord) {
+            sb.append(" offset:").append(chord.getTimeOffset());
+
+            final Voice voice = chord.getVoice();
+
+            if (voice != null) {
+                sb.append(" voice:").append(voice.getId());
+            }
+        }
+
+        return sb.toString();
+    }
+
+    //----------//
+    // describe //
+    //----------//
+    private static String describe (Rectangle box)
+    {
+        if (box == null) {
+            return "null";
+        }
+
+        return box.x + "," + box.y + "," + box.width + "," + box.height;
+    }
+
+    //-------------//
+    // environment //
+    //-------------//
+    /**
+     * Report the features of the current environment which impact the results.
+     *
+     * @return the environment entries
+     */
+    private static Map<String, String> environment ()
+    {
+        final Map<String, String> env = new TreeMap<>();
+        env.put("env.cpus", Integer.toString(Runtime.getRuntime().availableProcessors()));
+        env.put("env.ocr", Boolean.toString(OcrUtil.getOcr().isAvailable()));
+        env.put("env.parallelism", Boolean.toString(OmrExecutors.defaultParallelism.getValue()));
+
+        return env;
+    }
+
+    //--------//
+    // median //
+    //--------//
+    private static double median (List<Long> values)
+    {
+        final List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+
+        final int mid = sorted.size() / 2;
+
+        if ((sorted.size() % 2) == 0) {
+            return (sorted.get(mid - 1) + sorted.get(mid)) / 2.0;
+        }
+
+        return sorted.get(mid);
+    }
+
+    //----------//
+    // musicXml //
+    //----------//
+    /**
+     * Report the checksum of the MusicXML export of the provided scores.
+     * <p>
+     * The identification part is ignored, since it refers to software version and input location.
+     */
+    private static String musicXml (List<Score> scores)
+        throws Exception
+    {
+        final MessageDigest md = newDigest();
+
+        for (Score score : scores) {
+            final ScorePartwise scorePartwise = PartwiseBuilder.build(score);
+            final ByteArrayOutputStream os = new ByteArrayOutputStream();
+            Marshalling.marshal(scorePartwise, os, false, 2);
+
+            final String xml = os.toString(StandardCharsets.UTF_8);
+            md.update(IDENTIFICATION.matcher(xml).replaceAll("").getBytes(StandardCharsets.UTF_8));
+        }
+
+        return HexFormat.of().formatHex(md.digest());
+    }
+
+    //-----------//
+    // newDigest //
+    //-----------//
+    private static MessageDigest newDigest ()
+    {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    //----------//
+    // peakHeap //
+    //----------//
+    /**
+     * Report the peak heap usage since last reset, as the sum of heap pools peaks.
+     *
+     * @return peak heap usage, in bytes
+     */
+    private static long peakHeap ()
+    {
+        long peak = 0;
+
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+
+        return peak;
+    }
+
+    //---------//
+    // process //
+    //---------//
+    /**
+     * Transcribe the provided input once, and measure this transcription.
+     *
+     * @param input path to input file
+     * @return the measurement
+     * @throws Exception if anything goes wrong
+     */
+    private static Measure process (Path input)
+        throws Exception
+    {
+        final Measure measure = new Measure();
+
+        // Start from a clean heap
+        Memory.gc();
+        resetPeakHeap();
+        Metrics.reset();
+
+        final long occupied = Memory.occupied();
+        final long start = System.nanoTime();
+        final Book book = OMR.engine.loadInput(input);
+
+        try {
+            book.createStubs();
+
+            final List<SheetStub> stubs = Book.getValidStubs(book.getStubs());
+            final List<Score> scores = book.getScores();
+
+            if (!book.transcribe(stubs, scores, false)) {
+                logger.warn("Incomplete transcription of {}", input);
+            }
+
+            measure.totalNanos = System.nanoTime() - start;
+            measure.peakHeap = peakHeap();
+
+            // What remains referenced by the book and its sheets
+            Memory.gc();
+            measure.retainedHeap = (Memory.occupied() - occupied) / Math.max(1, stubs.size());
+
+            for (OmrStep step : OmrStep.values()) {
+                final Metrics.Timer timer = Metrics.timer("sheet." + step.name());
+
+                if (timer.getCount() > 0) {
+                    measure.stepNanos.put(step, timer.getTotalNanos());
+                }
+            }
+
+            measure.musicXml = musicXml(scores);
+            measure.sheetModel = sheetModel(stubs);
+        } finally {
+            book.close(null);
+        }
+
+        return measure;
+    }
+
+    //---------------//
+    // resetPeakHeap //
+    //---------------//
+    private static void resetPeakHeap ()
+    {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    //-----//
+    // run //
+    //-----//
+    /**
+     * Run the harness on the provided inputs, and compare results with the baseline.
+     *
+     * @param inputs       the input files, if empty the default corpus is used
+     * @param baselinePath path to baseline file, written only if updateBaseline is set
+     * @return true if no regression was detected
+     */
+    public static boolean run (List<Path> inputs,
+                               Path baselinePath)
+    {
+        final List<Path> corpus = inputs.isEmpty() ? defaultCorpus() : inputs;
+        final int warmups = constants.warmupRuns.getValue();
+        final int runs = Math.max(1, constants.measuredRuns.getValue());
+        final Map<String, String> current = new TreeMap<>();
+        boolean failure = false;
+
+        Metrics.setEnabled(true);
+
+        for (Path input : corpus) {
+            final String name = input.getFileName().toString().replace(' ', '_');
+
+            try {
+                for (int i = 1; i <= warmups; i++) {
+                    logger.info("Throughput warm-up {}/{} on {}", i, warmups, name);
+                    process(input);
+                }
+
+                final List<Measure> measures = new ArrayList<>();
+
+                for (int i = 1; i <= runs; i++) {
+                    logger.info("Throughput run {}/{} on {}", i, runs, name);
+                    measures.add(process(input));
+                }
+
+                summarize(name, measures, current);
+            } catch (Exception ex) {
+                logger.warn("Throughput harness failed on {} {}", input, ex.toString(), ex);
+                failure = true;
+            }
+        }
+
+        try {
+            if (constants.updateBaseline.isSet()) {
+                if (failure || current.containsValue(UNSTABLE)) {
+                    logger.warn("Throughput baseline {} not written", baselinePath);
+
+                    return false;
+                }
+
+                store(current, baselinePath);
+                logger.info("Throughput baseline written to {}", baselinePath);
+
+                return true;
+            }
+
+            if (!Files.exists(baselinePath)) {
+                logger.warn(
+                        "No throughput baseline {}, set updateBaseline to write it",
+                        baselinePath);
+
+                return false;
+            }
+
+            final Properties baseline = new Properties();
+
+            try (Reader reader = Files.newBufferedReader(baselinePath, StandardCharsets.UTF_8)) {
+                baseline.load(reader);
+            }
+
+            if (Boolean.parseBoolean(baseline.getProperty(PLACEHOLDER))) {
+                logger.warn(
+                        "Throughput baseline {} is a placeholder, set updateBaseline to replace it",
+                        baselinePath);
+
+                return false;
+            }
+
+            for (Entry<String, String> entry : environment().entrySet()) {
+                final String ref = baseline.getProperty(entry.getKey());
+
+                if (!entry.getValue().equals(ref)) {
+                    logger.warn(
+                            "Throughput baseline {} measured with {}={}, not comparable with {}",
+                            baselinePath,
+                            entry.getKey(),
+                            ref,
+                            entry.getValue());
+
+                    return false;
+                }
+            }
+
+            final int regressions = compare(current, baseline);
+
+            if (regressions > 0) {
+                logger.warn(
+                        "{} throughput regression(s) with respect to {}",
+                        regressions,
+                        baselinePath);
+            }
+
+            return !failure && (regressions == 0);
+        } catch (IOException ex) {
+            logger.warn("Error on throughput baseline {} {}", baselinePath, ex.toString(), ex);
+
+            return false;
+        }
+    }
+
+    //------------//
+    // sheetModel //
+    //------------//
+    /**
+     * Report the checksum of the model of the provided sheets.
+     * <p>
+     * The sheet XML cannot be used as is, because the originals in glyph index are only weakly
+     * referenced: whether an identical glyph is still there to be reused depends on garbage
+     * collection timing, and so do the glyph groups and the values of all persistent ids.
+     * <p>
+     * Hence, the checksum is computed on a description of each system interpretation graph,
+     * with inters described in id order but without their id, and relations designating their
+     * source and target inters by rank in this order.
+     */
+    private static String sheetModel (List<SheetStub> stubs)
+    {
+        final MessageDigest md = newDigest();
+
+        for (SheetStub stub : stubs) {
+            final Sheet sheet = stub.getSheet();
+
+            for (SystemInfo system : sheet.getSystems()) {
+                final SIGraph sig = system.getSig();
+                final List<Inter> inters = new ArrayList<>(sig.vertexSet());
+                inters.sort(Comparator.comparingInt(Inter::getId));
+
+                final Map<Inter, Integer> ranks = new HashMap<>();
+                final List<String> lines = new ArrayList<>();
+                lines.add(sheet.getId() + " system#" + system.getId());
+
+                for (Inter inter : inters) {
+                    ranks.put(inter, ranks.size());
+                    lines.add(describe(inter));
+                }
+
+                final List<String> relations = new ArrayList<>();
+
+                for (Relation rel : sig.edgeSet()) {
+                    relations.add(
+                            rel.getName() + " " + ranks.get(sig.getEdgeSource(rel)) + " "
+                                    + ranks.get(sig.getEdgeTarget(rel)) + " " + rel.getDetails());
+                }
+
+                Collections.sort(relations);
+                lines.addAll(relations);
+                lines.add("");
+                md.update(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        return HexFormat.of().formatHex(md.digest());
+    }
+
+    //---------//
+    // shorten //
+    //---------//
+    private static String shorten (String value)
+    {
+        if ((value != null) && (value.length() > 16)) {
+            return value.substring(0, 12) + "...";
+        }
+
+        return value;
+    }
+
+    //--------//
+    // stable //
+    //--------//
+    /**
+     * Report the common value of a checksum over all runs, or UNSTABLE.
+     */
+    private static String stable (String key,
+                                  List<String> values)
+    {
+        for (String value : values) {
+            if (!value.equals(values.get(0))) {
+                logger.warn("{} varies from one run to the other", key);
+
+                return UNSTABLE;
+            }
+        }
+
+        return values.get(0);
+    }
+
+    //-------//
+    // store //
+    //-------//
+    /**
+     * Write the results, sorted by key, as a properties file.
+     */
+    private static void store (Map<String, String> results,
+                               Path path)
+        throws IOException
+    {
+        final Map<String, String> entries = new TreeMap<>(results);
+        entries.putAll(environment());
+
+        final List<String> lines = new ArrayList<>();
+        lines.add("# Audiveris throughput baseline (durations in ms, heap in MB)");
+
+        for (Entry<String, String> entry : entries.entrySet()) {
+            lines.add(entry.getKey() + "=" + entry.getValue());
+        }
+
+        if (path.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+        }
+
+        Files.write(path, lines, StandardCharsets.UTF_8);
+    }
+
+    //-----------//
+    // summarize //
+    //-----------//
+    /**
+     * Populate the results with the median values of the measures on one input.
+     *
+     * @param name     input name
+     * @param measures the measures of all runs on this input
+     * @param results  (output) the results to populate
+     */
+    private static void summarize (String name,
+                                   List<Measure> measures,
+                                   Map<String, String> results)
+    {
+        for (OmrStep step : OmrStep.values()) {
+            final List<Long> values = new ArrayList<>();
+
+            for (Measure measure : measures) {
+                final Long nanos = measure.stepNanos.get(step);
+
+                if (nanos != null) {
+                    values.add(nanos);
+                }
+            }
+
+            if (!values.isEmpty()) {
+                results.put(name + "." + step.name() + ".ms", toMillis(median(values)));
+            }
+        }
+
+        final List<Long> totals = new ArrayList<>();
+        final List<Long> heaps = new ArrayList<>();
+        final List<Long> retains = new ArrayList<>();
+        final List<String> musicXmls = new ArrayList<>();
+        final List<String> sheetModels = new ArrayList<>();
+
+        for (Measure measure : measures) {
+            totals.add(measure.totalNanos);
+            heaps.add(measure.peakHeap);
+            retains.add(measure.retainedHeap);
+            musicXmls.add(measure.musicXml);
+            sheetModels.add(measure.sheetModel);
+        }
+
+        results.put(name + ".TOTAL.ms", toMillis(median(totals)));
+        results.put(
+                name + ".heap.mb",
+                String.format(Locale.US, "%.1f", Collections.max(heaps) / (1024.0 * 1024.0)));
+        results.put(
+                name + ".retained.mb",
+                String.format(Locale.US, "%.1f", median(retains) / (1024.0 * 1024.0)));
+        results.put(name + ".musicxml.sha", stable(name + " MusicXML", musicXmls));
+        results.put(name + ".sheets.sha", stable(name + " sheet model", sheetModels));
+    }
+
+    //----------//
+    // toMillis //
+    //----------//
+    private static String toMillis (double nanos)
+    {
+        return String.format(Locale.US, "%.1f", nanos / 1_000_000);
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static class Constants
+            extends ConstantSet
+    {
+
+        private final Constant.Integer warmupRuns = new Constant.Integer(
+                "runs",
+                1,
+                "Number of unmeasured runs on each input, to warm up the JVM");
+
+        private final Constant.Integer measuredRuns = new Constant.Integer(
+                "runs",
+                3,
+                "Number of measured runs on each input");
+
+        private final Constant.Ratio tolerance = new Constant.Ratio(
+                0.15,
+                "Maximum increase ratio of a duration or heap usage, with respect to baseline");
+
+        private final Constant.Integer minDuration = new Constant.Integer(
+                "ms",
+                50,
+                "Minimum increase of a step duration to be considered as a regression");
+
+        private final Constant.String corpus = new Constant.String(
+                "chula.png,allegretto.png",
+                "Comma-separated names of default inputs, within examples folder");
+
+        private final Constant.Boolean updateBaseline = new Constant.Boolean(
+                false,
+                "Should the baseline be overwritten by current results?");
+    }
+
+    //---------//
+    // Measure //
+    //---------//
+    /**
+     * Measurement of one transcription.
+     */
+    private static class Measure
+    {
+
+        /** Duration of each step. */
+        final Map<OmrStep, Long> stepNanos = new EnumMap<>(OmrStep.class);
+
+        /** Duration of the whole transcription. */
+        long totalNanos;
+
+        /** Peak heap usage. */
+        long peakHeap;
+
+        /** Heap retained per sheet after transcription. */
+        long retainedHeap;
+
+        /** Checksum of MusicXML output. */
+        String musicXml;
+
+        /** Checksum of sheet model. */
+        String sheetModel;
+    }
+}
@@ -195,7 +195,7 @@ public class StepMenu
                             } else if (step == OmrStep.BINARY) {
                                 final Picture picture = stub.getSheet().getPicture();
 
-                                if (null == picture.getSource(Picture.SourceKey.GRAY)) {
+                                if (!picture.isGrayAvailable()) {
                                     OMR.gui.displayWarning(
                                             "Gray source not found.",
                                             "No source for " + step + " step");
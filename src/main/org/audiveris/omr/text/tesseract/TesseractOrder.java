@@ -25,6 +25,7 @@ import org.audiveris.omr.WellKnowns;
 import org.audiveris.omr.constant.Constant;
 import org.audiveris.omr.constant.ConstantSet;
 import org.audiveris.omr.sheet.Sheet;
+import org.audiveris.omr.step.OmrEvents;
 import org.audiveris.omr.text.FontInfo;
 import org.audiveris.omr.text.OcrUtil;
 import org.audiveris.omr.text.TextChar;
@@ -394,6 +395,32 @@ public class TesseractOrder
      * @return the sequence of lines found
      */
     public List<TextLine> process ()
+    {
+        final OmrEvents.OcrEvent event = new OmrEvents.OcrEvent();
+        event.begin();
+
+        final List<TextLine> lines = recognize();
+
+        if (event.shouldCommit()) {
+            event.tag(sheet, null);
+            event.label = label;
+            event.language = lang;
+            event.lines = (lines != null) ? lines.size() : 0;
+            event.commit();
+        }
+
+        return lines;
+    }
+
+    //-----------//
+    // recognize //
+    //-----------//
+    /**
+     * Allocate a Tesseract API and recognize the image.
+     *
+     * @return the sequence of lines found
+     */
+    private List<TextLine> recognize ()
     {
         if (!OcrUtil.getOcr().isAvailable()) {
             return Collections.emptyList();
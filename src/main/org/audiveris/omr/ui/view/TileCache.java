@@ -0,0 +1,332 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                        T i l e C a c h e                                       //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.ui.view;
+
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+import org.audiveris.omr.ui.util.UIThread;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Class <code>TileCache</code> keeps rasterized tiles of view layers, to avoid repainting
+ * the whole visible area from scratch on every paint.
+ * <p>
+ * Tiles are square regions of the <b>device</b> space (display pixels, taking zoom into account),
+ * so that a cached tile is drawn pixel for pixel at its display location.
+ * Each tile is identified by its layer, the current device scale and its tile indices.
+ * Tiles are kept in a bounded LRU map, tiles for obsolete zoom values thus get evicted
+ * naturally.
+ * <p>
+ * A layer is identified by a key object, compared by <b>identity</b>: using the underlying data
+ * instance (such as a RunTable) as key makes any replacement of this data invisible to the cache.
+ * <p>
+ * When layer content is modified, the related tiles must be invalidated, either for a given
+ * model area via {@link #invalidate(Rectangle)} or globally via {@link #invalidateAll()}.
+ * <p>
+ * This class is meant to be used from the UI thread only.
+ *
+ * @author Hervé Bitteur
+ */
+@UIThread
+public class TileCache
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Constants constants = new Constants();
+
+    private static final Logger logger = LoggerFactory.getLogger(TileCache.class);
+
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    /** Side of a square tile, in device pixels. */
+    private final int tileSize = constants.tileSize.getValue();
+
+    /** Cached tiles, in LRU order. */
+    private final Map<TileKey, BufferedImage> tiles = new LinkedHashMap<>(64, 0.75f, true)
+    {
+        @Override
+        protected boolean removeEldestEntry (Map.Entry<TileKey, BufferedImage> eldest)
+        {
+            return size() > constants.maxTiles.getValue();
+        }
+    };
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    //-----------//
+    // buildTile //
+    //-----------//
+    private BufferedImage buildTile (Graphics2D g,
+                                     TileKey key,
+                                     Layer layer)
+    {
+        final BufferedImage tile = new BufferedImage(
+                tileSize,
+                tileSize,
+                BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D tg = tile.createGraphics();
+
+        try {
+            // Same graphics context as the target one
+            tg.setRenderingHints(g.getRenderingHints());
+            tg.setColor(g.getColor());
+            tg.setStroke(g.getStroke());
+            tg.setFont(g.getFont());
+
+            // Device space of this tile, then model space
+            tg.translate(-key.col * tileSize, -key.row * tileSize);
+            tg.scale(key.ratio, key.ratio);
+            tg.setClip(key.getModelBounds(tileSize));
+
+            layer.paint(tg);
+        } finally {
+            tg.dispose();
+        }
+
+        return tile;
+    }
+
+    //------------//
+    // invalidate //
+    //------------//
+    /**
+     * Invalidate all tiles, whatever their layer, that intersect the provided model area.
+     *
+     * @param area the modified area, in model coordinates
+     */
+    public void invalidate (Rectangle area)
+    {
+        final int margin = constants.invalidationMargin.getValue();
+
+        for (Iterator<TileKey> it = tiles.keySet().iterator(); it.hasNext();) {
+            final TileKey key = it.next();
+            final Rectangle2D bounds = key.getModelBounds(tileSize);
+            final double dm = margin / key.ratio;
+            final Rectangle2D extended = new Rectangle2D.Double(
+                    bounds.getX() - dm,
+                    bounds.getY() - dm,
+                    bounds.getWidth() + 2 * dm,
+                    bounds.getHeight() + 2 * dm);
+
+            if (extended.intersects(area)) {
+                it.remove();
+            }
+        }
+    }
+
+    //---------------//
+    // invalidateAll //
+    //---------------//
+    /**
+     * Invalidate all cached tiles.
+     */
+    public void invalidateAll ()
+    {
+        tiles.clear();
+    }
+
+    //--------//
+    // render //
+    //--------//
+    /**
+     * Render the provided layer, using cached tiles as much as possible.
+     * <p>
+     * The graphics context is expected to be already set to model coordinates (via zoom).
+     * If caching is disabled, or the current transform is not a simple scaling, the layer is
+     * directly painted.
+     *
+     * @param g        graphics context, in model coordinates
+     * @param layerKey layer identifier (compared by identity)
+     * @param layer    layer painter
+     */
+    public void render (Graphics2D g,
+                        Object layerKey,
+                        Layer layer)
+    {
+        final AffineTransform at = g.getTransform();
+        final double ratio = at.getScaleX();
+        final Rectangle clip = g.getClipBounds();
+
+        if (!constants.useTileCache.isSet() || (clip == null) || (ratio <= 0)
+                || (at.getScaleY() != ratio) || (at.getShearX() != 0) || (at.getShearY() != 0)) {
+            layer.paint(g);
+
+            return;
+        }
+
+        final int colMin = (int) Math.floor((clip.x * ratio) / tileSize);
+        final int colMax = (int) Math.floor(((clip.x + clip.width) * ratio) / tileSize);
+        final int rowMin = (int) Math.floor((clip.y * ratio) / tileSize);
+        final int rowMax = (int) Math.floor(((clip.y + clip.height) * ratio) / tileSize);
+
+        for (int row = rowMin; row <= rowMax; row++) {
+            for (int col = colMin; col <= colMax; col++) {
+                final TileKey key = new TileKey(layerKey, ratio, col, row);
+                BufferedImage tile = tiles.get(key);
+
+                if (tile == null) {
+                    tiles.put(key, tile = buildTile(g, key, layer));
+                }
+
+                // Draw tile pixel for pixel in device space
+                final AffineTransform xf = new AffineTransform(
+                        1 / ratio,
+                        0,
+                        0,
+                        1 / ratio,
+                        (col * tileSize) / ratio,
+                        (row * tileSize) / ratio);
+                g.drawImage(tile, xf, null);
+            }
+        }
+
+        logger.trace("{} tiles cached", tiles.size());
+    }
+
+    //~ Inner Interfaces ---------------------------------------------------------------------------
+
+    //-------//
+    // Layer //
+    //-------//
+    /**
+     * A layer painter, working in model coordinates, and limited to the current clip.
+     */
+    @FunctionalInterface
+    public static interface Layer
+    {
+
+        /**
+         * Paint the layer content.
+         *
+         * @param g graphics context, in model coordinates
+         */
+        void paint (Graphics2D g);
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static class Constants
+            extends ConstantSet
+    {
+
+        private final Constant.Boolean useTileCache = new Constant.Boolean(
+                true,
+                "Should we cache rasterized tiles of sheet views?");
+
+        private final Constant.Integer tileSize = new Constant.Integer(
+                "pixels",
+                256,
+                "Side of a square cached tile");
+
+        private final Constant.Integer maxTiles = new Constant.Integer(
+                "tiles",
+                256,
+                "Maximum number of cached tiles per view");
+
+        private final Constant.Integer invalidationMargin = new Constant.Integer(
+                "pixels",
+                2,
+                "Margin around modified area when invalidating tiles");
+    }
+
+    //---------//
+    // TileKey //
+    //---------//
+    /**
+     * Identifies a tile by its layer, device scale and tile indices.
+     */
+    private static class TileKey
+    {
+
+        final Object layerKey;
+
+        final double ratio;
+
+        final int col;
+
+        final int row;
+
+        TileKey (Object layerKey,
+                 double ratio,
+                 int col,
+                 int row)
+        {
+            this.layerKey = layerKey;
+            this.ratio = ratio;
+            this.col = col;
+            this.row = row;
+        }
+
+        @Override
+        public boolean equals (Object obj)
+        {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof TileKey that)) {
+                return false;
+            }
+
+            return (layerKey == that.layerKey) && (Double.compare(ratio, that.ratio) == 0)
+                    && (col == that.col) && (row == that.row);
+        }
+
+        /**
+         * Report the tile bounds in model coordinates.
+         *
+         * @param tileSize tile side in device pixels
+         * @return model bounds
+         */
+        Rectangle2D getModelBounds (int tileSize)
+        {
+            final double side = tileSize / ratio;
+
+            return new Rectangle2D.Double(col * side, row * side, side, side);
+        }
+
+        @Override
+        public int hashCode ()
+        {
+            int hash = System.identityHashCode(layerKey);
+            hash = (31 * hash) + Double.hashCode(ratio);
+            hash = (31 * hash) + col;
+            hash = (31 * hash) + row;
+
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,859 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                          M e t r i c s                                         //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.util;
+
+import org.audiveris.omr.constant.Constant;
+import org.audiveris.omr.constant.ConstantSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.management.ThreadMXBean;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class <code>Metrics</code> is the central registry of performance metrics.
+ * <p>
+ * It gathers:
+ * <ul>
+ * <li>Named timers, counters, gauges and cache statistics, cumulated over the whole run.
+ * <li>Step records, one per step performed on a sheet or on a system, with wall time, CPU time,
+ * allocated bytes and the counts of glyphs and inters at step end.
+ * </ul>
+ * Recording is off by default. It is switched on by the CLI <code>-metrics</code> option or by the
+ * <code>recordMetrics</code> constant, and the whole content can then be exported to a JSON or
+ * CSV file.
+ *
+ * @author Hervé Bitteur
+ */
+public abstract class Metrics
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Constants constants = new Constants();
+
+    private static final Logger logger = LoggerFactory.getLogger(Metrics.class);
+
+    /** To measure threads CPU time and allocations. */
+    private static final ThreadMXBean threadBean = ManagementFactory.getPlatformMXBean(
+            ThreadMXBean.class);
+
+    /** Named cache statistics. */
+    private static final Map<String, CacheStats> caches = new ConcurrentHashMap<>();
+
+    /** Named counters. */
+    private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    /** Named gauges. */
+    private static final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+
+    /** Named timers. */
+    private static final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    /** Records of steps performed, in completion order. */
+    private static final ConcurrentLinkedQueue<StepRecord> records = new ConcurrentLinkedQueue<>();
+
+    /** Sheet-level probes in progress, per sheet ID. */
+    private static final Map<String, Probe> sheetProbes = new ConcurrentHashMap<>();
+
+    /** Recording switched on programmatically. */
+    private static volatile boolean enabled;
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    // Class is not meant to be instantiated.
+    private Metrics ()
+    {
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    //-------//
+    // cache //
+    //-------//
+    /**
+     * Report the statistics of the named cache, created if needed.
+     *
+     * @param name cache name
+     * @return the cache statistics
+     */
+    public static CacheStats cache (String name)
+    {
+        return caches.computeIfAbsent(name, n -> new CacheStats());
+    }
+
+    //---------//
+    // counter //
+    //---------//
+    /**
+     * Report the named counter, created if needed.
+     *
+     * @param name counter name
+     * @return the counter
+     */
+    public static Counter counter (String name)
+    {
+        return counters.computeIfAbsent(name, n -> new Counter());
+    }
+
+    //-----//
+    // csv //
+    //-----//
+    private static String csv (String str)
+    {
+        if ((str.indexOf(',') == -1) && (str.indexOf('"') == -1)) {
+            return str;
+        }
+
+        return '"' + str.replace("\"", "\"\"") + '"';
+    }
+
+    //--------//
+    // export //
+    //--------//
+    /**
+     * Write all metrics to the provided file.
+     * <p>
+     * A file name ending with ".csv" gets the CSV format, any other name gets the JSON format.
+     *
+     * @param path target file
+     */
+    public static void export (Path path)
+    {
+        try {
+            final Path parent = path.toAbsolutePath().getParent();
+
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+
+            final String fileName = path.getFileName().toString().toLowerCase(Locale.ROOT);
+            final boolean csv = fileName.endsWith(".csv");
+
+            try (PrintWriter out = new PrintWriter(
+                    Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+                if (csv) {
+                    exportCsv(out);
+                } else {
+                    exportJson(out);
+                }
+            }
+
+            logger.info("Metrics written to {}", path);
+        } catch (IOException ex) {
+            logger.warn("Error writing metrics to {} {}", path, ex.toString(), ex);
+        }
+    }
+
+    //-----------//
+    // exportCsv //
+    //-----------//
+    /**
+     * Write metrics as CSV, one line per step record or named metric.
+     */
+    private static void exportCsv (PrintWriter out)
+    {
+        out.println("kind,name,sheet,system,count,wall_ms,cpu_ms,alloc_bytes,glyphs,inters,value");
+
+        for (StepRecord r : records) {
+            out.printf(
+                    Locale.ROOT,
+                    "step,%s,%s,%d,1,%.3f,%.3f,%d,%d,%d,%n",
+                    csv(r.step),
+                    csv(r.sheet),
+                    r.system,
+                    millis(r.wallNanos),
+                    millis(r.cpuNanos),
+                    r.allocatedBytes,
+                    r.glyphs,
+                    r.inters);
+        }
+
+        for (Map.Entry<String, Timer> e : new TreeMap<>(timers).entrySet()) {
+            final Timer t = e.getValue();
+            out.printf(
+                    Locale.ROOT,
+                    "timer,%s,,,%d,%.3f,,,,,%.3f%n",
+                    csv(e.getKey()),
+                    t.getCount(),
+                    millis(t.getTotalNanos()),
+                    millis(t.getMaxNanos()));
+        }
+
+        for (Map.Entry<String, Counter> e : new TreeMap<>(counters).entrySet()) {
+            out.printf("counter,%s,,,,,,,,,%d%n", csv(e.getKey()), e.getValue().getCount());
+        }
+
+        for (Map.Entry<String, Gauge> e : new TreeMap<>(gauges).entrySet()) {
+            out.printf("gauge,%s,,,,,,,,,%d%n", csv(e.getKey()), e.getValue().getValue());
+        }
+
+        for (Map.Entry<String, CacheStats> e : new TreeMap<>(caches).entrySet()) {
+            final CacheStats c = e.getValue();
+            out.printf(
+                    Locale.ROOT,
+                    "cache,%s,,,%d,,,,,,%.4f%n",
+                    csv(e.getKey()),
+                    c.getHits() + c.getMisses(),
+                    c.getHitRate());
+        }
+    }
+
+    //------------//
+    // exportJson //
+    //------------//
+    /**
+     * Write metrics as a JSON object, with one member per kind of metric.
+     */
+    private static void exportJson (PrintWriter out)
+    {
+        out.println("{");
+        out.println("  \"steps\": [");
+
+        final List<String> items = new ArrayList<>();
+
+        for (StepRecord r : records) {
+            items.add(
+                    String.format(
+                            Locale.ROOT,
+                            "    {\"sheet\": %s, \"system\": %d, \"step\": %s, \"wallMs\": %.3f,"
+                                    + " \"cpuMs\": %.3f, \"allocBytes\": %d, \"glyphs\": %d,"
+                                    + " \"inters\": %d}",
+                            json(r.sheet),
+                            r.system,
+                            json(r.step),
+                            millis(r.wallNanos),
+                            millis(r.cpuNanos),
+                            r.allocatedBytes,
+                            r.glyphs,
+                            r.inters));
+        }
+
+        out.println(String.join(",\n", items));
+        out.println("  ],");
+        items.clear();
+
+        out.println("  \"timers\": {");
+
+        for (Map.Entry<String, Timer> e : new TreeMap<>(timers).entrySet()) {
+            final Timer t = e.getValue();
+            items.add(
+                    String.format(
+                            Locale.ROOT,
+                            "    %s: {\"count\": %d, \"totalMs\": %.3f, \"maxMs\": %.3f}",
+                            json(e.getKey()),
+                            t.getCount(),
+                            millis(t.getTotalNanos()),
+                            millis(t.getMaxNanos())));
+        }
+
+        out.println(String.join(",\n", items));
+        out.println("  },");
+        items.clear();
+
+        out.println("  \"counters\": {");
+
+        for (Map.Entry<String, Counter> e : new TreeMap<>(counters).entrySet()) {
+            items.add("    " + json(e.getKey()) + ": " + e.getValue().getCount());
+        }
+
+        out.println(String.join(",\n", items));
+        out.println("  },");
+        items.clear();
+
+        out.println("  \"gauges\": {");
+
+        for (Map.Entry<String, Gauge> e : new TreeMap<>(gauges).entrySet()) {
+            items.add("    " + json(e.getKey()) + ": " + e.getValue().getValue());
+        }
+
+        out.println(String.join(",\n", items));
+        out.println("  },");
+        items.clear();
+
+        out.println("  \"caches\": {");
+
+        for (Map.Entry<String, CacheStats> e : new TreeMap<>(caches).entrySet()) {
+            final CacheStats c = e.getValue();
+            items.add(
+                    String.format(
+                            Locale.ROOT,
+                            "    %s: {\"hits\": %d, \"misses\": %d, \"hitRate\": %.4f}",
+                            json(e.getKey()),
+                            c.getHits(),
+                            c.getMisses(),
+                            c.getHitRate()));
+        }
+
+        out.println(String.join(",\n", items));
+        out.println("  }");
+        out.println("}");
+    }
+
+    //-------//
+    // gauge //
+    //-------//
+    /**
+     * Report the named gauge, created if needed.
+     *
+     * @param name gauge name
+     * @return the gauge
+     */
+    public static Gauge gauge (String name)
+    {
+        return gauges.computeIfAbsent(name, n -> new Gauge());
+    }
+
+    //-----------//
+    // isEnabled //
+    //-----------//
+    /**
+     * Report whether metrics are being recorded.
+     *
+     * @return true if so
+     */
+    public static boolean isEnabled ()
+    {
+        return enabled || constants.recordMetrics.isSet();
+    }
+
+    //------//
+    // json //
+    //------//
+    private static String json (String str)
+    {
+        final StringBuilder sb = new StringBuilder(str.length() + 2).append('"');
+
+        for (char c : str.toCharArray()) {
+            if ((c == '"') || (c == '\\')) {
+                sb.append('\\').append(c);
+            } else if (c < ' ') {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+
+        return sb.append('"').toString();
+    }
+
+    //--------//
+    // millis //
+    //--------//
+    private static double millis (long nanos)
+    {
+        return nanos / 1_000_000.0;
+    }
+
+    //------------//
+    // recordStep //
+    //------------//
+    /**
+     * Record the completion of a step on a sheet or on a system.
+     * <p>
+     * Besides the step record, the step duration is cumulated in timer "sheet.STEP" or
+     * "system.STEP".
+     * <p>
+     * A system step run on another thread than its sheet step adds its CPU time and allocated
+     * bytes to the sheet-level probe in progress, if any.
+     *
+     * @param probe  the probe started at step beginning
+     * @param sheet  sheet ID
+     * @param system system ID, or 0 for a step performed at sheet level
+     * @param step   step name
+     * @param glyphs number of glyphs at step end
+     * @param inters number of inters at step end
+     */
+    public static void recordStep (Probe probe,
+                                   String sheet,
+                                   int system,
+                                   String step,
+                                   int glyphs,
+                                   int inters)
+    {
+        final StepRecord record = new StepRecord(
+                sheet,
+                system,
+                step,
+                probe.getWallNanos(),
+                probe.getCpuNanos(),
+                probe.getAllocatedBytes(),
+                glyphs,
+                inters);
+        records.add(record);
+
+        if (system == 0) {
+            sheetProbes.remove(sheet, probe);
+        } else {
+            final Probe sheetProbe = sheetProbes.get(sheet);
+
+            if ((sheetProbe != null) && (sheetProbe.thread != probe.thread)) {
+                sheetProbe.absorb(record.cpuNanos, record.allocatedBytes);
+            }
+        }
+
+        timer(((system == 0) ? "sheet." : "system.") + step).record(record.wallNanos);
+    }
+
+    //-------//
+    // reset //
+    //-------//
+    /**
+     * Discard all metrics recorded so far.
+     */
+    public static void reset ()
+    {
+        caches.clear();
+        counters.clear();
+        gauges.clear();
+        timers.clear();
+        records.clear();
+        sheetProbes.clear();
+    }
+
+    //------------//
+    // setEnabled //
+    //------------//
+    /**
+     * Switch metrics recording on or off.
+     *
+     * @param bool true for on
+     */
+    public static void setEnabled (boolean bool)
+    {
+        enabled = bool;
+    }
+
+    //-------//
+    // start //
+    //-------//
+    /**
+     * Start a probe on current thread, if metrics are being recorded.
+     *
+     * @return the started probe, or null if metrics are not recorded
+     */
+    public static Probe start ()
+    {
+        return isEnabled() ? new Probe() : null;
+    }
+
+    //-------//
+    // start //
+    //-------//
+    /**
+     * Start a sheet-level probe on current thread, if metrics are being recorded.
+     * <p>
+     * Until the step is recorded, the system steps of this sheet run on other threads are
+     * cumulated into this probe.
+     *
+     * @param sheet sheet ID
+     * @return the started probe, or null if metrics are not recorded
+     */
+    public static Probe start (String sheet)
+    {
+        if (!isEnabled()) {
+            return null;
+        }
+
+        final Probe probe = new Probe();
+        sheetProbes.put(sheet, probe);
+
+        return probe;
+    }
+
+    //-------//
+    // timer //
+    //-------//
+    /**
+     * Report the named timer, created if needed.
+     *
+     * @param name timer name
+     * @return the timer
+     */
+    public static Timer timer (String name)
+    {
+        return timers.computeIfAbsent(name, n -> new Timer());
+    }
+
+    //~ Inner Classes ------------------------------------------------------------------------------
+
+    //------------//
+    // CacheStats //
+    //------------//
+    /**
+     * Hits and misses of a cache.
+     */
+    public static class CacheStats
+    {
+
+        private final LongAdder hits = new LongAdder();
+
+        private final LongAdder misses = new LongAdder();
+
+        /**
+         * Report the number of hits so far.
+         *
+         * @return hits count
+         */
+        public long getHits ()
+        {
+            return hits.sum();
+        }
+
+        /**
+         * Report the ratio of hits among all lookups.
+         *
+         * @return hit rate, 0 if no lookup
+         */
+        public double getHitRate ()
+        {
+            final long h = hits.sum();
+            final long total = h + misses.sum();
+
+            return (total == 0) ? 0 : (double) h / total;
+        }
+
+        /**
+         * Report the number of misses so far.
+         *
+         * @return misses count
+         */
+        public long getMisses ()
+        {
+            return misses.sum();
+        }
+
+        /**
+         * Count one hit.
+         */
+        public void hit ()
+        {
+            hits.increment();
+        }
+
+        /**
+         * Count one miss.
+         */
+        public void miss ()
+        {
+            misses.increment();
+        }
+    }
+
+    //-----------//
+    // Constants //
+    //-----------//
+    private static class Constants
+            extends ConstantSet
+    {
+
+        private final Constant.Boolean recordMetrics = new Constant.Boolean(
+                false,
+                "Should we record performance metrics?");
+    }
+
+    //---------//
+    // Counter //
+    //---------//
+    /**
+     * A cumulated count.
+     */
+    public static class Counter
+    {
+
+        private final LongAdder count = new LongAdder();
+
+        /**
+         * Add the provided value.
+         *
+         * @param value value to add
+         */
+        public void add (long value)
+        {
+            count.add(value);
+        }
+
+        /**
+         * Report the current count.
+         *
+         * @return count
+         */
+        public long getCount ()
+        {
+            return count.sum();
+        }
+
+        /**
+         * Add one.
+         */
+        public void increment ()
+        {
+            count.increment();
+        }
+    }
+
+    //-------//
+    // Gauge //
+    //-------//
+    /**
+     * A value, as last set.
+     */
+    public static class Gauge
+    {
+
+        private final AtomicLong value = new AtomicLong();
+
+        /**
+         * Report the current value.
+         *
+         * @return value
+         */
+        public long getValue ()
+        {
+            return value.get();
+        }
+
+        /**
+         * Set the current value.
+         *
+         * @param value new value
+         */
+        public void set (long value)
+        {
+            this.value.set(value);
+        }
+    }
+
+    //-------//
+    // Probe //
+    //-------//
+    /**
+     * A measurement started on the current thread, for wall time, CPU time and allocated
+     * bytes.
+     * <p>
+     * CPU time and allocated bytes are those of the thread that started the probe, and are
+     * reported as 0 when not supported by the JVM.
+     * A sheet-level probe also includes the system steps of the sheet run on other threads.
+     * Other helper threads, such as skeleton bands, are not counted.
+     */
+    public static class Probe
+    {
+
+        private final Thread thread;
+
+        private final long wallStart;
+
+        private final long cpuStart;
+
+        private final long allocStart;
+
+        /** CPU time of system steps run on other threads. */
+        private final LongAdder otherCpu = new LongAdder();
+
+        /** Bytes allocated by system steps run on other threads. */
+        private final LongAdder otherAlloc = new LongAdder();
+
+        private Probe ()
+        {
+            thread = Thread.currentThread();
+            wallStart = System.nanoTime();
+            cpuStart = cpuTime();
+            allocStart = allocatedBytes();
+        }
+
+        private void absorb (long cpuNanos,
+                             long allocatedBytes)
+        {
+            otherCpu.add(cpuNanos);
+            otherAlloc.add(allocatedBytes);
+        }
+
+        /**
+         * Report the bytes allocated since probe start.
+         *
+         * @return allocated bytes
+         */
+        public long getAllocatedBytes ()
+        {
+            return (allocatedBytes() - allocStart) + otherAlloc.sum();
+        }
+
+        /**
+         * Report the CPU time since probe start.
+         *
+         * @return CPU time in nanoseconds
+         */
+        public long getCpuNanos ()
+        {
+            return (cpuTime() - cpuStart) + otherCpu.sum();
+        }
+
+        /**
+         * Report the wall time since probe start.
+         *
+         * @return wall time in nanoseconds
+         */
+        public long getWallNanos ()
+        {
+            return System.nanoTime() - wallStart;
+        }
+
+        private static long allocatedBytes ()
+        {
+            if (threadBean.isThreadAllocatedMemorySupported()
+                    && threadBean.isThreadAllocatedMemoryEnabled()) {
+                return threadBean.getCurrentThreadAllocatedBytes();
+            }
+
+            return 0;
+        }
+
+        private static long cpuTime ()
+        {
+            if (threadBean.isCurrentThreadCpuTimeSupported()
+                    && threadBean.isThreadCpuTimeEnabled()) {
+                return threadBean.getCurrentThreadCpuTime();
+            }
+
+            return 0;
+        }
+    }
+
+    //------------//
+    // StepRecord //
+    //------------//
+    /**
+     * Measurement of one step on a sheet or system.
+     */
+    private static class StepRecord
+    {
+
+        final String sheet;
+
+        final int system;
+
+        final String step;
+
+        final long wallNanos;
+
+        final long cpuNanos;
+
+        final long allocatedBytes;
+
+        final int glyphs;
+
+        final int inters;
+
+        StepRecord (String sheet,
+                    int system,
+                    String step,
+                    long wallNanos,
+                    long cpuNanos,
+                    long allocatedBytes,
+                    int glyphs,
+                    int inters)
+        {
+            this.sheet = sheet;
+            this.system = system;
+            this.step = step;
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+            this.allocatedBytes = allocatedBytes;
+            this.glyphs = glyphs;
+            this.inters = inters;
+        }
+    }
+
+    //-------//
+    // Timer //
+    //-------//
+    /**
+     * Cumulated durations of a task.
+     */
+    public static class Timer
+    {
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder total = new LongAdder();
+
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        /**
+         * Report how many durations were recorded.
+         *
+         * @return count of durations
+         */
+        public long getCount ()
+        {
+            return count.sum();
+        }
+
+        /**
+         * Report the longest duration recorded.
+         *
+         * @return maximum duration in nanoseconds
+         */
+        public long getMaxNanos ()
+        {
+            return max.get();
+        }
+
+        /**
+         * Report the sum of durations recorded.
+         *
+         * @return total duration in nanoseconds
+         */
+        public long getTotalNanos ()
+        {
+            return total.sum();
+        }
+
+        /**
+         * Record one duration.
+         *
+         * @param nanos duration in nanoseconds
+         */
+        public void record (long nanos)
+        {
+            count.increment();
+            total.add(nanos);
+            max.accumulate(nanos);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                             S a m p l e R e p o s i t o r y T e s t                            //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.classifier;
+
+import org.audiveris.omr.classifier.SheetContainer.Descriptor;
+import org.audiveris.omr.glyph.Shape;
+import org.audiveris.omr.run.Orientation;
+import org.audiveris.omr.run.RunTableFactory;
+import org.audiveris.omr.ui.symbol.MusicFont;
+import org.audiveris.omr.util.FileUtil;
+import org.audiveris.omr.util.OmrExecutors;
+
+import ij.process.ByteProcessor;
+
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+
+/**
+ * Class <code>SampleRepositoryTest</code> checks that concrete samples are decoded from the
+ * binary store only when needed, shape by shape.
+ *
+ * @author Hervé Bitteur
+ */
+public class SampleRepositoryTest
+{
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    private Path temp;
+
+    private Path samplesFile;
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Creates a new <code>SampleRepositoryTest</code> object.
+     */
+    public SampleRepositoryTest ()
+    {
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    @Before
+    public void setUp ()
+        throws Exception
+    {
+        OmrExecutors.restart();
+        MusicFont.checkMusicFont();
+        temp = Files.createTempDirectory("sample-repository");
+        samplesFile = temp.resolve(SampleRepository.SAMPLES_FILE_NAME);
+
+        // Populate and store a repository, with its binary store
+        final SampleRepository repo = SampleRepository.getInstance(samplesFile, false);
+        final SampleSheet sheetA = repo.findSampleSheet("sheet-a", null, null);
+        repo.addSample(createSample(1, Shape.NOTEHEAD_BLACK), sheetA);
+        repo.addSample(createSample(2, Shape.SHARP), sheetA);
+        repo.addSample(createSample(3, Shape.NOTEHEAD_BLACK), sheetA);
+
+        final SampleSheet sheetB = repo.findSampleSheet("sheet-b", null, null);
+        repo.addSample(createSample(4, Shape.FLAT), sheetB);
+
+        repo.storeRepository();
+        repo.close();
+        assertTrue(Files.exists(temp.resolve("samples.bin")));
+    }
+
+    @After
+    public void tearDown ()
+        throws Exception
+    {
+        OmrExecutors.shutdown();
+        FileUtil.deleteDirectory(temp);
+    }
+
+    @Test
+    public void testLazyLoading ()
+    {
+        final SampleRepository repo = SampleRepository.getInstance(samplesFile, true);
+
+        try {
+            final Descriptor descA = findDescriptor(repo, "sheet-a");
+            final SampleSheet sheetA = repo.getSampleSheet(descA);
+
+            // Shapes are known, but no sample is decoded yet
+            assertEquals(EnumSet.of(Shape.NOTEHEAD_BLACK, Shape.SHARP), repo.getShapes(descA));
+            assertTrue(sheetA.getAllSamples().isEmpty());
+
+            // Just the desired shape
+            assertEquals(1, repo.getSamples("sheet-a", Shape.SHARP).size());
+            assertEquals(1, sheetA.getAllSamples().size());
+            assertEquals(sheetA, repo.getSampleSheet(sheetA.getAllSamples().get(0)));
+            assertTrue(repo.getSamples("sheet-b", Shape.SHARP).isEmpty());
+
+            // All remaining shapes
+            assertEquals(4, repo.getAllSamples().stream().filter(s -> !s.isSymbol()).count());
+            assertEquals(3, sheetA.getAllSamples().size());
+            assertEquals(2, repo.getSamples("sheet-a", Shape.NOTEHEAD_BLACK).size());
+            assertEquals(1, repo.getSamples("sheet-a", Shape.SHARP).size());
+            assertFalse(sheetA.isModified());
+        } finally {
+            repo.close();
+        }
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    /**
+     * Create a sample made of a filled rectangle, whose size depends on sample id.
+     */
+    private static Sample createSample (int id,
+                                        Shape shape)
+    {
+        final ByteProcessor bp = new ByteProcessor(6 + id, 12 - id);
+        bp.setValue(0);
+        bp.fill();
+
+        return new Sample(
+                10 * id,
+                20 * id,
+                new RunTableFactory(Orientation.VERTICAL).createTable(bp),
+                SampleRepository.STANDARD_INTERLINE,
+                id,
+                shape,
+                null);
+    }
+
+    /**
+     * Retrieve the descriptor of a sample sheet by its name.
+     */
+    private static Descriptor findDescriptor (SampleRepository repo,
+                                              String name)
+    {
+        for (Descriptor descriptor : repo.getAllDescriptors()) {
+            if (descriptor.getName().equals(name)) {
+                return descriptor;
+            }
+        }
+
+        throw new AssertionError("No descriptor " + name);
+    }
+}
@@ -0,0 +1,219 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                  S a m p l e S t o r e T e s t                                 //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.classifier;
+
+import org.audiveris.omr.glyph.Shape;
+import org.audiveris.omr.run.Orientation;
+import org.audiveris.omr.run.RunTableFactory;
+import org.audiveris.omr.util.FileUtil;
+import org.audiveris.omr.util.OmrExecutors;
+
+import ij.process.ByteProcessor;
+
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class <code>SampleStoreTest</code> checks the decoding of samples from a {@link SampleStore},
+ * by sheet or by shape.
+ *
+ * @author Hervé Bitteur
+ */
+public class SampleStoreTest
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final int INTERLINE = 20;
+
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    private Path temp;
+
+    private SampleStore store;
+
+    private final Map<String, List<Sample>> snapshot = new LinkedHashMap<>();
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Creates a new <code>SampleStoreTest</code> object.
+     */
+    public SampleStoreTest ()
+    {
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    /**
+     * Check that a decoded sample matches the original one.
+     */
+    private void checkSame (Sample expected,
+                            Sample actual)
+    {
+        assertEquals(expected.getShape(), actual.getShape());
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getLeft(), actual.getLeft());
+        assertEquals(expected.getTop(), actual.getTop());
+        assertEquals(expected.getInterline(), actual.getInterline());
+        assertEquals(expected.getRunTable(), actual.getRunTable());
+    }
+
+    @Before
+    public void setUp ()
+        throws Exception
+    {
+        OmrExecutors.restart();
+        temp = Files.createTempDirectory("sample-store");
+
+        int id = 0;
+        snapshot.put(
+                "sheet-a",
+                Arrays.asList(
+                        createSample(++id, Shape.NOTEHEAD_BLACK),
+                        createSample(++id, Shape.SHARP),
+                        createSample(++id, Shape.NOTEHEAD_BLACK)));
+        snapshot.put("sheet-b", Collections.emptyList());
+        snapshot.put(
+                "sheet-c",
+                Arrays.asList(createSample(++id, Shape.SHARP), createSample(++id, Shape.FLAT)));
+
+        final Path source = Files.createFile(temp.resolve("samples.zip"));
+        final Path path = temp.resolve("samples.bin");
+        SampleStore.write(
+                path,
+                Files.readAttributes(source, BasicFileAttributes.class),
+                snapshot,
+                new MixGlyphDescriptor());
+        store = SampleStore.open(path);
+        assertTrue(store.isCurrent(source));
+    }
+
+    @After
+    public void tearDown ()
+        throws Exception
+    {
+        if (store != null) {
+            store.close();
+        }
+
+        OmrExecutors.shutdown();
+        FileUtil.deleteDirectory(temp);
+    }
+
+    @Test
+    public void testForget ()
+        throws Exception
+    {
+        final GlyphDescriptor descriptor = new MixGlyphDescriptor();
+        final Sample sample = store.loadSamples(Shape.FLAT).get("sheet-c").get(0);
+        assertNotNull(store.getFeatures(sample, descriptor));
+
+        store.forget(sample);
+        assertNull(store.getFeatures(sample, descriptor));
+    }
+
+    @Test
+    public void testLoadSamples ()
+        throws Exception
+    {
+        assertEquals(EnumSet.of(Shape.NOTEHEAD_BLACK, Shape.SHARP, Shape.FLAT), store.getShapes());
+        assertEquals(EnumSet.of(Shape.SHARP, Shape.FLAT), store.getShapes("sheet-c"));
+        assertTrue(store.getShapes("sheet-b").isEmpty());
+
+        final Map<String, List<Sample>> sharps = store.loadSamples(Shape.SHARP);
+        assertEquals(Arrays.asList("sheet-a", "sheet-c"), new ArrayList<>(sharps.keySet()));
+        checkSame(snapshot.get("sheet-a").get(1), sharps.get("sheet-a").get(0));
+        checkSame(snapshot.get("sheet-c").get(0), sharps.get("sheet-c").get(0));
+
+        final Map<String, List<Sample>> heads = store.loadSamples(Shape.NOTEHEAD_BLACK);
+        assertEquals(Collections.singleton("sheet-a"), heads.keySet());
+        assertEquals(2, heads.get("sheet-a").size());
+        checkSame(snapshot.get("sheet-a").get(2), heads.get("sheet-a").get(1));
+    }
+
+    @Test
+    public void testLoadSheet ()
+        throws Exception
+    {
+        final List<Sample> all = store.loadSheet("sheet-a", EnumSet.allOf(Shape.class));
+        assertEquals(3, all.size());
+
+        for (int i = 0; i < all.size(); i++) {
+            checkSame(snapshot.get("sheet-a").get(i), all.get(i));
+        }
+
+        // Skipped samples must not shift the decoding of the following ones
+        final List<Sample> heads = store.loadSheet("sheet-a", EnumSet.of(Shape.NOTEHEAD_BLACK));
+        assertEquals(2, heads.size());
+        checkSame(snapshot.get("sheet-a").get(0), heads.get(0));
+        checkSame(snapshot.get("sheet-a").get(2), heads.get(1));
+
+        assertTrue(store.loadSheet("sheet-b", EnumSet.allOf(Shape.class)).isEmpty());
+        assertNull(store.loadSheet("sheet-x", EnumSet.allOf(Shape.class)));
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    /**
+     * Create a sample made of a filled rectangle, whose size depends on sample id.
+     */
+    private static Sample createSample (int id,
+                                        Shape shape)
+    {
+        final int width = 6 + id;
+        final int height = 12 - id;
+        final ByteProcessor bp = new ByteProcessor(width, height);
+        bp.setValue(255);
+        bp.fill();
+
+        for (int y = 1; y < height - 1; y++) {
+            for (int x = y % 2; x < width - 1; x++) {
+                bp.set(x, y, 0);
+            }
+        }
+
+        return new Sample(
+                10 * id,
+                20 * id,
+                new RunTableFactory(Orientation.VERTICAL).createTable(bp),
+                INTERLINE,
+                id,
+                shape,
+                null);
+    }
+}
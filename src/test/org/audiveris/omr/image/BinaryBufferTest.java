@@ -0,0 +1,304 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                 B i n a r y B u f f e r T e s t                                //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.image;
+
+import static org.audiveris.omr.run.Orientation.HORIZONTAL;
+import org.audiveris.omr.run.RunTable;
+import org.audiveris.omr.run.RunTableFactory;
+
+import ij.process.ByteProcessor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+import java.awt.Rectangle;
+import java.util.Random;
+
+/**
+ * Class <code>BinaryBufferTest</code> checks {@link BinaryBuffer} and its fast paths against
+ * the equivalent ByteProcessor processing, on random images.
+ * <p>
+ * Image widths are chosen around the 64-bit word boundaries.
+ *
+ * @author Hervé Bitteur
+ */
+public class BinaryBufferTest
+{
+
+    private static final int[] WIDTHS = {1, 7, 63, 64, 65, 127, 130};
+
+    private static final int HEIGHT = 37;
+
+    private static final int BINARIZATION_THRESHOLD = 110;
+
+    private final Random random = new Random(123);
+
+    /**
+     * Creates a new <code>BinaryBufferTest</code> object.
+     */
+    public BinaryBufferTest ()
+    {
+    }
+
+    /**
+     * Test of conversions from/to BufferedImage.
+     */
+    @Test
+    public void testBufferedImage ()
+    {
+        for (int width : WIDTHS) {
+            final ByteProcessor bp = createImage(width, HEIGHT);
+            final BinaryBuffer buffer = BinaryBuffer.valueOf(bp);
+            final BinaryBuffer copy = BinaryBuffer.valueOf(buffer.toBufferedImage());
+            assertPixels("width " + width, bp, copy);
+
+            // Direct conversions, with no intermediate BinaryBuffer
+            final ByteProcessor direct = BinaryBuffer.byteProcessorOf(
+                    BinaryBuffer.binaryImageOf(bp));
+            assertArrayEquals(
+                    "width " + width,
+                    (byte[]) bp.getPixels(),
+                    (byte[]) direct.getPixels());
+            assertArrayEquals(
+                    "width " + width,
+                    (byte[]) buffer.toByteProcessor().getPixels(),
+                    (byte[]) BinaryBuffer.byteProcessorOf(buffer.toBufferedImage()).getPixels());
+        }
+    }
+
+    /**
+     * Test of conversions from/to ByteProcessor, and from RunTable.
+     */
+    @Test
+    public void testByteProcessor ()
+    {
+        for (int width : WIDTHS) {
+            final ByteProcessor bp = createImage(width, HEIGHT);
+            final BinaryBuffer buffer = BinaryBuffer.valueOf(bp);
+            assertPixels("width " + width, bp, buffer);
+            assertArrayEquals(
+                    (byte[]) bp.getPixels(),
+                    (byte[]) buffer.toByteProcessor().getPixels());
+
+            final RunTable table = new RunTableFactory(HORIZONTAL).createTable(bp);
+            assertPixels("table width " + width, bp, BinaryBuffer.valueOf(table));
+        }
+    }
+
+    /**
+     * Test of cardinality methods.
+     */
+    @Test
+    public void testCardinality ()
+    {
+        for (int width : WIDTHS) {
+            final ByteProcessor bp = createImage(width, HEIGHT);
+            final BinaryBuffer buffer = BinaryBuffer.valueOf(bp);
+            assertEquals(count(bp, new Rectangle(0, 0, width, HEIGHT)), buffer.cardinality());
+
+            for (int i = 0; i < 50; i++) {
+                final Rectangle rect = randomRectangle(width, HEIGHT);
+                assertEquals(rect.toString(), count(bp, rect), buffer.cardinality(rect));
+            }
+        }
+    }
+
+    /**
+     * Test of logical operations between buffers.
+     */
+    @Test
+    public void testLogicalOperations ()
+    {
+        for (int width : WIDTHS) {
+            final ByteProcessor bp1 = createImage(width, HEIGHT);
+            final ByteProcessor bp2 = createImage(width, HEIGHT);
+            final BinaryBuffer and = BinaryBuffer.valueOf(bp1);
+            and.and(BinaryBuffer.valueOf(bp2));
+            final BinaryBuffer or = BinaryBuffer.valueOf(bp1);
+            or.or(BinaryBuffer.valueOf(bp2));
+            final BinaryBuffer andNot = BinaryBuffer.valueOf(bp1);
+            andNot.andNot(BinaryBuffer.valueOf(bp2));
+            final BinaryBuffer xor = BinaryBuffer.valueOf(bp1);
+            xor.xor(BinaryBuffer.valueOf(bp2));
+
+            for (int y = 0; y < HEIGHT; y++) {
+                for (int x = 0; x < width; x++) {
+                    final boolean f1 = bp1.get(x, y) == 0;
+                    final boolean f2 = bp2.get(x, y) == 0;
+                    assertEquals(f1 && f2, and.isFore(x, y));
+                    assertEquals(f1 || f2, or.isFore(x, y));
+                    assertEquals(f1 && !f2, andNot.isFore(x, y));
+                    assertEquals(f1 != f2, xor.isFore(x, y));
+                }
+            }
+        }
+    }
+
+    /**
+     * Test of binary morphology against graylevel morphology, as used by BlackHeadSizer.
+     */
+    @Test
+    public void testMorphology ()
+    {
+        final int[] seOffset = {0, 0};
+
+        for (double diameter : new double[]{2.0, 3.0, 4.5, 6.0, 9.0}) {
+            final float radius = (float) (diameter - 1) / 2;
+            final MorphoProcessor mp = new MorphoProcessor(
+                    new StructureElement(0, 1, radius, seOffset));
+
+            for (int width : WIDTHS) {
+                final ByteProcessor bp = createImage(width, HEIGHT);
+                final String msg = "diameter " + diameter + " width " + width;
+
+                final ByteProcessor closed = (ByteProcessor) bp.duplicate();
+                mp.close(closed);
+                closed.threshold(BINARIZATION_THRESHOLD);
+                final BinaryBuffer bClosed = BinaryBuffer.valueOf(bp);
+                mp.close(bClosed);
+                assertPixels("close " + msg, closed, bClosed);
+
+                final ByteProcessor opened = (ByteProcessor) bp.duplicate();
+                mp.open(opened);
+                opened.threshold(BINARIZATION_THRESHOLD);
+                final BinaryBuffer bOpened = BinaryBuffer.valueOf(bp);
+                mp.open(bOpened);
+                assertPixels("open " + msg, opened, bOpened);
+
+                final ByteProcessor dilated = (ByteProcessor) bp.duplicate();
+                mp.dilate(dilated);
+                final BinaryBuffer bDilated = BinaryBuffer.valueOf(bp);
+                mp.dilate(bDilated);
+                assertPixels("dilate " + msg, dilated, bDilated);
+
+                final ByteProcessor eroded = (ByteProcessor) bp.duplicate();
+                mp.erode(eroded);
+                final BinaryBuffer bEroded = BinaryBuffer.valueOf(bp);
+                mp.erode(bEroded);
+                assertPixels("erode " + msg, eroded, bEroded);
+            }
+        }
+    }
+
+    /**
+     * Test of nextSetBit and nextClearBit methods.
+     */
+    @Test
+    public void testNextBits ()
+    {
+        for (int width : WIDTHS) {
+            final ByteProcessor bp = createImage(width, HEIGHT);
+            final BinaryBuffer buffer = BinaryBuffer.valueOf(bp);
+
+            for (int y = 0; y < HEIGHT; y++) {
+                for (int x = 0; x < width; x++) {
+                    assertEquals(next(bp, x, y, true), buffer.nextSetBit(x, y));
+                    assertEquals(next(bp, x, y, false), buffer.nextClearBit(x, y));
+                }
+            }
+        }
+    }
+
+    private void assertPixels (String msg,
+                               ByteProcessor bp,
+                               BinaryBuffer buffer)
+    {
+        assertEquals(msg, bp.getWidth(), buffer.getWidth());
+        assertEquals(msg, bp.getHeight(), buffer.getHeight());
+
+        for (int y = 0; y < bp.getHeight(); y++) {
+            for (int x = 0; x < bp.getWidth(); x++) {
+                assertEquals(
+                        msg + " at x:" + x + " y:" + y,
+                        bp.get(x, y) == 0,
+                        buffer.isFore(x, y));
+            }
+        }
+    }
+
+    private int count (ByteProcessor bp,
+                       Rectangle rect)
+    {
+        final Rectangle r = rect.intersection(new Rectangle(0, 0, bp.getWidth(), bp.getHeight()));
+        int count = 0;
+
+        for (int y = r.y; y < (r.y + r.height); y++) {
+            for (int x = r.x; x < (r.x + r.width); x++) {
+                if (bp.get(x, y) == 0) {
+                    count++;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Create a binary image made of random blobs and noise.
+     */
+    private ByteProcessor createImage (int width,
+                                       int height)
+    {
+        final ByteProcessor bp = new ByteProcessor(width, height);
+        bp.setValue(255);
+        bp.fill();
+        bp.setValue(0);
+
+        for (int i = 0; i < 4; i++) {
+            final Rectangle r = randomRectangle(width, height);
+            bp.fillOval(r.x, r.y, r.width, r.height);
+        }
+
+        for (int i = (width * height) / 20; i > 0; i--) {
+            bp.set(random.nextInt(width), random.nextInt(height), random.nextBoolean() ? 0 : 255);
+        }
+
+        return bp;
+    }
+
+    /**
+     * Report the abscissa of next foreground (or background) pixel, or image width.
+     */
+    private int next (ByteProcessor bp,
+                      int x,
+                      int y,
+                      boolean fore)
+    {
+        for (int i = x; i < bp.getWidth(); i++) {
+            if ((bp.get(i, y) == 0) == fore) {
+                return i;
+            }
+        }
+
+        return bp.getWidth();
+    }
+
+    private Rectangle randomRectangle (int width,
+                                       int height)
+    {
+        final int x = random.nextInt(width);
+        final int y = random.nextInt(height);
+
+        return new Rectangle(x, y, 1 + random.nextInt(width - x), 1 + random.nextInt(height - y));
+    }
+}
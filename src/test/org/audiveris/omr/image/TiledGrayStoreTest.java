@@ -0,0 +1,123 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                               T i l e d G r a y S t o r e T e s t                              //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.image;
+
+import ij.process.ByteProcessor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.Random;
+
+/**
+ * Class <code>TiledGrayStoreTest</code> checks {@link TiledGrayStore} pixel access, directly and
+ * via its band cache, against the original gray image.
+ * <p>
+ * Image dimensions are chosen so that the last strip and the last band of tiles are partial.
+ *
+ * @author Hervé Bitteur
+ */
+public class TiledGrayStoreTest
+{
+
+    private static final int WIDTH = 1300;
+
+    private static final int HEIGHT = 1100;
+
+    private final Random random = new Random(123);
+
+    /**
+     * Creates a new <code>TiledGrayStoreTest</code> object.
+     */
+    public TiledGrayStoreTest ()
+    {
+    }
+
+    private BufferedImage createImage ()
+    {
+        final BufferedImage img = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+        random.nextBytes(((DataBufferByte) img.getRaster().getDataBuffer()).getData());
+
+        return img;
+    }
+
+    /**
+     * Test of band cache, when scanned column by column and at random locations.
+     */
+    @Test
+    public void testBandCache ()
+        throws Exception
+    {
+        final ByteProcessor bp = new ByteProcessor(createImage());
+        final TiledGrayStore store = TiledGrayStore.create(bp.getBufferedImage());
+        final PixelSource cache = store.newBandCache();
+
+        for (int x = 0; x < WIDTH; x++) {
+            for (int y = 0; y < HEIGHT; y++) {
+                assertEquals("x:" + x + " y:" + y, bp.get(x, y), cache.get(x, y));
+            }
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            final int x = random.nextInt(WIDTH);
+            final int y = random.nextInt(HEIGHT);
+            assertEquals("x:" + x + " y:" + y, bp.get(x, y), cache.get(x, y));
+        }
+    }
+
+    /**
+     * Test of binarization read from the band cache rather than from a whole gray buffer.
+     */
+    @Test
+    public void testFilter ()
+        throws Exception
+    {
+        final ByteProcessor bp = new ByteProcessor(createImage());
+        final TiledGrayStore store = TiledGrayStore.create(bp.getBufferedImage());
+        final ByteProcessor expected = new VerticalFilter(new ProcessorSource(bp), 0.7, 0.9)
+                .filteredImage();
+        final ByteProcessor actual = new VerticalFilter(store.newBandCache(), 0.7, 0.9)
+                .filteredImage();
+
+        assertArrayEquals((byte[]) expected.getPixels(), (byte[]) actual.getPixels());
+    }
+
+    /**
+     * Test of direct pixel access.
+     */
+    @Test
+    public void testGet ()
+        throws Exception
+    {
+        final ByteProcessor bp = new ByteProcessor(createImage());
+        final TiledGrayStore store = TiledGrayStore.create(bp.getBufferedImage());
+
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                assertEquals("x:" + x + " y:" + y, bp.get(x, y), store.get(x, y));
+            }
+        }
+    }
+}
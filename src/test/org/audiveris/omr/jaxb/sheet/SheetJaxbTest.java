@@ -0,0 +1,179 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                    S h e e t J a x b T e s t                                   //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.jaxb.sheet;
+
+import org.audiveris.omr.OMR;
+import org.audiveris.omr.sheet.Book;
+import org.audiveris.omr.sheet.BookManager;
+import org.audiveris.omr.sheet.Sheet;
+import org.audiveris.omr.sheet.SheetStub;
+import org.audiveris.omr.step.OmrStep;
+import org.audiveris.omr.ui.symbol.MusicFont;
+import org.audiveris.omr.util.Jaxb;
+import org.audiveris.omr.util.OmrExecutors;
+
+import org.junit.AfterClass;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Class <code>SheetJaxbTest</code> checks that the sheet structure, written with the glyph
+ * index before the pages, is read back identically, and that older files, with the glyph
+ * index after the pages, are read back identically as well.
+ *
+ * @author Hervé Bitteur
+ */
+public class SheetJaxbTest
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Path INPUT = Paths.get("data/examples/chula.png");
+
+    private static final Path DIR = Paths.get("data/temp/sheet");
+
+    private static Book book;
+
+    private static SheetStub stub;
+
+    /** Sheet structure, as written from the transcribed sheet. */
+    private static byte[] reference;
+
+    /** Sheet structure, as written again after a plain JAXB reload. */
+    private static String expected;
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Creates a new <code>SheetJaxbTest</code> object.
+     */
+    public SheetJaxbTest ()
+    {
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    @Test
+    public void testGlyphIndexFirst ()
+    {
+        final String xml = new String(reference, StandardCharsets.UTF_8);
+        final int index = xml.indexOf("<glyph-index>");
+        assertTrue("no glyph-index", index > 0);
+        assertTrue("glyph-index after pages", index < xml.indexOf("<page"));
+    }
+
+    @Test
+    public void testLegacyOrder ()
+        throws Exception
+    {
+        // Older files have the glyph index after the pages
+        final String xml = new String(reference, StandardCharsets.UTF_8);
+        final int start = xml.indexOf("<glyph-index>");
+        final int stop = xml.indexOf("</glyph-index>") + "</glyph-index>".length();
+        final int pagesEnd = xml.lastIndexOf("</page>") + "</page>".length();
+        final String legacy = xml.substring(0, start) + xml.substring(stop, pagesEnd)
+                                      + xml.substring(start, stop) + xml.substring(pagesEnd);
+
+        try (InputStream is = new ByteArrayInputStream(legacy.getBytes(StandardCharsets.UTF_8))) {
+            assertEquals(expected, write(reload(Sheet.unmarshal(is)), "legacy.xml"));
+        }
+    }
+
+    @Test
+    public void testRoundTrip ()
+        throws Exception
+    {
+        try (InputStream is = new ByteArrayInputStream(expected.getBytes(StandardCharsets.UTF_8))) {
+            assertEquals(expected, write(reload(Sheet.unmarshal(is)), "again.xml"));
+        }
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    @BeforeClass
+    public static void setUpClass ()
+        throws Exception
+    {
+        Files.createDirectories(DIR);
+        OmrExecutors.restart();
+        OMR.engine = BookManager.getInstance();
+        MusicFont.checkMusicFont();
+
+        book = OMR.engine.loadInput(INPUT);
+        book.createStubs();
+
+        stub = book.getStubs().get(0);
+        assertTrue("Could not reach PAGE", stub.reachStep(OmrStep.PAGE, false));
+        reference = write(stub.getSheet(), "reference.xml").getBytes(StandardCharsets.UTF_8);
+
+        // First reload is the yardstick
+        try (InputStream is = new ByteArrayInputStream(reference)) {
+            expected = write(reload(Sheet.unmarshal(is)), "unmarshal.xml");
+        }
+    }
+
+    @AfterClass
+    public static void tearDownClass ()
+    {
+        if (book != null) {
+            book.close(null);
+        }
+
+        OmrExecutors.shutdown();
+    }
+
+    /**
+     * Complete a reloaded sheet, as SheetStub.getSheet does.
+     * <p>
+     * The glyph index is weak, so unreferenced glyphs are collected before any comparison.
+     */
+    private static Sheet reload (Sheet sheet)
+    {
+        sheet.afterReload(stub);
+        System.gc();
+
+        return sheet;
+    }
+
+    /**
+     * Write the sheet structure, keeping a copy in DIR for inspection.
+     */
+    private static String write (Sheet sheet,
+                                 String fileName)
+        throws Exception
+    {
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+        Jaxb.marshal(sheet, os, Sheet.getJaxbContext());
+        Files.write(DIR.resolve(fileName), os.toByteArray());
+
+        return os.toString(StandardCharsets.UTF_8.name());
+    }
+}
@@ -0,0 +1,233 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                   C o n v e x Q u a d T e s t                                  //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.math;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.awt.geom.Area;
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Class <code>ConvexQuadTest</code> checks {@link ConvexQuad} geometric tests against the
+ * {@link Area} they replace, on random quadrilaterals, on rectangles and on boundary points.
+ *
+ * @author Hervé Bitteur
+ */
+public class ConvexQuadTest
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final int QUAD_COUNT = 300;
+
+    private static final int MAX_COORD = 40;
+
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    private final Random random = new Random(13);
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Creates a new <code>ConvexQuadTest</code> object.
+     */
+    public ConvexQuadTest ()
+    {
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    /**
+     * Check point containment on a grid of half-pixel step, which hits vertices and edges.
+     */
+    private void checkGrid (ConvexQuad quad,
+                            Area area)
+    {
+        final Rectangle2D b = quad.getBounds2D();
+
+        for (double y = Math.floor(b.getMinY()) - 1; y <= b.getMaxY() + 1; y += 0.5) {
+            for (double x = Math.floor(b.getMinX()) - 1; x <= b.getMaxX() + 1; x += 0.5) {
+                assertEquals(
+                        quad + " contains " + x + "," + y,
+                        area.contains(x, y),
+                        quad.contains(x, y));
+            }
+        }
+    }
+
+    /**
+     * Build a random convex quadrilateral with integer vertices, in any winding.
+     */
+    private ConvexQuad createRandomQuad ()
+    {
+        while (true) {
+            final double[] xs = new double[4];
+            final double[] ys = new double[4];
+
+            for (int i = 0; i < 4; i++) {
+                xs[i] = random.nextInt(MAX_COORD);
+                ys[i] = random.nextInt(MAX_COORD);
+            }
+
+            // Order vertices by angle around their barycenter
+            final double cx = (xs[0] + xs[1] + xs[2] + xs[3]) / 4;
+            final double cy = (ys[0] + ys[1] + ys[2] + ys[3]) / 4;
+            final Integer[] order = { 0, 1, 2, 3 };
+            Arrays.sort(order, (i, j) -> Double.compare(
+                    Math.atan2(ys[i] - cy, xs[i] - cx),
+                    Math.atan2(ys[j] - cy, xs[j] - cx)));
+
+            final Path2D path = new Path2D.Double();
+            final int dir = random.nextBoolean() ? 1 : 3; // Clockwise or counter-clockwise
+            path.moveTo(xs[order[0]], ys[order[0]]);
+
+            for (int k = 1; k < 4; k++) {
+                final int i = order[(k * dir) & 3];
+                path.lineTo(xs[i], ys[i]);
+            }
+
+            path.closePath();
+
+            final ConvexQuad quad = ConvexQuad.of(path);
+
+            if (quad != null) {
+                return quad;
+            }
+        }
+    }
+
+    /**
+     * Build a random rectangle, with integer or fractional coordinates.
+     */
+    private Rectangle2D createRandomRectangle ()
+    {
+        if (random.nextBoolean()) {
+            return new Rectangle2D.Double(
+                    random.nextInt(MAX_COORD + 4) - 2,
+                    random.nextInt(MAX_COORD + 4) - 2,
+                    1 + random.nextInt(MAX_COORD / 4),
+                    1 + random.nextInt(MAX_COORD / 4));
+        } else {
+            return new Rectangle2D.Double(
+                    (random.nextDouble() * (MAX_COORD + 4)) - 2,
+                    (random.nextDouble() * (MAX_COORD + 4)) - 2,
+                    random.nextDouble() * MAX_COORD / 4,
+                    random.nextDouble() * MAX_COORD / 4);
+        }
+    }
+
+    @Test
+    public void testContainsPoints ()
+    {
+        for (int n = 0; n < QUAD_COUNT; n++) {
+            final ConvexQuad quad = createRandomQuad();
+            checkGrid(quad, quad.toArea());
+        }
+    }
+
+    @Test
+    public void testContainsRectangles ()
+    {
+        for (int n = 0; n < QUAD_COUNT; n++) {
+            final ConvexQuad quad = createRandomQuad();
+            final Area area = quad.toArea();
+
+            for (int i = 0; i < 100; i++) {
+                final Rectangle2D r = createRandomRectangle();
+                assertEquals(quad + " contains " + r, area.contains(r), quad.contains(r));
+            }
+        }
+    }
+
+    @Test
+    public void testIntersectsQuads ()
+    {
+        for (int n = 0; n < QUAD_COUNT; n++) {
+            final ConvexQuad q1 = createRandomQuad();
+            final ConvexQuad q2 = createRandomQuad();
+            final Area area = q1.toArea();
+            area.intersect(q2.toArea());
+            assertEquals(q1 + " intersects " + q2, !area.isEmpty(), q1.intersects(q2));
+            assertEquals(q2 + " intersects " + q1, !area.isEmpty(), q2.intersects(q1));
+        }
+    }
+
+    @Test
+    public void testIntersectsRectangles ()
+    {
+        for (int n = 0; n < QUAD_COUNT; n++) {
+            final ConvexQuad quad = createRandomQuad();
+            final Area area = quad.toArea();
+
+            for (int i = 0; i < 100; i++) {
+                final Rectangle2D r = createRandomRectangle();
+                final Area inter = new Area(r);
+                inter.intersect(area);
+                assertEquals(quad + " intersects " + r, !inter.isEmpty(), quad.intersects(r));
+            }
+        }
+    }
+
+    @Test
+    public void testOfRectangle ()
+    {
+        final Rectangle2D r = new Rectangle2D.Double(2, 3, 10, 5);
+        final ConvexQuad quad = ConvexQuad.of(r);
+        assertNotNull(quad);
+        checkGrid(quad, new Area(r));
+
+        for (int i = 0; i < 100; i++) {
+            final Rectangle2D other = createRandomRectangle();
+            assertEquals("intersects " + other, r.intersects(other), quad.intersects(other));
+            assertEquals("contains " + other, r.contains(other), quad.contains(other));
+        }
+    }
+
+    @Test
+    public void testParallelograms ()
+    {
+        for (int n = 0; n < QUAD_COUNT; n++) {
+            final Point2D p1 = new Point2D.Double(
+                    random.nextDouble() * MAX_COORD,
+                    random.nextDouble() * MAX_COORD);
+            final Point2D p2 = new Point2D.Double(
+                    p1.getX() + 1 + (random.nextDouble() * MAX_COORD),
+                    p1.getY() + ((random.nextDouble() - 0.5) * 5));
+            final Point2D p3 = new Point2D.Double(
+                    p1.getX() + ((random.nextDouble() - 0.5) * 5),
+                    p1.getY() + 1 + (random.nextDouble() * MAX_COORD));
+            final double thickness = 1 + (random.nextDouble() * 5);
+
+            checkGrid(
+                    ConvexQuad.horizontalParallelogram(p1, p2, thickness),
+                    AreaUtil.horizontalParallelogram(p1, p2, thickness));
+            checkGrid(
+                    ConvexQuad.verticalParallelogram(p1, p3, thickness),
+                    AreaUtil.verticalParallelogram(p1, p3, thickness));
+        }
+    }
+}
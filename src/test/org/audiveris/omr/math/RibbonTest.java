@@ -0,0 +1,198 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                       R i b b o n T e s t                                      //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.math;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Shape;
+import java.awt.geom.Area;
+import java.awt.geom.Line2D;
+import java.awt.geom.Path2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Class <code>RibbonTest</code> checks {@link Ribbon} geometric tests against the
+ * {@link Area} instances built by {@link AreaUtil}, for straight, polygonal and curved medians.
+ *
+ * @author Hervé Bitteur
+ */
+public class RibbonTest
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final int RIBBON_COUNT = 200;
+
+    private static final int MAX_COORD = 40;
+
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    private final Random random = new Random(17);
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Creates a new <code>RibbonTest</code> object.
+     */
+    public RibbonTest ()
+    {
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    /**
+     * Check point containment on a grid of half-pixel step, and random rectangles.
+     */
+    private void check (Ribbon ribbon,
+                        Area area)
+    {
+        final Rectangle2D b = area.getBounds2D();
+
+        for (double y = Math.floor(b.getMinY()) - 1; y <= b.getMaxY() + 1; y += 0.5) {
+            for (double x = Math.floor(b.getMinX()) - 1; x <= b.getMaxX() + 1; x += 0.5) {
+                assertEquals(
+                        ribbon + " contains " + x + "," + y,
+                        area.contains(x, y),
+                        ribbon.contains(x, y));
+            }
+        }
+
+        for (int i = 0; i < 100; i++) {
+            final Rectangle2D r = new Rectangle2D.Double(
+                    b.getX() - 5 + random.nextInt((int) b.getWidth() + 10),
+                    b.getY() - 5 + random.nextInt((int) b.getHeight() + 10),
+                    1 + random.nextInt(6),
+                    1 + random.nextInt(6));
+            final Area inter = new Area(r);
+            inter.intersect(area);
+            assertEquals(ribbon + " intersects " + r, !inter.isEmpty(), ribbon.intersects(r));
+        }
+    }
+
+    /**
+     * Build a random polyline going downward, with integer points.
+     */
+    private Path2D createRandomMedian ()
+    {
+        final Path2D median = new Path2D.Double();
+        double x = random.nextInt(MAX_COORD);
+        double y = random.nextInt(MAX_COORD);
+        median.moveTo(x, y);
+
+        for (int i = 1 + random.nextInt(4); i > 0; i--) {
+            x += random.nextInt(7) - 3;
+            y += 1 + random.nextInt(MAX_COORD / 2);
+            median.lineTo(x, y);
+        }
+
+        return median;
+    }
+
+    @Test
+    public void testHorizontal ()
+    {
+        for (int n = 0; n < RIBBON_COUNT; n++) {
+            final Point2D left = new Point2D.Double(
+                    random.nextDouble() * MAX_COORD,
+                    random.nextDouble() * MAX_COORD);
+            final Point2D right = new Point2D.Double(
+                    left.getX() + 1 + (random.nextDouble() * MAX_COORD),
+                    left.getY() + ((random.nextDouble() - 0.5) * 5));
+            final double height = 1 + (random.nextDouble() * 5);
+
+            check(
+                    Ribbon.horizontal(left, right, height),
+                    AreaUtil.horizontalParallelogram(left, right, height));
+        }
+    }
+
+    @Test
+    public void testIntersectsRibbons ()
+    {
+        for (int n = 0; n < RIBBON_COUNT; n++) {
+            final Path2D m1 = createRandomMedian();
+            final Path2D m2 = createRandomMedian();
+            final int w1 = 2 * (1 + random.nextInt(3));
+            final int w2 = 2 * (1 + random.nextInt(3));
+            final Ribbon r1 = Ribbon.vertical(m1, w1);
+            final Ribbon r2 = Ribbon.vertical(m2, w2);
+            final Area inter = AreaUtil.verticalRibbon(m1, w1);
+            inter.intersect(AreaUtil.verticalRibbon(m2, w2));
+            assertEquals(r1 + " intersects " + r2, !inter.isEmpty(), r1.intersects(r2));
+        }
+    }
+
+    @Test
+    public void testVerticalLine ()
+    {
+        for (int n = 0; n < RIBBON_COUNT; n++) {
+            final Line2D median = new Line2D.Double(
+                    random.nextInt(MAX_COORD),
+                    random.nextInt(MAX_COORD),
+                    random.nextInt(MAX_COORD),
+                    MAX_COORD + random.nextInt(MAX_COORD));
+            final double width = 1 + random.nextInt(6);
+
+            check(Ribbon.vertical(median, width), AreaUtil.verticalRibbon(median, width));
+        }
+    }
+
+    @Test
+    public void testVerticalPolyline ()
+    {
+        for (int n = 0; n < RIBBON_COUNT; n++) {
+            final Path2D median = createRandomMedian();
+            final double width = 2 * (1 + random.nextInt(3));
+
+            check(Ribbon.vertical(median, width), AreaUtil.verticalRibbon(median, width));
+        }
+    }
+
+    @Test
+    public void testVerticalSpline ()
+    {
+        final List<Point2D> points = new ArrayList<>();
+        points.add(new Point2D.Double(10, 0));
+        points.add(new Point2D.Double(13, 15));
+        points.add(new Point2D.Double(9, 30));
+        points.add(new Point2D.Double(12, 45));
+
+        final Shape median = NaturalSpline.interpolate(points);
+        final Ribbon ribbon = Ribbon.vertical(median, 4);
+        final Area area = AreaUtil.verticalRibbon(median, 4);
+
+        // Curve is kept, not flattened
+        assertTrue("curve not kept", ribbon.toArea().equals(area));
+        check(ribbon, area);
+
+        // Curved ribbon against polygonal ribbon
+        final Line2D line = new Line2D.Double(14, 0, 14, 45);
+        final Area inter = AreaUtil.verticalRibbon(line, 2);
+        inter.intersect(area);
+        assertEquals(!inter.isEmpty(), ribbon.intersects(Ribbon.vertical(line, 2)));
+    }
+}
@@ -23,7 +23,9 @@ package org.audiveris.omr.run;
 
 import ij.process.ByteProcessor;
 
+import org.audiveris.omr.image.BinaryBuffer;
 import org.audiveris.omr.image.GlobalFilter;
+import org.audiveris.omr.image.ProcessorSource;
 import static org.audiveris.omr.run.Orientation.*;
 import org.audiveris.omr.run.RunTable.RunSequence;
 import static org.junit.Assert.*;
@@ -31,6 +33,15 @@ import org.junit.Test;
 
 import java.awt.Dimension;
 import java.awt.Point;
+import java.awt.Rectangle;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 import java.util.function.Predicate;
 
 /**
@@ -83,6 +94,35 @@ public class RunTableTest
         }
     }
 
+    /**
+     * Test of createTable methods on BinaryBuffer, of class RunTableFactory.
+     */
+    @Test
+    public void testCreateTable_BinaryBuffer ()
+    {
+        System.out.println("\n+++ createTable BinaryBuffer");
+
+        final Random random = new Random(123);
+
+        for (Orientation orientation : Orientation.values()) {
+            final RunTableFactory factory = new RunTableFactory(orientation);
+
+            for (int width : new int[]{1, 7, 63, 64, 65, 127, 130}) {
+                final ByteProcessor bp = createRandomImage(width, 37, random);
+                final BinaryBuffer buffer = BinaryBuffer.valueOf(bp);
+                assertEquals(factory.createTable(bp), factory.createTable(buffer));
+
+                for (int i = 0; i < 10; i++) {
+                    final Rectangle roi = createRandomRectangle(width, 37, random);
+                    assertEquals(
+                            orientation + " " + roi,
+                            factory.createTable(bp, roi),
+                            factory.createTable(buffer, roi));
+                }
+            }
+        }
+    }
+
     /**
      * Test of dumpOf method, of class RunTable.
      */
@@ -133,6 +173,53 @@ public class RunTableTest
         assertEquals(expResult, result);
     }
 
+    /**
+     * Test of gapDistance method, of class RunTable, against a brute-force pixel search.
+     */
+    @Test
+    public void testGapDistance ()
+    {
+        System.out.println("\n+++ gapDistance");
+
+        final Random random = new Random(42);
+
+        for (Orientation orientation : Orientation.values()) {
+            final RunTableFactory factory = new RunTableFactory(orientation);
+
+            for (int i = 0; i < 300; i++) {
+                final ByteProcessor bp1 = createRandomEdgeImage(random);
+                final ByteProcessor bp2 = createRandomEdgeImage(random);
+                final Point offset1 = new Point(random.nextInt(7) - 3, random.nextInt(7) - 3);
+                final Point offset2 = new Point(random.nextInt(15) - 7, random.nextInt(15) - 7);
+                final Rectangle box = createRandomRectangle(24, 24, random);
+                box.translate(-8, -8); // Box may exceed table bounds
+
+                final List<Point> pixels1 = blackPixels(bp1, offset1);
+                final List<Point> pixels2 = blackPixels(bp2, offset2);
+                int expected = Integer.MAX_VALUE;
+
+                for (Point p1 : pixels1) {
+                    for (Point p2 : pixels2) {
+                        if (box.contains(p2)) {
+                            final int dx = Math.abs(p2.x - p1.x);
+                            final int dy = Math.abs(p2.y - p1.y);
+                            expected = Math.min(
+                                    expected,
+                                    (3 * Math.max(dx, dy)) + Math.min(dx, dy));
+                        }
+                    }
+                }
+
+                final RunTable table1 = factory.createTable(bp1);
+                final RunTable table2 = factory.createTable(bp2);
+                assertEquals(
+                        orientation + " " + offset1 + " " + offset2 + " " + box,
+                        expected,
+                        table1.gapDistance(offset1, table2, offset2, box));
+            }
+        }
+    }
+
     /**
      * Test of get method, of class RunTable.
      */
@@ -307,7 +394,7 @@ public class RunTableTest
         ByteProcessor buffer = instance.getBuffer();
         buffer.invert();
 
-        GlobalFilter filter = new GlobalFilter(buffer, 127);
+        GlobalFilter filter = new GlobalFilter(new ProcessorSource(buffer), 127);
         RunTableFactory factory = new RunTableFactory(HORIZONTAL);
         RunTable that = factory.createTable(filter.filteredImage());
         System.out.println("inverted:\n" + that.dumpOf());
@@ -319,6 +406,48 @@ public class RunTableTest
         assertEquals(5, instance.getTotalRunCount());
     }
 
+    /**
+     * Test of intersects method, of class RunTable, against a brute-force pixel search.
+     */
+    @Test
+    public void testIntersects_RunTable ()
+    {
+        System.out.println("\n+++ intersects_RunTable");
+
+        final Random random = new Random(24);
+
+        for (Orientation orientation : Orientation.values()) {
+            final RunTableFactory factory = new RunTableFactory(orientation);
+
+            for (int i = 0; i < 300; i++) {
+                final ByteProcessor bp1 = createRandomEdgeImage(random);
+                final ByteProcessor bp2 = createRandomEdgeImage(random);
+                final Point offset1 = new Point(random.nextInt(7) - 3, random.nextInt(7) - 3);
+                final Point offset2 = new Point(random.nextInt(25) - 12, random.nextInt(25) - 12);
+                final List<Point> pixels1 = blackPixels(bp1, offset1);
+                final List<Point> pixels2 = blackPixels(bp2, offset2);
+                boolean common = false;
+                boolean touching = false;
+
+                for (Point p1 : pixels1) {
+                    for (Point p2 : pixels2) {
+                        final int d = Math.abs(p2.x - p1.x) + Math.abs(p2.y - p1.y);
+                        common |= (d == 0);
+                        touching |= (d <= 1);
+                    }
+                }
+
+                final RunTable table1 = factory.createTable(bp1);
+                final RunTable table2 = factory.createTable(bp2);
+                final String msg = orientation + " " + offset1 + " " + offset2;
+                assertEquals(msg, common, table1.intersects(offset1, table2, offset2, false));
+                assertEquals(msg, common, table2.intersects(offset2, table1, offset1, false));
+                assertEquals(msg, touching, table1.intersects(offset1, table2, offset2, true));
+                assertEquals(msg, touching, table2.intersects(offset2, table1, offset1, true));
+            }
+        }
+    }
+
     /**
      * Test of purge method, of class RunTable.
      */
@@ -475,6 +604,67 @@ public class RunTableTest
         assertEquals(5, trimmed.getHeight());
     }
 
+    /**
+     * Test of writeRle and readRle methods, of class RunTable.
+     */
+    @Test
+    public void testWriteRle ()
+        throws IOException
+    {
+        System.out.println("\n+++ writeRle");
+
+        final Random random = new Random(7);
+        final List<ByteProcessor> images = new ArrayList<>();
+        final ByteProcessor white = new ByteProcessor(5, 3);
+        white.setValue(255);
+        white.fill();
+        images.add(white);
+
+        final ByteProcessor black = new ByteProcessor(300, 3); // Large values for varints
+        images.add(black);
+
+        for (int i = 0; i < 50; i++) {
+            images.add(createRandomEdgeImage(random));
+        }
+
+        for (Orientation orientation : Orientation.values()) {
+            final RunTableFactory factory = new RunTableFactory(orientation);
+
+            for (ByteProcessor bp : images) {
+                final RunTable table = factory.createTable(bp);
+                final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                table.writeRle(new DataOutputStream(baos));
+
+                final RunTable read = RunTable.readRle(
+                        new DataInputStream(new ByteArrayInputStream(baos.toByteArray())));
+                assertEquals(table, read);
+                assertEquals(table.persistentHashCode(), read.persistentHashCode());
+            }
+        }
+    }
+
+    //-------------//
+    // blackPixels //
+    //-------------//
+    /**
+     * Report the absolute locations of image black pixels.
+     */
+    private static List<Point> blackPixels (ByteProcessor bp,
+                                            Point offset)
+    {
+        final List<Point> pixels = new ArrayList<>();
+
+        for (int y = 0; y < bp.getHeight(); y++) {
+            for (int x = 0; x < bp.getWidth(); x++) {
+                if (bp.get(x, y) == 0) {
+                    pixels.add(new Point(x + offset.x, y + offset.y));
+                }
+            }
+        }
+
+        return pixels;
+    }
+
     //--------------------------//
     // createHorizontalInstance //
     //--------------------------//
@@ -525,6 +715,74 @@ public class RunTableTest
         return instance;
     }
 
+    //-----------------------//
+    // createRandomEdgeImage //
+    //-----------------------//
+    /**
+     * Create a small random image, whose first row and first column alternate black and
+     * white pixels, so that run sequences start with foreground as well as with background
+     * (leading background is encoded as an empty first run).
+     */
+    private static ByteProcessor createRandomEdgeImage (Random random)
+    {
+        final int width = 3 + random.nextInt(10);
+        final int height = 3 + random.nextInt(10);
+        final ByteProcessor bp = createRandomImage(width, height, random);
+
+        for (int x = 0; x < width; x++) {
+            bp.set(x, 0, ((x % 2) == 0) ? 255 : 0);
+        }
+
+        for (int y = 0; y < height; y++) {
+            bp.set(0, y, ((y % 2) == 0) ? 255 : 0);
+        }
+
+        return bp;
+    }
+
+    //-------------------//
+    // createRandomImage //
+    //-------------------//
+    /**
+     * Create a binary image made of random blobs and noise.
+     */
+    static ByteProcessor createRandomImage (int width,
+                                            int height,
+                                            Random random)
+    {
+        final ByteProcessor bp = new ByteProcessor(width, height);
+        bp.setValue(255);
+        bp.fill();
+        bp.setValue(0);
+
+        for (int i = 0; i < 4; i++) {
+            final Rectangle r = createRandomRectangle(width, height, random);
+            bp.fillOval(r.x, r.y, r.width, r.height);
+        }
+
+        for (int i = (width * height) / 20; i > 0; i--) {
+            bp.set(random.nextInt(width), random.nextInt(height), random.nextBoolean() ? 0 : 255);
+        }
+
+        return bp;
+    }
+
+    //-----------------------//
+    // createRandomRectangle //
+    //-----------------------//
+    /**
+     * Create a random non-empty rectangle within the provided dimension.
+     */
+    static Rectangle createRandomRectangle (int width,
+                                            int height,
+                                            Random random)
+    {
+        final int x = random.nextInt(width);
+        final int y = random.nextInt(height);
+
+        return new Rectangle(x, y, 1 + random.nextInt(width - x), 1 + random.nextInt(height - y));
+    }
+
     //------------------------//
     // createVerticalInstance //
     //------------------------//
@@ -532,7 +790,7 @@ public class RunTableTest
     {
         RunTable hori = createHorizontalInstance();
         ByteProcessor buffer = hori.getBuffer();
-        GlobalFilter filter = new GlobalFilter(buffer, 127);
+        GlobalFilter filter = new GlobalFilter(new ProcessorSource(buffer), 127);
         RunTableFactory factory = new RunTableFactory(VERTICAL);
 
         RunTable instance = factory.createTable(filter.filteredImage());
@@ -0,0 +1,127 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                             P a r t w i s e S t r e a m e r T e s t                            //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.score;
+
+import org.audiveris.omr.OMR;
+import org.audiveris.omr.sheet.Book;
+import org.audiveris.omr.sheet.BookManager;
+import org.audiveris.omr.ui.symbol.MusicFont;
+import org.audiveris.omr.util.OmrExecutors;
+import org.audiveris.proxymusic.ScorePartwise;
+import org.audiveris.proxymusic.util.Marshalling;
+
+import org.junit.AfterClass;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class <code>PartwiseStreamerTest</code> checks that a score streamed measure by measure
+ * through a {@link PartwiseStreamer} gives the same MusicXML as the whole ScorePartwise tree
+ * marshalled by ProxyMusic.
+ * <p>
+ * The input has two pages, so that parts, measures and clefs are carried over page boundaries.
+ *
+ * @author Hervé Bitteur
+ */
+public class PartwiseStreamerTest
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Path INPUT = Paths.get("data/examples/Dichterliebe01.pdf");
+
+    private static Book book;
+
+    private static Score score;
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Creates a new <code>PartwiseStreamerTest</code> object.
+     */
+    public PartwiseStreamerTest ()
+    {
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    @Test
+    public void testSameAsTree ()
+        throws Exception
+    {
+        // Whole tree
+        final ByteArrayOutputStream treeOs = new ByteArrayOutputStream();
+        final ScorePartwise scorePartwise = PartwiseBuilder.build(score);
+        Marshalling.marshal(scorePartwise, treeOs, false, 2);
+
+        final String tree = treeOs.toString(StandardCharsets.UTF_8);
+        assertFalse("No part in tree", scorePartwise.getPart().isEmpty());
+        assertTrue("No measure in tree", tree.contains("<measure "));
+
+        // Streamed measures
+        final ByteArrayOutputStream streamOs = new ByteArrayOutputStream();
+        PartwiseBuilder.stream(score, new PartwiseStreamer(streamOs, false));
+
+        final String streamed = streamOs.toString(StandardCharsets.UTF_8);
+        assertEquals(tree, streamed);
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    @BeforeClass
+    public static void setUpClass ()
+        throws Exception
+    {
+        OmrExecutors.restart();
+        OMR.engine = BookManager.getInstance();
+        MusicFont.checkMusicFont();
+
+        book = OMR.engine.loadInput(INPUT);
+        book.createStubs();
+
+        final List<Score> scores = new ArrayList<>();
+        assertTrue("Could not transcribe", book.transcribe(book.getValidStubs(), scores, false));
+        assertEquals(1, scores.size());
+
+        score = scores.get(0);
+        assertEquals(2, score.getPageCount());
+    }
+
+    @AfterClass
+    public static void tearDownClass ()
+    {
+        if (book != null) {
+            book.close(null);
+        }
+
+        OmrExecutors.shutdown();
+    }
+}
@@ -0,0 +1,139 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                    B o o k Q u e u e T e s t                                   //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.sheet;
+
+import org.audiveris.omr.OMR;
+import org.audiveris.omr.step.OmrStep;
+import org.audiveris.omr.ui.symbol.MusicFont;
+import org.audiveris.omr.util.FileUtil;
+import org.audiveris.omr.util.OmrExecutors;
+import org.audiveris.omr.util.ZipFileSystem;
+
+import org.junit.After;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class <code>BookQueueTest</code> runs a coordinator and a worker, in two threads sharing a
+ * temporary queue folder.
+ *
+ * @author Hervé Bitteur
+ */
+public class BookQueueTest
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Path INPUT = Paths.get("data/examples/chula.png");
+
+    //~ Instance fields ----------------------------------------------------------------------------
+
+    private Path temp;
+
+    private Book book;
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Creates a new <code>BookQueueTest</code> object.
+     */
+    public BookQueueTest ()
+    {
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    @Before
+    public void setUp ()
+        throws Exception
+    {
+        OmrExecutors.restart();
+        OMR.engine = BookManager.getInstance();
+        MusicFont.checkMusicFont();
+        temp = Files.createTempDirectory("book-queue");
+    }
+
+    @After
+    public void tearDown ()
+        throws Exception
+    {
+        if (book != null) {
+            book.close(null);
+        }
+
+        OmrExecutors.shutdown();
+        FileUtil.deleteDirectory(temp);
+    }
+
+    @Test
+    public void testDistribute ()
+        throws Exception
+    {
+        final Path queue = temp.resolve("queue");
+        final Path bookPath = temp.resolve("chula" + OMR.BOOK_EXTENSION);
+        book = OMR.engine.loadInput(INPUT);
+        book.createStubs();
+        book.store(bookPath, false);
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            final Future<Boolean> worker = executor.submit(() -> BookQueue.serve(queue));
+
+            final boolean distributed = BookQueue.distribute(
+                    book,
+                    book.getStubs(),
+                    OmrStep.SCALE,
+                    false,
+                    queue);
+
+            Files.createFile(queue.resolve("stop"));
+            assertTrue("Worker failed", worker.get(5, TimeUnit.MINUTES));
+            assertTrue("Distribution failed", distributed);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Merged stub and sheet folder
+        assertTrue(book.getStubs().get(0).isDone(OmrStep.SCALE));
+
+        final Path root = ZipFileSystem.open(bookPath);
+
+        try {
+            assertTrue(Files.exists(root.resolve(Sheet.INTERNALS_RADIX + 1)));
+        } finally {
+            root.getFileSystem().close();
+        }
+
+        // Queue sub-folder (snapshot, tasks and results) is removed
+        assertFalse(Files.exists(queue.resolve(book.getRadix())));
+    }
+}
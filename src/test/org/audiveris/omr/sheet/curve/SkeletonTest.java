@@ -0,0 +1,174 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                     S k e l e t o n T e s t                                    //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.sheet.curve;
+
+import org.audiveris.omr.util.OmrExecutors;
+
+import ij.process.ByteProcessor;
+
+import org.junit.AfterClass;
+import static org.junit.Assert.assertArrayEquals;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.CubicCurve2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+/**
+ * Class <code>SkeletonTest</code> checks that skeletonization by overlapping bands gives the
+ * same pixels as whole-image skeletonization.
+ *
+ * @author Hervé Bitteur
+ */
+public class SkeletonTest
+{
+
+    private static final int WIDTH = 600;
+
+    private static final int HEIGHT = 700;
+
+    private static final int BAND_HEIGHT = 100;
+
+    private static final int MARGIN = 30;
+
+    /**
+     * Creates a new <code>SkeletonTest</code> object.
+     */
+    public SkeletonTest ()
+    {
+    }
+
+    /**
+     * Bands with black items thinner than margin, across band limits.
+     */
+    @Test
+    public void testSkeletonize_bands ()
+    {
+        final int thickness = MARGIN - 10;
+        checkSkeleton(createImage(thickness), thickness);
+    }
+
+    /**
+     * Black items thicker than margin, which forces whole-image processing.
+     */
+    @Test
+    public void testSkeletonize_thick ()
+    {
+        final int thickness = 3 * MARGIN;
+        checkSkeleton(createImage(thickness), thickness);
+    }
+
+    private void checkSkeleton (ByteProcessor binary,
+                                int thickness)
+    {
+        final ByteProcessor whole = (ByteProcessor) binary.duplicate();
+        whole.skeletonize();
+
+        for (boolean parallel : new boolean[]{false, true}) {
+            final ByteProcessor banded = Skeleton.skeletonize(
+                    binary,
+                    BAND_HEIGHT,
+                    MARGIN,
+                    thickness,
+                    parallel,
+                    null);
+            assertArrayEquals((byte[]) whole.getPixels(), (byte[]) banded.getPixels());
+        }
+    }
+
+    private BufferedImage createBlank ()
+    {
+        final BufferedImage img = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+        final Graphics2D g = img.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, WIDTH, HEIGHT);
+        g.dispose();
+
+        return img;
+    }
+
+    /**
+     * Create a binary image with staff-like lines, stems, curves and thick blobs, many of
+     * them crossing band limits.
+     *
+     * @param blobThickness thickness of the thickest blobs
+     */
+    private ByteProcessor createImage (int blobThickness)
+    {
+        final Random random = new Random(456);
+        final BufferedImage img = createBlank();
+        final Graphics2D g = img.createGraphics();
+        g.setColor(Color.BLACK);
+
+        // Horizontal lines, some right on band limits
+        for (int y = 20; y < HEIGHT; y += 33) {
+            g.fillRect(10, y, WIDTH - 20, 1 + random.nextInt(4));
+        }
+
+        // Vertical lines, across band limits
+        for (int x = 30; x < WIDTH; x += 47) {
+            final int y = random.nextInt(HEIGHT / 2);
+            g.fillRect(x, y, 2 + random.nextInt(3), 50 + random.nextInt(HEIGHT / 2));
+        }
+
+        // Thick curves
+        for (int i = 0; i < 10; i++) {
+            g.setStroke(new BasicStroke(2 + random.nextInt(8)));
+            g.draw(new CubicCurve2D.Double(
+                    random.nextInt(WIDTH),
+                    random.nextInt(HEIGHT),
+                    random.nextInt(WIDTH),
+                    random.nextInt(HEIGHT),
+                    random.nextInt(WIDTH),
+                    random.nextInt(HEIGHT),
+                    random.nextInt(WIDTH),
+                    random.nextInt(HEIGHT)));
+        }
+
+        // Blobs centered on band limits
+        for (int y = BAND_HEIGHT; y < HEIGHT; y += BAND_HEIGHT) {
+            final int x = 20 + random.nextInt(WIDTH - 40 - (3 * blobThickness));
+            g.fillOval(x, y - (blobThickness / 2), 3 * blobThickness, blobThickness);
+        }
+
+        g.dispose();
+
+        return new ByteProcessor(img);
+    }
+
+    @BeforeClass
+    public static void setUpClass ()
+    {
+        // Bands are processed by the executors, perhaps shut down by a previous test class
+        OmrExecutors.restart();
+    }
+
+    @AfterClass
+    public static void tearDownClass ()
+    {
+        OmrExecutors.shutdown();
+    }
+}
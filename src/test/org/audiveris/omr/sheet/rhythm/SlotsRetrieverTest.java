@@ -0,0 +1,168 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                               S l o t s R e t r i e v e r T e s t                              //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.sheet.rhythm;
+
+import org.audiveris.omr.OMR;
+import org.audiveris.omr.sheet.Book;
+import org.audiveris.omr.sheet.BookManager;
+import org.audiveris.omr.sheet.Sheet;
+import org.audiveris.omr.sheet.SheetStub;
+import org.audiveris.omr.sheet.SystemInfo;
+import org.audiveris.omr.sig.inter.AbstractChordInter;
+import org.audiveris.omr.step.OmrStep;
+import org.audiveris.omr.ui.symbol.MusicFont;
+import org.audiveris.omr.util.OmrExecutors;
+
+import org.junit.AfterClass;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class <code>SlotsRetrieverTest</code> checks that an incremental {@link SlotsRetriever#update()}
+ * leads to the same chords relationships as a retriever built from scratch.
+ *
+ * @author Hervé Bitteur
+ */
+public class SlotsRetrieverTest
+{
+    //~ Static fields/initializers -----------------------------------------------------------------
+
+    private static final Path INPUT = Paths.get("data/examples/chula.png");
+
+    private static Book book;
+
+    private static Sheet sheet;
+
+    //~ Constructors -------------------------------------------------------------------------------
+
+    /**
+     * Creates a new <code>SlotsRetrieverTest</code> object.
+     */
+    public SlotsRetrieverTest ()
+    {
+    }
+
+    //~ Methods ------------------------------------------------------------------------------------
+
+    /**
+     * Check every pair of chords against a fresh retriever.
+     */
+    private void checkSame (SlotsRetriever retriever,
+                            Measure measure,
+                            boolean wide,
+                            List<AbstractChordInter> chords)
+    {
+        final SlotsRetriever fresh = new SlotsRetriever(measure, wide);
+
+        for (AbstractChordInter from : chords) {
+            for (AbstractChordInter to : chords) {
+                if (from != to) {
+                    assertEquals(
+                            measure + " " + from + " " + to,
+                            fresh.getRel(from, to),
+                            retriever.getRel(from, to));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRemoveThenAdd ()
+    {
+        int checked = 0;
+        int incremental = 0;
+
+        for (SystemInfo system : sheet.getSystems()) {
+            for (MeasureStack stack : system.getStacks()) {
+                for (Measure measure : stack.getMeasures()) {
+                    final List<AbstractChordInter> chords = new ArrayList<>(
+                            measure.getStandardChords());
+
+                    if (chords.size() < 3) {
+                        continue;
+                    }
+
+                    for (boolean wide : new boolean[] { false, true }) {
+                        for (AbstractChordInter chord : chords) {
+                            final SlotsRetriever retriever = new SlotsRetriever(measure, wide);
+
+                            measure.removeInter(chord);
+
+                            if (retriever.update()) {
+                                incremental++;
+                            }
+
+                            checkSame(retriever, measure, wide, chords);
+
+                            measure.addInter(chord);
+
+                            if (retriever.update()) {
+                                incremental++;
+                            }
+
+                            checkSame(retriever, measure, wide, chords);
+                            checked++;
+                        }
+                    }
+                }
+            }
+        }
+
+        assertTrue("No measure checked", checked > 0);
+        assertTrue("No incremental update", incremental > 0);
+    }
+
+    //~ Static Methods -----------------------------------------------------------------------------
+
+    @BeforeClass
+    public static void setUpClass ()
+        throws Exception
+    {
+        OmrExecutors.restart();
+        OMR.engine = BookManager.getInstance();
+        MusicFont.checkMusicFont();
+
+        book = OMR.engine.loadInput(INPUT);
+        book.createStubs();
+
+        final SheetStub stub = book.getStubs().get(0);
+        assertTrue("Could not reach RHYTHMS", stub.reachStep(OmrStep.RHYTHMS, false));
+        sheet = stub.getSheet();
+    }
+
+    @AfterClass
+    public static void tearDownClass ()
+    {
+        if (book != null) {
+            book.close(null);
+        }
+
+        OmrExecutors.shutdown();
+    }
+}
@@ -0,0 +1,143 @@
+//------------------------------------------------------------------------------------------------//
+//                                                                                                //
+//                                      M e t r i c s T e s t                                     //
+//                                                                                                //
+//------------------------------------------------------------------------------------------------//
+// <editor-fold defaultstate="collapsed" desc="hdr">
+//
+//  Copyright © Audiveris 2023. All rights reserved.
+//
+//  This program is free software: you can redistribute it and/or modify it under the terms of the
+//  GNU Affero General Public License as published by the Free Software Foundation, either version
+//  3 of the License, or (at your option) any later version.
+//
+//  This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+//  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+//  See the GNU Affero General Public License for more details.
+//
+//  You should have received a copy of the GNU Affero General Public License along with this
+//  program.  If not, see <http://www.gnu.org/licenses/>.
+//------------------------------------------------------------------------------------------------//
+// </editor-fold>
+package org.audiveris.omr.util;
+
+import org.junit.After;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class <code>MetricsTest</code> checks that a sheet-level step record includes the
+ * allocations of its system steps run on other threads, and only once.
+ *
+ * @author Hervé Bitteur
+ */
+public class MetricsTest
+{
+
+    private static final Path CSV = Paths.get("data/temp/metrics/metrics.csv");
+
+    /** Bytes allocated by each system step. */
+    private static final int SYSTEM_ALLOC = 20_000_000;
+
+    /** To keep allocated arrays reachable. */
+    private static volatile byte[] sink;
+
+    /**
+     * Creates a new <code>MetricsTest</code> object.
+     */
+    public MetricsTest ()
+    {
+    }
+
+    /**
+     * Read back the allocated bytes of all step records, sheet-level record last.
+     */
+    private List<Long> allocations ()
+        throws Exception
+    {
+        Metrics.export(CSV);
+
+        final List<Long> allocs = new ArrayList<>();
+
+        for (String line : Files.readAllLines(CSV, StandardCharsets.UTF_8)) {
+            if (line.startsWith("step,")) {
+                allocs.add(Long.parseLong(line.split(",")[7]));
+            }
+        }
+
+        return allocs;
+    }
+
+    private void runSystem (String sheet,
+                            int system)
+    {
+        final Metrics.Probe probe = Metrics.start();
+        sink = new byte[SYSTEM_ALLOC];
+        Metrics.recordStep(probe, sheet, system, "TEST", 0, 0);
+    }
+
+    @Before
+    public void setUp ()
+    {
+        Metrics.reset();
+        Metrics.setEnabled(true);
+    }
+
+    @After
+    public void tearDown ()
+    {
+        Metrics.setEnabled(false);
+        Metrics.reset();
+    }
+
+    /**
+     * System steps run on separate threads are added to the sheet record.
+     */
+    @Test
+    public void testOtherThreads ()
+        throws Exception
+    {
+        final Metrics.Probe probe = Metrics.start("sheet#1");
+
+        for (int i = 1; i <= 2; i++) {
+            final int system = i;
+            final Thread thread = new Thread(() -> runSystem("sheet#1", system));
+            thread.start();
+            thread.join();
+        }
+
+        Metrics.recordStep(probe, "sheet#1", 0, "TEST", 0, 0);
+
+        final List<Long> allocs = allocations();
+        assertEquals(3, allocs.size());
+        assertTrue("sheet alloc " + allocs.get(2), allocs.get(2) >= (2L * SYSTEM_ALLOC));
+        assertTrue("sheet alloc " + allocs.get(2), allocs.get(2) < (3L * SYSTEM_ALLOC));
+    }
+
+    /**
+     * System steps run on the sheet thread are counted only once in the sheet record.
+     */
+    @Test
+    public void testSameThread ()
+        throws Exception
+    {
+        final Metrics.Probe probe = Metrics.start("sheet#1");
+        runSystem("sheet#1", 1);
+        runSystem("sheet#1", 2);
+        Metrics.recordStep(probe, "sheet#1", 0, "TEST", 0, 0);
+
+        final List<Long> allocs = allocations();
+        assertEquals(3, allocs.size());
+        assertTrue("sheet alloc " + allocs.get(2), allocs.get(2) >= (2L * SYSTEM_ALLOC));
+        assertTrue("sheet alloc " + allocs.get(2), allocs.get(2) < (3L * SYSTEM_ALLOC));
+    }
+}